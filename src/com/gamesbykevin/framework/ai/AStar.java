@@ -2,17 +2,17 @@ package com.gamesbykevin.framework.ai;
 
 import com.gamesbykevin.framework.base.Cell;
 import com.gamesbykevin.framework.maze.Room;
-import com.gamesbykevin.framework.maze.Room.Wall;
 import com.gamesbykevin.framework.resources.Disposable;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 /**
  * This is the A* algorithm.<br>
  * This is commonly used in video games for pathfinding.<br>
- * This algorithm will find the shortest path between two points on a 2d grid with obstacles
+ * This algorithm will find the shortest path between two points on a 2d grid with obstacles.<br>
+ * The grid can be the rooms of a maze, or any {@link IGrid} such as a tile map.<br>
+ * The search storage is held in a {@link SearchContext} which can be shared by many instances.
  * @author GOD
  */
 public class AStar implements Disposable
@@ -28,9 +28,9 @@ public class AStar implements Disposable
     private int goalColumn, goalRow;
     
     /**
-     * Our rooms upon which to identify the path
+     * Our grid upon which to identify the path
      */
-    private Room[][] rooms;
+    private IGrid grid;
     
     /**
      * Do we allow diagonal movement while pathfinding
@@ -38,14 +38,42 @@ public class AStar implements Disposable
     private boolean diagonal = false;
     
     /**
-     * List of open Nodes to check
+     * The different ways we can search for the path
      */
-    private List<Node> open;
+    public enum Mode
+    {
+        /**
+         * Every neighbor of each node is added to the open list
+         */
+        Standard,
+        
+        /**
+         * Jump point search, only the nodes where the path can change direction are added to the open list.<br>
+         * This finds a path with the same cost as standard, but expands far fewer nodes in open areas.
+         */
+        JumpPoint,
+        
+        /**
+         * Search forward from the start and backward from the goal at the same time, until the searches meet.<br>
+         * This expands fewer nodes when the start and goal are far apart.
+         */
+        Bidirectional
+    }
+    
+    /**
+     * The way we search for the path
+     */
+    private Mode mode = Mode.Standard;
+    
+    /**
+     * The storage used while searching
+     */
+    private SearchContext context;
     
     /**
-     * List of closed Nodes we have already checked
+     * Was the context assigned to us, if so we won't dispose it
      */
-    private List<Node> closed;
+    private boolean shared = false;
     
     /**
      * The additional cost to add when moving vertical or horizontal
@@ -62,6 +90,26 @@ public class AStar implements Disposable
      */
     private List<Cell> path;
     
+    /**
+     * This list will contain the best path found so far while stepping through a search
+     */
+    private List<Cell> partial;
+    
+    /**
+     * The connected rooms, used to check if the goal can be reached before searching, null if not assigned
+     */
+    private Reachability reachability;
+    
+    /**
+     * The landmark costs, used to improve the estimate of the remaining cost, null if not assigned
+     */
+    private Landmarks landmarks;
+    
+    /**
+     * The number of the search we started on the context when stepping, -1 if we have not started one
+     */
+    private long search = -1;
+    
     /**
      * Create the A* for pathfinding
      * @param start Start location
@@ -94,12 +142,25 @@ public class AStar implements Disposable
         //assign the room which to do path finding
         setRooms(rooms);
         
-        //create a new open and closed list
-        this.open = new ArrayList<>();
-        this.closed = new ArrayList<>();
-        
         //create a new path list
         this.path = new ArrayList<>();
+        this.partial = new ArrayList<>();
+    }
+    
+    /**
+     * Create the A* for pathfinding on any grid
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @param grid The locations where we need to identify the path
+     */
+    public AStar(final int startColumn, final int startRow, final int goalColumn, final int goalRow, final IGrid grid)
+    {
+        this(startColumn, startRow, goalColumn, goalRow, (Room[][])null);
+        
+        //assign the grid which to do path finding
+        setGrid(grid);
     }
     
     /**
@@ -119,6 +180,31 @@ public class AStar implements Disposable
     public final void setDiagonal(final boolean diagonal)
     {
         this.diagonal = diagonal;
+        
+        //any search in progress is no longer valid
+        this.search = -1;
+    }
+    
+    /**
+     * Assign the way we search for the path.<br>
+     * When using jump point or bidirectional search with diagonal movement, the heuristic will count diagonal moves so the shortest path is still found.
+     * @param mode The search mode
+     */
+    public final void setMode(final Mode mode)
+    {
+        this.mode = mode;
+        
+        //any search in progress is no longer valid
+        this.search = -1;
+    }
+    
+    /**
+     * Get the way we search for the path
+     * @return The search mode
+     */
+    public Mode getMode()
+    {
+        return this.mode;
     }
     
     /**
@@ -127,7 +213,28 @@ public class AStar implements Disposable
      */
     public final void setRooms(final Room[][] rooms)
     {
-        this.rooms = rooms;
+        setGrid((rooms != null) ? new RoomGrid(rooms) : null);
+    }
+    
+    /**
+     * Assign the grid
+     * @param grid The locations which we will identify the shortest path
+     */
+    public final void setGrid(final IGrid grid)
+    {
+        this.grid = grid;
+        
+        //any search in progress is no longer valid
+        this.search = -1;
+    }
+    
+    /**
+     * Get the grid
+     * @return The locations which we will identify the shortest path
+     */
+    public IGrid getGrid()
+    {
+        return this.grid;
     }
     
     /**
@@ -137,6 +244,9 @@ public class AStar implements Disposable
     public final void setStartColumn(final int startColumn)
     {
         this.startColumn = startColumn;
+        
+        //any search in progress is no longer valid
+        this.search = -1;
     }
     
     /**
@@ -146,6 +256,9 @@ public class AStar implements Disposable
     public final void setStartRow(final int startRow)
     {
         this.startRow = startRow;
+        
+        //any search in progress is no longer valid
+        this.search = -1;
     }
     
     /**
@@ -155,6 +268,9 @@ public class AStar implements Disposable
     public final void setGoalColumn(final int goalColumn)
     {
         this.goalColumn = goalColumn;
+        
+        //any search in progress is no longer valid
+        this.search = -1;
     }
     
     /**
@@ -164,386 +280,272 @@ public class AStar implements Disposable
     public final void setGoalRow(final int goalRow)
     {
         this.goalRow = goalRow;
+        
+        //any search in progress is no longer valid
+        this.search = -1;
     }
     
     /**
-     * Get the room at the specified location
-     * @param column Column
-     * @param row Row
-     * @return The room at the specified location, if out of bounds null is returned
+     * Assign the search context.<br>
+     * The context holds the storage used while searching, so many agents can share one context instead of each creating their own.
+     * @param context The context to use when searching, if null a new context will be created on the next search
      */
-    private Room getRoom(final int column, final int row)
+    public final void setContext(final SearchContext context)
     {
-        //if we don't have bounds, return null
-        if (!hasBounds(column, row))
-            return null;
+        //if we created our own context, it is no longer needed
+        if (this.context != null && !this.shared)
+            this.context.dispose();
+        
+        this.context = context;
+        this.shared = (context != null);
         
-        //get the specified room
-        return this.rooms[row][column];
+        //any search in progress is no longer valid
+        this.search = -1;
     }
     
     /**
-     * Start pathfinding to locate the shortest path
+     * Assign the connected rooms.<br>
+     * If the goal can't be reached from the start, the search is skipped and the shortest path will be empty.
+     * @param reachability The connected rooms of the same rooms we are searching, null to always search
      */
-    public void generate()
+    public final void setReachability(final Reachability reachability)
     {
-        //clear lists before we generate
-        open.clear();
-        closed.clear();
-        path.clear();
-        boolean start = false;
-        
-        //temporary node
-        Node node;
-        
-        //the current location
-        int column, row;
+        this.reachability = reachability;
         
-        //continue until we locate the path
-        while (true)
-        {
-            if (!start)
-            {
-                //assign the (column, row)
-                column = startColumn;
-                row = startRow;
-
-                //create the start node
-                node = new Node(column, row, null, 0, getHeuristic(column, row));
-
-                //flag true
-                start = true;
-            }
-            else 
-            {
-                /**
-                 * Identify the lowest cost node
-                 */
-                node = getLowestCost();
-
-                //assign the (column, row)
-                column = node.getColumn();
-                row = node.getRow();
-            }
-
-            //remove this node from the open list
-            removeOpen(node);
-
-            //add this node to the closed list
-            addClosed(node);
-
-            //if we found the goal and added it to the closed list
-            if (column == goalColumn && row == goalRow)
-            {
-                //get the node from the closed list
-                node = getClosed(column, row);
-
-                /**
-                 * Start with the goal node added and follow the parent backwards until you get back to the start.<br>
-                 * This will create the shortest path
-                 */
-                while (column != startColumn || row != startRow)
-                {
-                    //add this location to the path
-                    path.add(new Cell(column, row));
-
-                    //get the parent node
-                    node = getClosed(node.getParentId());
-
-                    //now assign the new location
-                    column = node.getColumn();
-                    row = node.getRow();
-                }
-
-                //add this location to the path
-                path.add(new Cell(column, row));
-
-                //exit the loop
-                break;
-            }
-            else
-            {
-                //get the current room so we can determine the valid movement options
-                Room room = getRoom(column, row);
-
-                //if there is no wall, add it to the open list
-                if (!room.hasWall(Wall.East))
-                    addOpen(column + 1, row, node, MOVE_VERTICAL_HORIZONTAL);
-                if (!room.hasWall(Wall.West))
-                    addOpen(column - 1, row, node, MOVE_VERTICAL_HORIZONTAL);
-                if (!room.hasWall(Wall.North))
-                    addOpen(column, row - 1, node, MOVE_VERTICAL_HORIZONTAL);
-                if (!room.hasWall(Wall.South))
-                    addOpen(column, row + 1, node, MOVE_VERTICAL_HORIZONTAL);
-
-                /**
-                 * Make sure diagonal movement is allowed before checking
-                 */
-                if (diagonal)
-                {
-                    if (!room.hasWall(Wall.East) && !room.hasWall(Wall.North))
-                        addOpen(column + 1, row - 1, node, MOVE_DIAGONAL);
-                    if (!room.hasWall(Wall.West) && !room.hasWall(Wall.North))
-                        addOpen(column - 1, row - 1, node, MOVE_DIAGONAL);
-                    if (!room.hasWall(Wall.East) && !room.hasWall(Wall.South))
-                        addOpen(column + 1, row + 1, node, MOVE_DIAGONAL);
-                    if (!room.hasWall(Wall.West) && !room.hasWall(Wall.South))
-                        addOpen(column - 1, row + 1, node, MOVE_DIAGONAL);
-                }
-            }
-        }
+        //any search in progress is no longer valid
+        this.search = -1;
     }
     
     /**
-     * Remove the node from the open list
-     * @param node The node we want to remove
+     * Get the connected rooms
+     * @return The connected rooms used to check if the goal can be reached, null if not assigned
      */
-    private void removeOpen(final Node node)
+    public Reachability getReachability()
     {
-        for (int index = 0; index < open.size(); index++)
-        {
-            //if the locations match, remove it from the open list
-            if (open.get(index).hasLocation(node))
-                open.remove(index);
-        }
+        return this.reachability;
     }
     
     /**
-     * Get the node with the lowest cost
-     * @return The node with the lowest cost in the open list
+     * Assign the landmark costs.<br>
+     * In a twisty maze the landmark costs are much closer to the real cost than the distance, so far fewer nodes are expanded.<br>
+     * They are only used while they are valid for the search, see {@link SearchContext#begin(Room[][], int, int, int, int, boolean, Mode, Landmarks)}.
+     * @param landmarks The landmark costs of the same rooms we are searching, null to only use the distance
      */
-    private Node getLowestCost()
+    public final void setLandmarks(final Landmarks landmarks)
     {
-        //the winning node
-        Node node = null;
-        
-        for (int index = 0; index < open.size(); index++)
-        {
-            //get the current node
-            Node tmp = open.get(index);
-            
-            //if this node has a lower cost
-            if (node == null || tmp.getCost() < node.getCost())
-            {
-                //assign the winning node
-                node = tmp;
-            }
-        }
+        this.landmarks = landmarks;
         
-        //return the winnning node
-        return node;
+        //any search in progress is no longer valid
+        this.search = -1;
     }
     
     /**
-     * Add this location to the open list
-     * @param column Column
-     * @param row Row
-     * @param parent The parent node
-     * @param movementCost The movement cost
+     * Get the landmark costs
+     * @return The landmark costs used to improve the estimate, null if not assigned
      */
-    private void addOpen(final int column, final int row, final Node parent, final int movementCost)
+    public Landmarks getLandmarks()
     {
-        //if this location is on the closed list, we won't add to open
-        if (hasClosed(column, row))
-            return;
-        
-        /**
-         * If the location is already in the open list, <br>
-         * we need to check and see if the movement is better than 
-         */
-        if (hasOpen(column, row))
-        {
-            /**
-             * If the new movement cost is lower than the existing, we need to update the existing node
-             */
-            if (parent.getMovement() + movementCost < getOpen(column, row).getMovement())
-            {
-               //assign the new movement cost
-               getOpen(column, row).setMovement(parent.getMovement() + movementCost); 
-               
-               //assign the new parent
-               getOpen(column, row).setParentId(parent);
-               
-               //no need to continue
-               return;
-            }
-        }
-        
-        //add this node to the open list with the calculated cost
-        open.add(new Node(column, row, parent, movementCost, getHeuristic(column, row)));
+        return this.landmarks;
     }
     
     /**
-     * Add node to the closed list
-     * @param node The node we want to add
+     * Get the search context
+     * @return The context used when searching, null if no search has been performed and no context was assigned
      */
-    private void addClosed(final Node node)
+    public SearchContext getContext()
     {
-        closed.add(node);
+        return this.context;
     }
     
     /**
-     * Is this location in our closed list?
-     * @param column Column
-     * @param row Row
-     * @return true if a node with the matching (column, row) exists in this list, false otherwise
+     * Start pathfinding to locate the shortest path.<br>
+     * If the goal can't be reached the shortest path will be empty.
      */
-    private boolean hasClosed(final int column, final int row)
+    public void generate()
     {
-        for (int index = 0; index < closed.size(); index++)
+        //perform the search
+        if (!locate())
         {
-            if (closed.get(index).hasLocation(column, row))
-                return true;
+            path.clear();
+            return;
         }
         
-        return false;
+        //now store the shortest path
+        context.getPath(path);
     }
     
     /**
-     * Is this location in our open list?
-     * @param column Column
-     * @param row Row
-     * @return true if a node with the matching (column, row) exists in this list, false otherwise
+     * Start pathfinding and store the shortest path as packed location indices (row * columns + column), so no objects are created.<br>
+     * The first index will be the goal, the last index will be the start.<br>
+     * The list returned by {@link #getShortestPath()} will be empty.
+     * @param path The buffer to fill, if it is too small only the first locations that fit are stored
+     * @return The number of locations in the shortest path, 0 if the goal can't be reached
      */
-    private boolean hasOpen(final int column, final int row)
+    public int generate(final int[] path)
     {
-        return (getOpen(column, row) != null);
+        this.path.clear();
+        
+        return (locate()) ? context.getPath(path) : 0;
     }
     
     /**
-     * Get the node from the closed list
-     * @param id The id of the node we are looking for
-     * @return The node in the list, if not found return null
+     * Start pathfinding and store only the corners of the shortest path as packed location indices (row * columns + column).<br>
+     * Straight runs are removed, so moving between each waypoint in a straight line follows the shortest path.<br>
+     * The first index will be the goal, the last index will be the start.<br>
+     * The list returned by {@link #getShortestPath()} will be empty.
+     * @param waypoints The buffer to fill, if it is too small only the first waypoints that fit are stored
+     * @return The number of waypoints in the shortest path, 0 if the goal can't be reached
      */
-    private Node getClosed(final UUID id)
+    public int generateWaypoints(final int[] waypoints)
     {
-        for (int index = 0; index < closed.size(); index++)
-        {
-            //if this node has the specified id
-            if (closed.get(index).hasId(id))
-                return closed.get(index);
-        }
+        this.path.clear();
         
-        //nothing found, return null
-        return null;
+        return (locate()) ? context.getWaypoints(waypoints) : 0;
     }
-
+    
     /**
-     * Get the node from the closed list at the specified location
-     * @param column Column
-     * @param row Row
-     * @return The node in the list at the specified location, if not found return null
+     * Start pathfinding to the nearest of many goals with a single search, ignoring the assigned goal.<br>
+     * The shortest path will lead to the nearest goal, or be empty if no goal can be reached.
+     * @param goals The index (row * columns + column) of each goal
+     * @param count The number of goals in the array
+     * @return The position in the array of the nearest goal, -1 if no goal can be reached
      */
-    private Node getClosed(final int column, final int row)
+    public int generateNearest(final int[] goals, final int count)
     {
-        for (int index = 0; index < closed.size(); index++)
+        //create our own context if one was not assigned
+        if (context == null)
         {
-            //if this node has the location
-            if (closed.get(index).hasLocation(column, row))
-                return closed.get(index);
+            this.context = new SearchContext(grid.getColumns() * grid.getRows());
+            this.shared = false;
         }
         
-        //nothing found, return null
-        return null;
+        //any search in progress is replaced
+        this.search = -1;
+        this.path.clear();
+        
+        final int nearest = context.searchNearest(grid, startColumn, startRow, goals, count, diagonal);
+        
+        //now store the shortest path
+        if (nearest >= 0)
+            context.getPath(path);
+        
+        return nearest;
     }
     
     /**
-     * Get the node in our open list with the matching (column, row)
-     * @param column Column
-     * @param row Row
-     * @return The node at the specified (column, row), if no node is found null is returned
+     * Perform a complete search
+     * @return true if the shortest path was found, false otherwise
      */
-    private Node getOpen(final int column, final int row)
+    private boolean locate()
     {
-        for (int index = 0; index < open.size(); index++)
+        //create our own context if one was not assigned
+        if (context == null)
         {
-            if (open.get(index).hasLocation(column, row))
-                return open.get(index);
+            this.context = new SearchContext(grid.getColumns() * grid.getRows());
+            this.shared = false;
         }
         
-        //return null
-        return null;
+        //any search in progress is replaced
+        this.search = -1;
+        
+        //if the goal can't be reached, there is no need to search
+        if (!isReachable())
+            return false;
+        
+        return context.search(grid, startColumn, startRow, goalColumn, goalRow, diagonal, mode, landmarks);
     }
     
     /**
-     * Get the heuristic.<br>
-     * This is the number of cells to move until we reach the goal.<br>
-     * Diagonal movement is not allowed in this calculation.
-     * @param column Column
-     * @param row Row
-     * @return The calculated heuristic
+     * Continue pathfinding under a fixed budget, so a search can be spread across many updates.<br>
+     * A new search is started if we have not started one, the settings changed, or a shared context was used by another search.<br>
+     * Once complete the shortest path is available the same as {@link #generate()}.
+     * @param maxExpansions The maximum number of nodes to expand during this step
+     * @return true if the search is complete, false otherwise
      */
-    private int getHeuristic(final int column, final int row)
+    public boolean step(final int maxExpansions)
     {
-        //calculate the horizontal lengh from the specified column to the goal column
-        int horizontal = (goalColumn > column) ? goalColumn - column : column - goalColumn;
+        //create our own context if one was not assigned
+        if (context == null)
+        {
+            this.context = new SearchContext(grid.getColumns() * grid.getRows());
+            this.shared = false;
+        }
         
-        //calculate the vertical lengh from the specified row to the goal row
-        int vertical = (goalRow > row) ? goalRow - row : row - goalRow;
+        //start a new search if ours is no longer on the context
+        if (search < 0 || search != context.getSearches())
+        {
+            context.begin(grid, startColumn, startRow, goalColumn, goalRow, diagonal, mode, landmarks);
+            this.search = context.getSearches();
+            this.path.clear();
+            
+            //if the goal can't be reached, the search is already complete
+            if (!isReachable())
+                context.cancel();
+        }
+        
+        //continue the search
+        if (context.step(maxExpansions))
+        {
+            //now store the shortest path
+            context.getPath(path);
+            return true;
+        }
         
-        //return the calculated heuristic
-        return ((horizontal + vertical) * MOVE_VERTICAL_HORIZONTAL);
+        return false;
     }
     
     /**
-     * Do we have bounds?
-     * @param column Column
-     * @param row Row
-     * @return true if the location is within the Room, false otherwise
+     * Can the goal be reached from the start
+     * @return false if the connected rooms show the goal can't be reached, otherwise true
      */
-    private boolean hasBounds(final int column, final int row)
+    private boolean isReachable()
     {
-        if (column < 0)
-            return false;
-        if (row < 0)
-            return false;
-        if (column > rooms[0].length - 1)
-            return false;
-        if (row > rooms.length - 1)
-            return false;
-        
-        //we have a valid location
-        return true;
+        return (reachability == null || reachability.isReachable(startColumn, startRow, goalColumn, goalRow));
     }
     
-    @Override
-    public void dispose()
+    /**
+     * Is the search started by {@link #step(int)} complete?
+     * @return true if the search is complete, false if more steps are needed or no search was started
+     */
+    public boolean isComplete()
+    {
+        return (context != null && search >= 0 && search == context.getSearches() && context.isComplete());
+    }
+    
+    /**
+     * Get the best path found so far by {@link #step(int)}.<br>
+     * While the search is not complete this leads to the location closest to the goal, so an agent can start moving.<br>
+     * The first cell in the list will be the closest location, the last cell in the list will be the start
+     * @return A list of the best path found so far, empty if no search was started
+     */
+    public List<Cell> getPartialPath()
     {
-        if (rooms != null)
+        //only use the context if it still holds our search
+        if (context != null && search >= 0 && search == context.getSearches())
         {
-            for (int row = 0; row < rooms.length; row++)
-            {
-                for (int col = 0; col < rooms[0].length; col++)
-                {
-                    rooms[row][col].dispose();
-                    rooms[row][col] = null;
-                }
-            }
-            
-            rooms = null;
+            context.getPartialPath(partial);
         }
-        
-        if (open != null)
+        else
         {
-            for (int index = 0; index < open.size(); index++)
-            {
-                open.set(index, null);
-            }
-
-            open.clear();
-            open = null;
+            partial.clear();
         }
         
-        if (closed != null)
-        {
-            for (int index = 0; index < closed.size(); index++)
-            {
-                closed.set(index, null);
-            }
-
-            closed.clear();
-            closed = null;
-        }
+        return this.partial;
+    }
+    
+    @Override
+    public void dispose()
+    {
+        //the grid may be shared with other objects, so we only remove our reference
+        grid = null;
+        
+        //only dispose the context if we created it
+        if (context != null && !shared)
+            context.dispose();
+        
+        context = null;
+        reachability = null;
+        landmarks = null;
         
         if (path != null)
         {
@@ -555,5 +557,11 @@ public class AStar implements Disposable
             path.clear();
             path = null;
         }
+        
+        if (partial != null)
+        {
+            partial.clear();
+            partial = null;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,756 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.maze.IRoomListener;
+import com.gamesbykevin.framework.maze.IWallListener;
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.resources.Disposable;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Plan the paths of many agents moving through the same rooms so they don't run into each other (windowed cooperative A*).<br>
+ * Each agent searches through space and time for the next few moves (the window), where waiting in place is also a move,<br>
+ * and then reserves the location it will be in at each time, so the agents that plan after it will move around it.<br>
+ * The remaining cost after the window is the real cost to the goal, calculated once for each goal and shared by every agent with that goal.<br>
+ * An agent plans again once it has followed half of its window, so only a few agents are planning during each update.
+ * @author GOD
+ */
+public final class CooperativeAStar implements Disposable, IRoomListener, IWallListener
+{
+    /**
+     * The default number of goal distances to store
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+    
+    /**
+     * The (x, y) of each direction, the first 4 are horizontal/vertical and the last 4 are diagonal
+     */
+    private static final int[] DIRECTIONS_X = {1, -1, 0, 0, 1, -1, 1, -1};
+    private static final int[] DIRECTIONS_Y = {0, 0, -1, 1, -1, -1, 1, 1};
+    
+    /**
+     * Our rooms to search
+     */
+    private Room[][] rooms;
+    
+    /**
+     * The maze notifying us of wall changes, null if the rooms were assigned directly
+     */
+    private Maze maze;
+    
+    /**
+     * Are we allowed to move diagonal
+     */
+    private final boolean diagonal;
+    
+    /**
+     * The size of the rooms
+     */
+    private final int columns, rows;
+    
+    /**
+     * The number of moves each agent plans, and the number of times in each plan (window + 1)
+     */
+    private final int window, depth;
+    
+    /**
+     * The maximum number of goal distances to store
+     */
+    private final int capacity;
+    
+    /**
+     * The agent that reserved each (location, time), and the time it was reserved for.<br>
+     * Indexed by (location * depth) + (time % depth), a reservation is only valid if the time matches.
+     */
+    private int[] reservations, times;
+    
+    /**
+     * The agent (plus 1) that will wait at each location after the end of its plan, 0 if none.<br>
+     * An agent stays at the last location of its plan until it plans again, so no other agent can plan to move there.
+     */
+    private int[] parked;
+    
+    /**
+     * The location, goal, planned locations (agent * depth + time), and the time the plan was made of each agent
+     */
+    private int[] locations, goals, plans, planned;
+    
+    /**
+     * Does each agent need to plan again during the next update
+     */
+    private boolean[] replan;
+    
+    /**
+     * The number of agents
+     */
+    private int count = 0;
+    
+    /**
+     * The current time
+     */
+    private int time = 0;
+    
+    /**
+     * The cost from every location to each goal, ordered from least to most recently used
+     */
+    private LinkedHashMap<Integer, FlowField> distances;
+    
+    /**
+     * The node at each (location * depth) + time, the movement cost and the parent
+     */
+    private int[] costs, parents, stamps;
+    private int generation = 0;
+    private IndexedHeap open;
+    
+    /**
+     * Has a wall changed since the last update
+     */
+    private boolean dirty = false;
+    
+    /**
+     * The number of nodes expanded during the last update
+     */
+    private int expanded = 0;
+    
+    /**
+     * Create a planner, the maze will notify us when the walls change
+     * @param maze The maze to search
+     * @param window The number of moves each agent plans ahead
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @throws Exception If the window is less than 1
+     */
+    public CooperativeAStar(final Maze maze, final int window, final boolean diagonal) throws Exception
+    {
+        this(maze.getRooms(), window, diagonal);
+        
+        //we want to know when the walls change
+        this.maze = maze;
+        this.maze.addWallListener(this);
+    }
+    
+    /**
+     * Create a planner.<br>
+     * If the walls change, {@link #onWallChange(Room)} needs to be called so every agent plans again.
+     * @param rooms The rooms to search, these will not be modified
+     * @param window The number of moves each agent plans ahead
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @throws Exception If the window is less than 1
+     */
+    public CooperativeAStar(final Room[][] rooms, final int window, final boolean diagonal) throws Exception
+    {
+        this(rooms, window, diagonal, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Create a planner.<br>
+     * If the walls change, {@link #onWallChange(Room)} needs to be called so every agent plans again.
+     * @param rooms The rooms to search, these will not be modified
+     * @param window The number of moves each agent plans ahead
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @param capacity The maximum number of goal distances to store
+     * @throws Exception If the window or capacity is less than 1
+     */
+    public CooperativeAStar(final Room[][] rooms, final int window, final boolean diagonal, final int capacity) throws Exception
+    {
+        if (window < 1)
+            throw new Exception("The window must be at least 1 move");
+        if (capacity < 1)
+            throw new Exception("We must be able to store at least 1 goal");
+        
+        this.rooms = rooms;
+        this.diagonal = diagonal;
+        this.rows = rooms.length;
+        this.columns = rooms[0].length;
+        this.window = window;
+        this.depth = window + 1;
+        this.capacity = capacity;
+        
+        this.reservations = new int[columns * rows * depth];
+        this.times = new int[columns * rows * depth];
+        this.parked = new int[columns * rows];
+        this.costs = new int[columns * rows * depth];
+        this.parents = new int[columns * rows * depth];
+        this.stamps = new int[columns * rows * depth];
+        this.open = new IndexedHeap(columns * rows * depth);
+        
+        this.locations = new int[16];
+        this.goals = new int[16];
+        this.planned = new int[16];
+        this.plans = new int[16 * depth];
+        this.replan = new boolean[16];
+        
+        //no location is reserved yet
+        Arrays.fill(times, -1);
+        
+        //order by access, removing the least recently used goal once full
+        this.distances = new LinkedHashMap<Integer, FlowField>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Integer, FlowField> eldest)
+            {
+                if (size() <= getCapacity())
+                    return false;
+                
+                eldest.getValue().dispose();
+                return true;
+            }
+        };
+    }
+    
+    /**
+     * Get the maximum number of goal distances to store
+     * @return The maximum number of goals
+     */
+    public int getCapacity()
+    {
+        return this.capacity;
+    }
+    
+    /**
+     * Add an agent, it will plan during the next update
+     * @param column Column
+     * @param row Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @return The id of the agent
+     * @throws Exception If either location is outside of the rooms, or another agent is already at the location
+     */
+    public int addAgent(final int column, final int row, final int goalColumn, final int goalRow) throws Exception
+    {
+        if (!hasBounds(column, row) || !hasBounds(goalColumn, goalRow))
+            throw new Exception("The agent and goal must be within the rooms");
+        if (getReservation(column, row, time) >= 0)
+            throw new Exception("Another agent is already at this location");
+        
+        //make sure we have enough storage
+        if (count == locations.length)
+        {
+            locations = Arrays.copyOf(locations, count * 2);
+            goals = Arrays.copyOf(goals, count * 2);
+            planned = Arrays.copyOf(planned, count * 2);
+            plans = Arrays.copyOf(plans, count * 2 * depth);
+            replan = Arrays.copyOf(replan, count * 2);
+        }
+        
+        final int agent = count++;
+        
+        locations[agent] = getIndex(column, row);
+        goals[agent] = getIndex(goalColumn, goalRow);
+        
+        //until the agent plans, it waits where it is
+        hold(agent);
+        replan[agent] = true;
+        
+        return agent;
+    }
+    
+    /**
+     * Assign a new goal, the agent will plan again during the next update
+     * @param agent The id of the agent
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @throws Exception If the goal is outside of the rooms
+     */
+    public void setGoal(final int agent, final int goalColumn, final int goalRow) throws Exception
+    {
+        if (!hasBounds(goalColumn, goalRow))
+            throw new Exception("The goal must be within the rooms");
+        
+        goals[agent] = getIndex(goalColumn, goalRow);
+        
+        //plan again during the next update
+        replan[agent] = true;
+    }
+    
+    /**
+     * A wall has changed, every agent will plan again during the next update
+     * @param room The room that has changed
+     */
+    @Override
+    public void onWallChange(final Room room)
+    {
+        onWallChange(room.getCol(), room.getRow());
+    }
+    
+    /**
+     * A wall has changed, every agent will plan again during the next update
+     * @param col Column
+     * @param row Row
+     */
+    @Override
+    public void onWallChange(final int col, final int row)
+    {
+        if (hasBounds(col, row))
+            dirty = true;
+    }
+    
+    /**
+     * Move every agent 1 step.<br>
+     * Each agent that has followed half of its window (or has a new goal) plans again first, in the order they were added.
+     */
+    public void update()
+    {
+        expanded = 0;
+        
+        //the distances and plans are no longer correct
+        if (dirty)
+        {
+            for (FlowField field : distances.values())
+            {
+                field.dispose();
+            }
+            
+            distances.clear();
+            
+            //the previous plans may go through a wall, so every agent waits until it plans again
+            for (int agent = 0; agent < count; agent++)
+            {
+                hold(agent);
+                replan[agent] = true;
+            }
+            
+            dirty = false;
+        }
+        
+        for (int agent = 0; agent < count; agent++)
+        {
+            //plan again once half of the window has been followed
+            if (replan[agent] || time - planned[agent] >= Math.max(1, window / 2))
+                plan(agent);
+        }
+        
+        time++;
+        
+        //every agent moves to the next location of the plan
+        for (int agent = 0; agent < count; agent++)
+        {
+            locations[agent] = plans[agent * depth + (time - planned[agent])];
+        }
+    }
+    
+    /**
+     * Get the number of agents
+     * @return The number of agents added
+     */
+    public int getAgentCount()
+    {
+        return this.count;
+    }
+    
+    /**
+     * Get the column of the agent
+     * @param agent The id of the agent
+     * @return The current column
+     */
+    public int getColumn(final int agent)
+    {
+        return locations[agent] % columns;
+    }
+    
+    /**
+     * Get the row of the agent
+     * @param agent The id of the agent
+     * @return The current row
+     */
+    public int getRow(final int agent)
+    {
+        return locations[agent] / columns;
+    }
+    
+    /**
+     * Has the agent reached the goal
+     * @param agent The id of the agent
+     * @return true if the agent is at the goal, false otherwise
+     */
+    public boolean hasGoal(final int agent)
+    {
+        return (locations[agent] == goals[agent]);
+    }
+    
+    /**
+     * Get the agent that reserved the location
+     * @param column Column
+     * @param row Row
+     * @param time The time, between the current time and the current time plus the window
+     * @return The id of the agent, -1 if the location is not reserved
+     */
+    public int getReservation(final int column, final int row, final int time)
+    {
+        if (!hasBounds(column, row))
+            return -1;
+        
+        final int slot = getSlot(getIndex(column, row), time);
+        
+        return (times[slot] == time) ? reservations[slot] : -1;
+    }
+    
+    /**
+     * Get the number of moves each agent plans
+     * @return The window
+     */
+    public int getWindow()
+    {
+        return this.window;
+    }
+    
+    /**
+     * Get the current time
+     * @return The number of updates performed
+     */
+    public int getTime()
+    {
+        return this.time;
+    }
+    
+    /**
+     * Get the number of nodes expanded
+     * @return The number of nodes expanded during the last update
+     */
+    public int getExpanded()
+    {
+        return this.expanded;
+    }
+    
+    /**
+     * Search through space and time for the next moves of the agent, and reserve them
+     * @param agent The id of the agent
+     */
+    private void plan(final int agent)
+    {
+        replan[agent] = false;
+        
+        final int start = locations[agent];
+        final int goal = goals[agent];
+        final FlowField field = getDistances(goal);
+        
+        //start a new search
+        if (generation == Integer.MAX_VALUE)
+        {
+            Arrays.fill(stamps, 0);
+            generation = 0;
+        }
+        
+        generation++;
+        open.clear();
+        
+        int last = -1;
+        
+        //only search if the goal can be reached
+        if (field.getDistance(start % columns, start / columns) != FlowField.UNREACHABLE)
+        {
+            addOpen(start * depth, 0, -1, field);
+            
+            while (!open.isEmpty())
+            {
+                final int node = open.pop();
+                final int cell = node / depth;
+                final int step = node % depth;
+                
+                expanded++;
+                
+                //we have planned the whole window
+                if (step == window)
+                {
+                    last = node;
+                    break;
+                }
+                
+                final int column = cell % columns;
+                final int row = cell / columns;
+                
+                //wait in place, this costs nothing once we are at the goal
+                if (isFree(agent, cell, cell, time + step))
+                    addOpen(node + 1, costs[node] + ((cell == goal) ? 0 : AStar.MOVE_VERTICAL_HORIZONTAL), node, field);
+                
+                for (int direction = 0; direction < (diagonal ? DIRECTIONS_X.length : 4); direction++)
+                {
+                    if (!canMove(column, row, direction))
+                        continue;
+                    
+                    final int neighbor = getIndex(column + DIRECTIONS_X[direction], row + DIRECTIONS_Y[direction]);
+                    
+                    if (!isFree(agent, cell, neighbor, time + step))
+                        continue;
+                    
+                    addOpen((neighbor * depth) + step + 1, costs[node] + ((direction < 4) ? AStar.MOVE_VERTICAL_HORIZONTAL : AStar.MOVE_DIAGONAL), node, field);
+                }
+            }
+        }
+        
+        //if there is no plan, keep following the previous plan, or wait where we are once it runs out
+        if (last < 0)
+        {
+            if (time - planned[agent] >= window)
+                hold(agent);
+            
+            return;
+        }
+        
+        //remove the reservations of the previous plan
+        release(agent);
+        
+        planned[agent] = time;
+        
+        //store the plan, from the last node back to the start
+        for (int node = last; node >= 0; node = parents[node])
+        {
+            plans[agent * depth + (node % depth)] = node / depth;
+        }
+        
+        reserve(agent);
+    }
+    
+    /**
+     * Plan to wait at the current location for the whole window
+     * @param agent The id of the agent
+     */
+    private void hold(final int agent)
+    {
+        release(agent);
+        
+        planned[agent] = time;
+        
+        for (int step = 0; step < depth; step++)
+        {
+            plans[agent * depth + step] = locations[agent];
+        }
+        
+        reserve(agent);
+    }
+    
+    /**
+     * Remove the reservations of the plan that have not been followed yet
+     * @param agent The id of the agent
+     */
+    private void release(final int agent)
+    {
+        final int last = plans[agent * depth + window];
+        
+        if (parked[last] == agent + 1)
+            parked[last] = 0;
+        
+        for (int step = Math.max(0, time - planned[agent]); step < depth; step++)
+        {
+            final int slot = getSlot(plans[agent * depth + step], planned[agent] + step);
+            
+            if (times[slot] == planned[agent] + step && reservations[slot] == agent)
+                times[slot] = -1;
+        }
+    }
+    
+    /**
+     * Reserve every location of the plan.<br>
+     * If another agent reserved the same location, it will plan again during the next update.
+     * @param agent The id of the agent
+     */
+    private void reserve(final int agent)
+    {
+        for (int step = 0; step < depth; step++)
+        {
+            final int slot = getSlot(plans[agent * depth + step], planned[agent] + step);
+            
+            if (times[slot] == planned[agent] + step && reservations[slot] != agent)
+                replan[reservations[slot]] = true;
+            
+            reservations[slot] = agent;
+            times[slot] = planned[agent] + step;
+        }
+        
+        parked[plans[agent * depth + window]] = agent + 1;
+    }
+    
+    /**
+     * Can the agent move from the location to the neighbor without running into another agent
+     * @param agent The id of the agent
+     * @param cell The location at the time
+     * @param neighbor The location after the move, the same as the location when waiting
+     * @param time The time before the move
+     * @return true if the neighbor is not reserved after the move, and no agent moves the other way at the same time
+     */
+    private boolean isFree(final int agent, final int cell, final int neighbor, final int time)
+    {
+        //another agent will be at the neighbor
+        final int other = getAgent(neighbor, time + 1);
+        
+        if (other >= 0 && other != agent)
+            return false;
+        
+        //another agent will still be waiting at the neighbor after the end of its plan
+        final int waiting = parked[neighbor] - 1;
+        
+        if (waiting >= 0 && waiting != agent && time + 1 > planned[waiting] + window)
+            return false;
+        
+        //another agent is moving from the neighbor to this location
+        if (neighbor != cell)
+        {
+            final int swap = getAgent(neighbor, time);
+            
+            if (swap >= 0 && swap != agent && getAgent(cell, time + 1) == swap)
+                return false;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Get the agent that reserved the location
+     * @param cell The index of the location
+     * @param time The time
+     * @return The id of the agent, -1 if the location is not reserved
+     */
+    private int getAgent(final int cell, final int time)
+    {
+        final int slot = getSlot(cell, time);
+        
+        return (times[slot] == time) ? reservations[slot] : -1;
+    }
+    
+    /**
+     * Add the node to the open list if this is the cheapest way to reach it
+     * @param node The index of the node (location * depth + time)
+     * @param cost The movement cost from the start
+     * @param parent The index of the parent node, -1 if this is the start
+     * @param field The distance from every location to the goal
+     */
+    private void addOpen(final int node, final int cost, final int parent, final FlowField field)
+    {
+        final int cell = node / depth;
+        final int distance = field.getDistance(cell % columns, cell / columns);
+        
+        //we can't reach the goal from here
+        if (distance == FlowField.UNREACHABLE)
+            return;
+        
+        //only continue if this is an improvement
+        if (stamps[node] == generation && cost >= costs[node])
+            return;
+        
+        stamps[node] = generation;
+        costs[node] = cost;
+        parents[node] = parent;
+        
+        //prefer the node further along in time when the estimate is the same
+        open.push(node, ((long)(cost + distance) << 32) | (window - (node % depth)));
+    }
+    
+    /**
+     * Get the cost from every location to the goal, calculating it if not stored
+     * @param goal The index of the goal
+     * @return The distances to the goal
+     */
+    private FlowField getDistances(final int goal)
+    {
+        FlowField field = distances.get(goal);
+        
+        if (field == null)
+        {
+            field = new FlowField(rooms, diagonal);
+            field.generate(goal % columns, goal / columns);
+            distances.put(goal, field);
+        }
+        
+        return field;
+    }
+    
+    /**
+     * Get the slot of the reservation table
+     * @param cell The index of the location
+     * @param time The time
+     * @return The index of the slot
+     */
+    private int getSlot(final int cell, final int time)
+    {
+        return (cell * depth) + (time % depth);
+    }
+    
+    /**
+     * Can we move from the location in the specified direction
+     * @param column Column
+     * @param row Row
+     * @param direction The direction index
+     * @return true if both locations are in bounds and there is no wall in the way, otherwise false
+     */
+    private boolean canMove(final int column, final int row, final int direction)
+    {
+        final int x = DIRECTIONS_X[direction];
+        final int y = DIRECTIONS_Y[direction];
+        
+        //we can't move outside of the rooms
+        if (!hasBounds(column + x, row + y))
+            return false;
+        
+        final Room room = rooms[row][column];
+        
+        if (x > 0 && room.hasWall(Wall.East))
+            return false;
+        if (x < 0 && room.hasWall(Wall.West))
+            return false;
+        if (y < 0 && room.hasWall(Wall.North))
+            return false;
+        if (y > 0 && room.hasWall(Wall.South))
+            return false;
+        
+        return true;
+    }
+    
+    /**
+     * Get the index of the location
+     * @param column Column
+     * @param row Row
+     * @return The index (row * columns + column)
+     */
+    private int getIndex(final int column, final int row)
+    {
+        return (row * columns) + column;
+    }
+    
+    /**
+     * Is the location within the rooms
+     * @param column Column
+     * @param row Row
+     * @return true if the location is in bounds, otherwise false
+     */
+    private boolean hasBounds(final int column, final int row)
+    {
+        return (column >= 0 && column < columns && row >= 0 && row < rows);
+    }
+    
+    @Override
+    public void dispose()
+    {
+        //we no longer want to know when the walls change
+        if (maze != null)
+            maze.removeWallListener(this);
+        
+        if (distances != null)
+        {
+            for (FlowField field : distances.values())
+            {
+                field.dispose();
+            }
+            
+            distances.clear();
+            distances = null;
+        }
+        
+        maze = null;
+        rooms = null;
+        reservations = null;
+        times = null;
+        parked = null;
+        locations = null;
+        goals = null;
+        plans = null;
+        planned = null;
+        replan = null;
+        costs = null;
+        parents = null;
+        stamps = null;
+        open = null;
+    }
+}
\ No newline at end of file
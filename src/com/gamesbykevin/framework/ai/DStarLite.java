@@ -0,0 +1,674 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.IRoomListener;
+import com.gamesbykevin.framework.maze.IWallListener;
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.resources.Disposable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Incremental path finding (D* Lite) for rooms whose walls change while an agent is moving.<br>
+ * The search is performed from the goal back to the start, and the cost of every location expanded is kept between searches.<br>
+ * When a wall changes, only the locations whose cost to the goal has changed are expanded again,<br>
+ * and when the agent moves the existing costs are still valid, so replanning depends on the size of the change and not the size of the rooms.<br>
+ * A new goal will start a new search.
+ * @author GOD
+ */
+public final class DStarLite implements Disposable, IRoomListener, IWallListener
+{
+    /**
+     * The cost of a location that can't reach the goal
+     */
+    private static final int UNREACHABLE = Integer.MAX_VALUE;
+    
+    /**
+     * The (x, y) of each direction, the first 4 are horizontal/vertical and the last 4 are diagonal
+     */
+    private static final int[] DIRECTIONS_X = {1, -1, 0, 0, 1, -1, 1, -1};
+    private static final int[] DIRECTIONS_Y = {0, 0, -1, 1, -1, -1, 1, 1};
+    
+    /**
+     * Our rooms upon which to identify the path
+     */
+    private Room[][] rooms;
+    
+    /**
+     * The maze notifying us of wall changes, null if the rooms were assigned directly
+     */
+    private Maze maze;
+    
+    /**
+     * Do we allow diagonal movement while pathfinding
+     */
+    private final boolean diagonal;
+    
+    /**
+     * The size of the rooms
+     */
+    private final int columns, rows;
+    
+    /**
+     * The locations that need to be expanded, ordered by key
+     */
+    private IndexedHeap open;
+    
+    /**
+     * The cost to the goal of each location when it was last expanded
+     */
+    private int[] costs;
+    
+    /**
+     * The cost to the goal of each location using the cost of its neighbors (one step lookahead)
+     */
+    private int[] lookahead;
+    
+    /**
+     * The generation in which each location was last assigned, a location assigned in a previous generation has not been reached
+     */
+    private int[] stamps;
+    
+    /**
+     * The current generation
+     */
+    private int generation = 0;
+    
+    /**
+     * The rooms that have changed since the last search
+     */
+    private int[] changes;
+    
+    /**
+     * The number of rooms that have changed since the last search
+     */
+    private int changeCount = 0;
+    
+    /**
+     * Has each room been added to the list of changes
+     */
+    private boolean[] changed;
+    
+    /**
+     * The current search, -1 if no search has been performed
+     */
+    private int start = -1, goal = -1;
+    
+    /**
+     * The start when the key modifier was last updated
+     */
+    private int last = -1;
+    
+    /**
+     * The amount added to every key each time the start has moved, so existing keys remain valid
+     */
+    private int modifier = 0;
+    
+    /**
+     * The number of locations expanded during the last search
+     */
+    private int expanded = 0;
+    
+    /**
+     * Create the planner for the maze.<br>
+     * The maze will notify us when the walls change.
+     * @param maze The maze to search
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     */
+    public DStarLite(final Maze maze, final boolean diagonal)
+    {
+        this(maze.getRooms(), diagonal);
+        
+        //we want to know when the walls change
+        this.maze = maze;
+        this.maze.addWallListener(this);
+    }
+    
+    /**
+     * Create the planner for the rooms.<br>
+     * If the walls change, {@link #onWallChange(Room)} needs to be called for each room that has changed.
+     * @param rooms The rooms to search, these will not be modified
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     */
+    public DStarLite(final Room[][] rooms, final boolean diagonal)
+    {
+        this.rooms = rooms;
+        this.diagonal = diagonal;
+        this.rows = rooms.length;
+        this.columns = rooms[0].length;
+        
+        this.open = new IndexedHeap(columns * rows);
+        this.costs = new int[columns * rows];
+        this.lookahead = new int[columns * rows];
+        this.stamps = new int[columns * rows];
+        this.changes = new int[columns * rows];
+        this.changed = new boolean[columns * rows];
+    }
+    
+    /**
+     * A wall has changed, the room will be updated on the next search
+     * @param room The room that has changed
+     */
+    @Override
+    public void onWallChange(final Room room)
+    {
+        onWallChange(room.getCol(), room.getRow());
+    }
+    
+    /**
+     * A wall has changed, the room will be updated on the next search
+     * @param col Column
+     * @param row Row
+     */
+    @Override
+    public void onWallChange(final int col, final int row)
+    {
+        //make sure the room is within our rooms
+        if (!hasBounds(col, row))
+            return;
+        
+        final int cell = getIndex(col, row);
+        
+        //only add each room once
+        if (changed[cell])
+            return;
+        
+        changed[cell] = true;
+        changes[changeCount++] = cell;
+    }
+    
+    /**
+     * Search for a path.<br>
+     * If the goal is the same as the previous search, the previous costs are repaired using the walls that have changed,<br>
+     * otherwise a new search is started.
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @return true if a path was found, false otherwise
+     */
+    public boolean search(final int startColumn, final int startRow, final int goalColumn, final int goalRow)
+    {
+        expanded = 0;
+        
+        //if the start or goal are out of bounds there is no path
+        if (!hasBounds(startColumn, startRow) || !hasBounds(goalColumn, goalRow))
+        {
+            start = -1;
+            goal = -1;
+            return false;
+        }
+        
+        final int target = getIndex(goalColumn, goalRow);
+        
+        //assign the new start
+        start = getIndex(startColumn, startRow);
+        
+        if (target != goal)
+        {
+            //a new goal needs a new search
+            reset(target);
+        }
+        else
+        {
+            //existing keys are based on the previous start, so increase every new key by the distance moved
+            modifier += getHeuristic(last, start);
+            last = start;
+            
+            //update each room that has changed, only the moves out of the room are affected
+            for (int index = 0; index < changeCount; index++)
+            {
+                final int cell = changes[index];
+                
+                if (cell != goal)
+                    setLookahead(cell);
+                
+                updateVertex(cell);
+            }
+        }
+        
+        //the list of changes is now empty
+        clearChanges();
+        
+        //expand the locations until the cost of the start is known
+        computeShortestPath();
+        
+        return hasPath();
+    }
+    
+    /**
+     * Did we find a path during the last search?
+     * @return true if the goal can be reached from the start, false otherwise
+     */
+    public boolean hasPath()
+    {
+        return (start >= 0 && getLookahead(start) != UNREACHABLE);
+    }
+    
+    /**
+     * Get the cost of the path found during the last search
+     * @return The total movement cost from the start to the goal, -1 if no path was found
+     */
+    public int getPathCost()
+    {
+        return (hasPath()) ? getLookahead(start) : -1;
+    }
+    
+    /**
+     * Get the number of locations expanded during the last search
+     * @return The number of locations removed from the open list
+     */
+    public int getExpanded()
+    {
+        return this.expanded;
+    }
+    
+    /**
+     * Do we have any rooms waiting to be updated?
+     * @return true if a wall has changed since the last search, false otherwise
+     */
+    public boolean isDirty()
+    {
+        return (changeCount > 0);
+    }
+    
+    /**
+     * Get the path found during the last search.<br>
+     * The first cell in the list will be the goal, the last cell in the list will be the start.
+     * @param path The list to fill with the path, any existing cells will be removed
+     */
+    public void getPath(final List<Cell> path)
+    {
+        //remove any existing path
+        path.clear();
+        
+        //if there is no path, there is nothing to add
+        if (!hasPath())
+            return;
+        
+        int cell = start;
+        
+        path.add(new Cell(cell % columns, cell / columns));
+        
+        //from the start, move to the neighbor with the lowest cost to the goal
+        while (cell != goal)
+        {
+            final int column = cell % columns;
+            final int row = cell / columns;
+            
+            int next = -1;
+            int cost = UNREACHABLE;
+            
+            for (int direction = 0; direction < getDirectionCount(); direction++)
+            {
+                if (!canMove(column, row, direction))
+                    continue;
+                
+                final int neighbor = getIndex(column + DIRECTIONS_X[direction], row + DIRECTIONS_Y[direction]);
+                
+                if (getCost(neighbor) == UNREACHABLE)
+                    continue;
+                
+                if (getCost(neighbor) + getMovementCost(direction) < cost)
+                {
+                    cost = getCost(neighbor) + getMovementCost(direction);
+                    next = neighbor;
+                }
+            }
+            
+            //the costs are always repaired before we get here, but never loop forever
+            if (next < 0 || path.size() > costs.length)
+            {
+                path.clear();
+                return;
+            }
+            
+            cell = next;
+            path.add(new Cell(cell % columns, cell / columns));
+        }
+        
+        //the first cell is the goal
+        Collections.reverse(path);
+    }
+    
+    /**
+     * Start a new search to the goal
+     * @param target The index of the goal
+     */
+    private void reset(final int target)
+    {
+        open.clear();
+        generation++;
+        
+        //if the generation wraps, every location needs to be cleared
+        if (generation == Integer.MAX_VALUE)
+        {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+        
+        goal = target;
+        last = start;
+        modifier = 0;
+        
+        //the goal costs nothing to reach
+        setLookahead(goal, 0);
+        open.push(goal, getKey(goal));
+    }
+    
+    /**
+     * Empty the list of rooms that have changed
+     */
+    private void clearChanges()
+    {
+        for (int index = 0; index < changeCount; index++)
+        {
+            changed[changes[index]] = false;
+        }
+        
+        changeCount = 0;
+    }
+    
+    /**
+     * Expand locations until the cost of the start can't be improved.<br>
+     * Each location whose cost is lower than its lookahead is raised and its neighbors are updated,<br>
+     * and each location whose cost is higher is lowered, the same as a search from the goal.
+     */
+    private void computeShortestPath()
+    {
+        while (!open.isEmpty() && (open.peekKey() < getKey(start) || getLookahead(start) > getCost(start)))
+        {
+            final int cell = open.peek();
+            final long key = getKey(cell);
+            
+            //the start has moved since this key was calculated
+            if (open.peekKey() < key)
+            {
+                open.push(cell, key);
+                continue;
+            }
+            
+            open.pop();
+            expanded++;
+            
+            final int column = cell % columns;
+            final int row = cell / columns;
+            
+            if (getCost(cell) > getLookahead(cell))
+            {
+                //the cost is now lower
+                setCost(cell, getLookahead(cell));
+                
+                for (int direction = 0; direction < getDirectionCount(); direction++)
+                {
+                    //the location that would move into this cell
+                    final int x = column - DIRECTIONS_X[direction];
+                    final int y = row - DIRECTIONS_Y[direction];
+                    
+                    if (!canMove(x, y, direction))
+                        continue;
+                    
+                    final int neighbor = getIndex(x, y);
+                    
+                    if (neighbor != goal && getCost(cell) + getMovementCost(direction) < getLookahead(neighbor))
+                        setLookahead(neighbor, getCost(cell) + getMovementCost(direction));
+                    
+                    updateVertex(neighbor);
+                }
+            }
+            else
+            {
+                //the cost is now higher, every location that was using this cell needs to be checked
+                final int previous = getCost(cell);
+                
+                setCost(cell, UNREACHABLE);
+                
+                if (cell != goal)
+                    setLookahead(cell);
+                
+                updateVertex(cell);
+                
+                for (int direction = 0; direction < getDirectionCount(); direction++)
+                {
+                    //the location that would move into this cell
+                    final int x = column - DIRECTIONS_X[direction];
+                    final int y = row - DIRECTIONS_Y[direction];
+                    
+                    if (!canMove(x, y, direction))
+                        continue;
+                    
+                    final int neighbor = getIndex(x, y);
+                    
+                    if (neighbor != goal && previous != UNREACHABLE && getLookahead(neighbor) == previous + getMovementCost(direction))
+                        setLookahead(neighbor);
+                    
+                    updateVertex(neighbor);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Add the location to the open list if the cost and lookahead are different, otherwise remove it
+     * @param cell The index of the location
+     */
+    private void updateVertex(final int cell)
+    {
+        if (getCost(cell) != getLookahead(cell))
+        {
+            open.push(cell, getKey(cell));
+        }
+        else
+        {
+            open.remove(cell);
+        }
+    }
+    
+    /**
+     * Calculate the lookahead of the location from the cost of each neighbor we can move to
+     * @param cell The index of the location
+     */
+    private void setLookahead(final int cell)
+    {
+        final int column = cell % columns;
+        final int row = cell / columns;
+        
+        int lowest = UNREACHABLE;
+        
+        for (int direction = 0; direction < getDirectionCount(); direction++)
+        {
+            if (!canMove(column, row, direction))
+                continue;
+            
+            final int cost = getCost(getIndex(column + DIRECTIONS_X[direction], row + DIRECTIONS_Y[direction]));
+            
+            if (cost != UNREACHABLE && cost + getMovementCost(direction) < lowest)
+                lowest = cost + getMovementCost(direction);
+        }
+        
+        setLookahead(cell, lowest);
+    }
+    
+    /**
+     * Get the key of the location, lower keys are expanded first.<br>
+     * The lowest of the cost and lookahead plus the heuristic is stored in the high bits, the lowest of the cost and lookahead in the low bits.
+     * @param cell The index of the location
+     * @return The key
+     */
+    private long getKey(final int cell)
+    {
+        final int lowest = Math.min(getCost(cell), getLookahead(cell));
+        
+        //a location that can't reach the goal is expanded last
+        if (lowest == UNREACHABLE)
+            return Long.MAX_VALUE;
+        
+        return ((long)(lowest + getHeuristic(start, cell) + modifier) << 32) | lowest;
+    }
+    
+    /**
+     * Get the cost of the location
+     * @param cell The index of the location
+     * @return The cost to the goal when the location was last expanded, {@link #UNREACHABLE} if not reached
+     */
+    private int getCost(final int cell)
+    {
+        return (stamps[cell] == generation) ? costs[cell] : UNREACHABLE;
+    }
+    
+    /**
+     * Get the lookahead of the location
+     * @param cell The index of the location
+     * @return The cost to the goal using the cost of each neighbor, {@link #UNREACHABLE} if not reached
+     */
+    private int getLookahead(final int cell)
+    {
+        return (stamps[cell] == generation) ? lookahead[cell] : UNREACHABLE;
+    }
+    
+    /**
+     * Assign the cost of the location
+     * @param cell The index of the location
+     * @param cost The cost to the goal
+     */
+    private void setCost(final int cell, final int cost)
+    {
+        reach(cell);
+        costs[cell] = cost;
+    }
+    
+    /**
+     * Assign the lookahead of the location
+     * @param cell The index of the location
+     * @param cost The cost to the goal using the cost of each neighbor
+     */
+    private void setLookahead(final int cell, final int cost)
+    {
+        reach(cell);
+        lookahead[cell] = cost;
+    }
+    
+    /**
+     * Mark the location as reached during the current generation
+     * @param cell The index of the location
+     */
+    private void reach(final int cell)
+    {
+        if (stamps[cell] != generation)
+        {
+            stamps[cell] = generation;
+            costs[cell] = UNREACHABLE;
+            lookahead[cell] = UNREACHABLE;
+        }
+    }
+    
+    /**
+     * Get the estimated cost between 2 locations, this will never be more than the actual cost
+     * @param from The index of the first location
+     * @param to The index of the second location
+     * @return The estimated cost
+     */
+    private int getHeuristic(final int from, final int to)
+    {
+        final int x = Math.abs((from % columns) - (to % columns));
+        final int y = Math.abs((from / columns) - (to / columns));
+        
+        //count the diagonal moves when allowed
+        if (diagonal)
+            return (AStar.MOVE_DIAGONAL * Math.min(x, y)) + (AStar.MOVE_VERTICAL_HORIZONTAL * (Math.max(x, y) - Math.min(x, y)));
+        
+        return AStar.MOVE_VERTICAL_HORIZONTAL * (x + y);
+    }
+    
+    /**
+     * Get the number of directions we can move
+     * @return 8 if diagonal movement is allowed, otherwise 4
+     */
+    private int getDirectionCount()
+    {
+        return (diagonal) ? 8 : 4;
+    }
+    
+    /**
+     * Can we move from the location in the specified direction
+     * @param column Column
+     * @param row Row
+     * @param direction The direction index
+     * @return true if both locations are in bounds and there is no wall in the way, otherwise false
+     */
+    private boolean canMove(final int column, final int row, final int direction)
+    {
+        final int x = DIRECTIONS_X[direction];
+        final int y = DIRECTIONS_Y[direction];
+        
+        //we can't move outside of the rooms
+        if (!hasBounds(column, row) || !hasBounds(column + x, row + y))
+            return false;
+        
+        final Room room = rooms[row][column];
+        
+        if (x > 0 && room.hasWall(Wall.East))
+            return false;
+        if (x < 0 && room.hasWall(Wall.West))
+            return false;
+        if (y < 0 && room.hasWall(Wall.North))
+            return false;
+        if (y > 0 && room.hasWall(Wall.South))
+            return false;
+        
+        return true;
+    }
+    
+    /**
+     * Get the cost of a single move in the specified direction
+     * @param direction The direction index
+     * @return The movement cost
+     */
+    private static int getMovementCost(final int direction)
+    {
+        return (DIRECTIONS_X[direction] != 0 && DIRECTIONS_Y[direction] != 0) ? AStar.MOVE_DIAGONAL : AStar.MOVE_VERTICAL_HORIZONTAL;
+    }
+    
+    /**
+     * Get the index of the location
+     * @param column Column
+     * @param row Row
+     * @return The index (row * columns + column)
+     */
+    private int getIndex(final int column, final int row)
+    {
+        return (row * columns) + column;
+    }
+    
+    /**
+     * Is the location within the rooms
+     * @param column Column
+     * @param row Row
+     * @return true if the location is in bounds, otherwise false
+     */
+    private boolean hasBounds(final int column, final int row)
+    {
+        return (column >= 0 && column < columns && row >= 0 && row < rows);
+    }
+    
+    @Override
+    public void dispose()
+    {
+        //we no longer want to know when the walls change
+        if (maze != null)
+            maze.removeWallListener(this);
+        
+        maze = null;
+        rooms = null;
+        open = null;
+        costs = null;
+        lookahead = null;
+        stamps = null;
+        changes = null;
+        changed = null;
+    }
+}
\ No newline at end of file
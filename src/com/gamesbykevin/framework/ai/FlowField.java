@@ -0,0 +1,554 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.resources.Disposable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A flow field (Dijkstra map) of the rooms towards one or more goals.<br>
+ * Instead of each agent searching for its own path, the distance from every location to the closest goal is calculated once,<br>
+ * along with the direction of the next step, so any number of agents can follow the field with a single lookup each.<br>
+ * Goals can be added, removed and moved one at a time, and only the locations whose distance changes are updated.<br>
+ * The cost of each move is the same as {@link AStar}, so the distance matches the cost of the shortest path.
+ * @author GOD
+ */
+public final class FlowField implements Disposable
+{
+    /**
+     * The distance of a location that can't reach a goal
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    
+    /**
+     * The direction of a goal or a location that can't reach a goal
+     */
+    public static final byte NONE = -1;
+    
+    /**
+     * The (x, y) of each direction, the first 4 are horizontal/vertical and the last 4 are diagonal
+     */
+    private static final int[] DIRECTIONS_X = {1, -1, 0, 0, 1, -1, 1, -1};
+    private static final int[] DIRECTIONS_Y = {0, 0, -1, 1, -1, -1, 1, 1};
+    
+    /**
+     * The rooms we are calculating the field for
+     */
+    private Room[][] rooms;
+    
+    /**
+     * The size of the rooms
+     */
+    private final int columns, rows;
+    
+    /**
+     * Do we allow diagonal movement
+     */
+    private final boolean diagonal;
+    
+    /**
+     * The distance from each location to the closest goal
+     */
+    private int[] distances;
+    
+    /**
+     * The direction of the next step from each location
+     */
+    private byte[] directions;
+    
+    /**
+     * The locations waiting to have their neighbors updated, ordered by distance
+     */
+    private IndexedHeap open;
+    
+    /**
+     * Storage for the locations affected when a goal is removed
+     */
+    private int[] affected;
+    
+    /**
+     * The number of locations removed from the open list during the last change
+     */
+    private int expanded = 0;
+    
+    /**
+     * Create a flow field without any goals
+     * @param rooms The rooms to calculate the field for, these will not be modified
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     */
+    public FlowField(final Room[][] rooms, final boolean diagonal)
+    {
+        this.rooms = rooms;
+        this.rows = rooms.length;
+        this.columns = rooms[0].length;
+        this.diagonal = diagonal;
+        
+        this.distances = new int[columns * rows];
+        this.directions = new byte[columns * rows];
+        this.open = new IndexedHeap(columns * rows);
+        this.affected = new int[columns * rows];
+        
+        //no location can reach a goal yet
+        clear();
+    }
+    
+    /**
+     * Remove all goals
+     */
+    public void clear()
+    {
+        Arrays.fill(distances, UNREACHABLE);
+        Arrays.fill(directions, NONE);
+        open.clear();
+        expanded = 0;
+    }
+    
+    /**
+     * Calculate the field towards a single goal, any existing goals are removed
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     */
+    public void generate(final int goalColumn, final int goalRow)
+    {
+        clear();
+        addGoal(goalColumn, goalRow);
+    }
+    
+    /**
+     * Calculate the field towards the closest of the goals, any existing goals are removed
+     * @param goals The goal locations
+     */
+    public void generate(final List<Cell> goals)
+    {
+        clear();
+        
+        //every goal starts with a distance of 0
+        for (int index = 0; index < goals.size(); index++)
+        {
+            final int column = (int)goals.get(index).getCol();
+            final int row = (int)goals.get(index).getRow();
+            
+            if (hasBounds(column, row))
+                setDistance(getIndex(column, row), 0, NONE);
+        }
+        
+        //calculate the distance of every other location
+        update();
+    }
+    
+    /**
+     * Calculate the field again towards the existing goals.<br>
+     * This is needed after a wall has changed.
+     */
+    public void generate()
+    {
+        //keep the existing goals
+        for (int cell = 0; cell < distances.length; cell++)
+        {
+            if (distances[cell] != 0)
+            {
+                distances[cell] = UNREACHABLE;
+                directions[cell] = NONE;
+            }
+        }
+        
+        open.clear();
+        expanded = 0;
+        
+        for (int cell = 0; cell < distances.length; cell++)
+        {
+            if (distances[cell] == 0)
+                open.push(cell, 0);
+        }
+        
+        //calculate the distance of every other location
+        update();
+    }
+    
+    /**
+     * Add a goal, only the locations now closer to this goal are updated
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @return true if the goal was added, false if it is out of bounds or already a goal
+     */
+    public boolean addGoal(final int goalColumn, final int goalRow)
+    {
+        if (!hasBounds(goalColumn, goalRow) || isGoal(goalColumn, goalRow))
+            return false;
+        
+        expanded = 0;
+        
+        setDistance(getIndex(goalColumn, goalRow), 0, NONE);
+        update();
+        
+        return true;
+    }
+    
+    /**
+     * Remove a goal, only the locations that were closest to this goal are updated
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @return true if the goal was removed, false if it is not a goal
+     */
+    public boolean removeGoal(final int goalColumn, final int goalRow)
+    {
+        if (!isGoal(goalColumn, goalRow))
+            return false;
+        
+        expanded = 0;
+        
+        //the index of the goal
+        final int goal = getIndex(goalColumn, goalRow);
+        
+        //the number of locations affected
+        int count = 0;
+        
+        distances[goal] = UNREACHABLE;
+        affected[count++] = goal;
+        
+        //every location whose next step leads to an affected location is also affected
+        for (int index = 0; index < count; index++)
+        {
+            final int cell = affected[index];
+            final int column = cell % columns;
+            final int row = cell / columns;
+            
+            for (int direction = 0; direction < getDirectionCount(); direction++)
+            {
+                //the location that would move into this cell
+                final int x = column - DIRECTIONS_X[direction];
+                final int y = row - DIRECTIONS_Y[direction];
+                
+                if (!hasBounds(x, y))
+                    continue;
+                
+                final int neighbor = getIndex(x, y);
+                
+                if (directions[neighbor] == direction && distances[neighbor] != UNREACHABLE)
+                {
+                    distances[neighbor] = UNREACHABLE;
+                    affected[count++] = neighbor;
+                }
+            }
+        }
+        
+        //each affected location now moves to the closest unaffected neighbor
+        for (int index = 0; index < count; index++)
+        {
+            final int cell = affected[index];
+            final int column = cell % columns;
+            final int row = cell / columns;
+            
+            directions[cell] = NONE;
+            
+            for (int direction = 0; direction < getDirectionCount(); direction++)
+            {
+                if (!canMove(column, row, direction))
+                    continue;
+                
+                final int neighbor = getIndex(column + DIRECTIONS_X[direction], row + DIRECTIONS_Y[direction]);
+                
+                if (distances[neighbor] == UNREACHABLE)
+                    continue;
+                
+                final int distance = distances[neighbor] + getMovementCost(direction);
+                
+                if (distance < distances[cell])
+                    setDistance(cell, distance, (byte)direction);
+            }
+        }
+        
+        //the affected locations that can still reach a goal update their neighbors
+        update();
+        
+        return true;
+    }
+    
+    /**
+     * Move a goal, typically by 1 location when the target has moved.<br>
+     * Only the locations whose distance changes are updated.
+     * @param fromColumn Current Goal Column
+     * @param fromRow Current Goal Row
+     * @param toColumn New Goal Column
+     * @param toRow New Goal Row
+     * @return true if the goal was moved, false if the current location is not a goal or the new location is out of bounds
+     */
+    public boolean moveGoal(final int fromColumn, final int fromRow, final int toColumn, final int toRow)
+    {
+        if (!isGoal(fromColumn, fromRow) || !hasBounds(toColumn, toRow))
+            return false;
+        
+        //nothing changes
+        if (fromColumn == toColumn && fromRow == toRow)
+            return true;
+        
+        //adding the new goal first leaves fewer locations leading to the old goal
+        final int count = (addGoal(toColumn, toRow)) ? expanded : 0;
+        
+        removeGoal(fromColumn, fromRow);
+        
+        //keep track of the total
+        expanded += count;
+        
+        return true;
+    }
+    
+    /**
+     * Is the location a goal?
+     * @param column Column
+     * @param row Row
+     * @return true if the location is a goal, false otherwise
+     */
+    public boolean isGoal(final int column, final int row)
+    {
+        return (hasBounds(column, row) && distances[getIndex(column, row)] == 0);
+    }
+    
+    /**
+     * Get the distance to the closest goal
+     * @param column Column
+     * @param row Row
+     * @return The cost of the shortest path to the closest goal, {@link #UNREACHABLE} if no goal can be reached
+     */
+    public int getDistance(final int column, final int row)
+    {
+        return (hasBounds(column, row)) ? distances[getIndex(column, row)] : UNREACHABLE;
+    }
+    
+    /**
+     * Get the direction of the next step
+     * @param column Column
+     * @param row Row
+     * @return The direction index, {@link #NONE} if the location is a goal or can't reach a goal
+     */
+    public byte getDirection(final int column, final int row)
+    {
+        return (hasBounds(column, row)) ? directions[getIndex(column, row)] : NONE;
+    }
+    
+    /**
+     * Get the column of the next step towards the closest goal
+     * @param column Column
+     * @param row Row
+     * @return The column to move to, the same column if there is no next step
+     */
+    public int getNextColumn(final int column, final int row)
+    {
+        final byte direction = getDirection(column, row);
+        
+        return (direction == NONE) ? column : column + DIRECTIONS_X[direction];
+    }
+    
+    /**
+     * Get the row of the next step towards the closest goal
+     * @param column Column
+     * @param row Row
+     * @return The row to move to, the same row if there is no next step
+     */
+    public int getNextRow(final int column, final int row)
+    {
+        final byte direction = getDirection(column, row);
+        
+        return (direction == NONE) ? row : row + DIRECTIONS_Y[direction];
+    }
+    
+    /**
+     * Get the location of the next step towards the closest goal
+     * @param cell The index of the location (row * columns + column)
+     * @return The index of the next location, -1 if there is no next step
+     */
+    public int getNext(final int cell)
+    {
+        final byte direction = directions[cell];
+        
+        return (direction == NONE) ? -1 : cell + DIRECTIONS_Y[direction] * columns + DIRECTIONS_X[direction];
+    }
+    
+    /**
+     * Get the distance of every location.<br>
+     * The index of each location is (row * columns + column), this array should not be modified.
+     * @return The distance from each location to the closest goal
+     */
+    public int[] getDistances()
+    {
+        return this.distances;
+    }
+    
+    /**
+     * Get the direction of every location.<br>
+     * The index of each location is (row * columns + column), this array should not be modified.
+     * @return The direction of the next step from each location
+     */
+    public byte[] getDirections()
+    {
+        return this.directions;
+    }
+    
+    /**
+     * Get the number of columns
+     * @return The number of columns in the field
+     */
+    public int getColumns()
+    {
+        return this.columns;
+    }
+    
+    /**
+     * Get the number of rows
+     * @return The number of rows in the field
+     */
+    public int getRows()
+    {
+        return this.rows;
+    }
+    
+    /**
+     * Do we allow diagonal movement
+     * @return true if we are allowed to move diagonal, otherwise false
+     */
+    public boolean hasDiagonal()
+    {
+        return this.diagonal;
+    }
+    
+    /**
+     * Get the number of locations expanded during the last change
+     * @return The number of locations removed from the open list
+     */
+    public int getExpanded()
+    {
+        return this.expanded;
+    }
+    
+    /**
+     * Remove the closest location from the open list and update the distance of each neighbor that can move to it,<br>
+     * until there are no locations left to update.
+     */
+    private void update()
+    {
+        while (!open.isEmpty())
+        {
+            final int cell = open.pop();
+            final int column = cell % columns;
+            final int row = cell / columns;
+            
+            expanded++;
+            
+            for (int direction = 0; direction < getDirectionCount(); direction++)
+            {
+                //the location that would move into this cell
+                final int x = column - DIRECTIONS_X[direction];
+                final int y = row - DIRECTIONS_Y[direction];
+                
+                if (!canMove(x, y, direction))
+                    continue;
+                
+                final int neighbor = getIndex(x, y);
+                final int distance = distances[cell] + getMovementCost(direction);
+                
+                //if this is a shorter path, update the neighbor
+                if (distance < distances[neighbor])
+                    setDistance(neighbor, distance, (byte)direction);
+            }
+        }
+    }
+    
+    /**
+     * Assign the distance and direction of a location and add it to the open list
+     * @param cell The index of the location
+     * @param distance The distance to the closest goal
+     * @param direction The direction of the next step
+     */
+    private void setDistance(final int cell, final int distance, final byte direction)
+    {
+        distances[cell] = distance;
+        directions[cell] = direction;
+        open.push(cell, distance);
+    }
+    
+    /**
+     * Get the number of directions we can move
+     * @return 8 if diagonal movement is allowed, otherwise 4
+     */
+    private int getDirectionCount()
+    {
+        return (diagonal) ? 8 : 4;
+    }
+    
+    /**
+     * Can we move from the location in the specified direction
+     * @param column Column
+     * @param row Row
+     * @param direction The direction index
+     * @return true if both locations are in bounds and there is no wall in the way, otherwise false
+     */
+    private boolean canMove(final int column, final int row, final int direction)
+    {
+        final int x = DIRECTIONS_X[direction];
+        final int y = DIRECTIONS_Y[direction];
+        
+        //we can't move outside of the rooms
+        if (!hasBounds(column, row) || !hasBounds(column + x, row + y))
+            return false;
+        
+        final Room room = rooms[row][column];
+        
+        if (x > 0 && room.hasWall(Wall.East))
+            return false;
+        if (x < 0 && room.hasWall(Wall.West))
+            return false;
+        if (y < 0 && room.hasWall(Wall.North))
+            return false;
+        if (y > 0 && room.hasWall(Wall.South))
+            return false;
+        
+        return true;
+    }
+    
+    /**
+     * Get the cost of a single move in the specified direction
+     * @param direction The direction index
+     * @return The movement cost
+     */
+    private static int getMovementCost(final int direction)
+    {
+        return (DIRECTIONS_X[direction] != 0 && DIRECTIONS_Y[direction] != 0) ? AStar.MOVE_DIAGONAL : AStar.MOVE_VERTICAL_HORIZONTAL;
+    }
+    
+    /**
+     * Get the index of the location
+     * @param column Column
+     * @param row Row
+     * @return The index (row * columns + column)
+     */
+    private int getIndex(final int column, final int row)
+    {
+        return (row * columns) + column;
+    }
+    
+    /**
+     * Is the location within the rooms
+     * @param column Column
+     * @param row Row
+     * @return true if the location is in bounds, otherwise false
+     */
+    private boolean hasBounds(final int column, final int row)
+    {
+        return (column >= 0 && column < columns && row >= 0 && row < rows);
+    }
+    
+    @Override
+    public void dispose()
+    {
+        //the rooms may be shared with other objects, so we only remove our reference
+        rooms = null;
+        
+        distances = null;
+        directions = null;
+        affected = null;
+        open = null;
+    }
+}
\ No newline at end of file
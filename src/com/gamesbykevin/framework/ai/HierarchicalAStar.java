@@ -0,0 +1,1073 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.IRoomListener;
+import com.gamesbykevin.framework.maze.IWallListener;
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.resources.Disposable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hierarchical path finding (HPA*) for large grids.<br>
+ * The rooms are divided into square clusters, and the locations where we can move between 2 clusters are the entrances.<br>
+ * The cost between each pair of entrances within a cluster is calculated ahead of time,<br>
+ * so a search only has to consider the entrances and the local path is filled in once the path is found.<br>
+ * With diagonal movement every location on the edge of a cluster that can move diagonal to or from another cluster is an entrance as well.<br>
+ * The path found is close to the shortest, but is not guaranteed to be the shortest.<br>
+ * When a wall changes only the cluster containing the room and the clusters next to it are rebuilt, on the next search.
+ * @author GOD
+ */
+public final class HierarchicalAStar implements Disposable, IRoomListener, IWallListener
+{
+    /**
+     * The default number of columns and rows in each cluster
+     */
+    public static final int DEFAULT_CLUSTER_SIZE = 10;
+    
+    /**
+     * Entrances of this length or more will have a location at each end, otherwise only the middle
+     */
+    private static final int ENTRANCE_SPLIT = 6;
+    
+    /**
+     * No locations
+     */
+    private static final int[] NONE = new int[0];
+    
+    /**
+     * Our rooms upon which to identify the path
+     */
+    private Room[][] rooms;
+    
+    /**
+     * The maze notifying us of wall changes, null if the rooms were assigned directly
+     */
+    private Maze maze;
+    
+    /**
+     * The number of columns and rows in each cluster
+     */
+    private final int clusterSize;
+    
+    /**
+     * Do we allow diagonal movement while pathfinding
+     */
+    private final boolean diagonal;
+    
+    /**
+     * The size of the rooms and the number of clusters in each direction
+     */
+    private final int columns, rows, clusterColumns, clusterRows;
+    
+    /**
+     * The entrance locations on each side of each cluster, the index is (cluster * 4) + side
+     */
+    private int[][] sides;
+    
+    /**
+     * The locations on the edge of each cluster where we can move diagonal to or from another cluster
+     */
+    private int[][] diagonals;
+    
+    /**
+     * The entrance locations in each cluster
+     */
+    private int[][] nodes;
+    
+    /**
+     * The cost between each pair of entrances in each cluster, the index is (from * count) + to, -1 if not reachable
+     */
+    private int[][] costs;
+    
+    /**
+     * The index of each location in the list of entrances for its cluster, -1 if the location is not an entrance
+     */
+    private int[] nodeIndex;
+    
+    /**
+     * The clusters that need to be rebuilt
+     */
+    private boolean[] dirty;
+    
+    /**
+     * Do we have any clusters to rebuild
+     */
+    private boolean rebuild = false;
+    
+    /**
+     * The number of clusters rebuilt since we were created
+     */
+    private int rebuilds = 0;
+    
+    /**
+     * The storage for searching within a single cluster
+     */
+    private IndexedHeap localOpen;
+    private int[] localCosts, localParents, localStamps;
+    private int localGeneration = 0;
+    
+    /**
+     * The cost from the start, and to the goal, for each location in their clusters
+     */
+    private int[] startCosts, goalCosts;
+    
+    /**
+     * The storage for searching the entrances
+     */
+    private IndexedHeap open;
+    private int[] movement, parents, stamps;
+    private int generation = 0;
+    
+    /**
+     * The current search
+     */
+    private int start = -1, goal = -1, startCluster, goalCluster;
+    
+    /**
+     * Was the goal reached during the current search
+     */
+    private boolean found = false;
+    
+    /**
+     * Create the hierarchy for the maze.<br>
+     * The maze will notify us when the walls change.
+     * @param maze The maze to search
+     * @param clusterSize The number of columns and rows in each cluster
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @throws Exception If the cluster size is less than 2
+     */
+    public HierarchicalAStar(final Maze maze, final int clusterSize, final boolean diagonal) throws Exception
+    {
+        this(maze.getRooms(), clusterSize, diagonal);
+        
+        //we want to know when the walls change
+        this.maze = maze;
+        this.maze.addWallListener(this);
+    }
+    
+    /**
+     * Create the hierarchy for the rooms.<br>
+     * If the walls change, {@link #onWallChange(Room)} needs to be called for each room that has changed.
+     * @param rooms The rooms to search, these will not be modified
+     * @param clusterSize The number of columns and rows in each cluster
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @throws Exception If the cluster size is less than 2
+     */
+    public HierarchicalAStar(final Room[][] rooms, final int clusterSize, final boolean diagonal) throws Exception
+    {
+        if (clusterSize < 2)
+            throw new Exception("The cluster size must be at least 2");
+        
+        this.rooms = rooms;
+        this.clusterSize = clusterSize;
+        this.diagonal = diagonal;
+        this.rows = rooms.length;
+        this.columns = rooms[0].length;
+        this.clusterColumns = ((columns - 1) / clusterSize) + 1;
+        this.clusterRows = ((rows - 1) / clusterSize) + 1;
+        
+        final int clusters = clusterColumns * clusterRows;
+        
+        //create the hierarchy storage
+        this.sides = new int[clusters * 4][];
+        this.diagonals = new int[clusters][];
+        this.nodes = new int[clusters][];
+        this.costs = new int[clusters][];
+        this.nodeIndex = new int[columns * rows];
+        this.dirty = new boolean[clusters];
+        Arrays.fill(this.nodeIndex, -1);
+        
+        //create the local search storage
+        this.localOpen = new IndexedHeap(clusterSize * clusterSize);
+        this.localCosts = new int[clusterSize * clusterSize];
+        this.localParents = new int[clusterSize * clusterSize];
+        this.localStamps = new int[clusterSize * clusterSize];
+        this.startCosts = new int[clusterSize * clusterSize];
+        this.goalCosts = new int[clusterSize * clusterSize];
+        
+        //create the entrance search storage
+        this.open = new IndexedHeap(columns * rows);
+        this.movement = new int[columns * rows];
+        this.parents = new int[columns * rows];
+        this.stamps = new int[columns * rows];
+        
+        //every cluster needs to be built
+        for (int index = 0; index < clusters; index++)
+        {
+            setEntrances(index);
+            setDiagonals(index);
+        }
+        
+        for (int index = 0; index < clusters; index++)
+        {
+            setNodes(index);
+            setCosts(index);
+        }
+    }
+    
+    /**
+     * Get the cluster size
+     * @return The number of columns and rows in each cluster
+     */
+    public int getClusterSize()
+    {
+        return this.clusterSize;
+    }
+    
+    /**
+     * Get the number of clusters rebuilt because of wall changes
+     * @return The total number of clusters rebuilt since we were created
+     */
+    public int getRebuilds()
+    {
+        return this.rebuilds;
+    }
+    
+    /**
+     * Do we have any clusters waiting to be rebuilt?
+     * @return true if a wall has changed since the last search, false otherwise
+     */
+    public boolean isDirty()
+    {
+        return this.rebuild;
+    }
+    
+    /**
+     * A wall has changed, the cluster containing the room will be rebuilt on the next search
+     * @param room The room that has changed
+     */
+    @Override
+    public void onWallChange(final Room room)
+    {
+        onWallChange(room.getCol(), room.getRow());
+    }
+    
+    /**
+     * A wall has changed, the cluster containing the room will be rebuilt on the next search
+     * @param col Column
+     * @param row Row
+     */
+    @Override
+    public void onWallChange(final int col, final int row)
+    {
+        //make sure the room is within our hierarchy
+        if (!hasBounds(col, row))
+            return;
+        
+        dirty[getCluster(col, row)] = true;
+        rebuild = true;
+    }
+    
+    /**
+     * Search for a path.<br>
+     * Any clusters that have changed will be rebuilt first.
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @return true if a path was found, false otherwise
+     */
+    public boolean search(final int startColumn, final int startRow, final int goalColumn, final int goalRow)
+    {
+        //rebuild the clusters that have changed
+        update();
+        
+        //prepare the storage for the new search
+        open.clear();
+        
+        if (generation == Integer.MAX_VALUE)
+        {
+            Arrays.fill(stamps, 0);
+            generation = 0;
+        }
+        
+        generation++;
+        found = false;
+        start = -1;
+        goal = -1;
+        
+        //if the start or goal are out of bounds there is no path
+        if (!hasBounds(startColumn, startRow) || !hasBounds(goalColumn, goalRow))
+            return false;
+        
+        this.start = getIndex(startColumn, startRow);
+        this.goal = getIndex(goalColumn, goalRow);
+        this.startCluster = getCluster(startColumn, startRow);
+        this.goalCluster = getCluster(goalColumn, goalRow);
+        
+        //calculate the cost from the start to each location in the cluster
+        searchCluster(startCluster, start, false);
+        copyCosts(startCosts);
+        
+        //calculate the cost from each location in the cluster to the goal
+        searchCluster(goalCluster, goal, true);
+        copyCosts(goalCosts);
+        
+        //add the start to the open list
+        addOpen(start, -1, 0);
+        
+        //continue until we locate the path or run out of options
+        while (!open.isEmpty())
+        {
+            final int cell = open.pop();
+            
+            //if we found the goal
+            if (cell == goal)
+            {
+                found = true;
+                break;
+            }
+            
+            expand(cell);
+        }
+        
+        return found;
+    }
+    
+    /**
+     * Was a path found during the last search?
+     * @return true if the goal was reached, false otherwise
+     */
+    public boolean hasPath()
+    {
+        return this.found;
+    }
+    
+    /**
+     * Get the cost of the path found during the last search
+     * @return The movement cost from the start to the goal, -1 if no path was found
+     */
+    public int getPathCost()
+    {
+        return (found) ? movement[goal] : -1;
+    }
+    
+    /**
+     * Get the path found during the last search.<br>
+     * The first cell in the list will be the goal, the last cell in the list will be the start.<br>
+     * The path between each pair of entrances is found again within the cluster, every room in the path is included.
+     * @param path The list to fill with the path, any existing cells will be removed
+     */
+    public void getPath(final List<Cell> path)
+    {
+        //remove any existing path
+        path.clear();
+        
+        //if there is no path, there is nothing to add
+        if (!found)
+            return;
+        
+        int cell = goal;
+        
+        while (cell != start)
+        {
+            final int parent = parents[cell];
+            final int cluster = getCluster(cell % columns, cell / columns);
+            
+            if (cluster == getCluster(parent % columns, parent / columns))
+            {
+                //find the path within the cluster again
+                searchCluster(cluster, parent, false);
+                
+                int local = getLocalIndex(cluster, cell);
+                
+                //add every location until we reach the parent
+                while (localParents[local] >= 0)
+                {
+                    path.add(new Cell(getCell(cluster, local) % columns, getCell(cluster, local) / columns));
+                    local = localParents[local];
+                }
+            }
+            else
+            {
+                //the parent is next to this location in the neighboring cluster
+                path.add(new Cell(cell % columns, cell / columns));
+            }
+            
+            cell = parent;
+        }
+        
+        //finally add the start
+        path.add(new Cell(start % columns, start / columns));
+    }
+    
+    /**
+     * Rebuild every cluster that has changed.<br>
+     * The entrances of a changed cluster are found again, so the clusters next to it are rebuilt as well.
+     */
+    public void update()
+    {
+        if (!rebuild)
+            return;
+        
+        //the clusters where the entrances or costs need to be calculated
+        final boolean[] affected = new boolean[dirty.length];
+        
+        for (int index = 0; index < dirty.length; index++)
+        {
+            if (!dirty[index])
+                continue;
+            
+            //locate the entrances on each side again
+            setEntrances(index);
+            
+            //the entrances of the neighbors are changed as well
+            final int column = index % clusterColumns;
+            final int row = index / clusterColumns;
+            
+            affected[index] = true;
+            
+            if (column > 0)
+                affected[index - 1] = true;
+            if (column < clusterColumns - 1)
+                affected[index + 1] = true;
+            if (row > 0)
+                affected[index - clusterColumns] = true;
+            if (row < clusterRows - 1)
+                affected[index + clusterColumns] = true;
+            
+            //a diagonal move can cross the corner into the clusters diagonal to us
+            if (diagonal)
+            {
+                if (column > 0 && row > 0)
+                    affected[index - clusterColumns - 1] = true;
+                if (column < clusterColumns - 1 && row > 0)
+                    affected[index - clusterColumns + 1] = true;
+                if (column > 0 && row < clusterRows - 1)
+                    affected[index + clusterColumns - 1] = true;
+                if (column < clusterColumns - 1 && row < clusterRows - 1)
+                    affected[index + clusterColumns + 1] = true;
+            }
+            
+            dirty[index] = false;
+        }
+        
+        for (int index = 0; index < affected.length; index++)
+        {
+            if (!affected[index])
+                continue;
+            
+            setDiagonals(index);
+            setNodes(index);
+            setCosts(index);
+            rebuilds++;
+        }
+        
+        rebuild = false;
+    }
+    
+    /**
+     * Add the neighbors of the location to the open list
+     * @param cell The index of the location
+     */
+    private void expand(final int cell)
+    {
+        final int column = cell % columns;
+        final int row = cell / columns;
+        final int cluster = getCluster(column, row);
+        
+        //the start can reach any location in the cluster, including the goal if in the same cluster
+        if (cell == start)
+        {
+            for (int index = 0; index < nodes[cluster].length; index++)
+            {
+                final int cost = startCosts[getLocalIndex(cluster, nodes[cluster][index])];
+                
+                if (cost >= 0)
+                    addOpen(nodes[cluster][index], cell, cost);
+            }
+            
+            if (goalCluster == startCluster && startCosts[getLocalIndex(cluster, goal)] >= 0)
+                addOpen(goal, cell, startCosts[getLocalIndex(cluster, goal)]);
+        }
+        
+        final int local = nodeIndex[cell];
+        
+        //only entrances have connections
+        if (local < 0)
+            return;
+        
+        final int count = nodes[cluster].length;
+        
+        //add every entrance we can reach in this cluster
+        for (int index = 0; index < count; index++)
+        {
+            final int cost = costs[cluster][(local * count) + index];
+            
+            if (index != local && cost >= 0)
+                addOpen(nodes[cluster][index], cell, cost);
+        }
+        
+        //add the entrances next to us in the neighboring clusters
+        for (int y = -1; y <= 1; y++)
+        {
+            for (int x = -1; x <= 1; x++)
+            {
+                //skip the current location
+                if (x == 0 && y == 0)
+                    continue;
+                
+                //skip diagonal directions if not allowed
+                if (!diagonal && x != 0 && y != 0)
+                    continue;
+                
+                if (!canMove(column, row, x, y))
+                    continue;
+                
+                final int neighbor = getIndex(column + x, row + y);
+                
+                if (nodeIndex[neighbor] >= 0 && getCluster(column + x, row + y) != cluster)
+                    addOpen(neighbor, cell, (x != 0 && y != 0) ? AStar.MOVE_DIAGONAL : AStar.MOVE_VERTICAL_HORIZONTAL);
+            }
+        }
+        
+        //if the goal is in this cluster, check if we can reach it
+        if (cluster == goalCluster && goalCosts[getLocalIndex(cluster, cell)] >= 0)
+            addOpen(goal, cell, goalCosts[getLocalIndex(cluster, cell)]);
+    }
+    
+    /**
+     * Add this location to the open list
+     * @param cell The index of the location
+     * @param parent The index of the parent, -1 if this is the start
+     * @param movementCost The cost to move from the parent to this location
+     */
+    private void addOpen(final int cell, final int parent, final int movementCost)
+    {
+        //the total movement cost from the start to this location
+        final int cost = (parent >= 0) ? movement[parent] + movementCost : movementCost;
+        
+        //if we have already reached this location during this search
+        if (stamps[cell] == generation)
+        {
+            //only update the open list if this is an improvement
+            if (open.contains(cell) && cost < movement[cell])
+            {
+                movement[cell] = cost;
+                parents[cell] = parent;
+                open.update(cell, getKey(cost + getHeuristic(cell), cost));
+            }
+            
+            return;
+        }
+        
+        stamps[cell] = generation;
+        movement[cell] = cost;
+        parents[cell] = parent;
+        open.push(cell, getKey(cost + getHeuristic(cell), cost));
+    }
+    
+    /**
+     * Get the key used to sort the open list.<br>
+     * The total cost is compared first, if the costs are equal the location furthest from the start will be chosen.<br>
+     * The entrances are far apart so many will have the same total cost, preferring the furthest avoids checking all of them.
+     * @param cost The total cost
+     * @param movement The movement cost from the start
+     * @return The key of the location
+     */
+    private static long getKey(final int cost, final int movement)
+    {
+        return (((long)cost << 32) | (0xFFFFFFFFL - movement));
+    }
+    
+    /**
+     * Get the heuristic, the estimated cost from the location to the goal
+     * @param cell The index of the location
+     * @return The calculated heuristic
+     */
+    private int getHeuristic(final int cell)
+    {
+        final int horizontal = Math.abs((cell % columns) - (goal % columns));
+        final int vertical = Math.abs((cell / columns) - (goal / columns));
+        
+        //move diagonal as much as possible, then the remaining distance straight
+        if (diagonal)
+        {
+            final int min = Math.min(horizontal, vertical);
+            
+            return (min * AStar.MOVE_DIAGONAL) + ((horizontal + vertical - min - min) * AStar.MOVE_VERTICAL_HORIZONTAL);
+        }
+        
+        return ((horizontal + vertical) * AStar.MOVE_VERTICAL_HORIZONTAL);
+    }
+    
+    /**
+     * Locate the entrances on each side of the cluster
+     * @param cluster The index of the cluster
+     */
+    private void setEntrances(final int cluster)
+    {
+        final int column = cluster % clusterColumns;
+        final int row = cluster / clusterColumns;
+        
+        //the west and north sides are found from the neighbor
+        if (column > 0)
+            setEntrances(cluster - 1, cluster, true);
+        else
+            sides[(cluster * 4) + Wall.West.ordinal()] = NONE;
+        
+        if (row > 0)
+            setEntrances(cluster - clusterColumns, cluster, false);
+        else
+            sides[(cluster * 4) + Wall.North.ordinal()] = NONE;
+        
+        if (column < clusterColumns - 1)
+            setEntrances(cluster, cluster + 1, true);
+        else
+            sides[(cluster * 4) + Wall.East.ordinal()] = NONE;
+        
+        if (row < clusterRows - 1)
+            setEntrances(cluster, cluster + clusterColumns, false);
+        else
+            sides[(cluster * 4) + Wall.South.ordinal()] = NONE;
+    }
+    
+    /**
+     * Locate the entrances on the border between 2 clusters.<br>
+     * Each run of locations where we can cross the border the same way is an entrance,<br>
+     * the run ends when we can't move along the border on either side, so every location in the run can reach the entrance.
+     * @param first The cluster to the west or north
+     * @param second The cluster to the east or south
+     * @param horizontal true if the second cluster is east of the first, false if the second cluster is south
+     */
+    private void setEntrances(final int first, final int second, final boolean horizontal)
+    {
+        final int clusterColumn = first % clusterColumns;
+        final int clusterRow = first / clusterColumns;
+        
+        //the first location on the border within the first cluster
+        final int column = (horizontal) ? ((clusterColumn + 1) * clusterSize) - 1 : clusterColumn * clusterSize;
+        final int row = (horizontal) ? clusterRow * clusterSize : ((clusterRow + 1) * clusterSize) - 1;
+        
+        //the direction across the border, and the direction along the border
+        final int acrossX = (horizontal) ? 1 : 0;
+        final int acrossY = (horizontal) ? 0 : 1;
+        final int alongX = (horizontal) ? 0 : 1;
+        final int alongY = (horizontal) ? 1 : 0;
+        
+        //the number of locations along the border
+        final int length = (horizontal) ? Math.min(rows - row, clusterSize) : Math.min(columns - column, clusterSize);
+        
+        int[] entrances = new int[length];
+        int count = 0;
+        int begin = -1;
+        int type = 0;
+        
+        for (int index = 0; index <= length; index++)
+        {
+            final int x = column + (alongX * index);
+            final int y = row + (alongY * index);
+            
+            //the directions we can cross the border here
+            int current = 0;
+            
+            if (index < length)
+            {
+                if (canMove(x, y, acrossX, acrossY))
+                    current |= 1;
+                if (canMove(x + acrossX, y + acrossY, -acrossX, -acrossY))
+                    current |= 2;
+            }
+            
+            //the entrance continues if we cross the same way, and we can move along the border on both sides
+            if (begin >= 0 && (current != type || !isLinked(x - alongX, y - alongY, alongX, alongY) || !isLinked(x - alongX + acrossX, y - alongY + acrossY, alongX, alongY)))
+            {
+                //the entrance has ended, long entrances have a location at each end
+                if (index - begin >= ENTRANCE_SPLIT)
+                {
+                    entrances[count++] = begin;
+                    entrances[count++] = index - 1;
+                }
+                else
+                {
+                    entrances[count++] = begin + ((index - 1 - begin) / 2);
+                }
+                
+                begin = -1;
+            }
+            
+            //this is the beginning of an entrance
+            if (begin < 0 && current != 0)
+            {
+                begin = index;
+                type = current;
+            }
+        }
+        
+        final int[] firstCells = new int[count];
+        final int[] secondCells = new int[count];
+        
+        for (int index = 0; index < count; index++)
+        {
+            final int x = column + (alongX * entrances[index]);
+            final int y = row + (alongY * entrances[index]);
+            
+            firstCells[index] = getIndex(x, y);
+            secondCells[index] = getIndex(x + acrossX, y + acrossY);
+        }
+        
+        sides[(first * 4) + ((horizontal) ? Wall.East : Wall.South).ordinal()] = firstCells;
+        sides[(second * 4) + ((horizontal) ? Wall.West : Wall.North).ordinal()] = secondCells;
+    }
+    
+    /**
+     * Locate the locations on the edge of the cluster where we can move diagonal to or from another cluster.<br>
+     * The entrances on each side only cross the border straight, so each of these locations is an entrance of its own.
+     * @param cluster The index of the cluster
+     */
+    private void setDiagonals(final int cluster)
+    {
+        if (!diagonal)
+        {
+            diagonals[cluster] = NONE;
+            return;
+        }
+        
+        //the bounds of the cluster
+        final int left = (cluster % clusterColumns) * clusterSize;
+        final int top = (cluster / clusterColumns) * clusterSize;
+        final int right = Math.min(left + clusterSize, columns);
+        final int bottom = Math.min(top + clusterSize, rows);
+        
+        int[] cells = new int[2 * ((right - left) + (bottom - top))];
+        int count = 0;
+        
+        for (int row = top; row < bottom; row++)
+        {
+            for (int column = left; column < right; column++)
+            {
+                //only the edge of the cluster can be next to another cluster
+                if (row != top && row != bottom - 1 && column != left && column != right - 1)
+                    continue;
+                
+                if (hasDiagonalCrossing(column, row, cluster))
+                    cells[count++] = getIndex(column, row);
+            }
+        }
+        
+        diagonals[cluster] = (count == cells.length) ? cells : Arrays.copyOf(cells, count);
+    }
+    
+    /**
+     * Can we move diagonal between the location and a location in another cluster, in either direction?
+     * @param column Column
+     * @param row Row
+     * @param cluster The index of the cluster containing the location
+     * @return true if there is a diagonal move to or from another cluster, false otherwise
+     */
+    private boolean hasDiagonalCrossing(final int column, final int row, final int cluster)
+    {
+        for (int y = -1; y <= 1; y += 2)
+        {
+            for (int x = -1; x <= 1; x += 2)
+            {
+                if (!hasBounds(column + x, row + y) || getCluster(column + x, row + y) == cluster)
+                    continue;
+                
+                if (canMove(column, row, x, y) || canMove(column + x, row + y, -x, -y))
+                    return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Gather the entrances from each side of the cluster
+     * @param cluster The index of the cluster
+     */
+    private void setNodes(final int cluster)
+    {
+        //remove the existing entrances
+        if (nodes[cluster] != null)
+        {
+            for (int index = 0; index < nodes[cluster].length; index++)
+            {
+                nodeIndex[nodes[cluster][index]] = -1;
+            }
+        }
+        
+        int total = diagonals[cluster].length;
+        
+        for (int side = 0; side < 4; side++)
+        {
+            total += sides[(cluster * 4) + side].length;
+        }
+        
+        int[] cells = new int[total];
+        int count = 0;
+        
+        for (int side = 0; side < 4; side++)
+        {
+            final int[] entrances = sides[(cluster * 4) + side];
+            
+            for (int index = 0; index < entrances.length; index++)
+            {
+                //a corner can be an entrance on 2 sides
+                if (nodeIndex[entrances[index]] >= 0)
+                    continue;
+                
+                nodeIndex[entrances[index]] = count;
+                cells[count++] = entrances[index];
+            }
+        }
+        
+        for (int index = 0; index < diagonals[cluster].length; index++)
+        {
+            //the location may already be an entrance on a side
+            if (nodeIndex[diagonals[cluster][index]] >= 0)
+                continue;
+            
+            nodeIndex[diagonals[cluster][index]] = count;
+            cells[count++] = diagonals[cluster][index];
+        }
+        
+        nodes[cluster] = (count == total) ? cells : Arrays.copyOf(cells, count);
+    }
+    
+    /**
+     * Calculate the cost between each pair of entrances in the cluster
+     * @param cluster The index of the cluster
+     */
+    private void setCosts(final int cluster)
+    {
+        final int count = nodes[cluster].length;
+        
+        costs[cluster] = new int[count * count];
+        
+        for (int from = 0; from < count; from++)
+        {
+            searchCluster(cluster, nodes[cluster][from], false);
+            
+            for (int to = 0; to < count; to++)
+            {
+                final int local = getLocalIndex(cluster, nodes[cluster][to]);
+                
+                costs[cluster][(from * count) + to] = (localStamps[local] == localGeneration) ? localCosts[local] : -1;
+            }
+        }
+    }
+    
+    /**
+     * Calculate the cheapest cost between the location and every other location in the cluster.<br>
+     * Only locations within the cluster are considered.
+     * @param cluster The index of the cluster
+     * @param cell The index of the location
+     * @param reverse false for the cost from the location, true for the cost to the location
+     */
+    private void searchCluster(final int cluster, final int cell, final boolean reverse)
+    {
+        //the bounds of the cluster
+        final int left = (cluster % clusterColumns) * clusterSize;
+        final int top = (cluster / clusterColumns) * clusterSize;
+        final int right = Math.min(left + clusterSize, columns);
+        final int bottom = Math.min(top + clusterSize, rows);
+        
+        //prepare the storage for a new search
+        localOpen.clear();
+        
+        if (localGeneration == Integer.MAX_VALUE)
+        {
+            Arrays.fill(localStamps, 0);
+            localGeneration = 0;
+        }
+        
+        localGeneration++;
+        
+        final int first = getLocalIndex(cluster, cell);
+        localStamps[first] = localGeneration;
+        localCosts[first] = 0;
+        localParents[first] = -1;
+        localOpen.push(first, 0);
+        
+        while (!localOpen.isEmpty())
+        {
+            final int current = localOpen.pop();
+            final int column = left + (current % clusterSize);
+            final int row = top + (current / clusterSize);
+            
+            for (int y = -1; y <= 1; y++)
+            {
+                for (int x = -1; x <= 1; x++)
+                {
+                    //skip the current location
+                    if (x == 0 && y == 0)
+                        continue;
+                    
+                    //skip diagonal directions if not allowed
+                    if (!diagonal && x != 0 && y != 0)
+                        continue;
+                    
+                    //stay within the cluster
+                    if (column + x < left || column + x >= right || row + y < top || row + y >= bottom)
+                        continue;
+                    
+                    //when reversed, the move is from the neighbor to the current location
+                    if (reverse ? !canMove(column + x, row + y, -x, -y) : !canMove(column, row, x, y))
+                        continue;
+                    
+                    final int neighbor = ((row + y - top) * clusterSize) + (column + x - left);
+                    final int cost = localCosts[current] + ((x != 0 && y != 0) ? AStar.MOVE_DIAGONAL : AStar.MOVE_VERTICAL_HORIZONTAL);
+                    
+                    if (localStamps[neighbor] == localGeneration)
+                    {
+                        //only update locations still in the open list with a better cost
+                        if (!localOpen.contains(neighbor) || cost >= localCosts[neighbor])
+                            continue;
+                    }
+                    
+                    localStamps[neighbor] = localGeneration;
+                    localCosts[neighbor] = cost;
+                    localParents[neighbor] = current;
+                    localOpen.push(neighbor, cost);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Copy the costs of the last cluster search
+     * @param destination The array to copy the costs to, -1 will be assigned to locations not reached
+     */
+    private void copyCosts(final int[] destination)
+    {
+        for (int local = 0; local < destination.length; local++)
+        {
+            destination[local] = (localStamps[local] == localGeneration) ? localCosts[local] : -1;
+        }
+    }
+    
+    /**
+     * Can we move from the location in the specified direction?<br>
+     * The room we are moving from can't have a wall in the direction we are moving.
+     * @param column Column
+     * @param row Row
+     * @param x The horizontal direction (-1, 0, 1)
+     * @param y The vertical direction (-1, 0, 1)
+     * @return true if the move is allowed, false otherwise
+     */
+    private boolean canMove(final int column, final int row, final int x, final int y)
+    {
+        //we can't move outside of the rooms
+        if (!hasBounds(column, row) || !hasBounds(column + x, row + y))
+            return false;
+        
+        final Room room = rooms[row][column];
+        
+        if (x > 0 && room.hasWall(Wall.East))
+            return false;
+        if (x < 0 && room.hasWall(Wall.West))
+            return false;
+        if (y < 0 && room.hasWall(Wall.North))
+            return false;
+        if (y > 0 && room.hasWall(Wall.South))
+            return false;
+        
+        return true;
+    }
+    
+    /**
+     * Can we move between the location and its neighbor in both directions?
+     * @param column Column
+     * @param row Row
+     * @param x The horizontal direction of the neighbor (-1, 0, 1)
+     * @param y The vertical direction of the neighbor (-1, 0, 1)
+     * @return true if we can move to the neighbor and back, false otherwise
+     */
+    private boolean isLinked(final int column, final int row, final int x, final int y)
+    {
+        return (canMove(column, row, x, y) && canMove(column + x, row + y, -x, -y));
+    }
+    
+    /**
+     * Get the cluster containing the location
+     * @param column Column
+     * @param row Row
+     * @return The index of the cluster
+     */
+    private int getCluster(final int column, final int row)
+    {
+        return ((row / clusterSize) * clusterColumns) + (column / clusterSize);
+    }
+    
+    /**
+     * Get the index of the location within its cluster
+     * @param cluster The index of the cluster
+     * @param cell The index of the location
+     * @return The local index
+     */
+    private int getLocalIndex(final int cluster, final int cell)
+    {
+        final int column = (cell % columns) - ((cluster % clusterColumns) * clusterSize);
+        final int row = (cell / columns) - ((cluster / clusterColumns) * clusterSize);
+        
+        return (row * clusterSize) + column;
+    }
+    
+    /**
+     * Get the index of the location from the local index
+     * @param cluster The index of the cluster
+     * @param local The local index within the cluster
+     * @return The index of the location
+     */
+    private int getCell(final int cluster, final int local)
+    {
+        final int column = ((cluster % clusterColumns) * clusterSize) + (local % clusterSize);
+        final int row = ((cluster / clusterColumns) * clusterSize) + (local / clusterSize);
+        
+        return getIndex(column, row);
+    }
+    
+    /**
+     * Get the index of the location
+     * @param column Column
+     * @param row Row
+     * @return The index of the (column, row)
+     */
+    private int getIndex(final int column, final int row)
+    {
+        return (row * columns) + column;
+    }
+    
+    /**
+     * Is the location within the rooms?
+     * @param column Column
+     * @param row Row
+     * @return true if the location is within the rooms, false otherwise
+     */
+    private boolean hasBounds(final int column, final int row)
+    {
+        return (column >= 0 && column < columns && row >= 0 && row < rows);
+    }
+    
+    @Override
+    public void dispose()
+    {
+        //we no longer want to know when the walls change
+        if (maze != null)
+            maze.removeWallListener(this);
+        
+        maze = null;
+        rooms = null;
+        sides = null;
+        diagonals = null;
+        nodes = null;
+        costs = null;
+        nodeIndex = null;
+        dirty = null;
+        localOpen = null;
+        localCosts = null;
+        localParents = null;
+        localStamps = null;
+        startCosts = null;
+        goalCosts = null;
+        open = null;
+        movement = null;
+        parents = null;
+        stamps = null;
+    }
+}
\ No newline at end of file
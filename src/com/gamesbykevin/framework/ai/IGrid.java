@@ -0,0 +1,39 @@
+package com.gamesbykevin.framework.ai;
+
+/**
+ * The locations and movement options a search can use, so a search does not need a room object for every location.<br>
+ * Locations are (column, row) and each move is a single step in a horizontal, vertical or diagonal direction.
+ * @author GOD
+ */
+public interface IGrid
+{
+    /**
+     * Get the number of columns
+     * @return The number of columns
+     */
+    public int getColumns();
+    
+    /**
+     * Get the number of rows
+     * @return The number of rows
+     */
+    public int getRows();
+    
+    /**
+     * Can we move a single step from the location in the specified direction
+     * @param column Column
+     * @param row Row
+     * @param x The horizontal direction (-1, 0, 1)
+     * @param y The vertical direction (-1, 0, 1)
+     * @return true if both locations are in bounds and the move is allowed, otherwise false
+     */
+    public boolean canMove(final int column, final int row, final int x, final int y);
+    
+    /**
+     * Is nothing blocking the location, so every move from the location that stays in bounds is allowed
+     * @param column Column
+     * @param row Row
+     * @return true if the location has no walls, otherwise false
+     */
+    public boolean isOpen(final int column, final int row);
+}
\ No newline at end of file
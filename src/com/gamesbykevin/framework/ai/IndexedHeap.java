@@ -0,0 +1,296 @@
+package com.gamesbykevin.framework.ai;
+
+import java.util.Arrays;
+
+/**
+ * Binary min heap of cell indexes used as the open list while pathfinding.<br>
+ * Each cell index can only exist once in the heap, and we track the heap slot of every cell,<br>
+ * so checking membership and lowering the priority (decrease-key) of a cell does not require a search.<br>
+ * Slots are only valid for the current generation, so clearing the heap does not need to touch every cell.
+ * @author GOD
+ */
+final class IndexedHeap
+{
+    /**
+     * The cell index stored in each heap slot
+     */
+    private int[] heap;
+    
+    /**
+     * The heap slot of each cell index, -1 if the cell is not in the heap
+     */
+    private int[] slots;
+    
+    /**
+     * The generation in which the heap slot of each cell index was assigned
+     */
+    private int[] stamps;
+    
+    /**
+     * The current generation, a heap slot assigned in a previous generation is not valid
+     */
+    private int generation = 1;
+    
+    /**
+     * The priority of each cell index, lower values are removed first
+     */
+    private long[] keys;
+    
+    /**
+     * The number of cells currently in the heap
+     */
+    private int size = 0;
+    
+    /**
+     * Create a heap that can hold the specified number of cells
+     * @param capacity The total number of cells, valid cell indexes are 0 to (capacity - 1)
+     */
+    protected IndexedHeap(final int capacity)
+    {
+        this.heap = new int[capacity];
+        this.slots = new int[capacity];
+        this.keys = new long[capacity];
+        this.stamps = new int[capacity];
+    }
+    
+    /**
+     * Get the capacity
+     * @return The total number of cells this heap can hold
+     */
+    protected int getCapacity()
+    {
+        return this.slots.length;
+    }
+    
+    /**
+     * Get the size
+     * @return The number of cells currently in the heap
+     */
+    protected int size()
+    {
+        return this.size;
+    }
+    
+    /**
+     * Is the heap empty?
+     * @return true if there are no cells in the heap, false otherwise
+     */
+    protected boolean isEmpty()
+    {
+        return (size == 0);
+    }
+    
+    /**
+     * Remove all cells from the heap.<br>
+     * We move to the next generation which invalidates every existing slot without having to reset them.
+     */
+    protected void clear()
+    {
+        size = 0;
+        
+        //if we run out of generations, reset the stamps and start over
+        if (generation == Integer.MAX_VALUE)
+        {
+            Arrays.fill(stamps, 0);
+            generation = 0;
+        }
+        
+        generation++;
+    }
+    
+    /**
+     * Is the cell in the heap?
+     * @param cell The cell index
+     * @return true if the cell is in the heap, false otherwise
+     */
+    protected boolean contains(final int cell)
+    {
+        return (stamps[cell] == generation && slots[cell] >= 0);
+    }
+    
+    /**
+     * Get the priority of a cell
+     * @param cell The cell index, the cell is assumed to be in the heap
+     * @return The priority assigned to the cell
+     */
+    protected long getKey(final int cell)
+    {
+        return this.keys[cell];
+    }
+    
+    /**
+     * Add the cell to the heap, or if the cell already exists assign the new priority
+     * @param cell The cell index
+     * @param key The priority of the cell, lower values are removed first
+     */
+    protected void push(final int cell, final long key)
+    {
+        if (contains(cell))
+        {
+            //the cell exists so update the priority
+            update(cell, key);
+        }
+        else
+        {
+            //place the cell at the end and move it up
+            keys[cell] = key;
+            heap[size] = cell;
+            slots[cell] = size;
+            stamps[cell] = generation;
+            size++;
+            
+            moveUp(size - 1);
+        }
+    }
+    
+    /**
+     * Assign a new priority to a cell already in the heap
+     * @param cell The cell index
+     * @param key The new priority
+     */
+    protected void update(final int cell, final long key)
+    {
+        final long previous = keys[cell];
+        
+        keys[cell] = key;
+        
+        //a lower priority moves toward the top, a higher priority moves toward the bottom
+        if (key < previous)
+        {
+            moveUp(slots[cell]);
+        }
+        else if (key > previous)
+        {
+            moveDown(slots[cell]);
+        }
+    }
+    
+    /**
+     * Get the cell with the lowest priority without removing it
+     * @return The cell index at the top of the heap
+     */
+    protected int peek()
+    {
+        return this.heap[0];
+    }
+    
+    /**
+     * Get the lowest priority in the heap
+     * @return The priority of the cell at the top of the heap
+     */
+    protected long peekKey()
+    {
+        return this.keys[heap[0]];
+    }
+    
+    /**
+     * Remove the cell with the lowest priority
+     * @return The cell index that was removed, if the heap is empty -1 is returned
+     */
+    protected int pop()
+    {
+        if (isEmpty())
+            return -1;
+        
+        final int cell = heap[0];
+        
+        //remove the top cell
+        remove(cell);
+        
+        return cell;
+    }
+    
+    /**
+     * Remove the cell from the heap
+     * @param cell The cell index
+     * @return true if the cell was removed, false if the cell was not in the heap
+     */
+    protected boolean remove(final int cell)
+    {
+        if (!contains(cell))
+            return false;
+        
+        final int slot = slots[cell];
+        
+        //flag the cell as no longer in the heap
+        slots[cell] = -1;
+        size--;
+        
+        //if this wasn't the last slot, move the last cell into the empty slot
+        if (slot < size)
+        {
+            final int last = heap[size];
+            
+            heap[slot] = last;
+            slots[last] = slot;
+            
+            //the moved cell may need to go up or down
+            moveUp(slot);
+            moveDown(slots[last]);
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Move the cell in the specified slot toward the top of the heap until it is in order
+     * @param slot The heap slot
+     */
+    private void moveUp(int slot)
+    {
+        final int cell = heap[slot];
+        final long key = keys[cell];
+        
+        while (slot > 0)
+        {
+            final int parent = (slot - 1) >> 1;
+            
+            //stop once the parent has a lower (or equal) priority
+            if (keys[heap[parent]] <= key)
+                break;
+            
+            //move the parent down into this slot
+            heap[slot] = heap[parent];
+            slots[heap[slot]] = slot;
+            slot = parent;
+        }
+        
+        heap[slot] = cell;
+        slots[cell] = slot;
+    }
+    
+    /**
+     * Move the cell in the specified slot toward the bottom of the heap until it is in order
+     * @param slot The heap slot
+     */
+    private void moveDown(int slot)
+    {
+        final int cell = heap[slot];
+        final long key = keys[cell];
+        
+        while (true)
+        {
+            int child = (slot << 1) + 1;
+            
+            //no children, we are at the bottom
+            if (child >= size)
+                break;
+            
+            //pick the child with the lower priority
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]])
+                child++;
+            
+            //stop once this cell has a lower (or equal) priority than the child
+            if (key <= keys[heap[child]])
+                break;
+            
+            //move the child up into this slot
+            heap[slot] = heap[child];
+            slots[heap[slot]] = slot;
+            slot = child;
+        }
+        
+        heap[slot] = cell;
+        slots[cell] = slot;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,474 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.maze.IRoomListener;
+import com.gamesbykevin.framework.maze.IWallListener;
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.resources.Disposable;
+
+import java.util.Arrays;
+
+/**
+ * The cost of the shortest path from a few landmark rooms to every room (and from every room to the landmarks) is calculated once, when the level is loaded.<br>
+ * Because no path can be shorter than going around a landmark allows (triangle inequality), the difference between 2 of those costs<br>
+ * is a lower bound of the cost between any 2 rooms, which is much closer to the real cost than the distance in a twisty maze.<br>
+ * The landmarks are chosen one at a time as the room farthest from the landmarks already chosen.<br>
+ * If the walls change the costs are no longer correct, so they are ignored until {@link #generate()} is called again.
+ * @author GOD
+ */
+public final class Landmarks implements Disposable, IRoomListener, IWallListener
+{
+    /**
+     * The cost of a room that can't be reached
+     */
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+    
+    /**
+     * The (x, y) of each direction, the first 4 are horizontal/vertical and the last 4 are diagonal
+     */
+    private static final int[] DIRECTIONS_X = {1, -1, 0, 0, 1, -1, 1, -1};
+    private static final int[] DIRECTIONS_Y = {0, 0, -1, 1, -1, -1, 1, 1};
+    
+    /**
+     * Our rooms to measure
+     */
+    private Room[][] rooms;
+    
+    /**
+     * The maze notifying us of wall changes, null if the rooms were assigned directly
+     */
+    private Maze maze;
+    
+    /**
+     * Are we allowed to move diagonal
+     */
+    private final boolean diagonal;
+    
+    /**
+     * The size of the rooms
+     */
+    private final int columns, rows;
+    
+    /**
+     * The number of landmarks requested, and the number chosen
+     */
+    private final int capacity;
+    private int count = 0;
+    
+    /**
+     * The index of each landmark room
+     */
+    private int[] landmarks;
+    
+    /**
+     * The cost from each landmark to each room, and from each room to each landmark.<br>
+     * The costs of a room are next to each other (cell * capacity + landmark index) since they are all read together.<br>
+     * If every passage can be moved in both directions, both refer to the same array.
+     */
+    private int[] from, to;
+    
+    /**
+     * Storage for a single search
+     */
+    private int[] costs;
+    private IndexedHeap open;
+    
+    /**
+     * Has a wall changed since the costs were calculated
+     */
+    private boolean dirty = false;
+    
+    /**
+     * The number of rooms expanded since we were created
+     */
+    private long expanded = 0;
+    
+    /**
+     * Choose the landmarks and calculate the costs.<br>
+     * The maze will notify us when the walls change.
+     * @param maze The maze to measure
+     * @param count The number of landmarks to choose
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     */
+    public Landmarks(final Maze maze, final int count, final boolean diagonal)
+    {
+        this(maze.getRooms(), count, diagonal);
+        
+        //we want to know when the walls change
+        this.maze = maze;
+        this.maze.addWallListener(this);
+    }
+    
+    /**
+     * Choose the landmarks and calculate the costs.<br>
+     * If the walls change, {@link #onWallChange(Room)} needs to be called so the costs are no longer used.
+     * @param rooms The rooms to measure, these will not be modified
+     * @param count The number of landmarks to choose
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     */
+    public Landmarks(final Room[][] rooms, final int count, final boolean diagonal)
+    {
+        this.rooms = rooms;
+        this.diagonal = diagonal;
+        this.rows = rooms.length;
+        this.columns = rooms[0].length;
+        this.capacity = Math.max(1, Math.min(count, columns * rows));
+        
+        this.landmarks = new int[capacity];
+        this.costs = new int[columns * rows];
+        this.open = new IndexedHeap(columns * rows);
+        
+        //calculate the costs
+        generate();
+    }
+    
+    /**
+     * Choose the landmarks and calculate the costs again
+     */
+    public void generate()
+    {
+        final int cells = columns * rows;
+        
+        this.from = new int[cells * capacity];
+        this.to = new int[cells * capacity];
+        this.count = 0;
+        
+        //the cost from each room to the closest landmark chosen so far
+        final int[] nearest = new int[cells];
+        
+        //the first landmark is the room farthest from the center
+        search(getIndex(columns / 2, rows / 2), false);
+        int landmark = getFarthest(costs);
+        
+        while (landmark >= 0)
+        {
+            landmarks[count] = landmark;
+            
+            //calculate the cost from the landmark to every room
+            search(landmark, false);
+            
+            for (int cell = 0; cell < cells; cell++)
+            {
+                from[cell * capacity + count] = costs[cell];
+                nearest[cell] = (count == 0) ? costs[cell] : Math.min(nearest[cell], costs[cell]);
+            }
+            
+            //calculate the cost from every room to the landmark
+            search(landmark, true);
+            
+            for (int cell = 0; cell < cells; cell++)
+            {
+                to[cell * capacity + count] = costs[cell];
+            }
+            
+            count++;
+            
+            //stop once we have enough landmarks
+            if (count >= capacity)
+                break;
+            
+            //the next landmark is the room farthest from the others, rooms that can't be reached come first
+            landmark = getFarthest(nearest);
+        }
+        
+        //if every passage can be moved in both directions, we only need to store the costs once
+        if (Arrays.equals(from, to))
+            to = from;
+        
+        dirty = false;
+    }
+    
+    /**
+     * A wall has changed, the costs will no longer be used until calculated again
+     * @param room The room that has changed
+     */
+    @Override
+    public void onWallChange(final Room room)
+    {
+        onWallChange(room.getCol(), room.getRow());
+    }
+    
+    /**
+     * A wall has changed, the costs will no longer be used until calculated again
+     * @param col Column
+     * @param row Row
+     */
+    @Override
+    public void onWallChange(final int col, final int row)
+    {
+        if (hasBounds(col, row))
+            dirty = true;
+    }
+    
+    /**
+     * Has a wall changed since the costs were calculated?
+     * @return true if {@link #generate()} needs to be called before the costs are used again, false otherwise
+     */
+    public boolean isDirty()
+    {
+        return this.dirty;
+    }
+    
+    /**
+     * Are we allowed to move diagonal
+     * @return true if the costs include diagonal moves, false otherwise
+     */
+    public boolean hasDiagonal()
+    {
+        return this.diagonal;
+    }
+    
+    /**
+     * Get the number of columns
+     * @return The number of columns in the rooms
+     */
+    public int getColumns()
+    {
+        return this.columns;
+    }
+    
+    /**
+     * Get the number of rows
+     * @return The number of rows in the rooms
+     */
+    public int getRows()
+    {
+        return this.rows;
+    }
+    
+    /**
+     * Get the number of landmarks
+     * @return The number of landmarks chosen, this is less than requested if every room is a landmark
+     */
+    public int getCount()
+    {
+        return this.count;
+    }
+    
+    /**
+     * Get the column of the landmark
+     * @param index The landmark index
+     * @return The column of the landmark room
+     */
+    public int getColumn(final int index)
+    {
+        return landmarks[index] % columns;
+    }
+    
+    /**
+     * Get the row of the landmark
+     * @param index The landmark index
+     * @return The row of the landmark room
+     */
+    public int getRow(final int index)
+    {
+        return landmarks[index] / columns;
+    }
+    
+    /**
+     * Get the number of rooms expanded calculating the costs
+     * @return The total number of rooms expanded since we were created
+     */
+    public long getExpanded()
+    {
+        return this.expanded;
+    }
+    
+    /**
+     * Get the lower bound of the cost of the shortest path
+     * @param column Column
+     * @param row Row
+     * @param targetColumn Target Column
+     * @param targetRow Target Row
+     * @return The estimated cost from the location to the target, 0 if either location is outside of the rooms
+     */
+    public int getEstimate(final int column, final int row, final int targetColumn, final int targetRow)
+    {
+        if (!hasBounds(column, row) || !hasBounds(targetColumn, targetRow))
+            return 0;
+        
+        return getEstimate(getIndex(column, row), getIndex(targetColumn, targetRow));
+    }
+    
+    /**
+     * Get the lower bound of the cost of the shortest path, the largest difference of any landmark
+     * @param cell The index of the location
+     * @param target The index of the target
+     * @return The estimated cost from the location to the target
+     */
+    protected int getEstimate(final int cell, final int target)
+    {
+        int estimate = 0;
+        
+        final int offset = cell * capacity;
+        final int targetOffset = target * capacity;
+        
+        for (int index = 0; index < count; index++)
+        {
+            //cost(cell, target) >= cost(cell, landmark) - cost(target, landmark)
+            final int cellTo = to[offset + index];
+            final int targetTo = to[targetOffset + index];
+            
+            if (cellTo != UNREACHABLE && targetTo != UNREACHABLE && cellTo - targetTo > estimate)
+                estimate = cellTo - targetTo;
+            
+            //cost(cell, target) >= cost(landmark, target) - cost(landmark, cell)
+            final int cellFrom = from[offset + index];
+            final int targetFrom = from[targetOffset + index];
+            
+            if (cellFrom != UNREACHABLE && targetFrom != UNREACHABLE && targetFrom - cellFrom > estimate)
+                estimate = targetFrom - cellFrom;
+        }
+        
+        return estimate;
+    }
+    
+    /**
+     * Can the costs be used for a search of these rooms?
+     * @param columns The number of columns searched
+     * @param rows The number of rows searched
+     * @param diagonal Is the search allowed to move diagonal
+     * @return true if the size matches, no wall has changed, and the costs don't include moves the search can't make, otherwise false
+     */
+    protected boolean canEstimate(final int columns, final int rows, final boolean diagonal)
+    {
+        return (!dirty && this.columns == columns && this.rows == rows && (this.diagonal || !diagonal));
+    }
+    
+    /**
+     * Calculate the cost of the shortest path between the source and every room
+     * @param source The index of the landmark
+     * @param reverse true for the cost from each room to the source, false for the cost from the source to each room
+     */
+    private void search(final int source, final boolean reverse)
+    {
+        Arrays.fill(costs, UNREACHABLE);
+        open.clear();
+        
+        costs[source] = 0;
+        open.push(source, 0);
+        
+        while (!open.isEmpty())
+        {
+            final int cell = open.pop();
+            final int column = cell % columns;
+            final int row = cell / columns;
+            
+            expanded++;
+            
+            for (int direction = 0; direction < (diagonal ? DIRECTIONS_X.length : 4); direction++)
+            {
+                final int x = column + DIRECTIONS_X[direction];
+                final int y = row + DIRECTIONS_Y[direction];
+                
+                //when reversed, the move is from the neighbor to this room
+                if (reverse ? !canMove(x, y, -DIRECTIONS_X[direction], -DIRECTIONS_Y[direction]) : !canMove(column, row, DIRECTIONS_X[direction], DIRECTIONS_Y[direction]))
+                    continue;
+                
+                final int neighbor = getIndex(x, y);
+                final int cost = costs[cell] + getMovementCost(direction);
+                
+                if (cost < costs[neighbor])
+                {
+                    costs[neighbor] = cost;
+                    open.push(neighbor, cost);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Get the room with the highest cost
+     * @param costs The cost of each room
+     * @return The index of the room with the highest cost, -1 if every cost is 0
+     */
+    private static int getFarthest(final int[] costs)
+    {
+        int farthest = -1;
+        
+        for (int cell = 0; cell < costs.length; cell++)
+        {
+            if (costs[cell] > 0 && (farthest < 0 || costs[cell] > costs[farthest]))
+                farthest = cell;
+        }
+        
+        return farthest;
+    }
+    
+    /**
+     * Can we move from the location in the specified direction
+     * @param column Column
+     * @param row Row
+     * @param x The horizontal direction
+     * @param y The vertical direction
+     * @return true if both locations are in bounds and there is no wall in the way, otherwise false
+     */
+    private boolean canMove(final int column, final int row, final int x, final int y)
+    {
+        //we can't move outside of the rooms
+        if (!hasBounds(column, row) || !hasBounds(column + x, row + y))
+            return false;
+        
+        final Room room = rooms[row][column];
+        
+        if (x > 0 && room.hasWall(Wall.East))
+            return false;
+        if (x < 0 && room.hasWall(Wall.West))
+            return false;
+        if (y < 0 && room.hasWall(Wall.North))
+            return false;
+        if (y > 0 && room.hasWall(Wall.South))
+            return false;
+        
+        return true;
+    }
+    
+    /**
+     * Get the cost of a single move in the specified direction
+     * @param direction The direction index
+     * @return The movement cost
+     */
+    private static int getMovementCost(final int direction)
+    {
+        return (DIRECTIONS_X[direction] != 0 && DIRECTIONS_Y[direction] != 0) ? AStar.MOVE_DIAGONAL : AStar.MOVE_VERTICAL_HORIZONTAL;
+    }
+    
+    /**
+     * Get the index of the location
+     * @param column Column
+     * @param row Row
+     * @return The index (row * columns + column)
+     */
+    private int getIndex(final int column, final int row)
+    {
+        return (row * columns) + column;
+    }
+    
+    /**
+     * Is the location within the rooms
+     * @param column Column
+     * @param row Row
+     * @return true if the location is in bounds, otherwise false
+     */
+    private boolean hasBounds(final int column, final int row)
+    {
+        return (column >= 0 && column < columns && row >= 0 && row < rows);
+    }
+    
+    @Override
+    public void dispose()
+    {
+        //we no longer want to know when the walls change
+        if (maze != null)
+            maze.removeWallListener(this);
+        
+        maze = null;
+        rooms = null;
+        landmarks = null;
+        from = null;
+        to = null;
+        costs = null;
+        open = null;
+    }
+}
\ No newline at end of file
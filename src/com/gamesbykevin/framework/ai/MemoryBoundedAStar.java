@@ -0,0 +1,699 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.resources.Disposable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Search for the shortest path while never storing more than a fixed number of nodes (simplified memory-bounded A*, SMA*).<br>
+ * Unlike {@link SearchContext} the storage does not depend on the size of the rooms, so a very large maze can be searched with a small budget.<br>
+ * When the storage is full, the stored leaf with the highest estimated cost is forgotten, and the parent remembers that cost,<br>
+ * so the parent is expanded again to bring the leaf back only once it is the best option.<br>
+ * If the search fits in the storage the path is the shortest, otherwise the best path found with the storage full is kept, see {@link #isOptimal()}.
+ * @author GOD
+ */
+public final class MemoryBoundedAStar implements Disposable
+{
+    /**
+     * The (x, y) of each direction, the first 4 are horizontal/vertical and the last 4 are diagonal
+     */
+    private static final int[] DIRECTIONS_X = {1, -1, 0, 0, 1, -1, 1, -1};
+    private static final int[] DIRECTIONS_Y = {0, 0, -1, 1, -1, -1, 1, 1};
+    
+    /**
+     * The estimated cost of a node that can't lead to the goal
+     */
+    private static final int INFINITE = Integer.MAX_VALUE;
+    
+    /**
+     * The default maximum number of nodes expanded during a search
+     */
+    public static final int DEFAULT_LIMIT = 1000000;
+    
+    /**
+     * The maximum number of nodes stored
+     */
+    private final int capacity;
+    
+    /**
+     * Each stored node is spread across these arrays, indexed by the node slot.<br>
+     * The location, movement cost from the start, estimated total cost, parent slot, the number of children stored,<br>
+     * the lowest estimated cost of the children forgotten, and the number of moves from the start.
+     */
+    private int[] cells, costs, estimates, parents, children, forgotten, depths;
+    
+    /**
+     * The slots not in use, and the number of them
+     */
+    private int[] free;
+    private int freeCount;
+    
+    /**
+     * The slot (plus 1) of each stored location, found by a hash of the location, 0 if empty
+     */
+    private int[] table;
+    
+    /**
+     * The nodes to expand ordered by lowest estimated cost, and the nodes without stored children ordered by highest estimated cost
+     */
+    private IndexedHeap open, leaves;
+    
+    /**
+     * The rooms of the current search
+     */
+    private Room[][] rooms;
+    private int columns, rows;
+    
+    /**
+     * The movement options of the current search
+     */
+    private boolean diagonal;
+    
+    /**
+     * The location of the goal, and the slot of the start, goal and expanding nodes
+     */
+    private int goal, root = -1, result = -1, expanding = -1;
+    
+    /**
+     * The number of nodes expanded, and the largest number of nodes stored at once, during the last search
+     */
+    private int expanded = 0, peak = 0;
+    
+    /**
+     * The maximum number of nodes expanded during a search
+     */
+    private int limit = DEFAULT_LIMIT;
+    
+    /**
+     * Was a node forgotten during the last search
+     */
+    private boolean pruned = false;
+    
+    /**
+     * Create a search
+     * @param capacity The maximum number of nodes to store
+     * @throws Exception If the capacity is less than 2
+     */
+    public MemoryBoundedAStar(final int capacity) throws Exception
+    {
+        if (capacity < 2)
+            throw new Exception("We must be able to store at least 2 nodes");
+        
+        this.capacity = capacity;
+        
+        this.cells = new int[capacity];
+        this.costs = new int[capacity];
+        this.estimates = new int[capacity];
+        this.parents = new int[capacity];
+        this.children = new int[capacity];
+        this.forgotten = new int[capacity];
+        this.depths = new int[capacity];
+        this.free = new int[capacity];
+        this.open = new IndexedHeap(capacity);
+        this.leaves = new IndexedHeap(capacity);
+        
+        //the hash table is at most half full so the locations are found quickly
+        this.table = new int[Integer.highestOneBit(capacity) * 4];
+    }
+    
+    /**
+     * Get the maximum number of nodes stored
+     * @return The capacity
+     */
+    public int getCapacity()
+    {
+        return this.capacity;
+    }
+    
+    /**
+     * Set the maximum number of nodes expanded during a search.<br>
+     * A forgotten node may be expanded many times when the storage is too small, so this limits the time spent.
+     * @param limit The maximum number of nodes expanded
+     * @throws Exception If the limit is less than 1
+     */
+    public void setLimit(final int limit) throws Exception
+    {
+        if (limit < 1)
+            throw new Exception("We must be able to expand at least 1 node");
+        
+        this.limit = limit;
+    }
+    
+    /**
+     * Get the maximum number of nodes expanded during a search
+     * @return The limit
+     */
+    public int getLimit()
+    {
+        return this.limit;
+    }
+    
+    /**
+     * Search for the shortest path that fits in the storage.<br>
+     * If the goal can't be reached, no path fits, the limit of nodes expanded is reached,<br>
+     * or either location is outside of the rooms, no path will be found.
+     * @param rooms The rooms to search, these will not be modified
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @return true if a path was found, false otherwise
+     */
+    public boolean search(final Room[][] rooms, final int startColumn, final int startRow, final int goalColumn, final int goalRow, final boolean diagonal)
+    {
+        this.rooms = rooms;
+        this.rows = rooms.length;
+        this.columns = rooms[0].length;
+        this.diagonal = diagonal;
+        this.result = -1;
+        this.root = -1;
+        this.expanded = 0;
+        this.peak = 0;
+        this.pruned = false;
+        
+        //remove every stored node
+        open.clear();
+        leaves.clear();
+        Arrays.fill(table, 0);
+        freeCount = 0;
+        
+        for (int slot = capacity - 1; slot >= 0; slot--)
+        {
+            free[freeCount++] = slot;
+        }
+        
+        //if the start or goal are out of bounds there is no path
+        if (!hasBounds(startColumn, startRow) || !hasBounds(goalColumn, goalRow))
+            return false;
+        
+        this.goal = getIndex(goalColumn, goalRow);
+        
+        //add the start
+        root = add(getIndex(startColumn, startRow), 0, -1, getHeuristic(getIndex(startColumn, startRow)));
+        
+        while (!open.isEmpty())
+        {
+            final int node = open.peek();
+            
+            //nothing left can reach the goal
+            if ((open.peekKey() >>> 32) == INFINITE)
+                return false;
+            
+            //the best node is the goal
+            if (cells[node] == goal)
+            {
+                result = node;
+                return true;
+            }
+            
+            //we have spent too long searching
+            if (expanded >= limit)
+                return false;
+            
+            open.pop();
+            expand(node);
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Was a path found during the last search
+     * @return true if a path was found, false otherwise
+     */
+    public boolean hasPath()
+    {
+        return (result >= 0);
+    }
+    
+    /**
+     * Is the path the shortest possible.<br>
+     * If no node was forgotten, the search was the same as A* and the path is the shortest.<br>
+     * Otherwise the path is the shortest that was found while the storage was full.
+     * @return true if a path was found and no node was forgotten, false otherwise
+     */
+    public boolean isOptimal()
+    {
+        return (hasPath() && !pruned);
+    }
+    
+    /**
+     * Get the movement cost of the path
+     * @return The total movement cost from the start to the goal, -1 if no path was found
+     */
+    public int getPathCost()
+    {
+        return (result >= 0) ? costs[result] : -1;
+    }
+    
+    /**
+     * Get the number of nodes expanded
+     * @return The number of nodes expanded during the last search, a forgotten node may be expanded again
+     */
+    public int getExpanded()
+    {
+        return this.expanded;
+    }
+    
+    /**
+     * Get the largest number of nodes stored
+     * @return The largest number of nodes stored at once during the last search, never more than the capacity
+     */
+    public int getPeak()
+    {
+        return this.peak;
+    }
+    
+    /**
+     * Fill the list with the path.<br>
+     * The first cell in the list will be the goal, the last cell in the list will be the start.
+     * @param path The list to fill, any existing cells will be removed
+     */
+    public void getPath(final List<Cell> path)
+    {
+        //remove any existing path
+        path.clear();
+        
+        //every parent of a stored node is stored, so we can follow them back to the start
+        for (int node = result; node >= 0; node = parents[node])
+        {
+            path.add(new Cell(cells[node] % columns, cells[node] / columns));
+        }
+    }
+    
+    /**
+     * Store the path as packed location indices (row * columns + column), so no objects are created.<br>
+     * The first index will be the goal, the last index will be the start.<br>
+     * If the buffer is too small, only the first locations that fit are stored.
+     * @param path The buffer to fill
+     * @return The number of locations in the path, 0 if no path was found
+     */
+    public int getPath(final int[] path)
+    {
+        int length = 0;
+        
+        for (int node = result; node >= 0; node = parents[node])
+        {
+            if (length < path.length)
+                path[length] = cells[node];
+            
+            length++;
+        }
+        
+        return length;
+    }
+    
+    /**
+     * Add every neighbor that is not already stored with a lower cost
+     * @param node The slot of the node to expand
+     */
+    private void expand(final int node)
+    {
+        expanded++;
+        
+        //the node won't be forgotten while we add the children
+        expanding = node;
+        leaves.remove(node);
+        
+        //a forgotten child is no better than the lowest estimate remembered
+        final int lowest = (forgotten[node] == INFINITE) ? estimates[node] : Math.max(estimates[node], forgotten[node]);
+        
+        //every child will be added again, or is already stored
+        forgotten[node] = INFINITE;
+        
+        final int column = cells[node] % columns;
+        final int row = cells[node] / columns;
+        
+        for (int direction = 0; direction < (diagonal ? DIRECTIONS_X.length : 4); direction++)
+        {
+            if (!canMove(column, row, direction))
+                continue;
+            
+            final int cell = getIndex(column + DIRECTIONS_X[direction], row + DIRECTIONS_Y[direction]);
+            final int cost = costs[node] + ((direction < 4) ? AStar.MOVE_VERTICAL_HORIZONTAL : AStar.MOVE_DIAGONAL);
+            
+            //a path longer than the storage can't be stored, unless this is the goal
+            if (depths[node] + 2 > capacity && cell != goal)
+            {
+                pruned = true;
+                continue;
+            }
+            
+            //the estimate never decreases along a path (pathmax)
+            final int estimate = Math.max(lowest, cost + getHeuristic(cell));
+            
+            final int existing = find(cell);
+            
+            if (existing >= 0)
+            {
+                //we already have a cheaper way to this location
+                if (costs[existing] <= cost)
+                    continue;
+                
+                //move the node to the new parent, it needs to be expanded again with the lower cost
+                final int previous = parents[existing];
+                children[previous]--;
+                forget(previous, INFINITE);
+                
+                costs[existing] = cost;
+                estimates[existing] = estimate;
+                parents[existing] = node;
+                depths[existing] = depths[node] + 1;
+                forgotten[existing] = INFINITE;
+                children[node]++;
+                open.push(existing, getOpenKey(existing, estimate));
+                
+                if (children[existing] == 0)
+                    leaves.push(existing, getLeafKey(existing));
+                
+                continue;
+            }
+            
+            if (freeCount == 0)
+            {
+                //if the new node is no better than every stored leaf, remember the estimate instead of storing it
+                pruned = true;
+                
+                if (!canPrune(estimate, depths[node] + 1))
+                {
+                    forget(node, estimate);
+                    continue;
+                }
+                
+                //make room for the new node
+                prune();
+            }
+            
+            add(cell, cost, node, estimate);
+        }
+        
+        expanding = -1;
+        
+        //with no children stored the node is a leaf again
+        if (children[node] == 0)
+            forget(node, INFINITE);
+    }
+    
+    /**
+     * Store a new node
+     * @param cell The index of the location
+     * @param cost The movement cost from the start
+     * @param parent The slot of the parent, -1 if this is the start
+     * @param estimate The estimated total cost
+     * @return The slot of the new node
+     */
+    private int add(final int cell, final int cost, final int parent, final int estimate)
+    {
+        final int node = free[--freeCount];
+        
+        cells[node] = cell;
+        costs[node] = cost;
+        estimates[node] = estimate;
+        parents[node] = parent;
+        children[node] = 0;
+        forgotten[node] = INFINITE;
+        depths[node] = (parent >= 0) ? depths[parent] + 1 : 0;
+        
+        //the parent is no longer a leaf
+        if (parent >= 0)
+        {
+            children[parent]++;
+            leaves.remove(parent);
+        }
+        
+        insert(cell, node);
+        open.push(node, getOpenKey(node, estimate));
+        leaves.push(node, getLeafKey(node));
+        
+        peak = Math.max(peak, capacity - freeCount);
+        
+        return node;
+    }
+    
+    /**
+     * Is there a stored leaf worse than the new node.<br>
+     * When the estimates are the same, the leaf closer to the start is worse, so the search keeps moving deeper.
+     * @param estimate The estimated total cost of the new node
+     * @param depth The number of moves from the start to the new node
+     * @return true if the worst leaf can be forgotten to store the new node, otherwise false
+     */
+    private boolean canPrune(final int estimate, final int depth)
+    {
+        //the start is never forgotten
+        if (leaves.isEmpty() || leaves.peek() == root)
+            return false;
+        
+        final int leaf = leaves.peek();
+        
+        return (estimates[leaf] > estimate || estimates[leaf] == estimate && depths[leaf] < depth);
+    }
+    
+    /**
+     * Forget the stored leaf with the highest estimated cost, the parent will remember the cost
+     */
+    private void prune()
+    {
+        final int node = leaves.pop();
+        final int parent = parents[node];
+        
+        open.remove(node);
+        remove(cells[node]);
+        free[freeCount++] = node;
+        
+        children[parent]--;
+        forget(parent, estimates[node]);
+    }
+    
+    /**
+     * Remember the estimate of a child that is not stored.<br>
+     * The node will be expanded again to add the child back, once the estimate is the lowest.<br>
+     * If the node has no children stored, the lowest estimate remembered is the best the node can do.
+     * @param node The slot of the node
+     * @param estimate The estimated total cost of the child, INFINITE if the child can't lead to the goal
+     */
+    private void forget(final int node, final int estimate)
+    {
+        forgotten[node] = Math.min(forgotten[node], estimate);
+        
+        if (forgotten[node] != INFINITE)
+        {
+            final long key = getOpenKey(node, forgotten[node]);
+            
+            if (!open.contains(node) || open.getKey(node) > key)
+                open.push(node, key);
+        }
+        
+        //the expanding node is handled once the expansion is done
+        if (children[node] > 0 || node == expanding)
+            return;
+        
+        //if the node is still waiting to be expanded, the estimate is not affected
+        if (forgotten[node] == INFINITE && open.contains(node))
+        {
+            leaves.push(node, getLeafKey(node));
+            return;
+        }
+        
+        //back up the estimate, if nothing was remembered this location can't lead to the goal through this path
+        estimates[node] = Math.max(estimates[node], forgotten[node]);
+        
+        if (estimates[node] == INFINITE)
+            open.remove(node);
+        
+        leaves.push(node, getLeafKey(node));
+    }
+    
+    /**
+     * Get the open list key, the lowest estimated cost first, then the node furthest from the start
+     * @param node The slot of the node
+     * @param estimate The estimated total cost
+     * @return The key
+     */
+    private long getOpenKey(final int node, final int estimate)
+    {
+        return ((long)estimate << 32) | (Integer.MAX_VALUE - depths[node]);
+    }
+    
+    /**
+     * Get the leaf key, the highest estimated cost first, then the node closest to the start
+     * @param node The slot of the node
+     * @return The key
+     */
+    private long getLeafKey(final int node)
+    {
+        return ((long)(INFINITE - estimates[node]) << 32) | depths[node];
+    }
+    
+    /**
+     * Find the stored node at the location
+     * @param cell The index of the location
+     * @return The slot of the node, -1 if not stored
+     */
+    private int find(final int cell)
+    {
+        final int mask = table.length - 1;
+        
+        for (int index = getHash(cell) & mask; table[index] != 0; index = (index + 1) & mask)
+        {
+            if (cells[table[index] - 1] == cell)
+                return table[index] - 1;
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Add the location of the node to the hash table
+     * @param cell The index of the location
+     * @param node The slot of the node
+     */
+    private void insert(final int cell, final int node)
+    {
+        final int mask = table.length - 1;
+        
+        int index = getHash(cell) & mask;
+        
+        while (table[index] != 0)
+        {
+            index = (index + 1) & mask;
+        }
+        
+        table[index] = node + 1;
+    }
+    
+    /**
+     * Remove the location from the hash table, moving back any location that would no longer be found
+     * @param cell The index of the location
+     */
+    private void remove(final int cell)
+    {
+        final int mask = table.length - 1;
+        
+        int index = getHash(cell) & mask;
+        
+        while (cells[table[index] - 1] != cell)
+        {
+            index = (index + 1) & mask;
+        }
+        
+        table[index] = 0;
+        
+        for (int next = (index + 1) & mask; table[next] != 0; next = (next + 1) & mask)
+        {
+            final int home = getHash(cells[table[next] - 1]) & mask;
+            
+            //only move the entry back if the empty slot is between its home and where it is now
+            if (((next - home) & mask) >= ((next - index) & mask))
+            {
+                table[index] = table[next];
+                table[next] = 0;
+                index = next;
+            }
+        }
+    }
+    
+    /**
+     * Get the hash of the location
+     * @param cell The index of the location
+     * @return The hash
+     */
+    private static int getHash(final int cell)
+    {
+        return (cell * 0x9E3779B1) >>> 7;
+    }
+    
+    /**
+     * Get the estimated cost to the goal, this is never more than the real cost
+     * @param cell The index of the location
+     * @return The estimated cost
+     */
+    private int getHeuristic(final int cell)
+    {
+        final int horizontal = Math.abs((cell % columns) - (goal % columns));
+        final int vertical = Math.abs((cell / columns) - (goal / columns));
+        
+        //move diagonal as much as possible, then the remaining distance straight
+        if (diagonal)
+        {
+            final int min = Math.min(horizontal, vertical);
+            
+            return (min * AStar.MOVE_DIAGONAL) + ((horizontal + vertical - min - min) * AStar.MOVE_VERTICAL_HORIZONTAL);
+        }
+        
+        return ((horizontal + vertical) * AStar.MOVE_VERTICAL_HORIZONTAL);
+    }
+    
+    /**
+     * Can we move from the location in the specified direction
+     * @param column Column
+     * @param row Row
+     * @param direction The direction index
+     * @return true if both locations are in bounds and there is no wall in the way, otherwise false
+     */
+    private boolean canMove(final int column, final int row, final int direction)
+    {
+        final int x = DIRECTIONS_X[direction];
+        final int y = DIRECTIONS_Y[direction];
+        
+        //we can't move outside of the rooms
+        if (!hasBounds(column + x, row + y))
+            return false;
+        
+        final Room room = rooms[row][column];
+        
+        if (x > 0 && room.hasWall(Wall.East))
+            return false;
+        if (x < 0 && room.hasWall(Wall.West))
+            return false;
+        if (y < 0 && room.hasWall(Wall.North))
+            return false;
+        if (y > 0 && room.hasWall(Wall.South))
+            return false;
+        
+        return true;
+    }
+    
+    /**
+     * Get the index of the location
+     * @param column Column
+     * @param row Row
+     * @return The index (row * columns + column)
+     */
+    private int getIndex(final int column, final int row)
+    {
+        return (row * columns) + column;
+    }
+    
+    /**
+     * Is the location within the rooms
+     * @param column Column
+     * @param row Row
+     * @return true if the location is in bounds, otherwise false
+     */
+    private boolean hasBounds(final int column, final int row)
+    {
+        return (column >= 0 && column < columns && row >= 0 && row < rows);
+    }
+    
+    @Override
+    public void dispose()
+    {
+        rooms = null;
+        cells = null;
+        costs = null;
+        estimates = null;
+        parents = null;
+        children = null;
+        forgotten = null;
+        depths = null;
+        free = null;
+        table = null;
+        open = null;
+        leaves = null;
+    }
+}
\ No newline at end of file
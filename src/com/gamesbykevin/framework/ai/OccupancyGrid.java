@@ -0,0 +1,122 @@
+package com.gamesbykevin.framework.ai;
+
+import java.util.BitSet;
+
+/**
+ * A grid of locations that are either blocked or not, such as a tile map.<br>
+ * Each location is indexed by (row * columns) + column, and a move is allowed if neither location is blocked.<br>
+ * A diagonal move is also not allowed if either of the locations beside it are blocked, so we never cut a corner.<br>
+ * The blocked locations are only read and never modified, so changes made by the owner are seen by the next search.
+ * @author GOD
+ */
+public final class OccupancyGrid implements IGrid
+{
+    /**
+     * The blocked locations when stored as an array, null if stored as bits
+     */
+    private final boolean[] blocked;
+    
+    /**
+     * The blocked locations when stored as bits, null if stored as an array
+     */
+    private final BitSet bits;
+    
+    /**
+     * The dimensions of the grid
+     */
+    private final int columns, rows;
+    
+    /**
+     * Create a grid of blocked locations
+     * @param blocked true for each location that is blocked, indexed by (row * columns) + column
+     * @param columns The number of columns
+     * @param rows The number of rows
+     * @throws Exception If the number of locations does not match the dimensions
+     */
+    public OccupancyGrid(final boolean[] blocked, final int columns, final int rows) throws Exception
+    {
+        if (columns < 1 || rows < 1 || blocked.length != columns * rows)
+            throw new Exception("The number of locations does not match the dimensions");
+        
+        this.blocked = blocked;
+        this.bits = null;
+        this.columns = columns;
+        this.rows = rows;
+    }
+    
+    /**
+     * Create a grid of blocked locations
+     * @param bits A set bit for each location that is blocked, indexed by (row * columns) + column
+     * @param columns The number of columns
+     * @param rows The number of rows
+     * @throws Exception If the dimensions are less than 1
+     */
+    public OccupancyGrid(final BitSet bits, final int columns, final int rows) throws Exception
+    {
+        if (columns < 1 || rows < 1)
+            throw new Exception("The dimensions must be at least 1");
+        
+        this.blocked = null;
+        this.bits = bits;
+        this.columns = columns;
+        this.rows = rows;
+    }
+    
+    @Override
+    public int getColumns()
+    {
+        return this.columns;
+    }
+    
+    @Override
+    public int getRows()
+    {
+        return this.rows;
+    }
+    
+    /**
+     * Is the location blocked
+     * @param column Column
+     * @param row Row
+     * @return true if the location is out of bounds or blocked, otherwise false
+     */
+    public boolean isBlocked(final int column, final int row)
+    {
+        //everything outside of the grid is blocked
+        if (column < 0 || column >= columns || row < 0 || row >= rows)
+            return true;
+        
+        final int cell = (row * columns) + column;
+        
+        return (blocked != null) ? blocked[cell] : bits.get(cell);
+    }
+    
+    @Override
+    public boolean canMove(final int column, final int row, final int x, final int y)
+    {
+        if (isBlocked(column, row) || isBlocked(column + x, row + y))
+            return false;
+        
+        //don't cut the corner of a blocked location
+        if (x != 0 && y != 0)
+            return (!isBlocked(column + x, row) && !isBlocked(column, row + y));
+        
+        return true;
+    }
+    
+    @Override
+    public boolean isOpen(final int column, final int row)
+    {
+        //the location and every neighbor must be clear
+        for (int y = -1; y <= 1; y++)
+        {
+            for (int x = -1; x <= 1; x++)
+            {
+                if (isBlocked(column + x, row + y))
+                    return false;
+            }
+        }
+        
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,693 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.resources.Disposable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Search for the shortest path of a single very large query using several threads (hash distributed A*).<br>
+ * Each location is owned by 1 worker thread, chosen by a hash of the small block of rooms containing it.<br>
+ * A worker only expands the locations it owns from its own open list, and a new node for a location owned<br>
+ * by another worker is sent to that worker as a message, so the node storage is never written by 2 threads.<br>
+ * The search ends when every worker has nothing left that could improve the best path to the goal, and no messages are waiting,<br>
+ * so the path found is the shortest path.<br>
+ * This is meant for offline or level build queries, for many queries at once use {@link PathBatch}.<br>
+ * The rooms must not be modified while searching.
+ * @author GOD
+ */
+public final class ParallelAStar implements Disposable
+{
+    /**
+     * The (x, y) of each direction, the first 4 are horizontal/vertical and the last 4 are diagonal
+     */
+    private static final int[] DIRECTIONS_X = {1, -1, 0, 0, 1, -1, 1, -1};
+    private static final int[] DIRECTIONS_Y = {0, 0, -1, 1, -1, -1, 1, 1};
+    
+    /**
+     * The size of the square block of rooms owned by the same worker, so most neighbors don't need a message
+     */
+    private static final int BLOCK_SIZE = 4;
+    
+    /**
+     * The number of nodes stored in a message before it is sent
+     */
+    private static final int MESSAGE_SIZE = 64;
+    
+    /**
+     * The number of nodes a worker will expand before checking for messages
+     */
+    private static final int EXPANSIONS = 64;
+    
+    /**
+     * The maximum number of worker threads
+     */
+    public static final int MAX_THREADS = 64;
+    
+    /**
+     * Our rooms to search
+     */
+    private Room[][] rooms;
+    
+    /**
+     * The size of the rooms
+     */
+    private final int columns, rows;
+    
+    /**
+     * Do we allow diagonal movement while pathfinding
+     */
+    private boolean diagonal = false;
+    
+    /**
+     * The worker that owns each location
+     */
+    private byte[] owners;
+    
+    /**
+     * The movement cost from the start and the index of the parent of each location, each is only written by the owner
+     */
+    private int[] costs, parents;
+    
+    /**
+     * Our worker threads
+     */
+    private Worker[] workers;
+    
+    /**
+     * The number of workers that are busy plus the number of messages not yet read, the search is complete when this reaches 0
+     */
+    private final AtomicInteger active = new AtomicInteger();
+    
+    /**
+     * Is the search complete
+     */
+    private volatile boolean done = false;
+    
+    /**
+     * The cost of the best path to the goal found so far, only written by the owner of the goal
+     */
+    private volatile int best = Integer.MAX_VALUE;
+    
+    /**
+     * The location of the start and goal
+     */
+    private int start = -1, goal = -1;
+    
+    /**
+     * Was the shortest path found
+     */
+    private boolean found = false;
+    
+    /**
+     * The number of nodes expanded during the last search
+     */
+    private int expanded = 0;
+    
+    /**
+     * Create a search that will use a thread for each available processor
+     * @param rooms The rooms to search, these will not be modified
+     */
+    public ParallelAStar(final Room[][] rooms)
+    {
+        this(rooms, Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Create a search
+     * @param rooms The rooms to search, these will not be modified
+     * @param threads The number of worker threads, between 1 and {@link #MAX_THREADS}
+     */
+    public ParallelAStar(final Room[][] rooms, final int threads)
+    {
+        this.rooms = rooms;
+        this.rows = rooms.length;
+        this.columns = rooms[0].length;
+        
+        this.costs = new int[columns * rows];
+        this.parents = new int[columns * rows];
+        this.owners = new byte[columns * rows];
+        this.workers = new Worker[Math.max(1, Math.min(threads, MAX_THREADS))];
+        
+        for (int index = 0; index < workers.length; index++)
+        {
+            workers[index] = new Worker(index);
+        }
+        
+        //the number of blocks in each row
+        final int blocks = (columns + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        
+        //each block of rooms is assigned to a worker by a hash, so the work is spread evenly
+        for (int row = 0; row < rows; row++)
+        {
+            for (int column = 0; column < columns; column++)
+            {
+                final long block = ((row / BLOCK_SIZE) * blocks) + (column / BLOCK_SIZE);
+                final long hash = ((block * 0x9E3779B1L) & 0xFFFFFFFFL) >>> 8;
+                
+                owners[getIndex(column, row)] = (byte)(hash % workers.length);
+            }
+        }
+    }
+    
+    /**
+     * Assign diagonal pathfinding
+     * @param diagonal true if we are allowed to move diagonal while pathfinding, otherwise false
+     */
+    public void setDiagonal(final boolean diagonal)
+    {
+        this.diagonal = diagonal;
+    }
+    
+    /**
+     * Get the number of worker threads
+     * @return The number of threads used for each search
+     */
+    public int getThreads()
+    {
+        return this.workers.length;
+    }
+    
+    /**
+     * Search for the shortest path, and wait until the search is complete.<br>
+     * If the goal can't be reached, or either location is outside of the rooms, no path will be found.
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @return true if the shortest path was found, false otherwise
+     * @throws Exception If we were interrupted while waiting, or a worker could not complete the search
+     */
+    public boolean search(final int startColumn, final int startRow, final int goalColumn, final int goalRow) throws Exception
+    {
+        this.found = false;
+        this.expanded = 0;
+        this.start = -1;
+        this.goal = -1;
+        
+        //if the start or goal are out of bounds there is no path
+        if (!hasBounds(startColumn, startRow) || !hasBounds(goalColumn, goalRow))
+            return false;
+        
+        this.start = getIndex(startColumn, startRow);
+        this.goal = getIndex(goalColumn, goalRow);
+        this.best = Integer.MAX_VALUE;
+        this.done = false;
+        
+        //no location has been reached yet
+        Arrays.fill(costs, Integer.MAX_VALUE);
+        
+        for (Worker worker : workers)
+        {
+            worker.reset();
+        }
+        
+        //every worker starts busy
+        active.set(workers.length);
+        
+        //the owner of the start adds it to the open list
+        workers[owners[start]].add(start, 0, -1);
+        
+        //start every worker
+        final Thread[] threads = new Thread[workers.length];
+        
+        for (int index = 0; index < threads.length; index++)
+        {
+            threads[index] = new Thread(workers[index], "ParallelAStar-" + index);
+            threads[index].setDaemon(true);
+            threads[index].start();
+        }
+        
+        try
+        {
+            //wait for every worker to finish
+            for (Thread thread : threads)
+            {
+                thread.join();
+            }
+        }
+        finally
+        {
+            //make sure every worker stops if we were interrupted
+            done = true;
+        }
+        
+        for (Worker worker : workers)
+        {
+            if (worker.failure != null)
+                throw new Exception("A worker could not complete the search", worker.failure);
+            
+            expanded += worker.expanded;
+        }
+        
+        this.found = (best != Integer.MAX_VALUE);
+        
+        return found;
+    }
+    
+    /**
+     * Was the shortest path found during the last search
+     * @return true if the shortest path was found, false otherwise
+     */
+    public boolean hasPath()
+    {
+        return this.found;
+    }
+    
+    /**
+     * Get the movement cost of the shortest path
+     * @return The total movement cost from the start to the goal, -1 if no path was found
+     */
+    public int getPathCost()
+    {
+        return (found) ? best : -1;
+    }
+    
+    /**
+     * Get the number of nodes expanded
+     * @return The number of nodes removed from the open lists of every worker during the last search
+     */
+    public int getExpanded()
+    {
+        return this.expanded;
+    }
+    
+    /**
+     * Fill the list with the shortest path.<br>
+     * The first cell in the list will be the goal, the last cell in the list will be the start.
+     * @param path The list to fill, any existing cells will be removed
+     */
+    public void getPath(final List<Cell> path)
+    {
+        //remove any existing path
+        path.clear();
+        
+        //if there is no path, no need to continue
+        if (!found)
+            return;
+        
+        for (int cell = goal; cell >= 0; cell = parents[cell])
+        {
+            path.add(new Cell(cell % columns, cell / columns));
+        }
+    }
+    
+    /**
+     * Store the shortest path as packed location indices (row * columns + column), so no objects are created.<br>
+     * The first index will be the goal, the last index will be the start.<br>
+     * If the buffer is too small, only the first locations that fit are stored.
+     * @param path The buffer to fill
+     * @return The number of locations in the shortest path, 0 if no path was found
+     */
+    public int getPath(final int[] path)
+    {
+        //if there is no path, no need to continue
+        if (!found)
+            return 0;
+        
+        int length = 0;
+        
+        for (int cell = goal; cell >= 0; cell = parents[cell])
+        {
+            if (length < path.length)
+                path[length] = cell;
+            
+            length++;
+        }
+        
+        return length;
+    }
+    
+    /**
+     * Get the estimated cost to the goal, this is never more than the real cost
+     * @param cell The index of the location
+     * @return The estimated cost
+     */
+    private int getHeuristic(final int cell)
+    {
+        final int horizontal = Math.abs((cell % columns) - (goal % columns));
+        final int vertical = Math.abs((cell / columns) - (goal / columns));
+        
+        //move diagonal as much as possible, then the remaining distance straight
+        if (diagonal)
+        {
+            final int min = Math.min(horizontal, vertical);
+            
+            return (min * AStar.MOVE_DIAGONAL) + ((horizontal + vertical - min - min) * AStar.MOVE_VERTICAL_HORIZONTAL);
+        }
+        
+        return ((horizontal + vertical) * AStar.MOVE_VERTICAL_HORIZONTAL);
+    }
+    
+    /**
+     * Can we move from the location in the specified direction
+     * @param column Column
+     * @param row Row
+     * @param direction The direction index
+     * @return true if both locations are in bounds and there is no wall in the way, otherwise false
+     */
+    private boolean canMove(final int column, final int row, final int direction)
+    {
+        final int x = DIRECTIONS_X[direction];
+        final int y = DIRECTIONS_Y[direction];
+        
+        //we can't move outside of the rooms
+        if (!hasBounds(column + x, row + y))
+            return false;
+        
+        final Room room = rooms[row][column];
+        
+        if (x > 0 && room.hasWall(Wall.East))
+            return false;
+        if (x < 0 && room.hasWall(Wall.West))
+            return false;
+        if (y < 0 && room.hasWall(Wall.North))
+            return false;
+        if (y > 0 && room.hasWall(Wall.South))
+            return false;
+        
+        return true;
+    }
+    
+    /**
+     * Get the index of the location
+     * @param column Column
+     * @param row Row
+     * @return The index (row * columns + column)
+     */
+    private int getIndex(final int column, final int row)
+    {
+        return (row * columns) + column;
+    }
+    
+    /**
+     * Is the location within the rooms
+     * @param column Column
+     * @param row Row
+     * @return true if the location is in bounds, otherwise false
+     */
+    private boolean hasBounds(final int column, final int row)
+    {
+        return (column >= 0 && column < columns && row >= 0 && row < rows);
+    }
+    
+    @Override
+    public void dispose()
+    {
+        //stop any search in progress
+        done = true;
+        
+        rooms = null;
+        owners = null;
+        costs = null;
+        parents = null;
+        workers = null;
+    }
+    
+    /**
+     * A worker thread that expands the locations it owns
+     */
+    private final class Worker implements Runnable
+    {
+        //the index of this worker
+        private final int index;
+        
+        //the open list, each key is (estimated total cost << 32) | location
+        private long[] open = new long[256];
+        private int size = 0;
+        
+        //the messages sent to us, each is a list of (location, cost, parent)
+        private final ConcurrentLinkedQueue<int[]> inbox = new ConcurrentLinkedQueue<>();
+        
+        //the messages not yet sent to each worker, and the number of values in each
+        private final int[][] outbox;
+        private final int[] outboxSizes;
+        
+        //the number of nodes expanded
+        private int expanded = 0;
+        
+        //the reason we could not complete the search, null if there was no problem
+        private Throwable failure;
+        
+        private Worker(final int index)
+        {
+            this.index = index;
+            this.outbox = new int[workers.length][MESSAGE_SIZE * 3];
+            this.outboxSizes = new int[workers.length];
+        }
+        
+        /**
+         * Prepare for a new search
+         */
+        private void reset()
+        {
+            size = 0;
+            expanded = 0;
+            failure = null;
+            inbox.clear();
+            Arrays.fill(outboxSizes, 0);
+        }
+        
+        @Override
+        public void run()
+        {
+            try
+            {
+                //are we waiting for work
+                boolean idle = false;
+                
+                while (!done)
+                {
+                    //read every message sent to us
+                    for (int[] message = inbox.poll(); message != null; message = inbox.poll())
+                    {
+                        //we are busy again, the message still counts as active so the search can't end in between
+                        if (idle)
+                        {
+                            active.incrementAndGet();
+                            idle = false;
+                        }
+                        
+                        for (int offset = 0; offset < message.length; offset += 3)
+                        {
+                            add(message[offset], message[offset + 1], message[offset + 2]);
+                        }
+                        
+                        //the message has been read
+                        active.decrementAndGet();
+                    }
+                    
+                    if (idle)
+                    {
+                        //if nobody is busy and no messages are waiting, nothing can improve the best path
+                        if (active.get() == 0)
+                            done = true;
+                        
+                        Thread.yield();
+                        continue;
+                    }
+                    
+                    //expand the best nodes, then send what we have
+                    if (!expand())
+                    {
+                        send();
+                        
+                        //we have nothing left to do until a message arrives
+                        idle = true;
+                        active.decrementAndGet();
+                    }
+                    else
+                    {
+                        send();
+                    }
+                }
+            }
+            catch (Throwable failure)
+            {
+                //stop every worker so the search doesn't wait forever
+                this.failure = failure;
+                done = true;
+            }
+        }
+        
+        /**
+         * Expand the best nodes in our open list
+         * @return true if there may be more nodes to expand, false if nothing in our open list can improve the best path
+         */
+        private boolean expand()
+        {
+            for (int count = 0; count < EXPANSIONS; count++)
+            {
+                if (size == 0)
+                    return false;
+                
+                final long key = pop();
+                final int cell = (int)key;
+                final int estimate = (int)(key >>> 32);
+                
+                //since this is the best node, if it can't improve the best path nothing else can
+                if (estimate >= best)
+                {
+                    size = 0;
+                    return false;
+                }
+                
+                //skip the node if we have since found a cheaper way to this location
+                if (estimate != costs[cell] + getHeuristic(cell))
+                    continue;
+                
+                expanded++;
+                
+                final int column = cell % columns;
+                final int row = cell / columns;
+                
+                for (int direction = 0; direction < (diagonal ? DIRECTIONS_X.length : 4); direction++)
+                {
+                    if (!canMove(column, row, direction))
+                        continue;
+                    
+                    final int neighbor = getIndex(column + DIRECTIONS_X[direction], row + DIRECTIONS_Y[direction]);
+                    final int cost = costs[cell] + ((direction < 4) ? AStar.MOVE_VERTICAL_HORIZONTAL : AStar.MOVE_DIAGONAL);
+                    
+                    //don't bother with a node that can't improve the best path
+                    if (cost + getHeuristic(neighbor) >= best)
+                        continue;
+                    
+                    final int owner = owners[neighbor];
+                    
+                    if (owner == index)
+                    {
+                        add(neighbor, cost, cell);
+                    }
+                    else
+                    {
+                        //store the node in the message for the owner
+                        final int[] message = outbox[owner];
+                        message[outboxSizes[owner]++] = neighbor;
+                        message[outboxSizes[owner]++] = cost;
+                        message[outboxSizes[owner]++] = cell;
+                        
+                        if (outboxSizes[owner] == message.length)
+                            send(owner);
+                    }
+                }
+            }
+            
+            return true;
+        }
+        
+        /**
+         * Add the node to the open list if it is the cheapest way to the location so far
+         * @param cell The index of the location, owned by this worker
+         * @param cost The movement cost from the start
+         * @param parent The index of the parent, -1 if this is the start
+         */
+        private void add(final int cell, final int cost, final int parent)
+        {
+            if (cost >= costs[cell])
+                return;
+            
+            costs[cell] = cost;
+            parents[cell] = parent;
+            
+            //we own the goal, so we keep track of the best path
+            if (cell == goal)
+            {
+                best = cost;
+                return;
+            }
+            
+            push(((long)(cost + getHeuristic(cell)) << 32) | cell);
+        }
+        
+        /**
+         * Send every message that isn't empty
+         */
+        private void send()
+        {
+            for (int owner = 0; owner < outbox.length; owner++)
+            {
+                if (outboxSizes[owner] > 0)
+                    send(owner);
+            }
+        }
+        
+        /**
+         * Send the message to the owner
+         * @param owner The index of the worker
+         */
+        private void send(final int owner)
+        {
+            //count the message before it can be read, we are busy so this can't end the search
+            active.incrementAndGet();
+            workers[owner].inbox.offer(Arrays.copyOf(outbox[owner], outboxSizes[owner]));
+            outboxSizes[owner] = 0;
+        }
+        
+        /**
+         * Add the key to the open list
+         * @param key The key of the node
+         */
+        private void push(final long key)
+        {
+            if (size == open.length)
+                open = Arrays.copyOf(open, size * 2);
+            
+            //move the key up until the parent is smaller
+            int slot = size++;
+            
+            while (slot > 0)
+            {
+                final int parent = (slot - 1) / 2;
+                
+                if (open[parent] <= key)
+                    break;
+                
+                open[slot] = open[parent];
+                slot = parent;
+            }
+            
+            open[slot] = key;
+        }
+        
+        /**
+         * Remove the smallest key from the open list
+         * @return The smallest key
+         */
+        private long pop()
+        {
+            final long result = open[0];
+            final long key = open[--size];
+            
+            //move the last key down until the children are larger
+            int slot = 0;
+            
+            while (true)
+            {
+                int child = (slot * 2) + 1;
+                
+                if (child >= size)
+                    break;
+                
+                if (child + 1 < size && open[child + 1] < open[child])
+                    child++;
+                
+                if (key <= open[child])
+                    break;
+                
+                open[slot] = open[child];
+                slot = child;
+            }
+            
+            if (size > 0)
+                open[slot] = key;
+            
+            return result;
+        }
+    }
+}
\ No newline at end of file
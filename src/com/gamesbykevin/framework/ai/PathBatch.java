@@ -0,0 +1,255 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.resources.Disposable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Solve many A* path queries against the same rooms at the same time.<br>
+ * Each query is performed on a worker thread using a {@link SearchContext} borrowed from a shared pool,<br>
+ * so no search state is shared between threads and the rooms are only read.<br>
+ * The rooms must not be modified while queries are running.<br>
+ * Queries still running when the batch is disposed will complete using the rooms they were submitted with.
+ * @author GOD
+ */
+public final class PathBatch implements Disposable
+{
+    /**
+     * The rooms every query will search
+     */
+    private Room[][] rooms;
+    
+    /**
+     * Do we allow diagonal movement while pathfinding
+     */
+    private boolean diagonal = false;
+    
+    /**
+     * The threads that will perform the searches
+     */
+    private ExecutorService executor;
+    
+    /**
+     * Did we create the executor, if so we will shut it down when disposed
+     */
+    private final boolean owner;
+    
+    /**
+     * Search contexts not currently in use by a worker thread
+     */
+    private volatile ConcurrentLinkedQueue<SearchContext> contexts;
+    
+    /**
+     * Create a batch that will search on a new pool with a thread for each available processor
+     * @param rooms The rooms to search
+     */
+    public PathBatch(final Room[][] rooms)
+    {
+        this(rooms, new ForkJoinPool(), true);
+    }
+    
+    /**
+     * Create a batch that will search on the specified executor
+     * @param rooms The rooms to search
+     * @param executor The threads that will perform the searches, this will not be shut down when disposed
+     */
+    public PathBatch(final Room[][] rooms, final ExecutorService executor)
+    {
+        this(rooms, executor, false);
+    }
+    
+    /**
+     * Create a batch
+     * @param rooms The rooms to search
+     * @param executor The threads that will perform the searches
+     * @param owner Did we create the executor
+     */
+    private PathBatch(final Room[][] rooms, final ExecutorService executor, final boolean owner)
+    {
+        this.rooms = rooms;
+        this.executor = executor;
+        this.owner = owner;
+        this.contexts = new ConcurrentLinkedQueue<>();
+    }
+    
+    /**
+     * Assign diagonal pathfinding
+     * @param diagonal true if we are allowed to move diagonal while pathfinding, otherwise false
+     */
+    public void setDiagonal(final boolean diagonal)
+    {
+        this.diagonal = diagonal;
+    }
+    
+    /**
+     * Submit a path query
+     * @param start Start location
+     * @param goal Goal location
+     * @return The shortest path once complete, in the same order as {@link AStar#getShortestPath()}
+     */
+    public Future<List<Cell>> submit(final Cell start, final Cell goal)
+    {
+        return submit((int)start.getCol(), (int)start.getRow(), (int)goal.getCol(), (int)goal.getRow());
+    }
+    
+    /**
+     * Submit a path query
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @return The shortest path once complete, in the same order as {@link AStar#getShortestPath()}
+     */
+    public Future<List<Cell>> submit(final int startColumn, final int startRow, final int goalColumn, final int goalRow)
+    {
+        return executor.submit(new Query(startColumn, startRow, goalColumn, goalRow, diagonal));
+    }
+    
+    /**
+     * Solve all of the path queries and wait until every query is complete.<br>
+     * The start and goal at the same index make up 1 query.
+     * @param starts The start locations
+     * @param goals The goal locations
+     * @return The shortest path of each query, in the same order as the queries
+     * @throws Exception If the number of starts and goals don't match, or a query could not be completed
+     */
+    public List<List<Cell>> solve(final List<Cell> starts, final List<Cell> goals) throws Exception
+    {
+        if (starts.size() != goals.size())
+            throw new Exception("The number of start and goal locations must match");
+        
+        List<Callable<List<Cell>>> queries = new ArrayList<>(starts.size());
+        
+        //create a query for each pair
+        for (int index = 0; index < starts.size(); index++)
+        {
+            final Cell start = starts.get(index);
+            final Cell goal = goals.get(index);
+            
+            queries.add(new Query((int)start.getCol(), (int)start.getRow(), (int)goal.getCol(), (int)goal.getRow(), diagonal));
+        }
+        
+        //run every query and wait for them to finish
+        final List<Future<List<Cell>>> futures = executor.invokeAll(queries);
+        
+        List<List<Cell>> paths = new ArrayList<>(futures.size());
+        
+        for (int index = 0; index < futures.size(); index++)
+        {
+            paths.add(futures.get(index).get());
+        }
+        
+        return paths;
+    }
+    
+    /**
+     * Borrow a search context from the pool, if none are available a new one is created
+     * @param pool The search contexts not currently in use
+     * @param rooms The rooms that will be searched
+     * @return A search context that no other thread is using
+     */
+    private static SearchContext borrow(final ConcurrentLinkedQueue<SearchContext> pool, final Room[][] rooms)
+    {
+        final SearchContext context = pool.poll();
+        
+        return (context != null) ? context : new SearchContext(rooms.length * rooms[0].length);
+    }
+    
+    /**
+     * Return the search context to the pool so another query can use it.<br>
+     * If we have been disposed the context is no longer needed and is disposed as well.
+     * @param pool The search contexts not currently in use
+     * @param context The search context we borrowed
+     */
+    private void release(final ConcurrentLinkedQueue<SearchContext> pool, final SearchContext context)
+    {
+        if (contexts == null)
+        {
+            context.dispose();
+        }
+        else
+        {
+            pool.offer(context);
+        }
+    }
+    
+    @Override
+    public void dispose()
+    {
+        //only shut down the executor if we created it
+        if (executor != null && owner)
+            executor.shutdown();
+        
+        executor = null;
+        
+        if (contexts != null)
+        {
+            for (SearchContext context : contexts)
+            {
+                context.dispose();
+            }
+            
+            contexts.clear();
+            contexts = null;
+        }
+        
+        rooms = null;
+    }
+    
+    /**
+     * A single path query performed on a worker thread
+     */
+    private final class Query implements Callable<List<Cell>>
+    {
+        //the locations to search between
+        private final int startColumn, startRow, goalColumn, goalRow;
+        
+        //do we allow diagonal movement
+        private final boolean diagonal;
+        
+        //the rooms to search and the search contexts to borrow from, kept in case the batch is disposed before we run
+        private final Room[][] rooms;
+        private final ConcurrentLinkedQueue<SearchContext> pool;
+        
+        private Query(final int startColumn, final int startRow, final int goalColumn, final int goalRow, final boolean diagonal)
+        {
+            this.startColumn = startColumn;
+            this.startRow = startRow;
+            this.goalColumn = goalColumn;
+            this.goalRow = goalRow;
+            this.diagonal = diagonal;
+            this.rooms = PathBatch.this.rooms;
+            this.pool = PathBatch.this.contexts;
+        }
+        
+        @Override
+        public List<Cell> call()
+        {
+            final SearchContext context = borrow(pool, rooms);
+            
+            try
+            {
+                List<Cell> path = new ArrayList<>();
+                
+                //perform the search and store the result
+                context.search(rooms, startColumn, startRow, goalColumn, goalRow, diagonal);
+                context.getPath(path);
+                
+                return path;
+            }
+            finally
+            {
+                //the context is free for the next query
+                release(pool, context);
+            }
+        }
+    }
+}
\ No newline at end of file
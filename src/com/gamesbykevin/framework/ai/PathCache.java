@@ -0,0 +1,337 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.resources.Disposable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache of the shortest paths found in a maze.<br>
+ * Each path is stored with the number of modifications of the maze when it was found,<br>
+ * if a wall has changed since then the path is found again, so an out of date path is never returned.<br>
+ * Once the cache is full the least recently used path is removed.<br>
+ * Each path is stored as packed location indices, so every request is given its own list and cells.
+ * @author GOD
+ */
+public final class PathCache implements Disposable
+{
+    /**
+     * The default number of paths to store
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+    
+    /**
+     * The maze we are searching
+     */
+    private Maze maze;
+    
+    /**
+     * The maximum number of paths to store
+     */
+    private final int capacity;
+    
+    /**
+     * The stored paths, ordered from least to most recently used
+     */
+    private LinkedHashMap<Key, CachedPath> entries;
+    
+    /**
+     * The storage used when a path needs to be found
+     */
+    private SearchContext context;
+    
+    /**
+     * The packed path of the last search
+     */
+    private int[] buffer;
+    
+    /**
+     * The number of times a path was found in the cache, not found, removed to make room, and found to be out of date
+     */
+    private long hits = 0, misses = 0, evictions = 0, invalidations = 0;
+    
+    /**
+     * Create a cache that will store the default number of paths
+     * @param maze The maze to search
+     * @throws Exception If the capacity is less than 1
+     */
+    public PathCache(final Maze maze) throws Exception
+    {
+        this(maze, DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Create a cache
+     * @param maze The maze to search
+     * @param capacity The maximum number of paths to store
+     * @throws Exception If the capacity is less than 1
+     */
+    public PathCache(final Maze maze, final int capacity) throws Exception
+    {
+        if (capacity < 1)
+            throw new Exception("The cache must be able to store at least 1 path");
+        
+        this.maze = maze;
+        this.capacity = capacity;
+        this.context = new SearchContext(maze.getCols() * maze.getRows());
+        this.buffer = new int[maze.getCols() * maze.getRows()];
+        
+        //order by access, removing the least recently used path once full
+        this.entries = new LinkedHashMap<Key, CachedPath>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, CachedPath> eldest)
+            {
+                if (size() <= getCapacity())
+                    return false;
+                
+                evictions++;
+                return true;
+            }
+        };
+    }
+    
+    /**
+     * Get the shortest path
+     * @param start Start location
+     * @param goal Goal location
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @return The shortest path, the first cell will be the goal and the last cell will be the start. A new list is created each time.
+     */
+    public List<Cell> getPath(final Cell start, final Cell goal, final boolean diagonal)
+    {
+        return getPath((int)start.getCol(), (int)start.getRow(), (int)goal.getCol(), (int)goal.getRow(), diagonal, AStar.Mode.Standard);
+    }
+    
+    /**
+     * Get the shortest path
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @return The shortest path, the first cell will be the goal and the last cell will be the start. A new list is created each time.
+     */
+    public List<Cell> getPath(final int startColumn, final int startRow, final int goalColumn, final int goalRow, final boolean diagonal)
+    {
+        return getPath(startColumn, startRow, goalColumn, goalRow, diagonal, AStar.Mode.Standard);
+    }
+    
+    /**
+     * Get the shortest path.<br>
+     * If the path is not stored, or a wall has changed since it was stored, the path will be found and stored.
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @param mode The way we search for the path
+     * @return The shortest path, the first cell will be the goal and the last cell will be the start. A new list is created each time.
+     */
+    public List<Cell> getPath(final int startColumn, final int startRow, final int goalColumn, final int goalRow, final boolean diagonal, final AStar.Mode mode)
+    {
+        final Key key = new Key(startColumn, startRow, goalColumn, goalRow, diagonal, mode);
+        
+        CachedPath entry = entries.get(key);
+        
+        if (entry != null)
+        {
+            //if no walls have changed, the path is still valid
+            if (entry.modifications == maze.getModifications())
+            {
+                hits++;
+                return getCells(entry.path);
+            }
+            
+            //the path is out of date
+            invalidations++;
+        }
+        
+        misses++;
+        
+        //find the path
+        context.search(maze.getRooms(), startColumn, startRow, goalColumn, goalRow, diagonal, mode);
+        
+        //store the path with the current number of modifications
+        entry = new CachedPath(Arrays.copyOf(buffer, context.getPath(buffer)), maze.getModifications());
+        entries.put(key, entry);
+        
+        return getCells(entry.path);
+    }
+    
+    /**
+     * Create the cells of a stored path
+     * @param path The packed location indices (row * columns + column)
+     * @return A new list containing a new cell for each location
+     */
+    private List<Cell> getCells(final int[] path)
+    {
+        List<Cell> cells = new ArrayList<>(path.length);
+        
+        for (int index = 0; index < path.length; index++)
+        {
+            cells.add(new Cell(path[index] % maze.getCols(), path[index] / maze.getCols()));
+        }
+        
+        return cells;
+    }
+    
+    /**
+     * Get the maximum number of paths to store
+     * @return The capacity of the cache
+     */
+    public int getCapacity()
+    {
+        return this.capacity;
+    }
+    
+    /**
+     * Get the number of paths stored.<br>
+     * Out of date paths are included until they are requested again or removed to make room.
+     * @return The number of paths currently stored
+     */
+    public int size()
+    {
+        return entries.size();
+    }
+    
+    /**
+     * Get the number of hits
+     * @return The number of times a valid path was found in the cache
+     */
+    public long getHits()
+    {
+        return this.hits;
+    }
+    
+    /**
+     * Get the number of misses
+     * @return The number of times a path had to be found, including out of date paths
+     */
+    public long getMisses()
+    {
+        return this.misses;
+    }
+    
+    /**
+     * Get the number of evictions
+     * @return The number of paths removed to make room for a new path
+     */
+    public long getEvictions()
+    {
+        return this.evictions;
+    }
+    
+    /**
+     * Get the number of invalidations
+     * @return The number of times a stored path was out of date because a wall changed
+     */
+    public long getInvalidations()
+    {
+        return this.invalidations;
+    }
+    
+    /**
+     * Reset the hits, misses, evictions and invalidations to 0
+     */
+    public void resetStatistics()
+    {
+        this.hits = 0;
+        this.misses = 0;
+        this.evictions = 0;
+        this.invalidations = 0;
+    }
+    
+    /**
+     * Remove every stored path
+     */
+    public void clear()
+    {
+        entries.clear();
+    }
+    
+    @Override
+    public void dispose()
+    {
+        if (entries != null)
+        {
+            entries.clear();
+            entries = null;
+        }
+        
+        if (context != null)
+        {
+            context.dispose();
+            context = null;
+        }
+        
+        buffer = null;
+        
+        //the maze is shared, so we don't dispose it
+        maze = null;
+    }
+    
+    /**
+     * The start, goal and movement options of a path
+     */
+    private static final class Key
+    {
+        private final int startColumn, startRow, goalColumn, goalRow;
+        private final boolean diagonal;
+        private final AStar.Mode mode;
+        
+        private Key(final int startColumn, final int startRow, final int goalColumn, final int goalRow, final boolean diagonal, final AStar.Mode mode)
+        {
+            this.startColumn = startColumn;
+            this.startRow = startRow;
+            this.goalColumn = goalColumn;
+            this.goalRow = goalRow;
+            this.diagonal = diagonal;
+            this.mode = mode;
+        }
+        
+        @Override
+        public boolean equals(final Object object)
+        {
+            if (!(object instanceof Key))
+                return false;
+            
+            final Key key = (Key)object;
+            
+            return (startColumn == key.startColumn && startRow == key.startRow && goalColumn == key.goalColumn && goalRow == key.goalRow && diagonal == key.diagonal && mode == key.mode);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            int hash = startColumn;
+            hash = (31 * hash) + startRow;
+            hash = (31 * hash) + goalColumn;
+            hash = (31 * hash) + goalRow;
+            hash = (31 * hash) + (diagonal ? 1 : 0);
+            hash = (31 * hash) + mode.ordinal();
+            
+            return hash;
+        }
+    }
+    
+    /**
+     * A stored path as packed location indices and the number of modifications of the maze when it was found
+     */
+    private static final class CachedPath
+    {
+        private final int[] path;
+        private final long modifications;
+        
+        private CachedPath(final int[] path, final long modifications)
+        {
+            this.path = path;
+            this.modifications = modifications;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,664 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.maze.IRoomListener;
+import com.gamesbykevin.framework.maze.IWallListener;
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.resources.Disposable;
+
+/**
+ * Each group of connected rooms (component) is given a label, so we can tell if the goal can be reached from the start with a single comparison.<br>
+ * 2 neighboring rooms are connected if we can move between them in either direction,<br>
+ * so if the labels are different the goal can never be reached, and a search can fail right away instead of checking every room.<br>
+ * When a wall changes, only the components next to the room are labeled again, on the next query.<br>
+ * If diagonal movement is allowed, the diagonal moves also connect rooms, these labels can still be used for searches without diagonal movement.
+ * @author GOD
+ */
+public final class Reachability implements Disposable, IRoomListener, IWallListener
+{
+    /**
+     * The (x, y) of each direction, the first 4 are horizontal/vertical and the last 4 are diagonal
+     */
+    private static final int[] DIRECTIONS_X = {1, -1, 0, 0, 1, -1, 1, -1};
+    private static final int[] DIRECTIONS_Y = {0, 0, -1, 1, -1, -1, 1, 1};
+    
+    /**
+     * Our rooms to label
+     */
+    private Room[][] rooms;
+    
+    /**
+     * The maze notifying us of wall changes, null if the rooms were assigned directly
+     */
+    private Maze maze;
+    
+    /**
+     * Do diagonal moves connect rooms
+     */
+    private final boolean diagonal;
+    
+    /**
+     * The size of the rooms
+     */
+    private final int columns, rows;
+    
+    /**
+     * The component label of each room
+     */
+    private int[] labels;
+    
+    /**
+     * The number of rooms with each label
+     */
+    private int[] sizes;
+    
+    /**
+     * The labels not currently in use, and the number of them
+     */
+    private int[] free;
+    private int freeCount = 0;
+    
+    /**
+     * The walls of each room when it was last labeled, 1 bit for each direction
+     */
+    private byte[] walls;
+    
+    /**
+     * The rooms that have changed since the last query, and the number of them
+     */
+    private int[] changes;
+    private int changeCount = 0;
+    
+    /**
+     * Has each room been added to the list of changes
+     */
+    private boolean[] changed;
+    
+    /**
+     * Storage for the rooms waiting to be checked
+     */
+    private int[] queue;
+    
+    /**
+     * The search that reached each room when checking for split components, and the current search
+     */
+    private int[] owners, stamps;
+    private int search = 0;
+    
+    /**
+     * The number of rooms checked since we were created
+     */
+    private long visited = 0;
+    
+    /**
+     * Label the components of the maze.<br>
+     * The maze will notify us when the walls change.
+     * @param maze The maze to label
+     * @param diagonal true if diagonal moves connect rooms, otherwise false
+     */
+    public Reachability(final Maze maze, final boolean diagonal)
+    {
+        this(maze.getRooms(), diagonal);
+        
+        //we want to know when the walls change
+        this.maze = maze;
+        this.maze.addWallListener(this);
+    }
+    
+    /**
+     * Label the components of the rooms.<br>
+     * If the walls change, {@link #onWallChange(Room)} needs to be called for each room that has changed.
+     * @param rooms The rooms to label, these will not be modified
+     * @param diagonal true if diagonal moves connect rooms, otherwise false
+     */
+    public Reachability(final Room[][] rooms, final boolean diagonal)
+    {
+        this.rooms = rooms;
+        this.diagonal = diagonal;
+        this.rows = rooms.length;
+        this.columns = rooms[0].length;
+        
+        this.labels = new int[columns * rows];
+        this.sizes = new int[columns * rows];
+        this.free = new int[columns * rows];
+        this.walls = new byte[columns * rows];
+        this.changes = new int[columns * rows];
+        this.changed = new boolean[columns * rows];
+        this.queue = new int[columns * rows];
+        this.owners = new int[columns * rows];
+        this.stamps = new int[columns * rows];
+        
+        //label every room
+        generate();
+    }
+    
+    /**
+     * Label every room again
+     */
+    public void generate()
+    {
+        //every label is free
+        freeCount = 0;
+        
+        for (int label = labels.length - 1; label >= 0; label--)
+        {
+            sizes[label] = 0;
+            free[freeCount++] = label;
+        }
+        
+        for (int cell = 0; cell < labels.length; cell++)
+        {
+            labels[cell] = -1;
+            walls[cell] = getWalls(cell);
+        }
+        
+        //each room not yet labeled starts a new component
+        for (int cell = 0; cell < labels.length; cell++)
+        {
+            if (labels[cell] < 0)
+                flood(cell, free[--freeCount]);
+        }
+        
+        clearChanges();
+    }
+    
+    /**
+     * A wall has changed, the room will be labeled again on the next query
+     * @param room The room that has changed
+     */
+    @Override
+    public void onWallChange(final Room room)
+    {
+        onWallChange(room.getCol(), room.getRow());
+    }
+    
+    /**
+     * A wall has changed, the room will be labeled again on the next query
+     * @param col Column
+     * @param row Row
+     */
+    @Override
+    public void onWallChange(final int col, final int row)
+    {
+        //make sure the room is within our rooms
+        if (!hasBounds(col, row))
+            return;
+        
+        final int cell = getIndex(col, row);
+        
+        //only add each room once
+        if (changed[cell])
+            return;
+        
+        changed[cell] = true;
+        changes[changeCount++] = cell;
+    }
+    
+    /**
+     * Do we have any rooms waiting to be labeled again?
+     * @return true if a wall has changed since the last query, false otherwise
+     */
+    public boolean isDirty()
+    {
+        return (changeCount > 0);
+    }
+    
+    /**
+     * Can the goal be reached from the start?<br>
+     * If false, there is no path. If true, there is a path unless a wall only exists on 1 side of a passage.
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @return true if the start and goal are in the same component, false otherwise or if either location is out of bounds
+     */
+    public boolean isReachable(final int startColumn, final int startRow, final int goalColumn, final int goalRow)
+    {
+        if (!hasBounds(startColumn, startRow) || !hasBounds(goalColumn, goalRow))
+            return false;
+        
+        //label the rooms that have changed
+        update();
+        
+        return (labels[getIndex(startColumn, startRow)] == labels[getIndex(goalColumn, goalRow)]);
+    }
+    
+    /**
+     * Get the component label of the room
+     * @param column Column
+     * @param row Row
+     * @return The label shared by every room connected to this room, -1 if out of bounds
+     */
+    public int getComponent(final int column, final int row)
+    {
+        if (!hasBounds(column, row))
+            return -1;
+        
+        update();
+        
+        return labels[getIndex(column, row)];
+    }
+    
+    /**
+     * Get the number of rooms in the component
+     * @param column Column
+     * @param row Row
+     * @return The number of rooms connected to this room, including itself, 0 if out of bounds
+     */
+    public int getComponentSize(final int column, final int row)
+    {
+        final int label = getComponent(column, row);
+        
+        return (label < 0) ? 0 : sizes[label];
+    }
+    
+    /**
+     * Get the number of components
+     * @return The number of groups of connected rooms
+     */
+    public int getComponentCount()
+    {
+        update();
+        
+        return labels.length - freeCount;
+    }
+    
+    /**
+     * Get the number of rooms checked since we were created
+     * @return The total number of rooms checked while labeling, including the first time
+     */
+    public long getVisited()
+    {
+        return this.visited;
+    }
+    
+    /**
+     * Label again the components next to each room that has changed.<br>
+     * When a wall is added, the component may be split, so we search from the room and each neighbor at the same time.<br>
+     * When 2 searches meet they are in the same piece, and a search that runs out of rooms has found a whole piece,<br>
+     * so we can stop once a single search remains, and only the smaller pieces are labeled again.<br>
+     * When a wall is removed, 2 components may be joined, so the smaller component is given the label of the larger.
+     */
+    private void update()
+    {
+        if (changeCount == 0)
+            return;
+        
+        //the rooms where each search starts
+        final int[] sources = new int[changeCount * 9];
+        int count = 0;
+        
+        //start a new search
+        search++;
+        
+        for (int index = 0; index < changeCount; index++)
+        {
+            final int cell = changes[index];
+            
+            //only a wall added since the room was last labeled can split a component
+            if ((getWalls(cell) & ~walls[cell]) == 0)
+                continue;
+            
+            count = addSource(sources, count, cell);
+            
+            for (int direction = 0; direction < getDirectionCount(); direction++)
+            {
+                final int x = (cell % columns) + DIRECTIONS_X[direction];
+                final int y = (cell / columns) + DIRECTIONS_Y[direction];
+                
+                if (hasBounds(x, y))
+                    count = addSource(sources, count, getIndex(x, y));
+            }
+        }
+        
+        if (count > 1)
+            split(sources, count);
+        
+        //now join the components that are connected
+        for (int index = 0; index < changeCount; index++)
+        {
+            final int cell = changes[index];
+            final int column = cell % columns;
+            final int row = cell / columns;
+            
+            for (int direction = 0; direction < getDirectionCount(); direction++)
+            {
+                if (!isConnected(column, row, direction))
+                    continue;
+                
+                final int neighbor = getIndex(column + DIRECTIONS_X[direction], row + DIRECTIONS_Y[direction]);
+                
+                if (labels[neighbor] == labels[cell])
+                    continue;
+                
+                //the smaller component is given the label of the larger
+                if (sizes[labels[neighbor]] < sizes[labels[cell]])
+                {
+                    flood(neighbor, labels[cell]);
+                }
+                else
+                {
+                    flood(cell, labels[neighbor]);
+                }
+            }
+            
+            walls[cell] = getWalls(cell);
+        }
+        
+        clearChanges();
+    }
+    
+    /**
+     * Add a room where a search will start, if it has not already been added
+     * @param sources The rooms where each search starts
+     * @param count The number of searches
+     * @param cell The index of the room
+     * @return The number of searches
+     */
+    private int addSource(final int[] sources, final int count, final int cell)
+    {
+        if (stamps[cell] == search)
+            return count;
+        
+        stamps[cell] = search;
+        owners[cell] = count;
+        queue[count] = cell;
+        sources[count] = cell;
+        
+        return count + 1;
+    }
+    
+    /**
+     * Search from every source at the same time, until a single search remains.<br>
+     * Each search that runs out of rooms has found a whole piece, which is given a new label.
+     * @param sources The rooms where each search starts, these are also at the front of the queue
+     * @param count The number of searches
+     */
+    private void split(final int[] sources, final int count)
+    {
+        //the search each search has joined, and the rooms waiting to be checked by each search
+        final int[] parents = new int[count];
+        final int[] frontier = new int[count];
+        final boolean[] complete = new boolean[count];
+        
+        for (int index = 0; index < count; index++)
+        {
+            parents[index] = index;
+            frontier[index] = 1;
+        }
+        
+        //the number of searches still running
+        int active = count;
+        int head = 0, tail = count;
+        
+        while (head < tail && active > 1)
+        {
+            final int current = queue[head++];
+            final int column = current % columns;
+            final int row = current / columns;
+            final int group = getGroup(parents, owners[current]);
+            
+            frontier[group]--;
+            visited++;
+            
+            for (int direction = 0; direction < getDirectionCount(); direction++)
+            {
+                if (!isConnected(column, row, direction))
+                    continue;
+                
+                final int neighbor = getIndex(column + DIRECTIONS_X[direction], row + DIRECTIONS_Y[direction]);
+                
+                if (stamps[neighbor] != search)
+                {
+                    //the room is now part of this search
+                    stamps[neighbor] = search;
+                    owners[neighbor] = group;
+                    frontier[group]++;
+                    queue[tail++] = neighbor;
+                }
+                else
+                {
+                    final int other = getGroup(parents, owners[neighbor]);
+                    
+                    //the searches have met, so they are in the same piece
+                    if (other != group)
+                    {
+                        parents[other] = group;
+                        frontier[group] += frontier[other];
+                        active--;
+                    }
+                }
+            }
+            
+            //the search has run out of rooms, so it has found a whole piece
+            if (frontier[group] == 0)
+            {
+                complete[group] = true;
+                active--;
+            }
+        }
+        
+        //each whole piece is given a new label
+        for (int index = 0; index < count; index++)
+        {
+            final int group = getGroup(parents, index);
+            
+            if (!complete[group])
+                continue;
+            
+            //only label each piece once
+            complete[group] = false;
+            
+            //if every label is used, every room is a component and the piece can keep the label of the room
+            flood(sources[index], (freeCount > 0) ? free[--freeCount] : labels[sources[index]]);
+        }
+    }
+    
+    /**
+     * Get the search that the search has joined
+     * @param parents The search each search has joined
+     * @param index The search
+     * @return The search that has not joined any other search
+     */
+    private static int getGroup(final int[] parents, final int index)
+    {
+        int group = index;
+        
+        while (parents[group] != group)
+        {
+            group = parents[group];
+        }
+        
+        //point directly to the group to make the next lookup faster
+        parents[index] = group;
+        
+        return group;
+    }
+    
+    /**
+     * Assign the label to every room connected to the location that has a different label.<br>
+     * A label is free once none of its rooms remain.
+     * @param cell The index of the location
+     * @param label The label to assign
+     */
+    private void flood(final int cell, final int label)
+    {
+        int head = 0, tail = 0;
+        
+        queue[tail++] = cell;
+        setLabel(cell, label);
+        
+        while (head < tail)
+        {
+            final int current = queue[head++];
+            final int column = current % columns;
+            final int row = current / columns;
+            
+            visited++;
+            
+            for (int direction = 0; direction < getDirectionCount(); direction++)
+            {
+                if (!isConnected(column, row, direction))
+                    continue;
+                
+                final int neighbor = getIndex(column + DIRECTIONS_X[direction], row + DIRECTIONS_Y[direction]);
+                
+                if (labels[neighbor] != label)
+                {
+                    setLabel(neighbor, label);
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Assign the label of the room, and update the size of the previous and new label
+     * @param cell The index of the room
+     * @param label The label to assign
+     */
+    private void setLabel(final int cell, final int label)
+    {
+        final int previous = labels[cell];
+        
+        //if the room was part of a component, it is now 1 room smaller
+        if (previous >= 0)
+        {
+            sizes[previous]--;
+            
+            if (sizes[previous] == 0)
+                free[freeCount++] = previous;
+        }
+        
+        labels[cell] = label;
+        sizes[label]++;
+    }
+    
+    /**
+     * Empty the list of rooms that have changed
+     */
+    private void clearChanges()
+    {
+        for (int index = 0; index < changeCount; index++)
+        {
+            changed[changes[index]] = false;
+        }
+        
+        changeCount = 0;
+    }
+    
+    /**
+     * Get the walls of the room
+     * @param cell The index of the room
+     * @return 1 bit for each wall that exists
+     */
+    private byte getWalls(final int cell)
+    {
+        final Room room = rooms[cell / columns][cell % columns];
+        
+        byte result = 0;
+        
+        for (Wall wall : Wall.values())
+        {
+            if (room.hasWall(wall))
+                result |= (1 << wall.ordinal());
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Get the number of directions that connect rooms
+     * @return 8 if diagonal movement is allowed, otherwise 4
+     */
+    private int getDirectionCount()
+    {
+        return (diagonal) ? 8 : 4;
+    }
+    
+    /**
+     * Are the location and its neighbor in the specified direction connected
+     * @param column Column
+     * @param row Row
+     * @param direction The direction index
+     * @return true if we can move from either room to the other, otherwise false
+     */
+    private boolean isConnected(final int column, final int row, final int direction)
+    {
+        final int x = DIRECTIONS_X[direction];
+        final int y = DIRECTIONS_Y[direction];
+        
+        return (canMove(column, row, x, y) || canMove(column + x, row + y, -x, -y));
+    }
+    
+    /**
+     * Can we move from the location in the specified direction
+     * @param column Column
+     * @param row Row
+     * @param x The horizontal direction (-1, 0, 1)
+     * @param y The vertical direction (-1, 0, 1)
+     * @return true if both locations are in bounds and there is no wall in the way, otherwise false
+     */
+    private boolean canMove(final int column, final int row, final int x, final int y)
+    {
+        //we can't move outside of the rooms
+        if (!hasBounds(column, row) || !hasBounds(column + x, row + y))
+            return false;
+        
+        final Room room = rooms[row][column];
+        
+        if (x > 0 && room.hasWall(Wall.East))
+            return false;
+        if (x < 0 && room.hasWall(Wall.West))
+            return false;
+        if (y < 0 && room.hasWall(Wall.North))
+            return false;
+        if (y > 0 && room.hasWall(Wall.South))
+            return false;
+        
+        return true;
+    }
+    
+    /**
+     * Get the index of the location
+     * @param column Column
+     * @param row Row
+     * @return The index (row * columns + column)
+     */
+    private int getIndex(final int column, final int row)
+    {
+        return (row * columns) + column;
+    }
+    
+    /**
+     * Is the location within the rooms
+     * @param column Column
+     * @param row Row
+     * @return true if the location is in bounds, otherwise false
+     */
+    private boolean hasBounds(final int column, final int row)
+    {
+        return (column >= 0 && column < columns && row >= 0 && row < rows);
+    }
+    
+    @Override
+    public void dispose()
+    {
+        //we no longer want to know when the walls change
+        if (maze != null)
+            maze.removeWallListener(this);
+        
+        maze = null;
+        rooms = null;
+        labels = null;
+        sizes = null;
+        free = null;
+        walls = null;
+        changes = null;
+        changed = null;
+        queue = null;
+        owners = null;
+        stamps = null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+
+/**
+ * A grid of rooms, a move is allowed if the room we are moving from has no wall in the direction of the move.<br>
+ * The rooms are only read and never modified.
+ * @author GOD
+ */
+public final class RoomGrid implements IGrid
+{
+    /**
+     * The rooms of the grid
+     */
+    private final Room[][] rooms;
+    
+    /**
+     * Create a grid of the rooms
+     * @param rooms The rooms, indexed [row][column]
+     */
+    public RoomGrid(final Room[][] rooms)
+    {
+        this.rooms = rooms;
+    }
+    
+    /**
+     * Get the rooms
+     * @return The rooms of the grid
+     */
+    public Room[][] getRooms()
+    {
+        return this.rooms;
+    }
+    
+    @Override
+    public int getColumns()
+    {
+        return rooms[0].length;
+    }
+    
+    @Override
+    public int getRows()
+    {
+        return rooms.length;
+    }
+    
+    @Override
+    public boolean canMove(final int column, final int row, final int x, final int y)
+    {
+        //we can't move outside of the rooms
+        if (!hasBounds(column, row) || !hasBounds(column + x, row + y))
+            return false;
+        
+        final Room room = rooms[row][column];
+        
+        if (x > 0 && room.hasWall(Wall.East))
+            return false;
+        if (x < 0 && room.hasWall(Wall.West))
+            return false;
+        if (y < 0 && room.hasWall(Wall.North))
+            return false;
+        if (y > 0 && room.hasWall(Wall.South))
+            return false;
+        
+        return true;
+    }
+    
+    @Override
+    public boolean isOpen(final int column, final int row)
+    {
+        return (hasBounds(column, row) && rooms[row][column].getWallMask() == Room.WALLS_NONE);
+    }
+    
+    /**
+     * Is the location within the rooms
+     * @param column Column
+     * @param row Row
+     * @return true if the location is in bounds, otherwise false
+     */
+    private boolean hasBounds(final int column, final int row)
+    {
+        return (row >= 0 && row < rooms.length && column >= 0 && column < rooms[0].length);
+    }
+}
\ No newline at end of file
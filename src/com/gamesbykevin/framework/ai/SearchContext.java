@@ -0,0 +1,1648 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.resources.Disposable;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The scratch storage used by the A* algorithm to perform a search.<br>
+ * A single context can be shared by any number of agents searching the same (or different) rooms,<br>
+ * as long as only one search is performed at a time. The rooms are only read and never modified.<br>
+ * Any {@link IGrid} can be searched, so a tile map does not need a room object for every location.<br>
+ * Every location reached is stamped with the current generation, so starting a new search does not need to clear the storage.
+ * @author GOD
+ */
+public final class SearchContext implements Disposable
+{
+    /**
+     * The open list of locations to check, ordered by lowest cost
+     */
+    private IndexedHeap open;
+    
+    /**
+     * The node at each location is stored across these arrays, indexed by (row * columns) + column.<br>
+     * The movement cost from the start, the heuristic cost to the goal, and the index of the parent.<br>
+     * A node that has been reached and is not in the open list is in the closed list.
+     */
+    private int[] movement, heuristic, parents;
+    
+    /**
+     * The generation in which each location was reached, if it does not match the current generation the location has not been reached
+     */
+    private int[] stamps;
+    
+    /**
+     * Storage to follow the shortest path without creating any objects
+     */
+    private int[] trace;
+    
+    /**
+     * The current search generation
+     */
+    private int generation = 0;
+    
+    /**
+     * The number of nodes added to the open list during the current search
+     */
+    private long sequence = 0;
+    
+    /**
+     * Mask to get the sequence from the key of a node in the open list
+     */
+    private static final long SEQUENCE_MASK = 0xFFFFFFFFL;
+    
+    /**
+     * The locations of the current search
+     */
+    private IGrid grid;
+    
+    /**
+     * The grid of the last rooms searched, so searching the same rooms again does not create a new grid
+     */
+    private RoomGrid roomGrid;
+    
+    /**
+     * The dimensions of the rooms in the current search
+     */
+    private int columns, rows;
+    
+    /**
+     * The goal of the current search
+     */
+    private int goalColumn, goalRow;
+    
+    /**
+     * The index of the start and goal of the current search
+     */
+    private int start, goal;
+    
+    /**
+     * Was the goal reached during the current search
+     */
+    private boolean found = false;
+    
+    /**
+     * The index of each goal of a search for the nearest goal, and the number of goals in bounds, 0 for a single goal
+     */
+    private int[] targets;
+    private int targetCount = 0;
+    
+    /**
+     * The movement options of the current search
+     */
+    private boolean diagonal = false, jump = false, bidirectional = false;
+    
+    /**
+     * The landmark costs used to improve the estimate of the current search, null if not used
+     */
+    private Landmarks landmarks;
+    
+    /**
+     * The storage for searching backward from the goal, only created once a bidirectional search is performed.<br>
+     * The parent of each location is the next location toward the goal.
+     */
+    private IndexedHeap backOpen;
+    private int[] backMovement, backParents, backStamps;
+    
+    /**
+     * Where the forward and backward searches meet on the cheapest path found so far, -1 if they have not met
+     */
+    private int meet = -1;
+    
+    /**
+     * The cost of the cheapest path found so far by a bidirectional search
+     */
+    private int best = Integer.MAX_VALUE;
+    
+    /**
+     * The expanded node closest to the goal, used for the partial path while the search is not complete
+     */
+    private int closest = -1;
+    
+    /**
+     * Is the current search complete
+     */
+    private boolean complete = true;
+    
+    /**
+     * The number of searches started with this context
+     */
+    private long searches = 0;
+    
+    /**
+     * The number of nodes expanded during the current search
+     */
+    private int expanded = 0;
+    
+    /**
+     * The horizontal and vertical part of each direction we can move
+     */
+    private static final int[] DIRECTIONS_X = {1, -1, 0, 0, 1, -1, 1, -1};
+    private static final int[] DIRECTIONS_Y = {0, 0, -1, 1, -1, -1, 1, 1};
+    
+    /**
+     * The cheapest cost to each location in the 3x3 area around a jump point candidate
+     */
+    private final int[] local = new int[9];
+    
+    /**
+     * Has the cheapest cost to each location in the 3x3 area been found
+     */
+    private final boolean[] localDone = new boolean[9];
+    
+    /**
+     * Create a search context, the storage will be created on the first search
+     */
+    public SearchContext()
+    {
+        this(0);
+    }
+    
+    /**
+     * Create a search context with storage for the specified number of locations
+     * @param capacity The total number of locations (columns * rows) of the largest rooms we expect to search
+     */
+    public SearchContext(final int capacity)
+    {
+        setCapacity(capacity);
+    }
+    
+    /**
+     * Make sure the storage can hold the specified number of locations.<br>
+     * If the existing storage is large enough nothing will happen.
+     * @param capacity The total number of locations (columns * rows)
+     */
+    private void setCapacity(final int capacity)
+    {
+        //if we already have enough storage no need to continue
+        if (stamps != null && stamps.length >= capacity)
+            return;
+        
+        this.movement = new int[capacity];
+        this.heuristic = new int[capacity];
+        this.parents = new int[capacity];
+        this.stamps = new int[capacity];
+        this.open = new IndexedHeap(capacity);
+        
+        //the backward storage will be created again if needed
+        this.backOpen = null;
+        this.backMovement = null;
+        this.backParents = null;
+        this.backStamps = null;
+        
+        //a new storage has no generation yet
+        this.generation = 0;
+    }
+    
+    /**
+     * Get the capacity
+     * @return The total number of locations this context can search without creating new storage
+     */
+    public int getCapacity()
+    {
+        return (stamps != null) ? stamps.length : 0;
+    }
+    
+    /**
+     * Search for the shortest path.<br>
+     * If the goal can't be reached, or either location is outside of the rooms, no path will be found.
+     * @param rooms The rooms to search, these will not be modified
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @return true if the shortest path was found, false otherwise
+     */
+    public boolean search(final Room[][] rooms, final int startColumn, final int startRow, final int goalColumn, final int goalRow, final boolean diagonal)
+    {
+        return search(rooms, startColumn, startRow, goalColumn, goalRow, diagonal, AStar.Mode.Standard);
+    }
+    
+    /**
+     * Search for the shortest path.<br>
+     * If the goal can't be reached, or either location is outside of the rooms, no path will be found.
+     * @param rooms The rooms to search, these will not be modified
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @param mode The way we expand each node while searching
+     * @return true if the shortest path was found, false otherwise
+     */
+    public boolean search(final Room[][] rooms, final int startColumn, final int startRow, final int goalColumn, final int goalRow, final boolean diagonal, final AStar.Mode mode)
+    {
+        return search(rooms, startColumn, startRow, goalColumn, goalRow, diagonal, mode, null);
+    }
+    
+    /**
+     * Search for the shortest path.<br>
+     * If the goal can't be reached, or either location is outside of the rooms, no path will be found.
+     * @param rooms The rooms to search, these will not be modified
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @param mode The way we expand each node while searching
+     * @param landmarks The landmark costs of the same rooms used to improve the estimate, null to only use the distance
+     * @return true if the shortest path was found, false otherwise
+     */
+    public boolean search(final Room[][] rooms, final int startColumn, final int startRow, final int goalColumn, final int goalRow, final boolean diagonal, final AStar.Mode mode, final Landmarks landmarks)
+    {
+        return search(getGrid(rooms), startColumn, startRow, goalColumn, goalRow, diagonal, mode, landmarks);
+    }
+    
+    /**
+     * Search for the shortest path.<br>
+     * If the goal can't be reached, or either location is outside of the grid, no path will be found.
+     * @param grid The locations to search, these will not be modified
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @param mode The way we expand each node while searching
+     * @return true if the shortest path was found, false otherwise
+     */
+    public boolean search(final IGrid grid, final int startColumn, final int startRow, final int goalColumn, final int goalRow, final boolean diagonal, final AStar.Mode mode)
+    {
+        return search(grid, startColumn, startRow, goalColumn, goalRow, diagonal, mode, null);
+    }
+    
+    /**
+     * Search for the shortest path.<br>
+     * If the goal can't be reached, or either location is outside of the grid, no path will be found.
+     * @param grid The locations to search, these will not be modified
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @param mode The way we expand each node while searching
+     * @param landmarks The landmark costs of a grid with the same moves used to improve the estimate, null to only use the distance
+     * @return true if the shortest path was found, false otherwise
+     */
+    public boolean search(final IGrid grid, final int startColumn, final int startRow, final int goalColumn, final int goalRow, final boolean diagonal, final AStar.Mode mode, final Landmarks landmarks)
+    {
+        //prepare the search
+        begin(grid, startColumn, startRow, goalColumn, goalRow, diagonal, mode, landmarks);
+        
+        //continue until we locate the path or run out of options
+        step(Integer.MAX_VALUE);
+        
+        return found;
+    }
+    
+    /**
+     * Prepare a search without expanding any nodes.<br>
+     * The search is then performed by calling {@link #step(int)} until it is complete,<br>
+     * so a long search can be spread across many updates.
+     * @param rooms The rooms to search, these will not be modified
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @param mode The way we expand each node while searching
+     */
+    public void begin(final Room[][] rooms, final int startColumn, final int startRow, final int goalColumn, final int goalRow, final boolean diagonal, final AStar.Mode mode)
+    {
+        begin(rooms, startColumn, startRow, goalColumn, goalRow, diagonal, mode, null);
+    }
+    
+    /**
+     * Prepare a search without expanding any nodes.<br>
+     * The landmark costs are only used if they were calculated for rooms of the same size, no wall has changed since,<br>
+     * and they include diagonal moves if this search does.
+     * @param rooms The rooms to search, these will not be modified
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @param mode The way we expand each node while searching
+     * @param landmarks The landmark costs of the same rooms used to improve the estimate, null to only use the distance
+     */
+    public void begin(final Room[][] rooms, final int startColumn, final int startRow, final int goalColumn, final int goalRow, final boolean diagonal, final AStar.Mode mode, final Landmarks landmarks)
+    {
+        begin(getGrid(rooms), startColumn, startRow, goalColumn, goalRow, diagonal, mode, landmarks);
+    }
+    
+    /**
+     * Prepare a search of any grid without expanding any nodes.<br>
+     * The landmark costs are only used if they were calculated for a grid of the same size, no wall has changed since,<br>
+     * and they include diagonal moves if this search does.
+     * @param grid The locations to search, these will not be modified
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @param mode The way we expand each node while searching
+     * @param landmarks The landmark costs of a grid with the same moves used to improve the estimate, null to only use the distance
+     */
+    public void begin(final IGrid grid, final int startColumn, final int startRow, final int goalColumn, final int goalRow, final boolean diagonal, final AStar.Mode mode, final Landmarks landmarks)
+    {
+        //prepare the storage for the new search
+        reset(grid, goalColumn, goalRow);
+        
+        //keep track of the number of searches started
+        searches++;
+        
+        //assign the movement options
+        this.diagonal = diagonal;
+        this.jump = (mode == AStar.Mode.JumpPoint);
+        this.bidirectional = (mode == AStar.Mode.Bidirectional);
+        
+        //only use the landmark costs if they are valid for this search
+        this.landmarks = (landmarks != null && landmarks.canEstimate(columns, rows, diagonal)) ? landmarks : null;
+        
+        //if the start or goal are out of bounds there is no path
+        if (!hasBounds(startColumn, startRow) || !hasBounds(goalColumn, goalRow))
+            return;
+        
+        //the index of the start and goal
+        this.start = getIndex(startColumn, startRow);
+        this.goal = getIndex(goalColumn, goalRow);
+        
+        //create the backward storage if needed
+        if (bidirectional && backStamps == null)
+        {
+            backOpen = new IndexedHeap(stamps.length);
+            backMovement = new int[stamps.length];
+            backParents = new int[stamps.length];
+            backStamps = new int[stamps.length];
+        }
+        
+        //add the start to the open list
+        addOpen(startColumn, startRow, -1, 0);
+        
+        //the start is the closest location to the goal so far
+        this.closest = start;
+        
+        //add the goal to the backward open list
+        if (bidirectional)
+            addBackward(goalColumn, goalRow, -1, 0);
+        
+        //the search can now be performed
+        this.complete = false;
+    }
+    
+    /**
+     * Search once for the shortest path to the nearest of many goals, instead of searching for each goal.<br>
+     * The estimate of each location is the lowest estimate of every goal, so the first goal reached is the nearest.<br>
+     * Once complete the path leads to the goal reached, and is available the same as a single goal search.
+     * @param rooms The rooms to search, these will not be modified
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goals The index (row * columns + column) of each goal
+     * @param count The number of goals in the array
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @return The position in the array of the nearest goal reached, -1 if no goal can be reached
+     */
+    public int searchNearest(final Room[][] rooms, final int startColumn, final int startRow, final int[] goals, final int count, final boolean diagonal)
+    {
+        return searchNearest(getGrid(rooms), startColumn, startRow, goals, count, diagonal);
+    }
+    
+    /**
+     * Search once for the shortest path to the nearest of many goals, instead of searching for each goal.<br>
+     * The estimate of each location is the lowest estimate of every goal, so the first goal reached is the nearest.<br>
+     * Once complete the path leads to the goal reached, and is available the same as a single goal search.
+     * @param grid The locations to search, these will not be modified
+     * @param startColumn Start Column
+     * @param startRow Start Row
+     * @param goals The index (row * columns + column) of each goal
+     * @param count The number of goals in the array
+     * @param diagonal true if we are allowed to move diagonal, otherwise false
+     * @return The position in the array of the nearest goal reached, -1 if no goal can be reached
+     */
+    public int searchNearest(final IGrid grid, final int startColumn, final int startRow, final int[] goals, final int count, final boolean diagonal)
+    {
+        //prepare the storage for the new search
+        reset(grid, -1, -1);
+        
+        //keep track of the number of searches started
+        searches++;
+        
+        //assign the movement options, only a forward search can look for many goals
+        this.diagonal = diagonal;
+        this.jump = false;
+        this.bidirectional = false;
+        this.landmarks = null;
+        
+        //if the start is out of bounds there is no path
+        if (!hasBounds(startColumn, startRow))
+            return -1;
+        
+        if (targets == null || targets.length < count)
+            targets = new int[count];
+        
+        //keep the goals in bounds, a goal out of bounds can't be reached
+        for (int index = 0; index < count; index++)
+        {
+            if (goals[index] >= 0 && goals[index] < columns * rows)
+                targets[targetCount++] = goals[index];
+        }
+        
+        if (targetCount == 0)
+            return -1;
+        
+        //the index of the start
+        this.start = getIndex(startColumn, startRow);
+        this.goal = targets[0];
+        
+        //add the start to the open list
+        addOpen(startColumn, startRow, -1, 0);
+        
+        //the start is the closest location to a goal so far
+        this.closest = start;
+        
+        //continue until we reach a goal or run out of options
+        this.complete = false;
+        step(Integer.MAX_VALUE);
+        
+        if (!found)
+            return -1;
+        
+        //the first position of the goal reached
+        for (int index = 0; index < count; index++)
+        {
+            if (goals[index] == goal)
+                return index;
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Continue the search started by {@link #begin(Room[][], int, int, int, int, boolean, AStar.Mode)}
+     * @param maxExpansions The maximum number of nodes to remove from the open list during this step
+     * @return true if the search is complete, false otherwise
+     */
+    public boolean step(final int maxExpansions)
+    {
+        for (int count = 0; count < maxExpansions && !complete; count++)
+        {
+            if (bidirectional)
+            {
+                stepBidirectional();
+            }
+            else
+            {
+                stepForward();
+            }
+        }
+        
+        return complete;
+    }
+    
+    /**
+     * Stop the current search without finding a path.<br>
+     * The search is complete and the partial path is still available.
+     */
+    public void cancel()
+    {
+        this.found = false;
+        this.complete = true;
+    }
+    
+    /**
+     * Is the current search complete?
+     * @return true if the path was found or there are no options left, false if more steps are needed
+     */
+    public boolean isComplete()
+    {
+        return this.complete;
+    }
+    
+    /**
+     * Get the number of searches started
+     * @return The total number of searches started with this context, used to check if the current search belongs to us
+     */
+    public long getSearches()
+    {
+        return this.searches;
+    }
+    
+    /**
+     * Remove the lowest cost node from the open list and expand it
+     */
+    private void stepForward()
+    {
+        //if there are no options left, the search is complete
+        if (open.isEmpty())
+        {
+            complete = true;
+            return;
+        }
+        
+        /**
+         * Remove the lowest cost node from the open list, which also places it in the closed list
+         */
+        final int cell = open.pop();
+        
+        //if we found the goal and added it to the closed list
+        if (isGoal(cell))
+        {
+            goal = cell;
+            found = true;
+            complete = true;
+            return;
+        }
+        
+        //keep track of the number of nodes we expand
+        expanded++;
+        
+        //keep track of the node closest to the goal
+        setClosest(cell);
+        
+        //add the neighbors to the open list
+        if (jump)
+        {
+            expandJumpPoints(cell);
+        }
+        else
+        {
+            expand(cell);
+        }
+    }
+    
+    /**
+     * Expand the lowest priority node from either the forward or backward open list.<br>
+     * The priority of each node is the larger of the total cost and twice the movement cost, so neither side searches past the middle.<br>
+     * Each time a location is reached by both searches a path is found, and we stop once the lowest priority is no less than the cheapest path.
+     */
+    private void stepBidirectional()
+    {
+        //if either side has no options left, the search is complete
+        if (open.isEmpty() || backOpen.isEmpty())
+        {
+            found = (meet >= 0);
+            complete = true;
+            return;
+        }
+        
+        //the lowest priority of each side
+        final long forward = open.peekKey() >>> 32;
+        final long backward = backOpen.peekKey() >>> 32;
+        
+        //no path cheaper than the lowest priority can still be found, so we have the shortest path
+        if (best <= Math.min(forward, backward))
+        {
+            found = true;
+            complete = true;
+            return;
+        }
+        
+        //keep track of the number of nodes we expand
+        expanded++;
+        
+        //expand the side with the lowest priority
+        if (forward <= backward)
+        {
+            final int cell = open.pop();
+            
+            //keep track of the node closest to the goal
+            setClosest(cell);
+            
+            expand(cell);
+        }
+        else
+        {
+            expandBackward(backOpen.pop());
+        }
+    }
+    
+    /**
+     * Is the location the goal, or one of the goals when searching for the nearest goal
+     * @param cell The index of the location
+     * @return true if the location is a goal, otherwise false
+     */
+    private boolean isGoal(final int cell)
+    {
+        if (targetCount == 0)
+            return (cell == goal);
+        
+        for (int index = 0; index < targetCount; index++)
+        {
+            if (targets[index] == cell)
+                return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Keep track of the expanded node closest to the goal
+     * @param cell The index of the node expanded
+     */
+    private void setClosest(final int cell)
+    {
+        if (heuristic[cell] < heuristic[closest])
+            closest = cell;
+    }
+    
+    /**
+     * Add every neighbor that can move to the specified node to the backward open list
+     * @param cell The index of the node
+     */
+    private void expandBackward(final int cell)
+    {
+        //assign the (column, row)
+        final int column = cell % columns;
+        final int row = cell / columns;
+        
+        for (int index = 0; index < DIRECTIONS_X.length; index++)
+        {
+            final int x = DIRECTIONS_X[index];
+            final int y = DIRECTIONS_Y[index];
+            
+            //skip diagonal directions if not allowed
+            if (!diagonal && x != 0 && y != 0)
+                continue;
+            
+            //the neighbor must be able to move to this node
+            if (canMove(column + x, row + y, -x, -y))
+                addBackward(column + x, row + y, cell, getMovementCost(x, y));
+        }
+    }
+    
+    /**
+     * Add this location to the backward open list
+     * @param column Column
+     * @param row Row
+     * @param parent The index of the parent node, -1 if this is the goal
+     * @param movementCost The movement cost
+     */
+    private void addBackward(final int column, final int row, final int parent, final int movementCost)
+    {
+        //the index of this location
+        final int cell = getIndex(column, row);
+        
+        //the total movement cost from this location to the goal
+        final int cost = (parent >= 0) ? backMovement[parent] + movementCost : movementCost;
+        
+        //the estimated cost from the start to this location
+        final int estimate = getEstimateFrom(start, column, row);
+        
+        //if we have already reached this location during this search
+        if (backStamps[cell] == generation)
+        {
+            //only update the open list if this is an improvement
+            if (!backOpen.contains(cell) || cost >= backMovement[cell])
+                return;
+            
+            backMovement[cell] = cost;
+            backParents[cell] = parent;
+            backOpen.update(cell, getKey(getPriority(cost, estimate), backOpen.getKey(cell) & SEQUENCE_MASK));
+        }
+        else
+        {
+            backStamps[cell] = generation;
+            backMovement[cell] = cost;
+            backParents[cell] = parent;
+            backOpen.push(cell, getKey(getPriority(cost, estimate), sequence++));
+        }
+        
+        //if the forward search has reached this location, we have a path
+        if (stamps[cell] == generation)
+            setMeet(cell, movement[cell] + cost);
+    }
+    
+    /**
+     * Record the path through the location if it is cheaper than the best path found so far
+     * @param cell The index of the location reached by both searches
+     * @param cost The total cost of the path through the location
+     */
+    private void setMeet(final int cell, final int cost)
+    {
+        if (cost < best)
+        {
+            best = cost;
+            meet = cell;
+        }
+    }
+    
+    /**
+     * Add every neighbor we can move to from the specified node to the open list
+     * @param cell The index of the node
+     */
+    private void expand(final int cell)
+    {
+        //assign the (column, row)
+        final int column = cell % columns;
+        final int row = cell / columns;
+        
+        //if the move is allowed, add it to the open list
+        if (grid.canMove(column, row, 1, 0))
+            addOpen(column + 1, row, cell, AStar.MOVE_VERTICAL_HORIZONTAL);
+        if (grid.canMove(column, row, -1, 0))
+            addOpen(column - 1, row, cell, AStar.MOVE_VERTICAL_HORIZONTAL);
+        if (grid.canMove(column, row, 0, -1))
+            addOpen(column, row - 1, cell, AStar.MOVE_VERTICAL_HORIZONTAL);
+        if (grid.canMove(column, row, 0, 1))
+            addOpen(column, row + 1, cell, AStar.MOVE_VERTICAL_HORIZONTAL);
+        
+        /**
+         * Make sure diagonal movement is allowed before checking
+         */
+        if (diagonal)
+        {
+            if (grid.canMove(column, row, 1, -1))
+                addOpen(column + 1, row - 1, cell, AStar.MOVE_DIAGONAL);
+            if (grid.canMove(column, row, -1, -1))
+                addOpen(column - 1, row - 1, cell, AStar.MOVE_DIAGONAL);
+            if (grid.canMove(column, row, 1, 1))
+                addOpen(column + 1, row + 1, cell, AStar.MOVE_DIAGONAL);
+            if (grid.canMove(column, row, -1, 1))
+                addOpen(column - 1, row + 1, cell, AStar.MOVE_DIAGONAL);
+        }
+    }
+    
+    /**
+     * Jump point search expansion.<br>
+     * Instead of adding every neighbor, we only follow the directions that can't be reached as cheaply without this node.<br>
+     * In each of those directions we keep moving in a straight line until we reach a node that needs to be expanded (a jump point),<br>
+     * and only that node is added to the open list.
+     * @param cell The index of the node
+     */
+    private void expandJumpPoints(final int cell)
+    {
+        //assign the (column, row)
+        final int column = cell % columns;
+        final int row = cell / columns;
+        
+        //the direction we arrived from our parent, (0, 0) for the start
+        final int parent = parents[cell];
+        final int dx = (parent < 0) ? 0 : Integer.signum(column - (parent % columns));
+        final int dy = (parent < 0) ? 0 : Integer.signum(row - (parent / columns));
+        
+        //if this node has a parent, find which neighbors can be reached as cheaply without this node
+        if (parent >= 0)
+            setLocalCosts(column, row, dx, dy);
+        
+        //the directions we need to follow, checked before jumping since jumping will change the local costs
+        int directions = 0;
+        
+        for (int index = 0; index < DIRECTIONS_X.length; index++)
+        {
+            final int x = DIRECTIONS_X[index];
+            final int y = DIRECTIONS_Y[index];
+            
+            //skip diagonal directions if not allowed
+            if (!diagonal && x != 0 && y != 0)
+                continue;
+            
+            //the start will check every direction, otherwise only the natural and forced neighbors
+            if (parent < 0 || isNatural(dx, dy, x, y) || isForced(column, row, dx, dy, x, y))
+                directions |= (1 << index);
+        }
+        
+        for (int index = 0; index < DIRECTIONS_X.length; index++)
+        {
+            //skip the directions we don't need to follow
+            if ((directions & (1 << index)) == 0)
+                continue;
+            
+            final int x = DIRECTIONS_X[index];
+            final int y = DIRECTIONS_Y[index];
+            
+            //locate the next jump point in this direction
+            final int next = jump(column, row, x, y);
+            
+            //if there is no jump point, skip this direction
+            if (next < 0)
+                continue;
+            
+            //the number of steps to the jump point
+            final int steps = Math.max(Math.abs((next % columns) - column), Math.abs((next / columns) - row));
+            
+            //add the jump point to the open list
+            addOpen(next % columns, next / columns, cell, steps * getMovementCost(x, y));
+        }
+    }
+    
+    /**
+     * Move in a straight line from the specified location until we find a jump point
+     * @param column Column we are moving from
+     * @param row Row we are moving from
+     * @param dx The horizontal direction (-1, 0, 1)
+     * @param dy The vertical direction (-1, 0, 1)
+     * @return The index of the jump point, -1 if no jump point exists in this direction
+     */
+    private int jump(int column, int row, final int dx, final int dy)
+    {
+        while (true)
+        {
+            //if we can't move any further there is no jump point
+            if (!canMove(column, row, dx, dy))
+                return -1;
+            
+            //move to the next location
+            column += dx;
+            row += dy;
+            
+            //the goal is always a jump point
+            if (column == goalColumn && row == goalRow)
+                return getIndex(column, row);
+            
+            //if there is a neighbor that can only be reached cheapest through here, we need to stop
+            if (hasForced(column, row, dx, dy))
+                return getIndex(column, row);
+            
+            if (dx != 0 && dy != 0)
+            {
+                //when moving diagonal, stop if there is a jump point horizontal or vertical of this location
+                if (jump(column, row, dx, 0) >= 0 || jump(column, row, 0, dy) >= 0)
+                    return getIndex(column, row);
+            }
+            else if (!diagonal && dx == 0)
+            {
+                //without diagonal movement, vertical moves check horizontal the same way
+                if (jump(column, row, 1, 0) >= 0 || jump(column, row, -1, 0) >= 0)
+                    return getIndex(column, row);
+            }
+        }
+    }
+    
+    /**
+     * Is the neighbor a natural neighbor?<br>
+     * A natural neighbor is a direction we always follow after arriving from our parent.
+     * @param dx The horizontal direction we arrived (-1, 0, 1)
+     * @param dy The vertical direction we arrived (-1, 0, 1)
+     * @param x The horizontal direction of the neighbor
+     * @param y The vertical direction of the neighbor
+     * @return true if the neighbor is natural, false otherwise
+     */
+    private boolean isNatural(final int dx, final int dy, final int x, final int y)
+    {
+        //continuing in the same direction is always natural
+        if (x == dx && y == dy)
+            return true;
+        
+        //after moving diagonal, the horizontal and vertical parts are natural
+        if (dx != 0 && dy != 0)
+            return ((x == dx && y == 0) || (x == 0 && y == dy));
+        
+        //without diagonal movement, horizontal neighbors are natural after moving vertical
+        if (!diagonal && dx == 0)
+            return (y == 0);
+        
+        return false;
+    }
+    
+    /**
+     * Does the location have any forced neighbors?
+     * @param column Column
+     * @param row Row
+     * @param dx The horizontal direction we arrived (-1, 0, 1)
+     * @param dy The vertical direction we arrived (-1, 0, 1)
+     * @return true if at least 1 neighbor can only be reached cheapest through this location, false otherwise
+     */
+    private boolean hasForced(final int column, final int row, final int dx, final int dy)
+    {
+        //if there are no walls around this location, there can't be any forced neighbors
+        if (isOpen(column, row))
+            return false;
+        
+        //calculate the cost to reach each neighbor without this location
+        setLocalCosts(column, row, dx, dy);
+        
+        for (int index = 0; index < DIRECTIONS_X.length; index++)
+        {
+            final int x = DIRECTIONS_X[index];
+            final int y = DIRECTIONS_Y[index];
+            
+            //skip diagonal directions if not allowed
+            if (!diagonal && x != 0 && y != 0)
+                continue;
+            
+            //natural neighbors are already followed
+            if (isNatural(dx, dy, x, y))
+                continue;
+            
+            if (isForced(column, row, dx, dy, x, y))
+                return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Is the neighbor forced?<br>
+     * A neighbor is forced when we can move to it, and the cheapest way to get there from our parent is through this location.<br>
+     * The local costs need to be calculated for this location before checking.
+     * @param column Column
+     * @param row Row
+     * @param dx The horizontal direction we arrived (-1, 0, 1)
+     * @param dy The vertical direction we arrived (-1, 0, 1)
+     * @param x The horizontal direction of the neighbor
+     * @param y The vertical direction of the neighbor
+     * @return true if the neighbor is forced, false otherwise
+     */
+    private boolean isForced(final int column, final int row, final int dx, final int dy, final int x, final int y)
+    {
+        //moving back toward our parent is never needed
+        if (x == -dx && y == -dy)
+            return false;
+        
+        //we can't be forced to a neighbor we can't move to
+        if (!canMove(column, row, x, y))
+            return false;
+        
+        //the cost to reach the neighbor through this location
+        final int cost = getMovementCost(dx, dy) + getMovementCost(x, y);
+        
+        //the cost to reach the neighbor without this location
+        final int other = local[getLocalIndex(x, y)];
+        
+        //after a diagonal move the other path must be cheaper, after a straight move it can be equal
+        return (dx != 0 && dy != 0) ? (other >= cost) : (other > cost);
+    }
+    
+    /**
+     * Calculate the cheapest cost from our parent to each neighbor of this location, without moving through this location.<br>
+     * Only the 3x3 area around this location is considered.
+     * @param column Column
+     * @param row Row
+     * @param dx The horizontal direction we arrived (-1, 0, 1)
+     * @param dy The vertical direction we arrived (-1, 0, 1)
+     */
+    private void setLocalCosts(final int column, final int row, final int dx, final int dy)
+    {
+        Arrays.fill(local, Integer.MAX_VALUE);
+        Arrays.fill(localDone, false);
+        
+        //the center location can't be used
+        localDone[getLocalIndex(0, 0)] = true;
+        
+        //the cost to our parent is 0
+        local[getLocalIndex(-dx, -dy)] = 0;
+        
+        while (true)
+        {
+            //pick the cheapest location we have not checked yet
+            int current = -1;
+            
+            for (int index = 0; index < local.length; index++)
+            {
+                if (!localDone[index] && local[index] != Integer.MAX_VALUE && (current < 0 || local[index] < local[current]))
+                    current = index;
+            }
+            
+            //if there are no more locations we are done
+            if (current < 0)
+                break;
+            
+            localDone[current] = true;
+            
+            //the offset of this location from the center
+            final int cx = (current % 3) - 1;
+            final int cy = (current / 3) - 1;
+            
+            //check each neighbor that is also in the 3x3 area
+            for (int index = 0; index < DIRECTIONS_X.length; index++)
+            {
+                final int x = DIRECTIONS_X[index];
+                final int y = DIRECTIONS_Y[index];
+                
+                //skip diagonal directions if not allowed
+                if (!diagonal && x != 0 && y != 0)
+                    continue;
+                
+                //stay inside the 3x3 area
+                if (cx + x < -1 || cx + x > 1 || cy + y < -1 || cy + y > 1)
+                    continue;
+                
+                final int neighbor = getLocalIndex(cx + x, cy + y);
+                
+                if (localDone[neighbor] || !canMove(column + cx, row + cy, x, y))
+                    continue;
+                
+                //if this is a cheaper cost, assign it
+                if (local[current] + getMovementCost(x, y) < local[neighbor])
+                    local[neighbor] = local[current] + getMovementCost(x, y);
+            }
+        }
+    }
+    
+    /**
+     * Get the index of the offset in the 3x3 area
+     * @param x The horizontal offset from the center (-1, 0, 1)
+     * @param y The vertical offset from the center (-1, 0, 1)
+     * @return The index in the local cost array
+     */
+    private static int getLocalIndex(final int x, final int y)
+    {
+        return ((y + 1) * 3) + (x + 1);
+    }
+    
+    /**
+     * Is the 3x3 area around the location completely open?<br>
+     * Every location must be within the rooms and have no walls.
+     * @param column Column
+     * @param row Row
+     * @return true if there are no walls in the 3x3 area, false otherwise
+     */
+    private boolean isOpen(final int column, final int row)
+    {
+        //the area must be within the rooms
+        if (column < 1 || row < 1 || column >= columns - 1 || row >= rows - 1)
+            return false;
+        
+        for (int y = row - 1; y <= row + 1; y++)
+        {
+            for (int x = column - 1; x <= column + 1; x++)
+            {
+                if (!grid.isOpen(x, y))
+                    return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Can we move from the location in the specified direction?<br>
+     * The room we are moving from can't have a wall in the direction we are moving.
+     * @param column Column
+     * @param row Row
+     * @param x The horizontal direction (-1, 0, 1)
+     * @param y The vertical direction (-1, 0, 1)
+     * @return true if the move is allowed, false otherwise
+     */
+    private boolean canMove(final int column, final int row, final int x, final int y)
+    {
+        return grid.canMove(column, row, x, y);
+    }
+    
+    /**
+     * Get the cost of a single move in the specified direction
+     * @param x The horizontal direction (-1, 0, 1)
+     * @param y The vertical direction (-1, 0, 1)
+     * @return The movement cost
+     */
+    private static int getMovementCost(final int x, final int y)
+    {
+        return (x != 0 && y != 0) ? AStar.MOVE_DIAGONAL : AStar.MOVE_VERTICAL_HORIZONTAL;
+    }
+    
+    /**
+     * Get the number of nodes expanded during the last search
+     * @return The number of nodes removed from the open list, not counting the goal
+     */
+    public int getExpanded()
+    {
+        return this.expanded;
+    }
+    
+    /**
+     * Was the goal found during the last search?
+     * @return true if the shortest path was found, false otherwise
+     */
+    public boolean hasPath()
+    {
+        return this.found;
+    }
+    
+    /**
+     * Get the total movement cost of the shortest path found during the last search
+     * @return The movement cost from the start to the goal, -1 if no path was found
+     */
+    public int getPathCost()
+    {
+        if (!found)
+            return -1;
+        
+        return (meet >= 0) ? best : movement[goal];
+    }
+    
+    /**
+     * Fill the list with the shortest path found during the last search.<br>
+     * The first cell in the list will be the goal, the last cell in the list will be the start.<br>
+     * If no path was found the list will be empty.
+     * @param path The list to fill, any existing cells will be removed
+     */
+    public void getPath(final List<Cell> path)
+    {
+        //remove any existing path
+        path.clear();
+        
+        //if there is no path, no need to continue
+        if (!found)
+            return;
+        
+        //a bidirectional search has a path from the goal to where the searches met
+        if (meet >= 0)
+        {
+            //add each location from where we met until we reach the goal
+            for (int cell = meet; cell >= 0; cell = backParents[cell])
+            {
+                path.add(new Cell(cell % columns, cell / columns));
+            }
+            
+            //the goal needs to be first
+            Collections.reverse(path);
+            
+            //if we met at the start the path is complete
+            if (meet == start)
+                return;
+            
+            //now continue from the parent of where we met
+            addPath(path, parents[meet]);
+        }
+        else
+        {
+            addPath(path, goal);
+        }
+    }
+    
+    /**
+     * Store the shortest path as packed location indices (row * columns + column), so no objects are created.<br>
+     * The first index will be the goal, the last index will be the start.<br>
+     * If the buffer is too small, only the first locations that fit are stored.
+     * @param path The buffer to fill
+     * @return The number of locations in the shortest path, 0 if no path was found
+     */
+    public int getPath(final int[] path)
+    {
+        final int length = trace();
+        
+        //if there is no path, there is nothing to copy
+        if (length == 0)
+            return 0;
+        
+        System.arraycopy(trace, 0, path, 0, Math.min(length, path.length));
+        
+        return length;
+    }
+    
+    /**
+     * Store only the corners of the shortest path as packed location indices (row * columns + column).<br>
+     * Every location where the direction changes is kept, straight runs between them are removed.<br>
+     * The first index will be the goal, the last index will be the start.<br>
+     * If the buffer is too small, only the first waypoints that fit are stored.
+     * @param waypoints The buffer to fill
+     * @return The number of waypoints in the shortest path, 0 if no path was found
+     */
+    public int getWaypoints(final int[] waypoints)
+    {
+        final int length = trace();
+        
+        int count = 0;
+        
+        for (int index = 0; index < length; index++)
+        {
+            //the goal and start are always kept
+            if (index > 0 && index < length - 1)
+            {
+                final int previous = trace[index - 1];
+                final int cell = trace[index];
+                final int next = trace[index + 1];
+                
+                //skip the location if we continue in the same direction
+                if ((cell % columns) - (previous % columns) == (next % columns) - (cell % columns) && (cell / columns) - (previous / columns) == (next / columns) - (cell / columns))
+                    continue;
+            }
+            
+            if (count < waypoints.length)
+                waypoints[count] = trace[index];
+            
+            count++;
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Follow the shortest path into our own storage, from the goal to the start
+     * @return The number of locations in the shortest path, 0 if no path was found
+     */
+    private int trace()
+    {
+        //if there is no path, no need to continue
+        if (!found)
+            return 0;
+        
+        //make sure we have enough storage, a path can't visit a location twice
+        if (trace == null || trace.length < stamps.length)
+            trace = new int[stamps.length];
+        
+        int length = 0;
+        
+        //a bidirectional search has a path from the goal to where the searches met
+        if (meet >= 0)
+        {
+            //add each location from where we met until we reach the goal
+            for (int cell = meet; cell >= 0; cell = backParents[cell])
+            {
+                trace[length++] = cell;
+            }
+            
+            //the goal needs to be first
+            for (int index = 0; index < length / 2; index++)
+            {
+                final int cell = trace[index];
+                trace[index] = trace[length - 1 - index];
+                trace[length - 1 - index] = cell;
+            }
+            
+            //if we met at the start the path is complete
+            if (meet == start)
+                return length;
+            
+            //now continue from the parent of where we met
+            return addTrace(length, parents[meet]);
+        }
+        else
+        {
+            return addTrace(length, goal);
+        }
+    }
+    
+    /**
+     * Add the locations from the specified location back to the start to our own storage
+     * @param length The number of locations already stored
+     * @param cell The index of the location to start from
+     * @return The number of locations stored
+     */
+    private int addTrace(int length, int cell)
+    {
+        while (cell != start)
+        {
+            //the location of this node and the parent
+            int column = cell % columns;
+            int row = cell / columns;
+            final int parent = parents[cell];
+            
+            //the direction toward the parent
+            final int x = Integer.signum((parent % columns) - column);
+            final int y = Integer.signum((parent / columns) - row);
+            
+            //add every location until we reach the parent, a jump point may be several locations away
+            while (column != parent % columns || row != parent / columns)
+            {
+                trace[length++] = getIndex(column, row);
+                
+                column += x;
+                row += y;
+            }
+            
+            //now assign the parent location
+            cell = parent;
+        }
+        
+        //add the start
+        trace[length++] = start;
+        
+        return length;
+    }
+    
+    /**
+     * Fill the list with the best path found so far.<br>
+     * Once the search is complete this is the same as {@link #getPath(List)},<br>
+     * otherwise this is the path to the expanded location closest to the goal, so an agent can start moving before the search is complete.<br>
+     * The first cell in the list will be the closest location, the last cell in the list will be the start.
+     * @param path The list to fill, any existing cells will be removed
+     */
+    public void getPartialPath(final List<Cell> path)
+    {
+        //if the path was found, use the complete path
+        if (found)
+        {
+            getPath(path);
+            return;
+        }
+        
+        //remove any existing path
+        path.clear();
+        
+        //if the search was never started there is no path
+        if (closest < 0)
+            return;
+        
+        addPath(path, closest);
+    }
+    
+    /**
+     * Add the path from the location back to the start
+     * @param path The list to add to
+     * @param cell The index of the first location to add
+     */
+    private void addPath(final List<Cell> path, int cell)
+    {
+        /**
+         * Start with the location added and follow the parent backwards until you get back to the start.<br>
+         * This will create the shortest path
+         */
+        while (cell != start)
+        {
+            //the location of this node and the parent
+            int column = cell % columns;
+            int row = cell / columns;
+            final int parent = parents[cell];
+            
+            //the direction toward the parent
+            final int x = Integer.signum((parent % columns) - column);
+            final int y = Integer.signum((parent / columns) - row);
+            
+            //add every location until we reach the parent, a jump point may be several locations away
+            while (column != parent % columns || row != parent / columns)
+            {
+                //add this location to the path
+                path.add(new Cell(column, row));
+                
+                column += x;
+                row += y;
+            }
+            
+            //now assign the parent location
+            cell = parent;
+        }
+        
+        //add this location to the path
+        path.add(new Cell(start % columns, start / columns));
+    }
+    
+    /**
+     * Prepare the storage for a new search.<br>
+     * The storage is only created when it is too small, and moving to the next generation invalidates every existing node.
+     * @param grid The locations to search
+     * @param goalColumn Goal Column
+     * @param goalRow Goal Row
+     */
+    private void reset(final IGrid grid, final int goalColumn, final int goalRow)
+    {
+        //assign the search
+        this.grid = grid;
+        this.rows = grid.getRows();
+        this.columns = grid.getColumns();
+        this.goalColumn = goalColumn;
+        this.goalRow = goalRow;
+        this.targetCount = 0;
+        this.found = false;
+        this.expanded = 0;
+        this.meet = -1;
+        this.best = Integer.MAX_VALUE;
+        this.closest = -1;
+        this.complete = true;
+        
+        //make sure we have enough storage
+        setCapacity(columns * rows);
+        
+        //remove any existing nodes from the open list
+        open.clear();
+        
+        if (backOpen != null)
+            backOpen.clear();
+        
+        //if we run out of generations, reset the stamps and start over
+        if (generation == Integer.MAX_VALUE)
+        {
+            Arrays.fill(stamps, 0);
+            
+            if (backStamps != null)
+                Arrays.fill(backStamps, 0);
+            
+            generation = 0;
+        }
+        
+        //move to the next generation
+        generation++;
+        
+        //reset the order in which nodes are added
+        this.sequence = 0;
+    }
+    
+    /**
+     * Get the index of the location in our storage
+     * @param column Column
+     * @param row Row
+     * @return The index of the (column, row)
+     */
+    private int getIndex(final int column, final int row)
+    {
+        return (row * columns) + column;
+    }
+    
+    /**
+     * Get the priority of a node in the open list
+     * @param cost The movement cost
+     * @param estimate The heuristic cost
+     * @return The total cost, or for a bidirectional search the larger of the total cost and twice the movement cost
+     */
+    private int getPriority(final int cost, final int estimate)
+    {
+        return (bidirectional) ? Math.max(cost + estimate, cost + cost) : cost + estimate;
+    }
+    
+    /**
+     * Get the key used to sort the open list.<br>
+     * The total cost is compared first, if the costs are equal the node added first will be chosen.
+     * @param cost The total cost of the node
+     * @param sequence The order in which the node was added to the open list
+     * @return The key of the node
+     */
+    private static long getKey(final int cost, final long sequence)
+    {
+        return (((long)cost << 32) | sequence);
+    }
+    
+    /**
+     * Add this location to the open list
+     * @param column Column
+     * @param row Row
+     * @param parent The index of the parent node, -1 if this is the start
+     * @param movementCost The movement cost
+     */
+    private void addOpen(final int column, final int row, final int parent, final int movementCost)
+    {
+        //we can't move outside of the rooms
+        if (!hasBounds(column, row))
+            return;
+        
+        //the index of this location
+        final int cell = getIndex(column, row);
+        
+        //the total movement cost from the start to this location
+        final int cost = (parent >= 0) ? movement[parent] + movementCost : movementCost;
+        
+        //if we have already reached this location during this search
+        if (stamps[cell] == generation)
+        {
+            /**
+             * If the location is already in the open list, <br>
+             * we need to check and see if the movement is better than the existing
+             */
+            if (open.contains(cell) && cost < movement[cell])
+            {
+               //assign the new movement cost
+               movement[cell] = cost;
+               
+               //assign the new parent
+               parents[cell] = parent;
+               
+               //update the open list with the new cost, keeping the original order
+               open.update(cell, getKey(getPriority(cost, heuristic[cell]), open.getKey(cell) & SEQUENCE_MASK));
+               
+               //if the backward search has reached this location, we have a path
+               if (bidirectional && backStamps[cell] == generation)
+                   setMeet(cell, cost + backMovement[cell]);
+            }
+            
+            //if this location is on the closed list, or not an improvement no need to continue
+            return;
+        }
+        
+        //store the node with the calculated cost
+        stamps[cell] = generation;
+        movement[cell] = cost;
+        heuristic[cell] = getHeuristic(column, row);
+        parents[cell] = parent;
+        
+        //add this node to the open list
+        open.push(cell, getKey(getPriority(cost, heuristic[cell]), sequence++));
+        
+        //if the backward search has reached this location, we have a path
+        if (bidirectional && backStamps[cell] == generation)
+            setMeet(cell, cost + backMovement[cell]);
+    }
+    
+    /**
+     * Get the heuristic.<br>
+     * This is the number of cells to move until we reach the goal.<br>
+     * Diagonal movement is not allowed in this calculation, unless this is a jump point or bidirectional search with diagonal movement.<br>
+     * Those searches need the heuristic to never overestimate, so diagonal moves are counted there.
+     * @param column Column
+     * @param row Row
+     * @return The calculated heuristic
+     */
+    private int getHeuristic(final int column, final int row)
+    {
+        if (targetCount == 0)
+            return getEstimate(column, row, goal);
+        
+        //the lowest estimate of every goal never costs more than the nearest goal
+        int lowest = Integer.MAX_VALUE;
+        
+        for (int index = 0; index < targetCount; index++)
+        {
+            lowest = Math.min(lowest, getDistance(column, row, targets[index] % columns, targets[index] / columns));
+        }
+        
+        return lowest;
+    }
+    
+    /**
+     * Get the estimated cost to the target, the landmark costs are used if they are closer to the real cost than the distance
+     * @param column Column
+     * @param row Row
+     * @param target The index of the target
+     * @return The estimated cost from the location to the target
+     */
+    private int getEstimate(final int column, final int row, final int target)
+    {
+        final int distance = getDistance(column, row, target % columns, target / columns);
+        
+        if (landmarks == null)
+            return distance;
+        
+        return Math.max(distance, landmarks.getEstimate(getIndex(column, row), target));
+    }
+        
+    /**
+     * Get the estimated cost from the source to the location, used by the backward search.<br>
+     * A wall may only block 1 side, so the landmark costs are checked in the direction we move and not from the location back to the source.
+     * @param source The index of the source
+     * @param column Column
+     * @param row Row
+     * @return The estimated cost from the source to the location
+     */
+    private int getEstimateFrom(final int source, final int column, final int row)
+    {
+        final int distance = getDistance(column, row, source % columns, source / columns);
+        
+        if (landmarks == null)
+            return distance;
+        
+        return Math.max(distance, landmarks.getEstimate(source, getIndex(column, row)));
+    }
+    
+    /**
+     * Get the estimated cost between 2 locations
+     * @param column Column
+     * @param row Row
+     * @param targetColumn The column we are moving to
+     * @param targetRow The row we are moving to
+     * @return The estimated cost
+     */
+    private int getDistance(final int column, final int row, final int targetColumn, final int targetRow)
+    {
+        //calculate the horizontal lengh from the specified column to the target column
+        int horizontal = (targetColumn > column) ? targetColumn - column : column - targetColumn;
+        
+        //calculate the vertical lengh from the specified row to the target row
+        int vertical = (targetRow > row) ? targetRow - row : row - targetRow;
+        
+        //move diagonal as much as possible, then the remaining distance straight
+        if ((jump || bidirectional || targetCount > 0) && diagonal)
+        {
+            final int min = Math.min(horizontal, vertical);
+            
+            return (min * AStar.MOVE_DIAGONAL) + ((horizontal + vertical - min - min) * AStar.MOVE_VERTICAL_HORIZONTAL);
+        }
+        
+        //return the calculated heuristic
+        return ((horizontal + vertical) * AStar.MOVE_VERTICAL_HORIZONTAL);
+    }
+    
+    /**
+     * Do we have bounds?
+     * @param column Column
+     * @param row Row
+     * @return true if the location is within the rooms, false otherwise
+     */
+    private boolean hasBounds(final int column, final int row)
+    {
+        return (column >= 0 && column < columns && row >= 0 && row < rows);
+    }
+    
+    /**
+     * Get the grid of the rooms, the grid of the last rooms searched is used again if they are the same
+     * @param rooms The rooms
+     * @return The grid of the rooms
+     */
+    private IGrid getGrid(final Room[][] rooms)
+    {
+        if (roomGrid == null || roomGrid.getRooms() != rooms)
+            roomGrid = new RoomGrid(rooms);
+        
+        return roomGrid;
+    }
+    
+    @Override
+    public void dispose()
+    {
+        grid = null;
+        roomGrid = null;
+        open = null;
+        movement = null;
+        heuristic = null;
+        parents = null;
+        stamps = null;
+        backOpen = null;
+        backMovement = null;
+        backParents = null;
+        backStamps = null;
+        landmarks = null;
+        trace = null;
+        targets = null;
+    }
+}
\ No newline at end of file
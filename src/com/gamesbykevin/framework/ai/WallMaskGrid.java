@@ -0,0 +1,136 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+
+/**
+ * A grid storing the walls of each location as the bits of a single byte, indexed by (row * columns) + column.<br>
+ * A move is allowed if the location we are moving from has no wall in the direction of the move, the same as the rooms of a maze.<br>
+ * The walls are only read and never modified, so changes made by the owner are seen by the next search.
+ * @author GOD
+ */
+public final class WallMaskGrid implements IGrid
+{
+    /**
+     * The bit of each wall, the same as {@link Wall#getBit()}
+     */
+    public static final byte NORTH = 1 << 0;
+    public static final byte SOUTH = 1 << 1;
+    public static final byte WEST = 1 << 2;
+    public static final byte EAST = 1 << 3;
+    
+    /**
+     * The walls of each location
+     */
+    private final byte[] masks;
+    
+    /**
+     * The dimensions of the grid
+     */
+    private final int columns, rows;
+    
+    /**
+     * Create a grid of walls
+     * @param masks The wall bits of each location, indexed by (row * columns) + column
+     * @param columns The number of columns
+     * @param rows The number of rows
+     * @throws Exception If the number of locations does not match the dimensions
+     */
+    public WallMaskGrid(final byte[] masks, final int columns, final int rows) throws Exception
+    {
+        if (columns < 1 || rows < 1 || masks.length != columns * rows)
+            throw new Exception("The number of locations does not match the dimensions");
+        
+        this.masks = masks;
+        this.columns = columns;
+        this.rows = rows;
+    }
+    
+    /**
+     * Create a grid with a copy of the walls of the rooms.<br>
+     * Any change made to the rooms afterwards will not be seen.
+     * @param rooms The rooms, indexed [row][column]
+     * @throws Exception If there are no rooms
+     */
+    public WallMaskGrid(final Room[][] rooms) throws Exception
+    {
+        this(new byte[rooms.length * rooms[0].length], rooms[0].length, rooms.length);
+        
+        for (int row = 0; row < rows; row++)
+        {
+            for (int column = 0; column < columns; column++)
+            {
+                masks[(row * columns) + column] = (byte)rooms[row][column].getWallMask();
+            }
+        }
+    }
+    
+    /**
+     * Get the bit of the wall
+     * @param wall The wall
+     * @return The bit representing the wall in a mask
+     */
+    public static byte getBit(final Wall wall)
+    {
+        return (byte)wall.getBit();
+    }
+    
+    /**
+     * Get the walls
+     * @return The wall bits of each location, indexed by (row * columns) + column
+     */
+    public byte[] getMasks()
+    {
+        return this.masks;
+    }
+    
+    @Override
+    public int getColumns()
+    {
+        return this.columns;
+    }
+    
+    @Override
+    public int getRows()
+    {
+        return this.rows;
+    }
+    
+    @Override
+    public boolean canMove(final int column, final int row, final int x, final int y)
+    {
+        //we can't move outside of the grid
+        if (!hasBounds(column, row) || !hasBounds(column + x, row + y))
+            return false;
+        
+        final int mask = masks[(row * columns) + column];
+        
+        if (x > 0 && (mask & EAST) != 0)
+            return false;
+        if (x < 0 && (mask & WEST) != 0)
+            return false;
+        if (y < 0 && (mask & NORTH) != 0)
+            return false;
+        if (y > 0 && (mask & SOUTH) != 0)
+            return false;
+        
+        return true;
+    }
+    
+    @Override
+    public boolean isOpen(final int column, final int row)
+    {
+        return (hasBounds(column, row) && masks[(row * columns) + column] == 0);
+    }
+    
+    /**
+     * Is the location within the grid
+     * @param column Column
+     * @param row Row
+     * @return true if the location is in bounds, otherwise false
+     */
+    private boolean hasBounds(final int column, final int row)
+    {
+        return (column >= 0 && column < columns && row >= 0 && row < rows);
+    }
+}
\ No newline at end of file
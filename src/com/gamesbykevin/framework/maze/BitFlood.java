@@ -0,0 +1,424 @@
+package com.gamesbykevin.framework.maze;
+
+import com.gamesbykevin.framework.resources.Disposable;
+
+import java.util.Arrays;
+
+/**
+ * Breadth first distance and reachability fill that checks 64 locations at a time.<br>
+ * Each row is stored as a row of long words with 1 bit per location.<br>
+ * Every step of the fill shifts the frontier 1 location in each direction and masks out the locations that are blocked or already reached.<br>
+ * On an open grid the 4 move planes are full, when created from rooms the move planes have the bit cleared where the room has a wall.
+ * @author GOD
+ */
+public final class BitFlood implements Disposable
+{
+    //the number of bits in each word
+    private static final int BITS = 64;
+    
+    //the size of the grid
+    private final int columns, rows;
+    
+    //the number of words in each row
+    private final int words;
+    
+    //the valid bits of the last word in each row
+    private final long last;
+    
+    //locations that can't be entered
+    private long[] blocked;
+    
+    //locations that can be left moving east, west, north and south
+    private long[] east, west, north, south;
+    
+    //the locations reached by the last fill
+    private long[] visited;
+    
+    //the locations reached in the current step and the next step
+    private long[] frontier, next;
+    
+    //the distance of the farthest location reached by the last fill
+    private int farthest = -1;
+    
+    /**
+     * Create an open grid where every location can be entered
+     * @param columns The number of columns
+     * @param rows The number of rows
+     * @throws Exception If the size is not at least 1 x 1
+     */
+    public BitFlood(final int columns, final int rows) throws Exception
+    {
+        if (columns < 1 || rows < 1)
+            throw new Exception("The grid must be at least 1 x 1");
+        
+        this.columns = columns;
+        this.rows = rows;
+        this.words = (columns + BITS - 1) / BITS;
+        this.last = (columns % BITS == 0) ? -1L : (1L << (columns % BITS)) - 1;
+        
+        final int size = words * rows;
+        
+        this.blocked = new long[size];
+        this.east = new long[size];
+        this.west = new long[size];
+        this.north = new long[size];
+        this.south = new long[size];
+        this.visited = new long[size];
+        this.frontier = new long[size];
+        this.next = new long[size];
+        
+        //every location can be left in every direction, the edges are handled by the fill
+        Arrays.fill(east, -1L);
+        Arrays.fill(west, -1L);
+        Arrays.fill(north, -1L);
+        Arrays.fill(south, -1L);
+    }
+    
+    /**
+     * Create a grid with the walls of the rooms
+     * @param rooms The rooms [row][column]
+     * @throws Exception If there are no rooms
+     */
+    public BitFlood(final Room[][] rooms) throws Exception
+    {
+        this((rooms == null || rooms.length < 1) ? 0 : rooms[0].length, (rooms == null) ? 0 : rooms.length);
+        
+        setWalls(rooms);
+    }
+    
+    /**
+     * Create a grid with the walls of the store
+     * @param store The store containing the walls
+     * @throws Exception If the store is not at least 1 x 1
+     */
+    public BitFlood(final MazeStore store) throws Exception
+    {
+        this(store.getColumns(), store.getRows());
+        
+        setWalls(store);
+    }
+    
+    @Override
+    public void dispose()
+    {
+        blocked = null;
+        east = null;
+        west = null;
+        north = null;
+        south = null;
+        visited = null;
+        frontier = null;
+        next = null;
+    }
+    
+    /**
+     * Get the number of columns
+     * @return The number of columns
+     */
+    public int getColumns()
+    {
+        return this.columns;
+    }
+    
+    /**
+     * Get the number of rows
+     * @return The number of rows
+     */
+    public int getRows()
+    {
+        return this.rows;
+    }
+    
+    /**
+     * Copy the walls of the rooms into the move planes.<br>
+     * A move is allowed when the room we leave does not have a wall in that direction.
+     * @param rooms The rooms [row][column], the same size as the grid
+     * @throws Exception If the size of the rooms does not match the grid
+     */
+    public void setWalls(final Room[][] rooms) throws Exception
+    {
+        if (rooms == null || rooms.length != getRows() || rooms[0].length != getColumns())
+            throw new Exception("The rooms must be " + getColumns() + " x " + getRows());
+        
+        Arrays.fill(east, 0L);
+        Arrays.fill(west, 0L);
+        Arrays.fill(north, 0L);
+        Arrays.fill(south, 0L);
+        
+        for (int row = 0; row < getRows(); row++)
+        {
+            for (int col = 0; col < getColumns(); col++)
+            {
+                final Room room = rooms[row][col];
+                final int index = (row * words) + (col / BITS);
+                final long bit = 1L << (col % BITS);
+                
+                if (!room.hasWall(Room.Wall.East))
+                    east[index] |= bit;
+                if (!room.hasWall(Room.Wall.West))
+                    west[index] |= bit;
+                if (!room.hasWall(Room.Wall.North))
+                    north[index] |= bit;
+                if (!room.hasWall(Room.Wall.South))
+                    south[index] |= bit;
+            }
+        }
+    }
+    
+    /**
+     * Copy the walls of the store into the move planes.<br>
+     * A move is allowed when the room we leave does not have a wall in that direction.
+     * @param store The store containing the walls, the same size as the grid
+     * @throws Exception If the size of the store does not match the grid
+     */
+    public void setWalls(final MazeStore store) throws Exception
+    {
+        if (store.getColumns() != getColumns() || store.getRows() != getRows())
+            throw new Exception("The store must be " + getColumns() + " x " + getRows());
+        
+        Arrays.fill(east, 0L);
+        Arrays.fill(west, 0L);
+        Arrays.fill(north, 0L);
+        Arrays.fill(south, 0L);
+        
+        final byte[] masks = store.getWallMasks();
+        
+        for (int row = 0; row < getRows(); row++)
+        {
+            for (int col = 0; col < getColumns(); col++)
+            {
+                final int mask = masks[(row * getColumns()) + col];
+                final int index = (row * words) + (col / BITS);
+                final long bit = 1L << (col % BITS);
+                
+                if ((mask & Room.Wall.East.getBit()) == 0)
+                    east[index] |= bit;
+                if ((mask & Room.Wall.West.getBit()) == 0)
+                    west[index] |= bit;
+                if ((mask & Room.Wall.North.getBit()) == 0)
+                    north[index] |= bit;
+                if ((mask & Room.Wall.South.getBit()) == 0)
+                    south[index] |= bit;
+            }
+        }
+    }
+    
+    /**
+     * Set if the location can be entered
+     * @param col Column
+     * @param row Row
+     * @param blocked true if the location can't be entered, false otherwise
+     */
+    public void setBlocked(final int col, final int row, final boolean blocked)
+    {
+        final int index = (row * words) + (col / BITS);
+        final long bit = 1L << (col % BITS);
+        
+        if (blocked)
+        {
+            this.blocked[index] |= bit;
+        }
+        else
+        {
+            this.blocked[index] &= ~bit;
+        }
+    }
+    
+    /**
+     * Is the location blocked?
+     * @param col Column
+     * @param row Row
+     * @return true if the location is outside of the grid or can't be entered, false otherwise
+     */
+    public boolean isBlocked(final int col, final int row)
+    {
+        if (!hasBounds(col, row))
+            return true;
+        
+        return (blocked[(row * words) + (col / BITS)] & (1L << (col % BITS))) != 0;
+    }
+    
+    /**
+     * Is the location inside the grid?
+     * @param col Column
+     * @param row Row
+     * @return true if the location is inside the grid, false otherwise
+     */
+    public boolean hasBounds(final int col, final int row)
+    {
+        return (col >= 0 && col < getColumns() && row >= 0 && row < getRows());
+    }
+    
+    /**
+     * Was the location reached by the last fill?
+     * @param col Column
+     * @param row Row
+     * @return true if the location was reached, false otherwise
+     */
+    public boolean isReachable(final int col, final int row)
+    {
+        if (!hasBounds(col, row))
+            return false;
+        
+        return (visited[(row * words) + (col / BITS)] & (1L << (col % BITS))) != 0;
+    }
+    
+    /**
+     * Get the distance of the farthest location reached by the last fill
+     * @return The number of steps to the farthest location, -1 if nothing was reached
+     */
+    public int getFarthest()
+    {
+        return this.farthest;
+    }
+    
+    /**
+     * Mark every location that can be reached from the start
+     * @param col Starting column
+     * @param row Starting row
+     * @return The number of locations reached, including the start
+     * @throws Exception If the distances are too small for the grid
+     */
+    public int fill(final int col, final int row) throws Exception
+    {
+        return fill(col, row, null);
+    }
+    
+    /**
+     * Mark every location that can be reached from the start, and the number of steps to each location
+     * @param col Starting column
+     * @param row Starting row
+     * @param distances The number of steps to each location [row * columns + column], -1 if not reached. May be null.
+     * @return The number of locations reached, including the start
+     * @throws Exception If the distances are too small for the grid
+     */
+    public int fill(final int col, final int row, final int[] distances) throws Exception
+    {
+        if (distances != null && distances.length < getColumns() * getRows())
+            throw new Exception("The distances must have room for " + (getColumns() * getRows()) + " locations");
+        
+        Arrays.fill(visited, 0L);
+        
+        if (distances != null)
+            Arrays.fill(distances, 0, getColumns() * getRows(), -1);
+        
+        this.farthest = -1;
+        
+        //we can't start where we can't be
+        if (isBlocked(col, row))
+            return 0;
+        
+        final int start = (row * words) + (col / BITS);
+        
+        visited[start] = frontier[start] = 1L << (col % BITS);
+        
+        if (distances != null)
+            distances[row * getColumns() + col] = 0;
+        
+        //the range of rows that have locations in the frontier
+        int low = row, high = row;
+        
+        int reached = 1;
+        int distance = 0;
+        
+        while (low <= high)
+        {
+            distance++;
+            
+            //a row can only be reached from itself, or the row above and below
+            final int first = Math.max(0, low - 1);
+            final int end = Math.min(getRows() - 1, high + 1);
+            
+            int nextLow = getRows(), nextHigh = -1;
+            
+            for (int y = first; y <= end; y++)
+            {
+                final int base = y * words;
+                long any = 0;
+                
+                for (int w = 0; w < words; w++)
+                {
+                    final int index = base + w;
+                    
+                    //move east into the next bit, carrying the highest bit of the previous word
+                    long bits = (frontier[index] & east[index]) << 1;
+                    
+                    if (w > 0)
+                        bits |= (frontier[index - 1] & east[index - 1]) >>> (BITS - 1);
+                    
+                    //move west into the previous bit, carrying the lowest bit of the following word
+                    bits |= (frontier[index] & west[index]) >>> 1;
+                    
+                    if (w + 1 < words)
+                        bits |= (frontier[index + 1] & west[index + 1]) << (BITS - 1);
+                    
+                    //move south from the row above
+                    if (y > 0)
+                        bits |= frontier[index - words] & south[index - words];
+                    
+                    //move north from the row below
+                    if (y + 1 < getRows())
+                        bits |= frontier[index + words] & north[index + words];
+                    
+                    //moving east off of the last column does not land anywhere
+                    if (w + 1 == words)
+                        bits &= last;
+                    
+                    bits &= ~(visited[index] | blocked[index]);
+                    
+                    next[index] = bits;
+                    any |= bits;
+                }
+                
+                if (any != 0)
+                {
+                    nextLow = Math.min(nextLow, y);
+                    nextHigh = y;
+                }
+            }
+            
+            //every row we checked was written, clear the current frontier so it is empty for the next step
+            for (int y = low; y <= high; y++)
+            {
+                Arrays.fill(frontier, y * words, (y + 1) * words, 0L);
+            }
+            
+            //mark the new locations
+            for (int y = nextLow; y <= nextHigh; y++)
+            {
+                for (int w = 0; w < words; w++)
+                {
+                    long bits = next[(y * words) + w];
+                    
+                    if (bits == 0)
+                        continue;
+                    
+                    visited[(y * words) + w] |= bits;
+                    reached += Long.bitCount(bits);
+                    
+                    if (distances != null)
+                    {
+                        while (bits != 0)
+                        {
+                            distances[(y * getColumns()) + (w * BITS) + Long.numberOfTrailingZeros(bits)] = distance;
+                            bits &= bits - 1;
+                        }
+                    }
+                }
+            }
+            
+            //the next step becomes the current frontier
+            final long[] tmp = frontier;
+            frontier = next;
+            next = tmp;
+            
+            low = nextLow;
+            high = nextHigh;
+        }
+        
+        //the last step did not reach anything
+        this.farthest = distance - 1;
+        
+        return reached;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.gamesbykevin.framework.maze;
+
+/**
+ * Classes that need to know when the walls of a room change
+ * @author GOD
+ */
+public interface IRoomListener
+{
+    /**
+     * A wall has been added or removed from the room
+     * @param room The room that has changed
+     */
+    public void onWallChange(final Room room);
+}
\ No newline at end of file
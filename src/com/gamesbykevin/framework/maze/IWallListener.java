@@ -0,0 +1,16 @@
+package com.gamesbykevin.framework.maze;
+
+/**
+ * Classes that need to know when the walls of a maze change.<br>
+ * Only the location is passed, so the rooms of the maze do not need to be created.
+ * @author GOD
+ */
+public interface IWallListener
+{
+    /**
+     * A wall has been added or removed from the room at the location
+     * @param col Column
+     * @param row Row
+     */
+    public void onWallChange(final int col, final int row);
+}
\ No newline at end of file
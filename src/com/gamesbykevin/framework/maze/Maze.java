@@ -6,6 +6,8 @@ import com.gamesbykevin.framework.maze.Room.Wall;
 import com.gamesbykevin.framework.resources.Progress;
 
 import java.awt.Graphics;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -25,7 +27,12 @@ public abstract class Maze extends Sprite implements IMaze
     private final int rows;
     
     /**
-     * The rooms that make up the maze
+     * The walls, cost and visited flag of every room
+     */
+    private MazeStore store;
+    
+    /**
+     * The rooms that make up the maze, created when first needed
      */
     private Room[][] rooms;
     
@@ -40,6 +47,21 @@ public abstract class Maze extends Sprite implements IMaze
      */
     private Progress progress;
     
+    /**
+     * The objects to notify when the walls of a room change
+     */
+    private List<IRoomListener> listeners;
+    
+    /**
+     * The objects to notify with the location when the walls of a room change
+     */
+    private List<IWallListener> wallListeners;
+    
+    /**
+     * The number of times a wall has changed in any room
+     */
+    private long modifications = 0;
+    
     protected static final int DEFAULT_MAZE_DIMENSION = 10;
     
     /**
@@ -58,11 +80,13 @@ public abstract class Maze extends Sprite implements IMaze
         this.cols = cols;
         this.rows = rows;
         
-        //create a new array of rooms 
-        this.rooms = new Room[rows][cols];
+        //create the store for our rooms, the rooms are created when first needed
+        this.store = new MazeStore(cols, rows);
+        this.store.setOwner(this);
         
-        //now create our rooms
-        createRooms();
+        //create a new list for the listeners
+        this.listeners = new ArrayList<>();
+        this.wallListeners = new ArrayList<>();
         
         //create a new progress object
         this.progress = new Progress(rows * cols);
@@ -91,15 +115,91 @@ public abstract class Maze extends Sprite implements IMaze
     }
     
     /**
-     * Create a room for every (column, row) in our maze
+     * Get the store containing the walls, cost and visited flag of every room.<br>
+     * The store is indexed by (row * columns) + column and does not require the rooms to be created.
+     * @return The store of this maze, null once disposed
      */
-    private void createRooms()
+    public MazeStore getStore()
     {
-        for (int row = 0; row < getRows(); row++)
+        return this.store;
+    }
+    
+    /**
+     * Add a listener that will be notified every time a wall is added or removed in any room of this maze
+     * @param listener The object to notify
+     */
+    public void addListener(final IRoomListener listener)
+    {
+        if (!listeners.contains(listener))
+            listeners.add(listener);
+    }
+    
+    /**
+     * Remove the listener so it is no longer notified
+     * @param listener The object to remove
+     */
+    public void removeListener(final IRoomListener listener)
+    {
+        if (listeners != null)
+            listeners.remove(listener);
+    }
+    
+    /**
+     * Add a listener that will be notified with the location every time a wall is added or removed in any room of this maze.<br>
+     * Unlike {@link #addListener(IRoomListener)} the rooms do not need to be created.
+     * @param listener The object to notify
+     */
+    public void addWallListener(final IWallListener listener)
+    {
+        if (!wallListeners.contains(listener))
+            wallListeners.add(listener);
+    }
+    
+    /**
+     * Remove the listener so it is no longer notified
+     * @param listener The object to remove
+     */
+    public void removeWallListener(final IWallListener listener)
+    {
+        if (wallListeners != null)
+            wallListeners.remove(listener);
+    }
+    
+    /**
+     * Get the number of modifications.<br>
+     * This increases every time a wall is added or removed in any room, so a change can be detected by comparing 2 values.
+     * @return The number of times the walls have changed
+     */
+    public long getModifications()
+    {
+        return this.modifications;
+    }
+    
+    /**
+     * A wall has changed in our store, notify every listener
+     * @param index The index of the room that has changed
+     */
+    void onWallChange(final int index)
+    {
+        //count the modification
+        modifications++;
+        
+        final int col = store.getColumn(index);
+        final int row = store.getRow(index);
+        
+        for (int position = 0; position < wallListeners.size(); position++)
+        {
+            wallListeners.get(position).onWallChange(col, row);
+        }
+        
+        //only create the rooms if a listener needs the room that changed
+        if (!listeners.isEmpty())
         {
-            for (int col = 0; col < getCols(); col++)
+            final Room room = getRoom(col, row);
+            
+            for (int position = 0; position < listeners.size(); position++)
             {
-                this.rooms[row][col] = new Room(col, row);
+                listeners.get(position).onWallChange(room);
             }
         }
     }
@@ -185,17 +285,7 @@ public abstract class Maze extends Sprite implements IMaze
      */
     protected void populateRooms()
     {
-        for (int row = 0; row < getRows(); row++)
-        {
-            for (int col = 0; col < getCols(); col++)
-            {
-                final Room room = getRoom(col, row);
-                
-                //make sure the room exists
-                if (room != null)
-                    getRoom(col, row).addAllWalls();
-            }
-        }
+        getStore().setWallsAll(Room.WALLS_ALL);
     }
     
     /**
@@ -213,7 +303,7 @@ public abstract class Maze extends Sprite implements IMaze
     @Override
     public void dispose()
     {
-        if (getRooms() != null)
+        if (this.rooms != null)
         {
             for (int row = 0; row < getRows(); row++)
             {
@@ -226,6 +316,24 @@ public abstract class Maze extends Sprite implements IMaze
             
             this.rooms = null;
         }
+        
+        if (this.store != null)
+        {
+            this.store.dispose();
+            this.store = null;
+        }
+        
+        if (listeners != null)
+        {
+            listeners.clear();
+            listeners = null;
+        }
+        
+        if (wallListeners != null)
+        {
+            wallListeners.clear();
+            wallListeners = null;
+        }
     }
     
     /**
@@ -244,14 +352,62 @@ public abstract class Maze extends Sprite implements IMaze
     }
     
     /**
-     * Get the rooms.
-     * @return The array of rooms that make up the maze
+     * Get the rooms.<br>
+     * The rooms are created the first time they are needed, each room is a view of the store.
+     * @return The array of rooms that make up the maze, null once disposed
      */
     public Room[][] getRooms()
     {
+        if (this.rooms == null && getStore() != null)
+        {
+            this.rooms = new Room[getRows()][getCols()];
+            
+            for (int row = 0; row < getRows(); row++)
+            {
+                for (int col = 0; col < getCols(); col++)
+                {
+                    this.rooms[row][col] = new Room(getStore(), getStore().getIndex(col, row));
+                }
+            }
+        }
+        
         return this.rooms;
     }
     
+    /**
+     * Copy the wall mask of every room, see {@link Room#getWallMask()}
+     * @param masks The array to fill [row * columns + column], null to create a new one
+     * @return The array containing the wall masks
+     * @throws Exception If the array does not have room for every room
+     */
+    public byte[] getWallMasks(byte[] masks) throws Exception
+    {
+        if (masks == null)
+            masks = new byte[getCols() * getRows()];
+        if (masks.length < getCols() * getRows())
+            throw new Exception("The masks must have room for " + (getCols() * getRows()) + " rooms");
+        
+        System.arraycopy(getStore().getWallMasks(), 0, masks, 0, getCols() * getRows());
+        
+        return masks;
+    }
+    
+    /**
+     * Assign the wall mask of every room, see {@link Room#setWallMask(int)}
+     * @param masks The wall masks [row * columns + column]
+     * @throws Exception If the array does not have a mask for every room
+     */
+    public void setWallMasks(final byte[] masks) throws Exception
+    {
+        if (masks == null || masks.length < getCols() * getRows())
+            throw new Exception("The masks must have room for " + (getCols() * getRows()) + " rooms");
+        
+        for (int index = 0; index < getCols() * getRows(); index++)
+        {
+            getStore().setWalls(index, masks[index]);
+        }
+    }
+    
     /**
      * Get the columns
      * @return The total number of columns in this maze
@@ -276,21 +432,8 @@ public abstract class Maze extends Sprite implements IMaze
      */
     protected void updateProgress()
     {
-        int count = 0;
-        
-        //check all rooms
-        for (int row = 0; row < getRows(); row++)
-        {
-            for (int col = 0; col < getCols(); col++)
-            {
-                //keep track of number of visited rooms
-                if (getRoom(col, row).hasVisited())
-                    count++;
-            }
-        }
-        
         //update the progress
-        getProgress().setCount(count);
+        getProgress().setCount(getStore().getVisitedCount());
     }
     
     /**
@@ -332,20 +475,20 @@ public abstract class Maze extends Sprite implements IMaze
             for (int row = 0; row < getRows(); row++)
             {
                 int y = (int)(getY() + (row * getHeight()));
-
+                
                 for (int col = 0; col < getCols(); col++)
                 {
                     int x = (int)(getX() + (col * getWidth()));
-
-                    final Room room = getRoom(col, row);
-
-                    if (room.hasWall(Wall.East))
+                    
+                    final int index = getStore().getIndex(col, row);
+                    
+                    if (getStore().hasWall(index, Wall.East))
                         graphics.drawLine(x + (int)getWidth(), y, x + (int)getWidth(), y + (int)getHeight());
-                    if (room.hasWall(Wall.West))
+                    if (getStore().hasWall(index, Wall.West))
                         graphics.drawLine(x, y, x, y + (int)getHeight());
-                    if (room.hasWall(Wall.North))
+                    if (getStore().hasWall(index, Wall.North))
                         graphics.drawLine(x, y, x + (int)getWidth(), y);
-                    if (room.hasWall(Wall.South))
+                    if (getStore().hasWall(index, Wall.South))
                         graphics.drawLine(x, y + (int)getHeight(), x + (int)getWidth(), y + (int)getHeight());
                 }
             }
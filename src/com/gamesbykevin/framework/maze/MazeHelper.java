@@ -4,8 +4,6 @@ import static com.gamesbykevin.framework.maze.Room.Wall.East;
 import static com.gamesbykevin.framework.maze.Room.Wall.North;
 import static com.gamesbykevin.framework.maze.Room.Wall.South;
 import static com.gamesbykevin.framework.maze.Room.Wall.West;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Maze Helper methods
@@ -69,105 +67,84 @@ public class MazeHelper
      */
     public static void calculateCost(final Maze maze) throws Exception
     {
+        final MazeStore store = maze.getStore();
+        
         //mark all rooms as not visited so we know which ones to check
-        for (int row = 0; row < maze.getRows(); row++)
-        {
-            for (int col = 0; col < maze.getCols(); col++)
-            {
-                maze.getRoom(col, row).setVisited(false);
-            }
-        }
+        store.setVisitedAll(false);
         
-        //create empty list of optional walls
-        List<Room> options = new ArrayList<>();
+        //the rooms to check, in the order they were reached
+        final int[] options = new int[store.getSize()];
         
-        //get the room at the starting point 
-        Room room = maze.getRoom(maze.getStartCol(), maze.getStartRow());
+        //the next room to check and the number of rooms in our list
+        int head = 0, tail = 0;
         
         //the starting point will have a cost of 0
-        room.setCost(0);
+        final int start = store.getIndex(maze.getStartCol(), maze.getStartRow());
+        store.setValue(start, 0);
+        store.setVisited(start, true);
         
         //add the room to our options list
-        options.add(room);
+        options[tail++] = start;
         
         //continue as long as we have rooms to check
-        while (!options.isEmpty())
+        while (head < tail)
         {
             //get the current room
-            room = options.get(0);
-            
-            //flag the current room as visited
-            room.setVisited(true);
+            final int room = options[head++];
             
-            //check if the west room can be added to the options list
-            performRoomCheck(maze, room, Room.Wall.West, options);
-            
-            //check if the east room can be added to the options list
-            performRoomCheck(maze, room, Room.Wall.East, options);
-            
-            //check if the north room can be added to the options list
-            performRoomCheck(maze, room, Room.Wall.North, options);
-            
-            //check if the south room can be added to the options list
-            performRoomCheck(maze, room, Room.Wall.South, options);
-            
-            //now that we have checked the current room, remove from our list
-            options.remove(0);
-        }
-    }
-    
-    /**
-     * Check if we can add the neighbor room to the existing options list.<br>
-     * If so we will add to the options list.
-     * @param current The current room we are in
-     * @param direction The direction we want to check from the current room
-     * @param options List of existing rooms we can add to
-     * @throws Exception If the specified direction is not handled
-     */
-    private static void performRoomCheck(final Maze maze, final Room current, final Room.Wall direction, final List<Room> options) throws Exception
-    {
-        Room room = null;
-        
-        switch (direction)
-        {
-            case East:
-                room = maze.getRoom(current.getCol() + 1, current.getRow());
-                break;
-                
-            case West:
-                room = maze.getRoom(current.getCol() - 1, current.getRow());
-                break;
+            //check if each neighbor can be added to the options list
+            for (Room.Wall direction : Room.Wall.values())
+            {
+                //if there is a wall blocking the current room
+                if (store.hasWall(room, direction))
+                    continue;
                 
-            case South:
-                room = maze.getRoom(current.getCol(), current.getRow() + 1);
-                break;
+                final int neighbor = store.getNeighbor(room, direction);
                 
-            case North:
-                room = maze.getRoom(current.getCol(), current.getRow() - 1);
-                break;
+                //make sure room exists and we haven't already visited
+                if (neighbor < 0 || store.hasVisited(neighbor))
+                    continue;
                 
-            default:
-                throw new Exception("Direction not setup here " + direction.toString());
-        }
-        
-        //make sure room exists and we haven't already visited
-        if (room != null && !room.hasVisited())
-        {
-            //if there isn't a wall blocking the current room
-            if (!current.hasWall(direction))
-            {
                 //assign the cost
-                room.setCost(current.getCost() + 1);
+                store.setValue(neighbor, store.getValue(room) + 1);
                 
                 //mark if as visited
-                room.setVisited(true);
+                store.setVisited(neighbor, true);
                 
                 //add it to our list of rooms to check
-                options.add(room);
+                options[tail++] = neighbor;
             }
         }
     }
     
+    /**
+     * We will assign the cost of each cell the same as {@link #calculateCost(Maze)},<br>
+     * using a bit flood to check 64 rooms at a time.<br>
+     * The rooms that can't be reached from the start keep their cost and are not visited.
+     * @param maze The maze
+     * @param flood The flood containing the walls of the maze, see {@link BitFlood#setWalls(MazeStore)}
+     * @throws Exception If the flood is not the same size as the maze
+     */
+    public static void calculateCost(final Maze maze, final BitFlood flood) throws Exception
+    {
+        if (flood.getColumns() != maze.getCols() || flood.getRows() != maze.getRows())
+            throw new Exception("The flood is not the same size as the maze");
+        
+        final MazeStore store = maze.getStore();
+        final int[] distances = new int[store.getSize()];
+        
+        flood.fill(maze.getStartCol(), maze.getStartRow(), distances);
+        
+        for (int index = 0; index < store.getSize(); index++)
+        {
+            //only the rooms we reached have a cost
+            if (distances[index] >= 0)
+                store.setValue(index, distances[index]);
+            
+            store.setVisited(index, distances[index] >= 0);
+        }
+    }
+    
     /**
      * Locate the finish position automatically.<br>
      * We will assign the cost of reach room.<br>
@@ -178,24 +155,21 @@ public class MazeHelper
         //calculate the cost of each cell
         calculateCost(maze);
         
+        final MazeStore store = maze.getStore();
+        
         //the cost to beat
         int cost = 0;
         
-        for (int row = 0; row < maze.getRows(); row++)
+        for (int index = 0; index < store.getSize(); index++)
         {
-            for (int col = 0; col < maze.getCols(); col++)
+            //if the cost is higher than our record
+            if (store.getValue(index) > cost)
             {
-                final Room room = maze.getRoom(col, row);
+                //assign the winning cost
+                cost = store.getValue(index);
                 
-                //if the cost is higher than our record
-                if (room.getCost() > cost)
-                {
-                    //assign the winning cost
-                    cost = room.getCost();
-                    
-                    //assign the finish location
-                    maze.setFinishLocation(col, row);
-                }
+                //assign the finish location
+                maze.setFinishLocation(store.getColumn(index), store.getRow(index));
             }
         }
     }
@@ -207,18 +181,7 @@ public class MazeHelper
      */
     public static boolean hasVisited(final Maze maze)
     {
-        for (int row = 0; row < maze.getRows(); row++)
-        {
-            for (int col = 0; col < maze.getCols(); col++)
-            {
-                //if this room has been visited return true
-                if (maze.getRoom(col, row).hasVisited())
-                    return true;
-            }
-        }
-        
-        //no rooms have been visited
-        return false;
+        return (maze.getStore().getVisitedCount() > 0);
     }
     
     /**
@@ -227,12 +190,6 @@ public class MazeHelper
      */
     public static void setVisitedAll(final Maze maze, final boolean visited)
     {
-        for (int row = 0; row < maze.getRows(); row++)
-        {
-            for (int col = 0; col < maze.getCols(); col++)
-            {
-                maze.getRoom(col, row).setVisited(visited);
-            }
-        }
+        maze.getStore().setVisitedAll(visited);
     }
 }
\ No newline at end of file
@@ -0,0 +1,432 @@
+package com.gamesbykevin.framework.maze;
+
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.resources.Disposable;
+
+import java.util.Arrays;
+
+/**
+ * Compact storage for every room of a maze, indexed by (row * columns) + column.<br>
+ * The walls are a byte plane using the bits of {@link Wall#getBit()}, the set/cost is an int plane, and visited is a bit set.<br>
+ * This is a little over 5 bytes for each room, a {@link Room} is only a view of a single location in the store.
+ * @author GOD
+ */
+public final class MazeStore implements Disposable
+{
+    //the size of the store
+    private final int columns, rows;
+    
+    //the walls of each room
+    private byte[] walls;
+    
+    //the set of each room while the maze is generated, the cost of each room once generated
+    private int[] values;
+    
+    //1 bit for each room that has been visited
+    private long[] visited;
+    
+    //the number of rooms that have been visited
+    private int visitedCount = 0;
+    
+    //the number of times a wall has changed in any room
+    private long modifications = 0;
+    
+    //the maze to notify when the walls change, null if none
+    private Maze owner;
+    
+    /**
+     * Create a store where each room has no walls, a value of 0, and has not been visited
+     * @param columns The number of columns
+     * @param rows The number of rows
+     * @throws Exception If the size is not at least 1 x 1
+     */
+    public MazeStore(final int columns, final int rows) throws Exception
+    {
+        if (columns < 1 || rows < 1)
+            throw new Exception("The store must be at least 1 x 1");
+        
+        this.columns = columns;
+        this.rows = rows;
+        this.walls = new byte[columns * rows];
+        this.values = new int[columns * rows];
+        this.visited = new long[((columns * rows) + 63) / 64];
+    }
+    
+    /**
+     * Create a store for a single room
+     */
+    MazeStore()
+    {
+        this.columns = 1;
+        this.rows = 1;
+        this.walls = new byte[1];
+        this.values = new int[1];
+        this.visited = new long[1];
+    }
+    
+    @Override
+    public void dispose()
+    {
+        walls = null;
+        values = null;
+        visited = null;
+        owner = null;
+    }
+    
+    /**
+     * Assign the maze to notify when the walls change
+     * @param owner The maze, null if none
+     */
+    void setOwner(final Maze owner)
+    {
+        this.owner = owner;
+    }
+    
+    /**
+     * Get the columns
+     * @return The number of columns
+     */
+    public int getColumns()
+    {
+        return this.columns;
+    }
+    
+    /**
+     * Get the rows
+     * @return The number of rows
+     */
+    public int getRows()
+    {
+        return this.rows;
+    }
+    
+    /**
+     * Get the size
+     * @return The number of rooms in the store
+     */
+    public int getSize()
+    {
+        return (getColumns() * getRows());
+    }
+    
+    /**
+     * Is this location within the bounds of the store?
+     * @param col Column
+     * @param row Row
+     * @return true = yes, false = no
+     */
+    public boolean hasBounds(final int col, final int row)
+    {
+        return (col >= 0 && col < getColumns() && row >= 0 && row < getRows());
+    }
+    
+    /**
+     * Get the index of the location
+     * @param col Column
+     * @param row Row
+     * @return The index of the room, (row * columns) + column
+     */
+    public int getIndex(final int col, final int row)
+    {
+        return (row * getColumns()) + col;
+    }
+    
+    /**
+     * Get the column of the index
+     * @param index The index of the room
+     * @return The column
+     */
+    public int getColumn(final int index)
+    {
+        return (index % getColumns());
+    }
+    
+    /**
+     * Get the row of the index
+     * @param index The index of the room
+     * @return The row
+     */
+    public int getRow(final int index)
+    {
+        return (index / getColumns());
+    }
+    
+    /**
+     * Get the neighbor on the other side of the wall
+     * @param index The index of the room
+     * @param direction The direction of the neighbor
+     * @return The index of the neighbor, -1 if the neighbor is outside of the store
+     */
+    public int getNeighbor(final int index, final Wall direction)
+    {
+        switch (direction)
+        {
+            case East:
+                return (getColumn(index) + 1 < getColumns()) ? index + 1 : -1;
+            
+            case West:
+                return (getColumn(index) > 0) ? index - 1 : -1;
+            
+            case North:
+                return (index >= getColumns()) ? index - getColumns() : -1;
+            
+            case South:
+            default:
+                return (index + getColumns() < getSize()) ? index + getColumns() : -1;
+        }
+    }
+    
+    /**
+     * Get the walls of the room
+     * @param index The index of the room
+     * @return The wall mask, see {@link Wall#getBit()}
+     */
+    public int getWalls(final int index)
+    {
+        return walls[index];
+    }
+    
+    /**
+     * Assign the walls of the room
+     * @param index The index of the room
+     * @param mask The wall mask, see {@link Wall#getBit()}
+     * @return true if the walls changed, false otherwise
+     */
+    public boolean setWalls(final int index, final int mask)
+    {
+        //if the walls are the same nothing will change
+        if (walls[index] == (mask & Room.WALLS_ALL))
+            return false;
+        
+        walls[index] = (byte)(mask & Room.WALLS_ALL);
+        
+        //count the modification
+        modifications++;
+        
+        if (owner != null)
+            owner.onWallChange(index);
+        
+        return true;
+    }
+    
+    /**
+     * Assign the walls of every room
+     * @param mask The wall mask, see {@link Wall#getBit()}
+     */
+    public void setWallsAll(final int mask)
+    {
+        for (int index = 0; index < getSize(); index++)
+        {
+            setWalls(index, mask);
+        }
+    }
+    
+    /**
+     * Does the room have the wall?
+     * @param index The index of the room
+     * @param wall The wall we want to check
+     * @return true if the wall exists, false otherwise
+     */
+    public boolean hasWall(final int index, final Wall wall)
+    {
+        return ((walls[index] & wall.getBit()) != 0);
+    }
+    
+    /**
+     * Add the wall to the room
+     * @param index The index of the room
+     * @param wall The wall we want to add
+     * @return true if the wall was added, false if the room already has the wall
+     */
+    public boolean addWall(final int index, final Wall wall)
+    {
+        return setWalls(index, walls[index] | wall.getBit());
+    }
+    
+    /**
+     * Remove the wall from the room
+     * @param index The index of the room
+     * @param wall The wall we want to remove
+     * @return true if the wall was removed, false if the room does not have the wall
+     */
+    public boolean removeWall(final int index, final Wall wall)
+    {
+        return setWalls(index, walls[index] & ~wall.getBit());
+    }
+    
+    /**
+     * Join the room with the neighbor.<br>
+     * We will remove the wall from both rooms to create a passage.
+     * @param index The index of the room
+     * @param direction The direction of the neighbor
+     * @return The index of the neighbor
+     * @throws Exception If the neighbor is outside of the store
+     */
+    public int joinRooms(final int index, final Wall direction) throws Exception
+    {
+        final int neighbor = getNeighbor(index, direction);
+        
+        if (neighbor < 0)
+            throw new Exception("The neighbor is outside of the store " + direction.toString());
+        
+        removeWall(index, direction);
+        removeWall(neighbor, getOpposite(direction));
+        
+        return neighbor;
+    }
+    
+    /**
+     * Join the rooms.<br>
+     * We will remove the wall from both rooms to create a passage.
+     * @param room1 The index of room 1
+     * @param room2 The index of room 2
+     * @throws Exception If the rooms are not neighbors
+     */
+    public void joinRooms(final int room1, final int room2) throws Exception
+    {
+        for (Wall direction : Wall.values())
+        {
+            if (getNeighbor(room1, direction) == room2)
+            {
+                joinRooms(room1, direction);
+                return;
+            }
+        }
+        
+        throw new Exception("The rooms are not neighbors");
+    }
+    
+    /**
+     * Get the wall on the other side of the neighbor
+     * @param wall The wall
+     * @return The opposite wall
+     */
+    public static Wall getOpposite(final Wall wall)
+    {
+        switch (wall)
+        {
+            case East:
+                return Wall.West;
+            
+            case West:
+                return Wall.East;
+            
+            case North:
+                return Wall.South;
+            
+            case South:
+            default:
+                return Wall.North;
+        }
+    }
+    
+    /**
+     * Get the wall plane, this must only be read.<br>
+     * The array is not copied, so a change would skip the modification count and the listeners of the maze.<br>
+     * Use {@link #setWalls(int, int)} to change the walls, or {@link Maze#getWallMasks(byte[])} for a copy.
+     * @return The walls of each room [row * columns + column]
+     */
+    byte[] getWallMasks()
+    {
+        return this.walls;
+    }
+    
+    /**
+     * Get the value of the room
+     * @param index The index of the room
+     * @return The set while the maze is generated, the cost once generated
+     */
+    public int getValue(final int index)
+    {
+        return values[index];
+    }
+    
+    /**
+     * Assign the value of the room
+     * @param index The index of the room
+     * @param value The set while the maze is generated, the cost once generated
+     */
+    public void setValue(final int index, final int value)
+    {
+        values[index] = value;
+    }
+    
+    /**
+     * Assign the value of every room
+     * @param value The set while the maze is generated, the cost once generated
+     */
+    public void setValuesAll(final int value)
+    {
+        Arrays.fill(values, value);
+    }
+    
+    /**
+     * Has the room been visited?
+     * @param index The index of the room
+     * @return true = yes, false = no
+     */
+    public boolean hasVisited(final int index)
+    {
+        return ((visited[index >>> 6] & (1L << index)) != 0);
+    }
+    
+    /**
+     * Assign the room visited
+     * @param index The index of the room
+     * @param visited true = yes, false = no
+     */
+    public void setVisited(final int index, final boolean visited)
+    {
+        //if nothing changes the count stays the same
+        if (hasVisited(index) == visited)
+            return;
+        
+        if (visited)
+        {
+            this.visited[index >>> 6] |= (1L << index);
+            this.visitedCount++;
+        }
+        else
+        {
+            this.visited[index >>> 6] &= ~(1L << index);
+            this.visitedCount--;
+        }
+    }
+    
+    /**
+     * Assign every room visited
+     * @param visited true = yes, false = no
+     */
+    public void setVisitedAll(final boolean visited)
+    {
+        Arrays.fill(this.visited, 0L);
+        this.visitedCount = 0;
+        
+        if (visited)
+        {
+            for (int index = 0; index < getSize(); index++)
+            {
+                setVisited(index, true);
+            }
+        }
+    }
+    
+    /**
+     * Get the number of visited rooms
+     * @return The number of rooms that have been visited
+     */
+    public int getVisitedCount()
+    {
+        return this.visitedCount;
+    }
+    
+    /**
+     * Get the number of modifications.<br>
+     * This increases every time the walls of a room change, so a change can be detected by comparing 2 values.
+     * @return The number of times the walls have changed
+     */
+    public long getModifications()
+    {
+        return this.modifications;
+    }
+}
\ No newline at end of file
@@ -2,21 +2,25 @@ package com.gamesbykevin.framework.maze;
 
 import com.gamesbykevin.framework.resources.Disposable;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
 
 import java.util.UUID;
 
 /**
- * A single room in a maze
+ * A single room in a maze.<br>
+ * The walls, cost and visited flag are kept in a {@link MazeStore}, the room is a view of 1 location in the store.
  * @author GOD
  */
 public class Room implements Disposable
 {
-    //have we visited this room
-    private boolean visited = false;
+    //the store containing the walls, cost and visited flag, null once disposed
+    private MazeStore store;
     
-    //assign a unique object to identify the room
+    //the index of this room in the store
+    private final int index;
+    
+    //assign a unique object to identify the room, created when first needed
     private UUID id;
     
     /**
@@ -24,40 +28,66 @@ public class Room implements Disposable
      */
     public enum Wall
     {
-        North, South, West, East
+        North, South, West, East;
+        
+        /**
+         * Get the bit representing this wall in a wall mask
+         * @return The bit of this wall
+         */
+        public int getBit()
+        {
+            return 1 << ordinal();
+        }
     }
     
     /**
-     * List of walls that this room has
+     * The wall mask of a room without walls
+     */
+    public static final int WALLS_NONE = 0;
+    
+    /**
+     * The wall mask of a room with every wall
      */
-    private List<Wall> walls;
+    public static final int WALLS_ALL = (1 << 4) - 1;
     
     /**
      * The lowest cost a room can have
      */
     public static final int COST_MINIMUM = 0;
     
-    //the cost of this room, typically the number of rooms away from the start or finish etc....
-    private int cost = COST_MINIMUM;
-    
     //the location of the room
     private final int col, row;
     
+    //the object notified when the walls change
+    private IRoomListener listener;
+    
+    //the number of times the walls have changed through this room
+    private int modifications = 0;
+    
     /**
-     * Create a room
+     * Create a room with its own store
      * @param col Column
      * @param row Row
      */
     public Room(final int col, final int row)
     {
+        this.store = new MazeStore();
+        this.index = 0;
         this.col = col;
         this.row = row;
-        
-        //create a random unique identifier
-        setId(UUID.randomUUID());
-        
-        //create a list for our walls
-        this.walls = new ArrayList<>();
+    }
+    
+    /**
+     * Create a view of the location in the store
+     * @param store The store containing the room
+     * @param index The index of the room in the store
+     */
+    Room(final MazeStore store, final int index)
+    {
+        this.store = store;
+        this.index = index;
+        this.col = store.getColumn(index);
+        this.row = store.getRow(index);
     }
     
     /**
@@ -81,8 +111,47 @@ public class Room implements Disposable
     @Override
     public void dispose()
     {
-        this.walls.clear();
-        this.walls = null;
+        this.store = null;
+        this.listener = null;
+    }
+    
+    /**
+     * Assign the listener that will be notified every time a wall is added or removed
+     * @param listener The object to notify, null if no object is to be notified
+     */
+    public void setListener(final IRoomListener listener)
+    {
+        this.listener = listener;
+    }
+    
+    /**
+     * Get the listener
+     * @return The object notified when the walls change, null if none has been assigned
+     */
+    public IRoomListener getListener()
+    {
+        return this.listener;
+    }
+    
+    /**
+     * Get the number of modifications.<br>
+     * This increases every time a wall is added or removed through this room, so a change can be detected by comparing 2 values.
+     * @return The number of times the walls have changed
+     */
+    public int getModifications()
+    {
+        return this.modifications;
+    }
+    
+    /**
+     * Count the modification and notify the listener (if assigned) that the walls have changed
+     */
+    private void notifyListener()
+    {
+        modifications++;
+        
+        if (listener != null)
+            listener.onWallChange(this);
     }
     
     /**
@@ -91,6 +160,10 @@ public class Room implements Disposable
      */
     public UUID getId()
     {
+        //create a random unique identifier
+        if (this.id == null)
+            this.id = UUID.randomUUID();
+        
         return this.id;
     }
     
@@ -140,11 +213,11 @@ public class Room implements Disposable
     public boolean addWall(final Wall wall)
     {
         //if we already have it, it will not be added
-        if (hasWall(wall))
+        if (!store.addWall(index, wall))
             return false;
         
-        //add the wall to the list
-        getWalls().add(wall);
+        //the walls have changed
+        notifyListener();
         
         //wall was successfully added
         return true;
@@ -157,20 +230,7 @@ public class Room implements Disposable
      */
     public boolean hasWall(final Wall wall)
     {
-        //we can't have the wall if our list is empty
-        if (walls.isEmpty())
-            return false;
-        
-        //check each wall in our list
-        for (int index = 0; index < getWalls().size(); index++)
-        {
-            //if we have the wall return true
-            if (getWalls().get(index) == wall)
-                return true;
-        }
-        
-        //we did not find the wall return false
-        return false;
+        return store.hasWall(index, wall);
     }
     
     /**
@@ -189,7 +249,7 @@ public class Room implements Disposable
      */
     public void removeAllWalls()
     {
-        getWalls().clear();
+        setWallMask(WALLS_NONE);
     }
     
     /**
@@ -199,31 +259,85 @@ public class Room implements Disposable
      */
     public boolean removeWall(final Wall wall)
     {
-        //check all the existing walls in our list
-        for (int index = 0; index < getWalls().size(); index++)
+        //if we don't have it, nothing will be removed
+        if (!store.removeWall(index, wall))
+            return false;
+        
+        //the walls have changed
+        notifyListener();
+        
+        //a wall was removed return true;
+        return true;
+    }
+    
+    /**
+     * Get the walls.<br>
+     * The list is a read only view of the wall mask, so it will reflect any walls added or removed later.
+     * @return The list of walls in this room, null if the room has been disposed
+     */
+    public List<Wall> getWalls()
+    {
+        if (store == null)
+            return null;
+        
+        return new AbstractList<Wall>()
         {
-            //if the walls match
-            if (getWalls().get(index) == wall)
+            @Override
+            public Wall get(final int index)
             {
-                //remove the wall
-                getWalls().remove(index);
+                //skip the walls before the index
+                int mask = getWallMask();
+                
+                for (int skip = 0; skip < index && mask != 0; skip++)
+                {
+                    mask &= mask - 1;
+                }
                 
-                //a wall was removed return true;
-                return true;
+                if (index < 0 || mask == 0)
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+                
+                return Wall.values()[Integer.numberOfTrailingZeros(mask)];
             }
-        }
+            
+            @Override
+            public int size()
+            {
+                return getWallCount();
+            }
+        };
+    }
+    
+    /**
+     * Get the wall mask
+     * @return The walls of this room, 1 bit for each wall, see {@link Wall#getBit()}
+     */
+    public int getWallMask()
+    {
+        return store.getWalls(index);
+    }
+    
+    /**
+     * Assign all of the walls at once.<br>
+     * The listener is notified once if the walls changed.
+     * @param mask The walls of this room, 1 bit for each wall, see {@link Wall#getBit()}
+     */
+    public void setWallMask(final int mask)
+    {
+        //if the walls are the same nothing will change
+        if (!store.setWalls(index, mask))
+            return;
         
-        //no walls were removed
-        return false;
+        //the walls have changed
+        notifyListener();
     }
     
     /**
-     * Get the walls
-     * @return The list of walls in this room
+     * Get the number of walls
+     * @return The number of walls this room has
      */
-    public List<Wall> getWalls()
+    public int getWallCount()
     {
-        return this.walls;
+        return Integer.bitCount(getWallMask());
     }
     
     /**
@@ -232,7 +346,7 @@ public class Room implements Disposable
      */
     public void setCost(final int cost)
     {
-        this.cost = cost;
+        store.setValue(index, cost);
     }
     
     /**
@@ -241,7 +355,7 @@ public class Room implements Disposable
      */
     public int getCost()
     {
-        return this.cost;
+        return store.getValue(index);
     }
     
     /**
@@ -250,7 +364,7 @@ public class Room implements Disposable
      */
     public void setVisited(final boolean visited)
     {
-        this.visited = visited;
+        store.setVisited(index, visited);
     }
     
     /**
@@ -259,7 +373,7 @@ public class Room implements Disposable
      */
     public boolean hasVisited()
     {
-        return this.visited;
+        return store.hasVisited(index);
     }
     
     /**
@@ -2,10 +2,9 @@ package com.gamesbykevin.framework.maze.algorithm;
 
 import com.gamesbykevin.framework.maze.Maze;
 import com.gamesbykevin.framework.maze.MazeHelper;
-import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.MazeStore;
+import com.gamesbykevin.framework.maze.Room.Wall;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -33,7 +32,7 @@ public class AldousBroder extends Maze
     private static final float LOCATE_TARGET_PROGRESS_RATIO = .8f;
     
     //temporary object used to generate maze
-    private List<Room> options;
+    private IndexList options;
     
     public AldousBroder(final int cols, final int rows) throws Exception
     {
@@ -46,7 +45,7 @@ public class AldousBroder extends Maze
         this.failedAttemptsLimit = ((cols * rows) / 2);
         
         //create new list
-        this.options = new ArrayList<>();
+        this.options = new IndexList();
     }
     
     @Override
@@ -77,14 +76,17 @@ public class AldousBroder extends Maze
             row = random.nextInt(getRows());
         }
         
+        //the store containing our rooms
+        final MazeStore store = getStore();
+        
         //our temporary room
-        Room room = getRoom(col, row);
+        final int room = store.getIndex(col, row);
         
         //check in each direction
-        final Room west = getRoom(col - 1, row);
-        final Room east = getRoom(col + 1, row);
-        final Room north = getRoom(col, row - 1);
-        final Room south = getRoom(col, row + 1);
+        final int west = store.getNeighbor(room, Wall.West);
+        final int east = store.getNeighbor(room, Wall.East);
+        final int north = store.getNeighbor(room, Wall.North);
+        final int south = store.getNeighbor(room, Wall.South);
         
         //make sure the list is empty
         options.clear();
@@ -97,13 +99,13 @@ public class AldousBroder extends Maze
          */
         if (getProgress().getProgress() >= LOCATE_TARGET_PROGRESS_RATIO || count > failedAttemptsLimit)
         {
-            if (west != null && !west.hasVisited())
+            if (west >= 0 && !store.hasVisited(west))
                 options.add(west);
-            if (east != null && !east.hasVisited())
+            if (east >= 0 && !store.hasVisited(east))
                 options.add(east);
-            if (north != null && !north.hasVisited())
+            if (north >= 0 && !store.hasVisited(north))
                 options.add(north);
-            if (south != null && !south.hasVisited())
+            if (south >= 0 && !store.hasVisited(south))
                 options.add(south);
         }
         
@@ -114,35 +116,35 @@ public class AldousBroder extends Maze
             count++;
             
             //add any existing neighbor
-            if (west != null)
+            if (west >= 0)
                 options.add(west);
-            if (east != null)
+            if (east >= 0)
                 options.add(east);
-            if (north != null)
+            if (north >= 0)
                 options.add(north);
-            if (south != null)
+            if (south >= 0)
                 options.add(south);
         }
         
         //now pick a random room
-        Room tmp = options.get(random.nextInt(options.size()));
+        final int tmp = options.get(random.nextInt(options.size()));
         
         //assign the new location
-        col = tmp.getCol();
-        row = tmp.getRow();
+        col = store.getColumn(tmp);
+        row = store.getRow(tmp);
         
         //if the room has not yet been visited we will join
-        if (!tmp.hasVisited())
+        if (!store.hasVisited(tmp))
         {
             //reset the counter since we found an unvisited room
             count = 0;
             
             //mark the rooms as visited
-            room.setVisited(true);
-            tmp.setVisited(true);
+            store.setVisited(room, true);
+            store.setVisited(tmp, true);
             
             //join the rooms
-            MazeHelper.joinRooms(room, tmp);
+            store.joinRooms(room, tmp);
         }
         else
         {
@@ -165,6 +167,9 @@ public class AldousBroder extends Maze
      */
     private void placeAtNeighbor(final Random random)
     {
+        //the store containing our rooms
+        final MazeStore store = getStore();
+        
         //remove any existing objects
         options.clear();
         
@@ -173,33 +178,35 @@ public class AldousBroder extends Maze
         {
             for (int row1 = 0; row1 < getRows(); row1++)
             {
+                final int room = store.getIndex(col1, row1);
+                
                 //if this room has not been visited
-                if (!getRoom(col1, row1).hasVisited())
+                if (!store.hasVisited(room))
                 {
                     //check each direction
-                    final Room west = getRoom(col1 - 1, row1);
-                    final Room east = getRoom(col1 + 1, row1);
-                    final Room north = getRoom(col1, row1 - 1);
-                    final Room south = getRoom(col1, row1 + 1);
+                    final int west = store.getNeighbor(room, Wall.West);
+                    final int east = store.getNeighbor(room, Wall.East);
+                    final int north = store.getNeighbor(room, Wall.North);
+                    final int south = store.getNeighbor(room, Wall.South);
                     
-                    if (west != null && west.hasVisited())
+                    if (west >= 0 && store.hasVisited(west))
                         options.add(west);
-                    if (east != null && east.hasVisited())
+                    if (east >= 0 && store.hasVisited(east))
                         options.add(east);
-                    if (north != null && north.hasVisited())
+                    if (north >= 0 && store.hasVisited(north))
                         options.add(north);
-                    if (south != null && south.hasVisited())
+                    if (south >= 0 && store.hasVisited(south))
                         options.add(south);
                 }
             }
         }
         
         //pick random room
-        final Room room = options.get(random.nextInt(options.size()));
+        final int room = options.get(random.nextInt(options.size()));
         
         //set our new location
-        col = room.getCol();
-        row = room.getRow();
+        col = store.getColumn(room);
+        row = store.getRow(room);
         
         //remove any existing objects
         options.clear();
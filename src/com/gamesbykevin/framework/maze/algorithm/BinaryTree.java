@@ -1,11 +1,9 @@
 package com.gamesbykevin.framework.maze.algorithm;
 
 import com.gamesbykevin.framework.maze.Maze;
-import com.gamesbykevin.framework.maze.MazeHelper;
-import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.MazeStore;
+import com.gamesbykevin.framework.maze.Room.Wall;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -17,8 +15,8 @@ public class BinaryTree extends Maze
     //our current location
     private int col = 0, row = 0;
     
-    //list of rooms
-    private List<Room> tmp;
+    //list of directions
+    private Wall[] tmp;
     
     /**
      * The different directions we can use to create passages/
@@ -39,7 +37,7 @@ public class BinaryTree extends Maze
         super.populateRooms();
         
         //create a new list
-        this.tmp = new ArrayList<>();
+        this.tmp = new Wall[2];
     }
     
     @Override
@@ -47,7 +45,6 @@ public class BinaryTree extends Maze
     {
         super.dispose();
         
-        tmp.clear();
         tmp = null;
     }
     
@@ -69,53 +66,56 @@ public class BinaryTree extends Maze
             direction = Directions.values()[random.nextInt(Directions.values().length)];
         }
         
-        //clear list
-        tmp.clear();
+        //the store containing our rooms
+        final MazeStore store = getStore();
         
-        //our optional rooms to create passages
-        final Room room1;
-        final Room room2;
+        //get the current room
+        final int room = store.getIndex(col, row);
+        
+        //our optional directions to create passages
+        final Wall wall1;
+        final Wall wall2;
         
         switch (direction)
         {
             case NW:
-                room1 = getRoom(col - 1, row);
-                room2 = getRoom(col, row - 1);
+                wall1 = Wall.West;
+                wall2 = Wall.North;
                 break;
-                
+            
             case NE:
-                room1 = getRoom(col + 1, row);
-                room2 = getRoom(col, row - 1);
+                wall1 = Wall.East;
+                wall2 = Wall.North;
                 break;
-                
+            
             case SW:
-                room1 = getRoom(col - 1, row);
-                room2 = getRoom(col, row + 1);
+                wall1 = Wall.West;
+                wall2 = Wall.South;
                 break;
-                
+            
             case SE:
-                room1 = getRoom(col + 1, row);
-                room2 = getRoom(col, row + 1);
+                wall1 = Wall.East;
+                wall2 = Wall.South;
                 break;
-                
+            
             default:
                 throw new Exception("Direction is not handled here " + direction.toString());
         }
         
+        //the number of directions in our list
+        int count = 0;
+        
         //if the room exists, add to the list
-        if (room1 != null)
-            tmp.add(room1);
-        if (room2 != null)
-            tmp.add(room2);
+        if (store.getNeighbor(room, wall1) >= 0)
+            tmp[count++] = wall1;
+        if (store.getNeighbor(room, wall2) >= 0)
+            tmp[count++] = wall2;
         
         //join the rooms if there is at least one in our list
-        if (!tmp.isEmpty())
+        if (count > 0)
         {
-            //get the current room
-            final Room room = getRoom(col, row);
-
             //now join the current room to a random room from the list
-            MazeHelper.joinRooms(room, tmp.get(random.nextInt(tmp.size())));
+            store.joinRooms(room, tmp[random.nextInt(count)]);
         }
         
         //move to the next column
@@ -134,4 +134,4 @@ public class BinaryTree extends Maze
         //increase the progress
         super.getProgress().increase();
     }
-}
+}
\ No newline at end of file
@@ -1,13 +1,14 @@
 package com.gamesbykevin.framework.maze.algorithm;
 
 import com.gamesbykevin.framework.maze.Maze;
-import com.gamesbykevin.framework.maze.MazeHelper;
-import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
 
 import java.util.Random;
 
 /**
- * Ellers maze generation algorithm
+ * Ellers maze generation algorithm.<br>
+ * The sets of the current row are int labels with a count of the rooms in each set, see {@link EllersRow}.<br>
+ * Only the current row is tracked, so each row is O(columns) and the maze is linear in the number of rooms.
  * @author GOD
  */
 public class Ellers extends Maze
@@ -15,12 +16,26 @@ public class Ellers extends Maze
     //our current location
     private int col = 0, row = 0;
     
+    //the sets of the current row
+    private EllersRow sets;
+    
     public Ellers(final int cols, final int rows) throws Exception
     {
         super(cols, rows);
         
         //set 4 walls for each room
         super.populateRooms();
+        
+        //each room of the first row starts in its own set
+        this.sets = new EllersRow(cols);
+    }
+    
+    @Override
+    public void dispose()
+    {
+        super.dispose();
+        
+        sets = null;
     }
     
     /**
@@ -41,10 +56,10 @@ public class Ellers extends Maze
             if (hasBounds(col + 1, row))
             {
                 //create the horizontal path
-                createHorizontalPath(getRoom(col, row), getRoom(col + 1, row));
+                createHorizontalPath(col);
             }
         }
-
+        
         //increase the column
         col++;
         
@@ -62,6 +77,10 @@ public class Ellers extends Maze
             //increase the row
             row++;
         }
+        
+        //once generated the sets are no longer needed
+        if (isGenerated())
+            sets = null;
     }
     
     /**
@@ -73,27 +92,18 @@ public class Ellers extends Maze
         //check if we are at the last row
         if (row < getRows() - 1)
         {
-            //reset the column position back to the beginning and make vertical connections
-            for (col = 0; col < getCols(); col++)
-            {
-                //decide at random if we are to create a vertical connection
-                if (random.nextBoolean())
-                {
-                    //create the vertical path
-                    createVerticalPath(getRoom(col, row), getRoom(col, row + 1));
-                }
-            }
-
-            //now lets make sure each set in the current row has at least 1 matching set in the row below
+            //decide at random which rooms are joined to the row below, each set will have at least 1
+            sets.chooseDown(random);
+            
             for (col = 0; col < getCols(); col++)
             {
-                //if we don't have a matching set below, lets create it now
-                if (!hasSet(getRoom(col, row), row + 1))
-                {
-                    //create the vertical path
-                    createVerticalPath(getRoom(col, row), getRoom(col, row + 1));
-                }
+                //create the vertical path
+                if (sets.isDown(col))
+                    getStore().joinRooms(getStore().getIndex(col, row), Wall.South);
             }
+            
+            //the rooms below start the next row
+            sets.nextRow();
         }
         else
         {
@@ -101,60 +111,23 @@ public class Ellers extends Maze
             for (col = 0; col < getCols() - 1; col++)
             {
                 //create the path
-                createHorizontalPath(getRoom(col, row), getRoom(col + 1, row));
+                createHorizontalPath(col);
             }
         }
     }
     
     /**
-     * Create a horizontal path joining the 2 rooms.<br>
+     * Create a horizontal path joining the room in the current row with the neighbor to the east.<br>
      * If the rooms are already part of the same set, nothing will happen here
-     * @param roomWest Room to the west
-     * @param roomEast The neighbor room to the east
+     * @param col The column of the room to the west
      */
-    private void createHorizontalPath(final Room roomWest, final Room roomEast) throws Exception
+    private void createHorizontalPath(final int col) throws Exception
     {
-        //only check if the neighbor is part of a different set
-        if (!roomEast.hasId(roomWest))
+        //only join if the neighbor is part of a different set
+        if (sets.join(col))
         {
-            //make the neighbor part of the same set
-            roomEast.setId(roomWest);
-
             //now remove the walls between the neighbors
-            MazeHelper.joinRooms(roomWest, roomEast);
-        }
-    }
-    
-    /**
-     * Create a vertical path joining the 2 rooms.<br>
-     * @param roomNorth Room to the north
-     * @param roomSouth The neighbor room to the south
-     */
-    private void createVerticalPath(final Room roomNorth, final Room roomSouth) throws Exception
-    {
-        //make the neighbor part of the same set
-        roomSouth.setId(roomNorth);
-
-        //now remove the walls between the neighbors
-        MazeHelper.joinRooms(roomSouth, roomNorth);
-    }
-    
-    /**
-     * Do we have the set?
-     * @param room Room containing the unique set (id)
-     * @param row The row we want to check
-     * @return true if at least 1 room in the specified row has a matching set
-     */
-    private boolean hasSet(final Room room, final int row)
-    {
-        for (int column = 0; column < getCols(); column++)
-        {
-            //if the set matches, return true
-            if (room.hasId(getRoom(column, row)))
-                return true;
+            getStore().joinRooms(getStore().getIndex(col, row), Wall.East);
         }
-        
-        //no matching set was found
-        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,193 @@
+package com.gamesbykevin.framework.maze.algorithm;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The sets of a single row for Eller's algorithm.<br>
+ * Each set is an int label less than the number of columns, with a count of the rooms in the row that belong to it.<br>
+ * Joining 2 sets points the smaller set at the larger, so every step of a row is constant time and each row is O(columns).
+ * @author GOD
+ */
+final class EllersRow
+{
+    //the number of columns in the row
+    private final int columns;
+    
+    //the set label of each column, this may be a set that has since been joined to another
+    private int[] sets;
+    
+    //the set each label was joined to, a label that is its own parent is still a set
+    private int[] parents;
+    
+    //the number of rooms in the row that belong to each set
+    private int[] counts;
+    
+    //does the set have at least 1 room joined to the row below
+    private boolean[] joined;
+    
+    //is the column joined to the row below
+    private boolean[] down;
+    
+    /**
+     * Create the first row, where each column is in its own set
+     * @param columns The number of columns
+     */
+    protected EllersRow(final int columns)
+    {
+        this.columns = columns;
+        this.sets = new int[columns];
+        this.parents = new int[columns];
+        this.counts = new int[columns];
+        this.joined = new boolean[columns];
+        this.down = new boolean[columns];
+        
+        for (int col = 0; col < columns; col++)
+        {
+            sets[col] = col;
+            parents[col] = col;
+            counts[col] = 1;
+        }
+    }
+    
+    /**
+     * Get the set of the column
+     * @param col Column
+     * @return The set label
+     */
+    protected int getSet(final int col)
+    {
+        return find(sets[col]);
+    }
+    
+    /**
+     * Get the set the label belongs to, pointing every label on the way directly at it
+     * @param label The set label
+     * @return The set label that is its own parent
+     */
+    private int find(final int label)
+    {
+        int root = label;
+        
+        while (parents[root] != root)
+        {
+            root = parents[root];
+        }
+        
+        //compress the path
+        int current = label;
+        
+        while (parents[current] != root)
+        {
+            final int parent = parents[current];
+            parents[current] = root;
+            current = parent;
+        }
+        
+        return root;
+    }
+    
+    /**
+     * Join the set of the column with the set of the column to the east
+     * @param col Column, the column to the east must be in the row
+     * @return true if the sets were joined, false if they were already the same set
+     */
+    protected boolean join(final int col)
+    {
+        int west = find(sets[col]);
+        int east = find(sets[col + 1]);
+        
+        if (west == east)
+            return false;
+        
+        //the smaller set is pointed at the larger
+        if (counts[west] < counts[east])
+        {
+            final int tmp = west;
+            west = east;
+            east = tmp;
+        }
+        
+        parents[east] = west;
+        counts[west] += counts[east];
+        counts[east] = 0;
+        
+        return true;
+    }
+    
+    /**
+     * Choose at random which columns are joined to the row below.<br>
+     * The last room of a set to be checked is always joined if no other room of the set was, so each set continues to the row below.
+     * @param random Object used to make random decisions
+     */
+    protected void chooseDown(final Random random)
+    {
+        //point each column directly at its set
+        for (int col = 0; col < columns; col++)
+        {
+            sets[col] = find(sets[col]);
+            joined[sets[col]] = false;
+        }
+        
+        for (int col = 0; col < columns; col++)
+        {
+            final int set = sets[col];
+            
+            //the count is now the number of rooms of the set still to be checked
+            counts[set]--;
+            
+            down[col] = random.nextBoolean() || (counts[set] == 0 && !joined[set]);
+            
+            if (down[col])
+                joined[set] = true;
+        }
+    }
+    
+    /**
+     * Is the column joined to the row below?
+     * @param col Column
+     * @return true if {@link #chooseDown(Random)} joined the column to the row below, false otherwise
+     */
+    protected boolean isDown(final int col)
+    {
+        return down[col];
+    }
+    
+    /**
+     * Move to the row below.<br>
+     * The columns joined to the row below keep their set, every other column starts a new set with an unused label.
+     */
+    protected void nextRow()
+    {
+        //every count is 0 once chooseDown has checked every room
+        for (int label = 0; label < columns; label++)
+        {
+            parents[label] = label;
+        }
+        
+        for (int col = 0; col < columns; col++)
+        {
+            if (down[col])
+                counts[sets[col]]++;
+        }
+        
+        //the next label not used by a set
+        int label = 0;
+        
+        for (int col = 0; col < columns; col++)
+        {
+            if (down[col])
+                continue;
+            
+            while (counts[label] > 0)
+            {
+                label++;
+            }
+            
+            sets[col] = label;
+            counts[label] = 1;
+        }
+        
+        Arrays.fill(down, false);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,240 @@
+package com.gamesbykevin.framework.maze.algorithm;
+
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.resources.Disposable;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Ellers maze generation algorithm, creating the maze 1 row at a time.<br>
+ * Only the sets and walls of the current row are kept, so the memory used is O(columns) no matter how many rows are created.<br>
+ * Each row is the wall mask of every room using the bits of {@link Wall#getBit()}, the same as {@link com.gamesbykevin.framework.maze.Maze#getWallMasks(byte[])}.<br>
+ * When written to a stream 2 rooms are packed in each byte, the even column in the low 4 bits and the odd column in the high 4 bits.
+ * @author GOD
+ */
+public final class EllersStream implements Disposable
+{
+    //the number of columns in each row
+    private final int columns;
+    
+    //the sets of the current row
+    private EllersRow sets;
+    
+    //the walls of the current row
+    private byte[] walls;
+    
+    //the current row packed 2 rooms per byte
+    private byte[] packed;
+    
+    //the number of rows created
+    private long rows = 0;
+    
+    //has the last row been created
+    private boolean finished = false;
+    
+    /**
+     * Create a maze with no rows yet
+     * @param columns The number of columns in each row
+     * @throws Exception If there is not at least 1 column
+     */
+    public EllersStream(final int columns) throws Exception
+    {
+        if (columns < 1)
+            throw new Exception("The maze must contain at least 1 column");
+        
+        this.columns = columns;
+        this.sets = new EllersRow(columns);
+        this.walls = new byte[columns];
+        this.packed = new byte[getPackedLength(columns)];
+    }
+    
+    @Override
+    public void dispose()
+    {
+        sets = null;
+        walls = null;
+        packed = null;
+    }
+    
+    /**
+     * Get the columns
+     * @return The number of columns in each row
+     */
+    public int getColumns()
+    {
+        return this.columns;
+    }
+    
+    /**
+     * Get the rows
+     * @return The number of rows created so far
+     */
+    public long getRows()
+    {
+        return this.rows;
+    }
+    
+    /**
+     * Has the last row been created?
+     * @return true = yes, false = no
+     */
+    public boolean isFinished()
+    {
+        return this.finished;
+    }
+    
+    /**
+     * Get the number of bytes in a packed row
+     * @param columns The number of columns in each row
+     * @return The number of bytes, 2 rooms for each byte
+     */
+    public static int getPackedLength(final int columns)
+    {
+        return (columns + 1) / 2;
+    }
+    
+    /**
+     * Create the next row.<br>
+     * Every room is connected to the rows above, or to the rows below if the maze continues.<br>
+     * The last row joins every remaining set, once created the maze is a perfect maze.
+     * @param random Object used to make random decisions
+     * @param last true if this is the last row of the maze, false otherwise
+     * @return The walls of each room in the row [column], the array is reused for the next row
+     * @throws Exception If the last row has already been created
+     */
+    public byte[] next(final Random random, final boolean last) throws Exception
+    {
+        if (isFinished())
+            throw new Exception("The last row has already been created");
+        
+        for (int col = 0; col < getColumns(); col++)
+        {
+            //the rooms joined to the previous row have no north wall
+            if (getRows() > 0 && sets.isDown(col))
+            {
+                walls[col] = (byte)(Room.WALLS_ALL & ~Wall.North.getBit());
+            }
+            else
+            {
+                walls[col] = (byte)Room.WALLS_ALL;
+            }
+        }
+        
+        //the rooms below the previous row start the current row
+        if (getRows() > 0)
+            sets.nextRow();
+        
+        for (int col = 0; col < getColumns() - 1; col++)
+        {
+            //randomly choose to join adjacent rooms, the last row joins any non-matching neighbors
+            if (last || random.nextBoolean())
+            {
+                if (sets.join(col))
+                {
+                    walls[col] &= ~Wall.East.getBit();
+                    walls[col + 1] &= ~Wall.West.getBit();
+                }
+            }
+        }
+        
+        if (!last)
+        {
+            //decide at random which rooms are joined to the row below, each set will have at least 1
+            sets.chooseDown(random);
+            
+            for (int col = 0; col < getColumns(); col++)
+            {
+                if (sets.isDown(col))
+                    walls[col] &= ~Wall.South.getBit();
+            }
+        }
+        
+        rows++;
+        finished = last;
+        
+        return walls;
+    }
+    
+    /**
+     * Create the next row and write it packed 2 rooms per byte
+     * @param output The stream to write the row to
+     * @param random Object used to make random decisions
+     * @param last true if this is the last row of the maze, false otherwise
+     * @throws Exception If the last row has already been created, or the row could not be written
+     */
+    public void write(final OutputStream output, final Random random, final boolean last) throws Exception
+    {
+        pack(next(random, last), packed);
+        
+        output.write(packed);
+    }
+    
+    /**
+     * Pack the walls of a row 2 rooms per byte
+     * @param walls The walls of each room in the row [column]
+     * @param packed The packed row, at least {@link #getPackedLength(int)} bytes
+     */
+    public static void pack(final byte[] walls, final byte[] packed)
+    {
+        for (int col = 0; col < walls.length; col += 2)
+        {
+            int value = walls[col] & Room.WALLS_ALL;
+            
+            if (col + 1 < walls.length)
+                value |= (walls[col + 1] & Room.WALLS_ALL) << 4;
+            
+            packed[col / 2] = (byte)value;
+        }
+    }
+    
+    /**
+     * Unpack the walls of a row packed 2 rooms per byte
+     * @param packed The packed row, at least {@link #getPackedLength(int)} bytes
+     * @param walls The walls of each room in the row [column]
+     */
+    public static void unpack(final byte[] packed, final byte[] walls)
+    {
+        for (int col = 0; col < walls.length; col++)
+        {
+            walls[col] = (byte)((packed[col / 2] >> ((col % 2) * 4)) & Room.WALLS_ALL);
+        }
+    }
+    
+    /**
+     * Read the next packed row from the stream
+     * @param input The stream to read the row from
+     * @param walls The walls of each room in the row [column], the length is the number of columns
+     * @return true if the row was read, false if the stream has no more rows
+     * @throws Exception If the stream ends part way through the row
+     */
+    public static boolean read(final InputStream input, final byte[] walls) throws Exception
+    {
+        final byte[] row = new byte[getPackedLength(walls.length)];
+        
+        int count = 0;
+        
+        while (count < row.length)
+        {
+            final int result = input.read(row, count, row.length - count);
+            
+            //we reached the end of the stream
+            if (result < 0)
+                break;
+            
+            count += result;
+        }
+        
+        if (count == 0)
+            return false;
+        
+        if (count < row.length)
+            throw new Exception("The stream ended part way through the row");
+        
+        unpack(row, walls);
+        
+        return true;
+    }
+}
\ No newline at end of file
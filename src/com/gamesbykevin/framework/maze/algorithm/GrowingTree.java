@@ -2,10 +2,9 @@ package com.gamesbykevin.framework.maze.algorithm;
 
 import com.gamesbykevin.framework.maze.Maze;
 import com.gamesbykevin.framework.maze.MazeHelper;
-import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.MazeStore;
+import com.gamesbykevin.framework.maze.Room.Wall;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -15,7 +14,7 @@ import java.util.Random;
 public class GrowingTree extends Maze
 {
     //temporary list of optional rooms
-    private List<Room> options, tmp;
+    private IndexList options, tmp;
     
     public GrowingTree(final int cols, final int rows) throws Exception
     {
@@ -25,8 +24,8 @@ public class GrowingTree extends Maze
         super.populateRooms();
         
         //create new lists
-        this.options = new ArrayList<>();
-        this.tmp = new ArrayList<>();
+        this.options = new IndexList();
+        this.tmp = new IndexList();
     }
     
     @Override
@@ -52,6 +51,9 @@ public class GrowingTree extends Maze
         if (isGenerated())
             return;
         
+        //the store containing our rooms
+        final MazeStore store = getStore();
+        
         if(!MazeHelper.hasVisited(this))
         {
             //pick random location
@@ -59,7 +61,7 @@ public class GrowingTree extends Maze
             final int row = random.nextInt(getRows());
             
             //add random room to list
-            options.add(getRoom(col, row));
+            options.add(store.getIndex(col, row));
         }
         
         //random index from our list of cells
@@ -78,25 +80,25 @@ public class GrowingTree extends Maze
         }
         
         //get that random room
-        final Room room = options.get(index);
+        final int room = options.get(index);
         
         //check neighbors
-        final Room east = getRoom(room.getCol() + 1, room.getRow());
-        final Room west = getRoom(room.getCol() - 1, room.getRow());
-        final Room north = getRoom(room.getCol(), room.getRow() - 1);
-        final Room south = getRoom(room.getCol(), room.getRow() + 1);
+        final int east = store.getNeighbor(room, Wall.East);
+        final int west = store.getNeighbor(room, Wall.West);
+        final int north = store.getNeighbor(room, Wall.North);
+        final int south = store.getNeighbor(room, Wall.South);
         
         //clear the list
         tmp.clear();
         
         //add any rooms that have not been visited to our list
-        if (east != null && !east.hasVisited())
+        if (east >= 0 && !store.hasVisited(east))
             tmp.add(east);
-        if (west != null && !west.hasVisited())
+        if (west >= 0 && !store.hasVisited(west))
             tmp.add(west);
-        if (north != null && !north.hasVisited())
+        if (north >= 0 && !store.hasVisited(north))
             tmp.add(north);
-        if (south != null && !south.hasVisited())
+        if (south >= 0 && !store.hasVisited(south))
             tmp.add(south);
         
         //if there are no unvisited neighbors
@@ -108,14 +110,14 @@ public class GrowingTree extends Maze
         else
         {
             //pick random room from our list
-            final Room randomRoom = tmp.get(random.nextInt(tmp.size()));
+            final int randomRoom = tmp.get(random.nextInt(tmp.size()));
             
             //join the rooms
-            MazeHelper.joinRooms(room, randomRoom);
+            store.joinRooms(room, randomRoom);
             
             //mark the rooms as visited
-            room.setVisited(true);
-            randomRoom.setVisited(true);
+            store.setVisited(room, true);
+            store.setVisited(randomRoom, true);
             
             //add the random room to the list
             options.add(randomRoom);
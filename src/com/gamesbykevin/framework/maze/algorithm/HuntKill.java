@@ -2,11 +2,9 @@ package com.gamesbykevin.framework.maze.algorithm;
 
 import com.gamesbykevin.framework.maze.Maze;
 import com.gamesbykevin.framework.maze.MazeHelper;
-import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.MazeStore;
 import com.gamesbykevin.framework.maze.Room.Wall;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -19,7 +17,7 @@ public class HuntKill extends Maze
     private int currentCol, currentRow;
     
     //temporary list of optional rooms
-    private List<Room> options;
+    private IndexList options;
     
     //have we hit a dead end
     private boolean deadend = false;
@@ -32,7 +30,7 @@ public class HuntKill extends Maze
         super.populateRooms();
         
         //create a new list
-        this.options = new ArrayList<>();
+        this.options = new IndexList();
     }        
     
     @Override
@@ -55,9 +53,12 @@ public class HuntKill extends Maze
         if (isGenerated())
             return;
         
+        //the store containing our rooms
+        final MazeStore store = getStore();
+        
         //clear list of objects
         options.clear();
-                        
+        
         //we are just starting to create the maze
         if (!MazeHelper.hasVisited(this))
         {
@@ -66,7 +67,7 @@ public class HuntKill extends Maze
             currentRow = random.nextInt(getRows());
             
             //mark this room as visited
-            getRoom(currentCol, currentRow).setVisited(true);
+            store.setVisited(store.getIndex(currentCol, currentRow), true);
         }
         else if (deadend)
         {
@@ -76,31 +77,31 @@ public class HuntKill extends Maze
                 for (int col = 0; col < getCols(); col++)
                 {
                     //get the current room
-                    final Room room = getRoom(col, row);
+                    final int room = store.getIndex(col, row);
                     
                     //we are only interested in rooms that haven't been visited
-                    if (room.hasVisited())
+                    if (store.hasVisited(room))
                         continue;
                     
                     //clear the list of objects
                     options.clear();
                     
                     //check for visited cells
-                    final Room east = getRoom(col + 1, row);
-                    final Room west = getRoom(col - 1, row);
-                    final Room north = getRoom(col, row - 1);
-                    final Room south = getRoom(col, row + 1);
-
+                    final int east = store.getNeighbor(room, Wall.East);
+                    final int west = store.getNeighbor(room, Wall.West);
+                    final int north = store.getNeighbor(room, Wall.North);
+                    final int south = store.getNeighbor(room, Wall.South);
+                    
                     //make sure room exists and is already visited
-                    if (east != null && east.hasVisited())
+                    if (east >= 0 && store.hasVisited(east))
                         options.add(east);
-                    if (west != null && west.hasVisited())
+                    if (west >= 0 && store.hasVisited(west))
                         options.add(west);
-                    if (north != null && north.hasVisited())
+                    if (north >= 0 && store.hasVisited(north))
                         options.add(north);
-                    if (south != null && south.hasVisited())
+                    if (south >= 0 && store.hasVisited(south))
                         options.add(south);
-
+                    
                     //we only want to join a unvisited room to a visited room
                     if (!options.isEmpty())
                     {
@@ -114,10 +115,10 @@ public class HuntKill extends Maze
                         //now re-assign new location
                         this.currentCol = col;
                         this.currentRow = row;
-
+                        
                         //no longer in a dead end
                         deadend = false;
-
+                        
                         //exit loop
                         return;
                     }
@@ -125,20 +126,23 @@ public class HuntKill extends Maze
             }
         }
         
+        //the current room
+        final int room = store.getIndex(currentCol, currentRow);
+        
         //the rooms in each direction
-        final Room east = getRoom(currentCol + 1, currentRow);
-        final Room west = getRoom(currentCol - 1, currentRow);
-        final Room north = getRoom(currentCol, currentRow - 1);
-        final Room south = getRoom(currentCol, currentRow + 1);
+        final int east = store.getNeighbor(room, Wall.East);
+        final int west = store.getNeighbor(room, Wall.West);
+        final int north = store.getNeighbor(room, Wall.North);
+        final int south = store.getNeighbor(room, Wall.South);
         
         //if the rooms exist and have not visited, add it to the list
-        if (east != null && !east.hasVisited())
+        if (east >= 0 && !store.hasVisited(east))
             options.add(east);
-        if (west != null && !west.hasVisited())
+        if (west >= 0 && !store.hasVisited(west))
             options.add(west);
-        if (north != null && !north.hasVisited())
+        if (north >= 0 && !store.hasVisited(north))
             options.add(north);
-        if (south != null && !south.hasVisited())
+        if (south >= 0 && !store.hasVisited(south))
             options.add(south);
         
         //if we have options to choose from
@@ -161,22 +165,25 @@ public class HuntKill extends Maze
      */
     private void joinRooms(final Random random) throws Exception
     {
+        //the store containing our rooms
+        final MazeStore store = getStore();
+        
         //get the current room
-        Room room = getRoom(currentCol, currentRow);
-
+        final int room = store.getIndex(currentCol, currentRow);
+        
         //get a random neighbor room
-        Room neighbor = options.get(random.nextInt(options.size()));
-
+        final int neighbor = options.get(random.nextInt(options.size()));
+        
         //mark both as visited
-        room.setVisited(true);
-        neighbor.setVisited(true);
-
+        store.setVisited(room, true);
+        store.setVisited(neighbor, true);
+        
         //join the rooms to create the path
-        MazeHelper.joinRooms(room, neighbor);
-
+        store.joinRooms(room, neighbor);
+        
         //now set the new position
-        currentCol = neighbor.getCol();
-        currentRow = neighbor.getRow();
+        currentCol = store.getColumn(neighbor);
+        currentRow = store.getRow(neighbor);
         
         //update progress
         updateProgress();
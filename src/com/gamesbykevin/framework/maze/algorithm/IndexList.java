@@ -0,0 +1,124 @@
+package com.gamesbykevin.framework.maze.algorithm;
+
+import java.util.Arrays;
+
+/**
+ * A growing list of room indexes, used by the generators instead of a list of rooms
+ * @author GOD
+ */
+final class IndexList
+{
+    //the default number of indexes we have room for
+    private static final int DEFAULT_CAPACITY = 16;
+    
+    //the indexes in the list
+    private int[] indexes;
+    
+    //the number of indexes in the list
+    private int size = 0;
+    
+    /**
+     * Create an empty list
+     */
+    protected IndexList()
+    {
+        this.indexes = new int[DEFAULT_CAPACITY];
+    }
+    
+    /**
+     * Add the index to the end of the list
+     * @param index The room index
+     */
+    protected void add(final int index)
+    {
+        if (size == indexes.length)
+            indexes = Arrays.copyOf(indexes, size * 2);
+        
+        indexes[size++] = index;
+    }
+    
+    /**
+     * Get the index at the position
+     * @param position The position in the list
+     * @return The room index
+     */
+    protected int get(final int position)
+    {
+        return indexes[position];
+    }
+    
+    /**
+     * Get the last index in the list
+     * @return The room index
+     */
+    protected int getLast()
+    {
+        return indexes[size - 1];
+    }
+    
+    /**
+     * Remove the index at the position, the indexes after it keep their order
+     * @param position The position in the list
+     * @return The room index removed
+     */
+    protected int remove(final int position)
+    {
+        final int index = indexes[position];
+        
+        System.arraycopy(indexes, position + 1, indexes, position, size - position - 1);
+        size--;
+        
+        return index;
+    }
+    
+    /**
+     * Remove the last index in the list
+     * @return The room index removed
+     */
+    protected int removeLast()
+    {
+        return indexes[--size];
+    }
+    
+    /**
+     * Does the list contain the index?
+     * @param index The room index
+     * @return true if the index is in the list, false otherwise
+     */
+    protected boolean contains(final int index)
+    {
+        for (int position = 0; position < size; position++)
+        {
+            if (indexes[position] == index)
+                return true;
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Get the size
+     * @return The number of indexes in the list
+     */
+    protected int size()
+    {
+        return this.size;
+    }
+    
+    /**
+     * Is the list empty?
+     * @return true if there are no indexes, false otherwise
+     */
+    protected boolean isEmpty()
+    {
+        return (size == 0);
+    }
+    
+    /**
+     * Remove every index from the list
+     */
+    protected void clear()
+    {
+        size = 0;
+    }
+}
\ No newline at end of file
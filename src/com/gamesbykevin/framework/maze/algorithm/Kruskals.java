@@ -1,27 +1,70 @@
 package com.gamesbykevin.framework.maze.algorithm;
 
 import com.gamesbykevin.framework.maze.Maze;
-import com.gamesbykevin.framework.maze.MazeHelper;
+import com.gamesbykevin.framework.maze.MazeStore;
 import com.gamesbykevin.framework.maze.Room;
 import com.gamesbykevin.framework.maze.Room.Wall;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
-import java.util.UUID;
 
 /**
- * Kruskal's maze generation algorithm
+ * Kruskal's maze generation algorithm.<br>
+ * Every passage between 2 neighbors is an edge, the edges are checked in a random order, shuffled as they are checked.<br>
+ * The set of each room is tracked with a disjoint set (union by rank with path compression), stored in the set plane of the maze store.<br>
+ * Each update joins 1 pair of rooms that are in different sets.
  * @author GOD
  */
 public class Kruskals extends Maze
 {
+    //the shuffled edges, each edge is (room index * 2) + 0 for the east neighbor or + 1 for the south neighbor
+    private int[] edges;
+    
+    //the number of edges
+    private int edgeCount = 0;
+    
+    //the next edge to check
+    private int next = 0;
+    
+    //the rank of each set, an upper bound on the height of the tree
+    private byte[] ranks;
+    
+    //the number of times 2 sets have been joined
+    private int unions = 0;
+    
     public Kruskals(final int cols, final int rows) throws Exception
     {
         super(cols, rows);
         
         //set 4 walls for each room
         super.populateRooms();
+        
+        //each room starts in its own set
+        for (int index = 0; index < getStore().getSize(); index++)
+        {
+            getStore().setValue(index, index);
+        }
+        
+        this.ranks = new byte[cols * rows];
+        
+        //create every edge between 2 neighbors
+        this.edges = new int[(cols - 1) * rows + cols * (rows - 1)];
+        
+        for (int index = 0; index < getStore().getSize(); index++)
+        {
+            if (getStore().getColumn(index) < cols - 1)
+                edges[edgeCount++] = (index * 2);
+            if (getStore().getRow(index) < rows - 1)
+                edges[edgeCount++] = (index * 2) + 1;
+        }
+    }
+    
+    @Override
+    public void dispose()
+    {
+        super.dispose();
+        
+        edges = null;
+        ranks = null;
     }
     
     /**
@@ -35,271 +78,106 @@ public class Kruskals extends Maze
         if (isGenerated())
             return;
         
-        //get the room with the lowest weight
-        final Room room = getLowestWeight(random);
-        
-        //create a list of optional directions to randomly choose from
-        List<Room.Wall> directions = new ArrayList<>();
-
-        //now check if not part of a set for each neighbor (north, south, east, west)
-        final Room east = getRoom(room.getCol() + 1, room.getRow());
-        final Room west = getRoom(room.getCol() - 1, room.getRow());
-        final Room north = getRoom(room.getCol(), room.getRow() - 1);
-        final Room south = getRoom(room.getCol(), room.getRow() + 1);
-
-        //if the room exists and is not part of the same set
-        if (east != null && !east.hasId(room))
-            directions.add(Wall.East);
-        if (west != null && !west.hasId(room))
-            directions.add(Wall.West);
-        if (north != null && !north.hasId(room))
-            directions.add(Wall.North);
-        if (south != null && !south.hasId(room))
-            directions.add(Wall.South);
-
-        //now randomly join a neighboring room
-        joinRooms(room, directions.get(random.nextInt(directions.size())));
+        //the store containing our rooms
+        final MazeStore store = getStore();
         
-        //update the progress
-        super.getProgress().setCount(((getCols() * getRows()) - getUniqueSetCount()) + 1);
-    }
-    
-    /**
-     * Get the unique set count.<br>
-     * As we generate our maze this number will decrease until we reach 1 set
-     * @return The total number of unique sets
-     */
-    private int getUniqueSetCount()
-    {
-        //our list of unique sets
-        List<UUID> sets = new ArrayList<>();
-        
-        //check all rooms
-        for (int col = 0; col < getCols(); col++)
+        //check the edges until we find 2 rooms in different sets
+        while (next < edgeCount)
         {
-            for (int row = 0; row < getRows(); row++)
-            {
-                final Room room = getRoom(col, row);
-                
-                //do we already have a matching set
-                boolean match = false;
-                
-                //check each set to see if we have a match
-                for (int index = 0; index < sets.size(); index++)
-                {
-                    //if we already have this in our list
-                    if (room.hasId(sets.get(index)))
-                    {
-                        //flag match
-                        match = true;
-                        
-                        //no need to check the rest
-                        break;
-                    }
-                }
-                
-                //if we didn't find it, add to the list
-                if (!match)
-                    sets.add(room.getId());
-            }
+            //pick a random edge from the edges not yet checked
+            final int swap = next + random.nextInt(edgeCount - next);
+            final int edge = edges[swap];
+            edges[swap] = edges[next];
+            edges[next++] = edge;
+            
+            final int room = edge / 2;
+            final Wall direction = (edge % 2 == 0) ? Wall.East : Wall.South;
+            final int neighbor = store.getNeighbor(room, direction);
+            
+            //if the rooms are already part of the same set, joining them would create a loop
+            if (!union(room, neighbor))
+                continue;
+            
+            //now join the neighboring room
+            store.joinRooms(room, direction);
+            
+            break;
         }
         
-        //return the number of sets that we found
-        return sets.size();
-    }
-    
-    /**
-     * Get the room with the lowest weight.
-     * @param random Object used to make random decisions
-     * @return The room with the fewest amount of matching sets, if no rooms are available return null
-     */
-    private Room getLowestWeight(final Random random)
-    {
-        //the weight to beat
-        int lowestWeight = getCols() * getRows();
-        
-        //the list of the 
-        List<Room> rooms = new ArrayList<>();
+        //update the progress, we are done once every room is part of the same set
+        super.getProgress().setCount(unions + 1);
         
-        //check all rooms
-        for (int col = 0; col < getCols(); col++)
+        //once generated the rooms no longer need a set, so the cost starts at the minimum
+        if (isGenerated())
         {
-            for (int row = 0; row < getRows(); row++)
-            {
-                //get the current room
-                final Room room = getRoom(col, row);
-                
-                //count the total number of sets
-                final int count = getSetCount(room);
-                
-                //if we have a new low weight
-                if (count < lowestWeight)
-                {
-                    //we also want to make sure there are new neighbors we can connect to
-                    if (getNeighborCount(room) > 0)
-                    {
-                        //remove all existing rooms
-                        rooms.clear();
-
-                        //add the new champion
-                        rooms.add(room);
-
-                        //set the new score to beat
-                        lowestWeight = count;
-                    }
-                }
-                else if (count == lowestWeight)
-                {
-                    //we also want to make sure there are new neighbors we can connect to
-                    if (getNeighborCount(room) > 0)
-                    {
-                        //add the new champion
-                        rooms.add(room);
-                    }
-                }
-            }
+            store.setValuesAll(Room.COST_MINIMUM);
+            
+            edges = null;
+            ranks = null;
         }
-        
-        //return a random room from our list
-        return rooms.get(random.nextInt(rooms.size()));
     }
     
     /**
-     * Get the neighbor count
-     * @param room The room containing the set (id) we want to check
-     * @return The total number of neighbors (north, south, east, west) that have a different set (id)
+     * Get the set of the room.<br>
+     * Every room checked on the way will point directly to the set, so the next check is shorter.
+     * @param room The index of the room
+     * @return The index of the room representing the set
      */
-    private int getNeighborCount(final Room room)
+    private int find(final int room)
     {
-        //keep track of the count
-        int count = 0;
-        
-        //now check if not part of a set for each neighbor (north, south, east, west)
-        final Room east = getRoom(room.getCol() + 1, room.getRow());
-        final Room west = getRoom(room.getCol() - 1, room.getRow());
-        final Room north = getRoom(room.getCol(), room.getRow() - 1);
-        final Room south = getRoom(room.getCol(), room.getRow() + 1);
+        final MazeStore store = getStore();
         
-        //if the room exists and is not part of the same set
-        if (east != null && !east.hasId(room))
-            count++;
-        if (west != null && !west.hasId(room))
-            count++;
-        if (north != null && !north.hasId(room))
-            count++;
-        if (south != null && !south.hasId(room))
-            count++;
-        
-        return count;
-    }
-    
-    /**
-     * Get the set count
-     * @param room The room containing the set (id) that we want to check
-     * @return The total number of rooms that have the matching set
-     */
-    private int getSetCount(final Room room)
-    {
-        //count the number of matching sets
-        int count = 0;
+        //locate the room representing the set
+        int root = room;
         
-        //check all rooms
-        for (int col = 0; col < getCols(); col++)
+        while (store.getValue(root) != root)
         {
-            for (int row = 0; row < getRows(); row++)
-            {
-                //if the id's match
-                if (getRoom(col, row).hasId(room))
-                    count++;
-            }
+            root = store.getValue(root);
         }
         
-        //return our result
-        return count++;
-    }
-    
-    /**
-     * Join rooms
-     * @param room The room we want to join
-     * @param direction The direction of the neighbor we want to join
-     * @throws Exception 
-     */
-    private void joinRooms(final Room room, final Wall direction) throws Exception
-    {
-        switch (direction)
+        //point every room on the way directly to the set
+        int current = room;
+        
+        while (current != root)
         {
-            case East:
-                //remove the appropriate walls
-                room.removeWall(Wall.East);
-                getRoom(room.getCol() + 1, room.getRow()).removeWall(Wall.West);
-                break;
-                
-            case West:
-                //remove the appropriate walls
-                room.removeWall(Wall.West);
-                getRoom(room.getCol() - 1, room.getRow()).removeWall(Wall.East);
-                break;
-                
-            case North:
-                //remove the appropriate walls
-                room.removeWall(Wall.North);
-                getRoom(room.getCol(), room.getRow() - 1).removeWall(Wall.South);
-                break;
-                
-            case South:
-                //remove the appropriate walls
-                room.removeWall(Wall.South);
-                getRoom(room.getCol(), room.getRow() + 1).removeWall(Wall.North);
-                break;
-                
-            default:
-                throw new Exception("Direction not handled here " + direction.toString());
+            final int parent = store.getValue(current);
+            store.setValue(current, root);
+            current = parent;
         }
         
-        //now update the neighboring rooms that we can access to have the same set
-        joinSets(room);
+        return root;
     }
     
     /**
-     * Assign the rooms we can access with the same set.<br>
-     * Starting at the specified source we will check all neighbors that we can access and assign the room
-     * @param source The room containing the set we want to assign
+     * Join the sets of the 2 rooms, the set with the lower rank becomes part of the other
+     * @param room1 The index of room 1
+     * @param room2 The index of room 2
+     * @return true if the sets were joined, false if the rooms are already part of the same set
      */
-    private void joinSets(final Room source)
+    private boolean union(final int room1, final int room2)
     {
-        //mark all rooms as not visited
-        MazeHelper.setVisitedAll(this, false);
-        
-        //now we want to check all rooms that border the current room and assign the same set
-        List<Room> rooms = new ArrayList<>();
+        final int set1 = find(room1);
+        final int set2 = find(room2);
         
-        //add the initial room
-        rooms.add(source);
+        if (set1 == set2)
+            return false;
         
-        //continue to check while rooms exist
-        while (!rooms.isEmpty())
+        if (ranks[set1] < ranks[set2])
         {
-            //get the first room
-            final Room tmp = rooms.get(0);
-            
-            //assign the matching id
-            tmp.setId(source);
-            
-            //mark as visited
-            tmp.setVisited(true);
-            
-            //if there is no wall and the neighboring room has not been visited yet
-            if (!tmp.hasWall(Wall.East) && !getRoom(tmp.getCol() + 1, tmp.getRow()).hasVisited())
-                rooms.add(getRoom(tmp.getCol() + 1, tmp.getRow()));
-            if (!tmp.hasWall(Wall.West) && !getRoom(tmp.getCol() - 1, tmp.getRow()).hasVisited())
-                rooms.add(getRoom(tmp.getCol() - 1, tmp.getRow()));
-            if (!tmp.hasWall(Wall.North) && !getRoom(tmp.getCol(), tmp.getRow() - 1).hasVisited())
-                rooms.add(getRoom(tmp.getCol(), tmp.getRow() - 1));
-            if (!tmp.hasWall(Wall.South) && !getRoom(tmp.getCol(), tmp.getRow() + 1).hasVisited())
-                rooms.add(getRoom(tmp.getCol(), tmp.getRow() + 1));
-            
-            //remove room from list
-            rooms.remove(0);
+            getStore().setValue(set1, set2);
+        }
+        else if (ranks[set1] > ranks[set2])
+        {
+            getStore().setValue(set2, set1);
         }
+        else
+        {
+            getStore().setValue(set2, set1);
+            ranks[set1]++;
+        }
+        
+        unions++;
+        
+        return true;
     }
 }
\ No newline at end of file
@@ -2,10 +2,10 @@ package com.gamesbykevin.framework.maze.algorithm;
 
 import com.gamesbykevin.framework.maze.Maze;
 import com.gamesbykevin.framework.maze.MazeHelper;
-import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.MazeStore;
+import com.gamesbykevin.framework.maze.Room.Wall;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.BitSet;
 import java.util.Random;
 
 /**
@@ -15,7 +15,10 @@ import java.util.Random;
 public class Prims extends Maze
 {
     //list of rooms to check
-    private List<Room> options;
+    private IndexList options;
+    
+    //the rooms that are in our list of rooms to check
+    private BitSet listed;
     
     public Prims(final int cols, final int rows) throws Exception
     {
@@ -25,7 +28,8 @@ public class Prims extends Maze
         super.populateRooms();
         
         //create a new list of optional rooms
-        this.options = new ArrayList<>();
+        this.options = new IndexList();
+        this.listed = new BitSet(cols * rows);
     }
     
     @Override
@@ -35,6 +39,8 @@ public class Prims extends Maze
         
         options.clear();
         options = null;
+        
+        listed = null;
     }
     
     /**
@@ -48,8 +54,8 @@ public class Prims extends Maze
         if (isGenerated())
             return;
         
-        //our temporary room
-        Room room;
+        //the store containing our rooms
+        final MazeStore store = getStore();
         
         //if we don't have any visited rooms yet, we are just starting
         if (!MazeHelper.hasVisited(this))
@@ -59,62 +65,57 @@ public class Prims extends Maze
             final int row = random.nextInt(getRows());
             
             //add this random room to the list of options
-            options.add(getRoom(col, row));
+            options.add(store.getIndex(col, row));
+            listed.set(store.getIndex(col, row));
         }
         
         //pick random position in our list
         final int index = random.nextInt(options.size());
         
         //pick random room from options
-        room = options.get(index);
+        final int room = options.get(index);
+        
+        //check the neighbors of the room
+        final int east = store.getNeighbor(room, Wall.East);
+        final int west = store.getNeighbor(room, Wall.West);
+        final int north = store.getNeighbor(room, Wall.North);
+        final int south = store.getNeighbor(room, Wall.South);
         
         //if we have started
         if (MazeHelper.hasVisited(this))
         {
-            //check if any neighbors can be joined to the room
-            final Room east = getRoom(room.getCol() + 1, room.getRow());
-            final Room west = getRoom(room.getCol() - 1, room.getRow());
-            final Room north = getRoom(room.getCol(), room.getRow() - 1);
-            final Room south = getRoom(room.getCol(), room.getRow() + 1);
-            
             //list of choices to move to
-            final List<Room> choices = new ArrayList<>();
+            final Wall[] choices = new Wall[4];
             
-            //we only want to add the room that exists and is already visited to join with
-            if (east != null && east.hasVisited())
-                choices.add(east);
-            if (west != null && west.hasVisited())
-                choices.add(west);
-            if (north != null && north.hasVisited())
-                choices.add(north);
-            if (south != null && south.hasVisited())
-                choices.add(south);
+            //the number of choices
+            int count = 0;
             
-            //the other room
-            final Room other = choices.get(random.nextInt(choices.size()));
+            //we only want to add the room that exists and is already visited to join with
+            if (east >= 0 && store.hasVisited(east))
+                choices[count++] = Wall.East;
+            if (west >= 0 && store.hasVisited(west))
+                choices[count++] = Wall.West;
+            if (north >= 0 && store.hasVisited(north))
+                choices[count++] = Wall.North;
+            if (south >= 0 && store.hasVisited(south))
+                choices[count++] = Wall.South;
             
             //join the rooms
-            MazeHelper.joinRooms(room, other);
+            store.joinRooms(room, choices[random.nextInt(count)]);
         }
         
         //mark the room as visited
-        room.setVisited(true);
-        
-        //check if any neighbors can be added to the list
-        final Room east = getRoom(room.getCol() + 1, room.getRow());
-        final Room west = getRoom(room.getCol() - 1, room.getRow());
-        final Room north = getRoom(room.getCol(), room.getRow() - 1);
-        final Room south = getRoom(room.getCol(), room.getRow() + 1);
+        store.setVisited(room, true);
         
         //add any optional directions that haven't been visited and don't already exist in the list
-        if (east != null && !east.hasVisited() && !options.contains(east))
-            options.add(east);
-        if (west != null && !west.hasVisited() && !options.contains(west))
-            options.add(west);
-        if (north != null && !north.hasVisited() && !options.contains(north))
-            options.add(north);
-        if (south != null && !south.hasVisited() && !options.contains(south))
-            options.add(south);
+        if (east >= 0 && !store.hasVisited(east) && !listed.get(east))
+            addOption(east);
+        if (west >= 0 && !store.hasVisited(west) && !listed.get(west))
+            addOption(west);
+        if (north >= 0 && !store.hasVisited(north) && !listed.get(north))
+            addOption(north);
+        if (south >= 0 && !store.hasVisited(south) && !listed.get(south))
+            addOption(south);
         
         //increase the progress
         super.getProgress().increase();
@@ -122,4 +123,14 @@ public class Prims extends Maze
         //remove from the list
         options.remove(index);
     }
+    
+    /**
+     * Add the room to our list of rooms to check
+     * @param room The index of the room
+     */
+    private void addOption(final int room)
+    {
+        options.add(room);
+        listed.set(room);
+    }
 }
\ No newline at end of file
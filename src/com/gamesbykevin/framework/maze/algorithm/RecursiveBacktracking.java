@@ -1,9 +1,8 @@
 package com.gamesbykevin.framework.maze.algorithm;
 
-import com.gamesbykevin.framework.base.Cell;
 import com.gamesbykevin.framework.maze.Maze;
 import com.gamesbykevin.framework.maze.MazeHelper;
-import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.MazeStore;
 import com.gamesbykevin.framework.maze.Room.Wall;
 
 import java.util.ArrayList;
@@ -20,7 +19,10 @@ public class RecursiveBacktracking extends Maze
     private int col = 0, row = 0;
     
     //list of places visited, used to help generate the maze
-    private List<Cell> steps;
+    private IndexList steps;
+    
+    //list of optional walls
+    private List<Wall> options;
     
     public RecursiveBacktracking(final int cols, final int rows) throws Exception
     {
@@ -30,7 +32,10 @@ public class RecursiveBacktracking extends Maze
         super.populateRooms();
         
         //create new list, to track the steps
-        this.steps = new ArrayList<>();
+        this.steps = new IndexList();
+        
+        //create new list of optional walls
+        this.options = new ArrayList<>();
     }
     
     @Override
@@ -40,6 +45,9 @@ public class RecursiveBacktracking extends Maze
         
         steps.clear();
         steps = null;
+        
+        options.clear();
+        options = null;
     }
     
     /**
@@ -53,6 +61,9 @@ public class RecursiveBacktracking extends Maze
         if (isGenerated())
             return;
         
+        //the store containing our rooms
+        final MazeStore store = getStore();
+        
         //if we haven't visited 1 room, we are just starting
         if (!MazeHelper.hasVisited(this))
         {
@@ -61,37 +72,37 @@ public class RecursiveBacktracking extends Maze
             row = super.getStartRow();
             
             //add the current location as part of the steps
-            steps.add(new Cell(col, row));
+            steps.add(store.getIndex(col, row));
         }
         
-        //create empty list of optional walls
-        List<Wall> options = new ArrayList<>();
-
+        //empty the list of optional walls
+        options.clear();
+        
         //check the west, make sure we are inbounds and have not visited our neighbor
-        if (hasBounds(col - 1, row) && !getRoom(col - 1, row).hasVisited())
+        if (hasBounds(col - 1, row) && !store.hasVisited(store.getIndex(col - 1, row)))
             options.add(Wall.West);
-
+        
         //check the east, make sure we are inbounds and have not visited our neighbor
-        if (hasBounds(col + 1, row) && !getRoom(col + 1, row).hasVisited())
+        if (hasBounds(col + 1, row) && !store.hasVisited(store.getIndex(col + 1, row)))
             options.add(Wall.East);
-
+        
         //check the north, make sure we are inbounds and have not visited our neighbor
-        if (hasBounds(col, row - 1) && !getRoom(col, row - 1).hasVisited())
+        if (hasBounds(col, row - 1) && !store.hasVisited(store.getIndex(col, row - 1)))
             options.add(Wall.North);
-
+        
         //check the south, make sure we are inbounds and have not visited our neighbor
-        if (hasBounds(col, row + 1) && !getRoom(col, row + 1).hasVisited())
+        if (hasBounds(col, row + 1) && !store.hasVisited(store.getIndex(col, row + 1)))
             options.add(Wall.South);
-
+        
         //if there are no options we have to back track
         if (options.isEmpty())
         {
             //the previous location was a dead end, so remove it
-            steps.remove(steps.size() - 1);
+            steps.removeLast();
             
             //now get the location before that
-            col = (int)steps.get(steps.size() - 1).getCol();
-            row = (int)steps.get(steps.size() - 1).getRow();
+            col = store.getColumn(steps.getLast());
+            row = store.getRow(steps.getLast());
         }
         else
         {
@@ -99,11 +110,11 @@ public class RecursiveBacktracking extends Maze
             final Wall wall = options.get(random.nextInt(options.size()));
             
             //remove the wall from our current
-            getRoom(col, row).removeWall(wall);
-
+            store.removeWall(store.getIndex(col, row), wall);
+            
             //mark this as visited
-            getRoom(col, row).setVisited(true);
-
+            store.setVisited(store.getIndex(col, row), true);
+            
             //remove the wall from our neighbor
             switch (wall)
             {
@@ -111,56 +122,56 @@ public class RecursiveBacktracking extends Maze
                     //now set the new location
                     col = col;
                     row = row - 1;
-
+                    
                     //remove the wall
-                    getRoom(col, row).removeWall(Wall.South);
-
+                    store.removeWall(store.getIndex(col, row), Wall.South);
+                    
                     //mark this as visited
-                    getRoom(col, row).setVisited(true);
+                    store.setVisited(store.getIndex(col, row), true);
                     break;
-
+                
                 case South:
                     //now set the new location
                     col = col;
                     row = row + 1;
-
+                    
                     //remove the wall
-                    getRoom(col, row).removeWall(Wall.North);
-
+                    store.removeWall(store.getIndex(col, row), Wall.North);
+                    
                     //mark this as visited
-                    getRoom(col, row).setVisited(true);
+                    store.setVisited(store.getIndex(col, row), true);
                     break;
-
+                
                 case West:
                     //now set the new location
                     col = col - 1;
                     row = row;
-
+                    
                     //remove the wall
-                    getRoom(col, row).removeWall(Wall.East);
-
+                    store.removeWall(store.getIndex(col, row), Wall.East);
+                    
                     //mark this as visited
-                    getRoom(col, row).setVisited(true);
+                    store.setVisited(store.getIndex(col, row), true);
                     break;
-
+                
                 case East:
                     //now set the new location
                     col = col + 1;
                     row = row;
-
+                    
                     //remove the wall
-                    getRoom(col, row).removeWall(Wall.West);
-
+                    store.removeWall(store.getIndex(col, row), Wall.West);
+                    
                     //mark this as visited
-                    getRoom(col, row).setVisited(true);
+                    store.setVisited(store.getIndex(col, row), true);
                     break;
-
+                
                 default:
                     throw new Exception("The wall was not found here " + wall.toString());
             }
             
             //add the current location as part of the steps
-            steps.add(new Cell(col, row));
+            steps.add(store.getIndex(col, row));
         }
         
         //update the progress
@@ -2,10 +2,9 @@ package com.gamesbykevin.framework.maze.algorithm;
 
 import com.gamesbykevin.framework.maze.Maze;
 import com.gamesbykevin.framework.maze.MazeHelper;
-import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.MazeStore;
+import com.gamesbykevin.framework.maze.Room.Wall;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
 /**
@@ -15,7 +14,7 @@ import java.util.Random;
 public class Sidewinder extends Maze
 {
     //temporary list of optional rooms
-    private List<Room> options;
+    private IndexList options;
     
     //the current location
     private int currentCol, currentRow;
@@ -28,7 +27,7 @@ public class Sidewinder extends Maze
         super.populateRooms();
         
         //create new optional list
-        this.options = new ArrayList<>();
+        this.options = new IndexList();
     }
     
     @Override
@@ -59,7 +58,7 @@ public class Sidewinder extends Maze
         }
         
         //add the current room to the list
-        options.add(getRoom(currentCol, currentRow));
+        options.add(getStore().getIndex(currentCol, currentRow));
         
         //if chosen at random, or the first row
         if (random.nextBoolean() || currentRow == 0)
@@ -83,17 +82,17 @@ public class Sidewinder extends Maze
         if (currentCol == getCols() - 1)
         {
             //add the current room to the list
-            options.add(getRoom(currentCol, currentRow));
+            options.add(getStore().getIndex(currentCol, currentRow));
             
             //create a random passage to the north
             createNorthPassage(random);
             
             //reset back to the first column
             currentCol = 0;
-
+            
             //move to the next row
             currentRow++;
-
+            
             //clear our list
             options.clear();
         }
@@ -107,18 +106,18 @@ public class Sidewinder extends Maze
      */
     private void createEastPassage() throws Exception
     {
+        //the store containing our rooms
+        final MazeStore store = getStore();
+        
         //the current room
-        final Room room = getRoom(currentCol, currentRow);
-
-        //the room to the east
-        final Room east = getRoom(currentCol + 1, currentRow);
-
+        final int room = store.getIndex(currentCol, currentRow);
+        
+        //join the rooms with the room to the east
+        final int east = store.joinRooms(room, Wall.East);
+        
         //mark the rooms as visited
-        room.setVisited(true);
-        east.setVisited(true);
-
-        //join the rooms
-        MazeHelper.joinRooms(room, east);
+        store.setVisited(room, true);
+        store.setVisited(east, true);
     }
     
     /**
@@ -134,18 +133,18 @@ public class Sidewinder extends Maze
         //make sure we have options available and are not in the first row
         if (!options.isEmpty())
         {
+            //the store containing our rooms
+            final MazeStore store = getStore();
+            
             //pick a random room in our set
-            final Room room = options.get(random.nextInt(options.size()));
-
-            //the room to the north
-            final Room north = getRoom(room.getCol(), room.getRow() - 1);
-
+            final int room = options.get(random.nextInt(options.size()));
+            
+            //join the rooms with the room to the north
+            final int north = store.joinRooms(room, Wall.North);
+            
             //mark the rooms as visited
-            room.setVisited(true);
-            north.setVisited(true);
-
-            //join the rooms
-            MazeHelper.joinRooms(room, north);
+            store.setVisited(room, true);
+            store.setVisited(north, true);
         }
     }
 }
\ No newline at end of file
@@ -3,7 +3,7 @@ package com.gamesbykevin.framework.maze.algorithm;
 import com.gamesbykevin.framework.base.Cell;
 import com.gamesbykevin.framework.maze.Maze;
 import com.gamesbykevin.framework.maze.MazeHelper;
-import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.MazeStore;
 import com.gamesbykevin.framework.maze.Room.Wall;
 
 import java.util.ArrayList;
@@ -17,7 +17,7 @@ import java.util.Random;
 public class Wilsons extends Maze
 {
     //temporary list for rooms
-    private List<Room> options;
+    private IndexList options;
     
     //list of directions
     private List<Target> directions;
@@ -42,7 +42,7 @@ public class Wilsons extends Maze
         super.populateRooms();
         
         //create new list
-        this.options = new ArrayList<>();
+        this.options = new IndexList();
         
         //create new list
         this.directions = new ArrayList<>();
@@ -77,22 +77,25 @@ public class Wilsons extends Maze
         if (isGenerated())
             return;
         
+        //the store containing our rooms
+        final MazeStore store = getStore();
+        
         //we are just creating the maze
         if (!MazeHelper.hasVisited(this))
         {
             //mark the first room as visited
-            getRandomRoom(random).setVisited(true);
+            store.setVisited(getRandomRoom(random), true);
         }
         
         //if we have no steps currently
         if (directions.isEmpty())
         {
             //pick random room to start
-            final Room room = getRandomRoom(random);
+            final int room = getRandomRoom(random);
             
             //assign the start location
-            startCol = room.getCol();
-            startRow = room.getRow();
+            startCol = store.getColumn(room);
+            startRow = store.getRow(room);
             
             //assign the current location
             col = startCol;
@@ -141,17 +144,17 @@ public class Wilsons extends Maze
                 //change position
                 col--;
                 break;
-                
+            
             case East:
                 //change position
                 col++;
                 break;
-                
+            
             case North:
                 //change position
                 row--;
                 break;
-                
+            
             case South:
                 //change position
                 row++;
@@ -162,45 +165,25 @@ public class Wilsons extends Maze
          * If this room was visited (a.k.a. part of the maze)<br>
          * We will now create the path and from the start to this location and make it part of the maze
          */
-        if (getRoom(col, row).hasVisited())
+        if (store.hasVisited(store.getIndex(col, row)))
         {
             //continue until the start location gets to the finish
             while (startCol != col || startRow != row)
             {
                 //get the room at the start location
-                Room room1 = getRoom(startCol, startRow);
+                final int room1 = store.getIndex(startCol, startRow);
                 
                 //next room
-                Room room2 = null;
+                int room2 = -1;
                 
                 //get the target at this specific location to determine the next move
                 for (int index = directions.size() - 1; index >= 0; index--)
                 {
-                    if (directions.get(index).hasTarget(room1))
+                    if (directions.get(index).hasTarget(startCol, startRow))
                     {
-                        //get the next room in our steps
-                        switch (directions.get(index).direction)
-                        {
-                            case West:
-                                room2 = getRoom(startCol - 1, startRow);
-                                break;
-
-                            case East:
-                                room2 = getRoom(startCol + 1, startRow);
-                                break;
-
-                            case South:
-                                room2 = getRoom(startCol, startRow + 1);
-                                break;
-
-                            case North:
-                                room2 = getRoom(startCol, startRow - 1);
-                                break;
-
-                            default:
-                                throw new Exception("Direction not handled here " + directions.get(0).toString());
-                        }
-                
+                        //join the rooms together with the next room in our steps
+                        room2 = store.joinRooms(room1, directions.get(index).direction);
+                        
                         //now remove this target
                         directions.remove(index);
                         
@@ -210,15 +193,12 @@ public class Wilsons extends Maze
                 }
                 
                 //mark both rooms visited
-                room1.setVisited(true);
-                room2.setVisited(true);
-                
-                //join the rooms together
-                MazeHelper.joinRooms(room1, room2);
+                store.setVisited(room1, true);
+                store.setVisited(room2, true);
                 
                 //now update the start location to the current positon
-                startCol = room2.getCol();
-                startRow = room2.getRow();
+                startCol = store.getColumn(room2);
+                startRow = store.getRow(room2);
             }
             
             //make sure we clear the list
@@ -244,7 +224,7 @@ public class Wilsons extends Maze
         double distance = (getCols() * getRows());
         
         //our temp room
-        Room room = null;
+        int room = -1;
         
         //check all rooms
         for (int row1 = 0; row1 < getRows(); row1++)
@@ -256,7 +236,7 @@ public class Wilsons extends Maze
                     continue;
                 
                 //don't check a room that hasn't been visited
-                if (!getRoom(col1, row1).hasVisited())
+                if (!getStore().hasVisited(getStore().getIndex(col1, row1)))
                     continue;
                 
                 //calculate the distance
@@ -269,25 +249,25 @@ public class Wilsons extends Maze
                     distance = temp;
                     
                     //assign the shortest room
-                    room = getRoom(col1, row1);
+                    room = getStore().getIndex(col1, row1);
                 }
             }
         }
         
         //if the winning room was found
-        if (room != null)
+        if (room >= 0)
         {
             /**
              * Compare the room to the current location. 
              * So we know which direction to head in
              */
-            if (room.getCol() > col)
+            if (getStore().getColumn(room) > col)
                 tmp.add(Wall.East);
-            if (room.getCol() < col)
+            if (getStore().getColumn(room) < col)
                 tmp.add(Wall.West);
-            if (room.getRow() > row)
+            if (getStore().getRow(room) > row)
                 tmp.add(Wall.South);
-            if (room.getRow() < row)
+            if (getStore().getRow(room) < row)
                 tmp.add(Wall.North);
         }
     }
@@ -295,25 +275,19 @@ public class Wilsons extends Maze
     /**
      * Get a random room that has not been visited
      * @param random Object used to make random decisions
-     * @return A random room that has not been visited yet
+     * @return The index of a random room that has not been visited yet
      */
-    private Room getRandomRoom(final Random random)
+    private int getRandomRoom(final Random random)
     {
         //clear list
         options.clear();
         
         //check all rooms
-        for (int row1 = 0; row1 < getRows(); row1++)
+        for (int index = 0; index < getStore().getSize(); index++)
         {
-            for (int col1 = 0; col1 < getCols(); col1++)
-            {
-                //get the room
-                final Room room = getRoom(col1, row1);
-                
-                //add to list if not already visited
-                if (!room.hasVisited())
-                    options.add(room);
-            }
+            //add to list if not already visited
+            if (!getStore().hasVisited(index))
+                options.add(index);
         }
         
         //return a random room
@@ -331,11 +305,6 @@ public class Wilsons extends Maze
         //the current location where this direction is
         private final int col, row;
         
-        private Target(final Wall direction, final Room room)
-        {
-            this(direction, room.getCol(), room.getRow());
-        }
-        
         private Target(final Wall direction, final int col, final int row)
         {
             this.direction = direction;
@@ -344,13 +313,14 @@ public class Wilsons extends Maze
         }
         
         /**
-         * Determine if the col, row matches that of the room
-         * @param room Room containing the position we want to check for
-         * @return true if the room (col,row) matches this target (col,row)
+         * Determine if the col, row matches this target
+         * @param col Column
+         * @param row Row
+         * @return true if the (col,row) matches this target (col,row)
          */
-        private boolean hasTarget(final Room room)
+        private boolean hasTarget(final int col, final int row)
         {
-            return (col == room.getCol() && row == room.getRow());
+            return (this.col == col && this.row == row);
         }
     }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.gamesbykevin.framework.ai;
 
+import com.gamesbykevin.framework.base.Cell;
 import com.gamesbykevin.framework.maze.algorithm.RecursiveBacktracking;
 import com.gamesbykevin.framework.maze.Maze;
 import com.gamesbykevin.framework.maze.MazeHelper;
+import com.gamesbykevin.framework.maze.Room;
 
 import org.junit.After;
 import org.junit.AfterClass;
@@ -11,6 +13,8 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -50,7 +54,7 @@ public class AStarTest
                 (int)maze.getFinish().getCol(), 
                 (int)maze.getFinish().getRow(), 
                 maze.getRooms());
-
+        
         astar.generate();
         assertNotNull(astar.getShortestPath());
     }
@@ -245,6 +249,318 @@ public class AStarTest
         astar.generate();
     }
     
+    @Test
+    public void generateOpenTest() throws Exception
+    {
+        //create the maze
+        setupMaze(0, 0, 5);
+        
+        //remove every wall so there are many paths of the same length
+        for (int row = 0; row < maze.getRows(); row++)
+        {
+            for (int col = 0; col < maze.getCols(); col++)
+            {
+                maze.getRoom(col, row).removeAllWalls();
+            }
+        }
+        
+        //create new instance
+        astar = new AStar(0, 0, 4, 4, maze.getRooms());
+        astar.generate();
+        
+        //the shortest path will contain the start, the goal, and 7 rooms in between
+        assertTrue(astar.getShortestPath().size() == 9);
+        
+        //now allow diagonal movement
+        astar.setDiagonal(true);
+        astar.generate();
+        
+        //the shortest path is diagonal from the start to the goal
+        assertTrue(astar.getShortestPath().size() == 5);
+    }
+    
+    @Test
+    public void generateLoopTest() throws Exception
+    {
+        //create the maze
+        setupMaze(0, 0, 5);
+        
+        //close every room, then create a short and a long route from (0, 1) to (4, 1)
+        for (int row = 0; row < maze.getRows(); row++)
+        {
+            for (int col = 0; col < maze.getCols(); col++)
+            {
+                maze.getRoom(col, row).addAllWalls();
+            }
+        }
+        
+        //the short route starts away from the goal: (0, 1) up to row 0, east to (4, 0) and down to the goal
+        final int[][] route = {{0, 1}, {0, 0}, {1, 0}, {2, 0}, {3, 0}, {4, 0}, {4, 1}};
+        
+        //the long route heads straight for the goal, then around a wall: (0, 1) east to (3, 1), down to row 3, east and up to the goal
+        final int[][] detour = {{0, 1}, {1, 1}, {2, 1}, {3, 1}, {3, 2}, {3, 3}, {4, 3}, {4, 2}, {4, 1}};
+        
+        for (int index = 1; index < route.length; index++)
+        {
+            maze.getStore().joinRooms(maze.getStore().getIndex(route[index - 1][0], route[index - 1][1]), maze.getStore().getIndex(route[index][0], route[index][1]));
+        }
+        
+        for (int index = 1; index < detour.length; index++)
+        {
+            maze.getStore().joinRooms(maze.getStore().getIndex(detour[index - 1][0], detour[index - 1][1]), maze.getStore().getIndex(detour[index][0], detour[index][1]));
+        }
+        
+        //the movement cost is counted from the start, so the short route is found even though the detour looks closer to the goal
+        astar = new AStar(0, 1, 4, 1, maze.getRooms());
+        astar.generate();
+        
+        final List<Cell> path = astar.getShortestPath();
+        assertTrue(path.size() == route.length);
+        
+        //the path is ordered from the goal to the start
+        for (int index = 0; index < route.length; index++)
+        {
+            final Cell cell = path.get(path.size() - 1 - index);
+            assertTrue(cell.getCol() == route[index][0] && cell.getRow() == route[index][1]);
+        }
+        
+        //the other modes find the same route
+        astar.setMode(AStar.Mode.Bidirectional);
+        astar.generate();
+        assertTrue(astar.getShortestPath().size() == route.length);
+        
+        astar.setMode(AStar.Mode.JumpPoint);
+        astar.generate();
+        assertTrue(astar.getShortestPath().size() == route.length);
+    }
+    
+    @Test
+    public void setModeTest() throws Exception
+    {
+        //the default is a standard search
+        assertTrue(astar.getMode() == AStar.Mode.Standard);
+        astar.generate();
+        
+        final int size = astar.getShortestPath().size();
+        
+        //a perfect maze only has 1 path, so jump point search will find the same path
+        astar.setMode(AStar.Mode.JumpPoint);
+        assertTrue(astar.getMode() == AStar.Mode.JumpPoint);
+        astar.generate();
+        assertTrue(astar.getShortestPath().size() == size);
+        assertTrue(astar.getShortestPath().get(0).equals(maze.getFinish()));
+        
+        //the same is true when searching from both ends
+        astar.setMode(AStar.Mode.Bidirectional);
+        astar.generate();
+        assertTrue(astar.getShortestPath().size() == size);
+        assertTrue(astar.getShortestPath().get(0).equals(maze.getFinish()));
+        assertTrue(astar.getShortestPath().get(size - 1).equals(maze.getStart()));
+        
+        //remove every wall
+        for (int row = 0; row < maze.getRows(); row++)
+        {
+            for (int col = 0; col < maze.getCols(); col++)
+            {
+                maze.getRoom(col, row).removeAllWalls();
+            }
+        }
+        
+        //every room between the jump points will be in the path
+        astar = new AStar(0, 0, 4, 4, maze.getRooms());
+        astar.setMode(AStar.Mode.JumpPoint);
+        astar.generate();
+        assertTrue(astar.getShortestPath().size() == 9);
+        
+        astar.setDiagonal(true);
+        astar.generate();
+        assertTrue(astar.getShortestPath().size() == 5);
+        
+        astar.setMode(AStar.Mode.Bidirectional);
+        astar.generate();
+        assertTrue(astar.getShortestPath().size() == 5);
+    }
+    
+    @Test
+    public void stepTest() throws Exception
+    {
+        //create the maze
+        setupMaze(0, 0, 20);
+        
+        //create new instance
+        astar = new AStar(maze.getStart(), maze.getFinish(), maze.getRooms());
+        assertFalse(astar.isComplete());
+        assertTrue(astar.getPartialPath().isEmpty());
+        
+        //spread the search across many steps
+        while (!astar.step(1))
+        {
+            assertFalse(astar.isComplete());
+            assertTrue(astar.getShortestPath().isEmpty());
+            
+            //we can start moving towards the goal before the search is complete
+            final List<Cell> partial = astar.getPartialPath();
+            assertTrue(partial.get(partial.size() - 1).equals(maze.getStart()));
+        }
+        
+        assertTrue(astar.isComplete());
+        
+        //the path is the same as generating all at once
+        final AStar other = new AStar(maze.getStart(), maze.getFinish(), maze.getRooms());
+        other.generate();
+        assertTrue(astar.getShortestPath().size() == other.getShortestPath().size());
+        assertTrue(astar.getPartialPath().size() == other.getShortestPath().size());
+        
+        //changing the settings starts a new search
+        astar.setDiagonal(true);
+        assertFalse(astar.isComplete());
+        
+        //another agent using the same context starts a new search
+        final SearchContext context = new SearchContext();
+        astar.setContext(context);
+        other.setContext(context);
+        astar.step(1);
+        other.generate();
+        assertFalse(astar.isComplete());
+        
+        while (!astar.step(10))
+        {
+            //keep going until complete
+        }
+        
+        assertTrue(astar.getShortestPath().get(0).equals(maze.getFinish()));
+    }
+    
+    @Test
+    public void generateBufferTest() throws Exception
+    {
+        //create the maze
+        setupMaze(0, 0, 20);
+        
+        //create new instance
+        astar = new AStar(maze.getStart(), maze.getFinish(), maze.getRooms());
+        astar.generate();
+        
+        final List<Cell> path = new ArrayList<>(astar.getShortestPath());
+        final int[] buffer = new int[20 * 20];
+        final int[] waypoints = new int[20 * 20];
+        
+        //the packed path has the same locations as the list, which is now empty
+        final int length = astar.generate(buffer);
+        assertTrue(length == path.size());
+        assertTrue(astar.getShortestPath().isEmpty());
+        
+        for (int index = 0; index < length; index++)
+        {
+            assertTrue(path.get(index).equals(buffer[index] % 20, buffer[index] / 20));
+        }
+        
+        //the waypoints are the goal, the start, and every corner in between
+        final int count = astar.generateWaypoints(waypoints);
+        assertTrue(count >= 2 && count <= length);
+        assertTrue(waypoints[0] == buffer[0]);
+        assertTrue(waypoints[count - 1] == buffer[length - 1]);
+        
+        //if the goal can't be reached nothing is stored
+        astar.setGoalColumn(20);
+        assertTrue(astar.generate(buffer) == 0);
+        assertTrue(astar.generateWaypoints(waypoints) == 0);
+    }
+    
+    @Test
+    public void setReachabilityTest() throws Exception
+    {
+        //create the maze
+        setupMaze(0, 0, 5);
+        
+        final Reachability reachability = new Reachability(maze, false);
+        
+        //create new instance
+        astar = new AStar(maze.getStart(), maze.getFinish(), maze.getRooms());
+        astar.setReachability(reachability);
+        assertTrue(astar.getReachability() == reachability);
+        
+        astar.generate();
+        assertFalse(astar.getShortestPath().isEmpty());
+        
+        //wall off the finish, on both sides of each wall
+        final int finishCol = maze.getFinishCol();
+        final int finishRow = maze.getFinishRow();
+        maze.getRoom(finishCol, finishRow).addAllWalls();
+        
+        if (maze.getRoom(finishCol - 1, finishRow) != null)
+            maze.getRoom(finishCol - 1, finishRow).addWall(Room.Wall.East);
+        if (maze.getRoom(finishCol + 1, finishRow) != null)
+            maze.getRoom(finishCol + 1, finishRow).addWall(Room.Wall.West);
+        if (maze.getRoom(finishCol, finishRow - 1) != null)
+            maze.getRoom(finishCol, finishRow - 1).addWall(Room.Wall.South);
+        if (maze.getRoom(finishCol, finishRow + 1) != null)
+            maze.getRoom(finishCol, finishRow + 1).addWall(Room.Wall.North);
+        
+        //the goal can't be reached, so we don't search
+        astar.generate();
+        assertTrue(astar.getShortestPath().isEmpty());
+        
+        //stepping is complete right away
+        assertTrue(astar.step(1));
+        assertTrue(astar.isComplete());
+        assertTrue(astar.getShortestPath().isEmpty());
+        assertTrue(astar.getContext().getExpanded() == 0);
+        
+        reachability.dispose();
+    }
+    
+    @Test
+    public void setContextTest() throws Exception
+    {
+        //create the maze
+        setupMaze(0, 0, 5);
+        
+        //one context shared by many agents
+        final SearchContext context = new SearchContext();
+        
+        for (int index = 0; index < 10; index++)
+        {
+            AStar agent = new AStar(maze.getStart(), maze.getFinish(), maze.getRooms());
+            agent.setContext(context);
+            agent.generate();
+            
+            //assume the first element is the finish
+            assertTrue(agent.getShortestPath().get(0).getCol() == maze.getFinishCol());
+            assertTrue(agent.getShortestPath().get(0).getRow() == maze.getFinishRow());
+            
+            //the shared context and rooms are not disposed with the agent
+            agent.dispose();
+            assertTrue(context.getCapacity() == 25);
+            assertNotNull(maze.getRoom(0, 0).getWalls());
+        }
+        
+        //create new instance
+        astar = new AStar(maze.getStart(), maze.getFinish(), maze.getRooms());
+        astar.setContext(context);
+        assertTrue(astar.getContext() == context);
+    }
+    
+    @Test
+    public void generateNearestTest() throws Exception
+    {
+        //create the maze
+        setupMaze(0, 0, 5);
+        
+        //the finish and the start's own room are both goals, the start is nearer
+        final int[] goals = {maze.getFinishCol() + maze.getFinishRow() * 5, 0};
+        
+        astar = new AStar(maze.getStart(), maze.getFinish(), maze.getRooms());
+        assertTrue(astar.generateNearest(goals, goals.length) == 1);
+        assertTrue(astar.getShortestPath().size() == 1);
+        
+        //with only the finish, the path is the same as a normal search
+        assertTrue(astar.generateNearest(goals, 1) == 0);
+        final int length = astar.getShortestPath().size();
+        astar.generate();
+        assertTrue(astar.getShortestPath().size() == length);
+    }
+    
     @Test
     public void disposeTest() throws Exception
     {
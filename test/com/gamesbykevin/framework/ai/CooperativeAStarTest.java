@@ -0,0 +1,293 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.MazeHelper;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.maze.algorithm.RecursiveBacktracking;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+/**
+ * Cooperative A* unit test
+ * @author GOD
+ */
+public class CooperativeAStarTest
+{
+    //object used to make random decisions
+    private static final Random RANDOM = new Random();
+    
+    //the size of the maze
+    private static final int DIMENSIONS = 20;
+    
+    //the number of moves each agent plans
+    private static final int WINDOW = 8;
+    
+    //the number of agents
+    private static final int AGENTS = 30;
+    
+    //our maze object containing the rooms
+    private Maze maze;
+    
+    //our planner
+    private CooperativeAStar planner;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        CooperativeAStar planner = new CooperativeAStar(maze, WINDOW, false);
+        assertTrue(planner.getWindow() == WINDOW);
+        assertTrue(planner.getAgentCount() == 0);
+        assertTrue(planner.getCapacity() == CooperativeAStar.DEFAULT_CAPACITY);
+        
+        //the window must have at least 1 move
+        try
+        {
+            planner = new CooperativeAStar(maze.getRooms(), 0, false);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        CooperativeAStar planner = new CooperativeAStar(maze.getRooms(), WINDOW, true, 1);
+        planner.dispose();
+        planner = null;
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        //create maze of specified dimensions
+        maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        
+        while (!maze.isGenerated())
+        {
+            maze.update(RANDOM);
+        }
+        
+        //remove many walls so the agents have room to move around each other
+        for (int index = 0; index < DIMENSIONS * DIMENSIONS * 2; index++)
+        {
+            final int col = RANDOM.nextInt(DIMENSIONS - 1);
+            final int row = RANDOM.nextInt(DIMENSIONS - 1);
+            
+            MazeHelper.joinRooms(maze.getRoom(col, row), RANDOM.nextBoolean() ? maze.getRoom(col + 1, row) : maze.getRoom(col, row + 1));
+        }
+        
+        planner = new CooperativeAStar(maze, WINDOW, false);
+    }
+    
+    @After
+    public void tearDown()
+    {
+        planner.dispose();
+        planner = null;
+        maze.dispose();
+        maze = null;
+    }
+    
+    @Test
+    public void addAgentTest() throws Exception
+    {
+        final int agent = planner.addAgent(1, 2, 3, 4);
+        assertTrue(planner.getAgentCount() == 1);
+        assertTrue(planner.getColumn(agent) == 1);
+        assertTrue(planner.getRow(agent) == 2);
+        assertFalse(planner.hasGoal(agent));
+        
+        //the agent waits where it is until it plans
+        assertTrue(planner.getReservation(1, 2, planner.getTime()) == agent);
+        assertTrue(planner.getReservation(1, 2, planner.getTime() + WINDOW) == agent);
+        assertTrue(planner.getReservation(DIMENSIONS, 0, planner.getTime()) == -1);
+        
+        //2 agents can't start at the same location
+        try
+        {
+            planner.addAgent(1, 2, 0, 0);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+        
+        //an agent can't start outside of the rooms
+        try
+        {
+            planner.addAgent(DIMENSIONS, 0, 0, 0);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+    }
+    
+    @Test
+    public void updateTest() throws Exception
+    {
+        addAgents();
+        
+        final int[] previous = new int[AGENTS];
+        
+        for (int update = 0; update < 300; update++)
+        {
+            for (int agent = 0; agent < AGENTS; agent++)
+            {
+                previous[agent] = planner.getColumn(agent) + planner.getRow(agent) * DIMENSIONS;
+            }
+            
+            planner.update();
+            assertTrue(planner.getTime() == update + 1);
+            
+            //every agent made a legal move and no agents ran into each other
+            assertMoves(previous);
+        }
+        
+        //most agents have reached the goal, an agent waiting at the goal can block the only way to another goal
+        int reached = 0;
+        
+        for (int agent = 0; agent < AGENTS; agent++)
+        {
+            if (planner.hasGoal(agent))
+                reached++;
+        }
+        
+        assertTrue(reached >= AGENTS * 3 / 4);
+    }
+    
+    @Test
+    public void setGoalTest() throws Exception
+    {
+        final int agent = planner.addAgent(0, 0, 0, 0);
+        
+        //waiting at the goal costs nothing so the agent stays
+        planner.update();
+        assertTrue(planner.hasGoal(agent));
+        
+        //the agent starts moving to the new goal on the next update
+        planner.setGoal(agent, DIMENSIONS - 1, DIMENSIONS - 1);
+        assertFalse(planner.hasGoal(agent));
+        
+        for (int update = 0; update < DIMENSIONS * DIMENSIONS && !planner.hasGoal(agent); update++)
+        {
+            planner.update();
+            assertTrue(planner.getExpanded() >= 0);
+        }
+        
+        assertTrue(planner.hasGoal(agent));
+    }
+    
+    @Test
+    public void onWallChangeTest() throws Exception
+    {
+        addAgents();
+        
+        final int[] previous = new int[AGENTS];
+        
+        for (int update = 0; update < 100; update++)
+        {
+            //toggle a wall on both sides, the agents plan again
+            final int col = RANDOM.nextInt(DIMENSIONS - 1);
+            final int row = RANDOM.nextInt(DIMENSIONS);
+            
+            if (maze.getRoom(col, row).hasWall(Wall.East))
+            {
+                maze.getRoom(col, row).removeWall(Wall.East);
+                maze.getRoom(col + 1, row).removeWall(Wall.West);
+            }
+            else
+            {
+                maze.getRoom(col, row).addWall(Wall.East);
+                maze.getRoom(col + 1, row).addWall(Wall.West);
+            }
+            
+            for (int agent = 0; agent < AGENTS; agent++)
+            {
+                previous[agent] = planner.getColumn(agent) + planner.getRow(agent) * DIMENSIONS;
+            }
+            
+            planner.update();
+            
+            //no agent moved through the new wall
+            assertMoves(previous);
+        }
+    }
+    
+    /**
+     * Add agents at random locations with random goals, no 2 agents share a start or goal
+     */
+    private void addAgents() throws Exception
+    {
+        final boolean[] goals = new boolean[DIMENSIONS * DIMENSIONS];
+        
+        while (planner.getAgentCount() < AGENTS)
+        {
+            final int col = RANDOM.nextInt(DIMENSIONS);
+            final int row = RANDOM.nextInt(DIMENSIONS);
+            final int goal = RANDOM.nextInt(DIMENSIONS * DIMENSIONS);
+            
+            if (planner.getReservation(col, row, planner.getTime()) >= 0 || goals[goal])
+                continue;
+            
+            goals[goal] = true;
+            planner.addAgent(col, row, goal % DIMENSIONS, goal / DIMENSIONS);
+        }
+    }
+    
+    /**
+     * Make sure each agent waited or moved to a neighbor without a wall in the way,<br>
+     * no 2 agents are at the same location, and no 2 agents swapped locations
+     * @param previous The location of each agent before the update
+     */
+    private void assertMoves(final int[] previous)
+    {
+        final int[] agents = new int[DIMENSIONS * DIMENSIONS];
+        
+        for (int agent = 0; agent < AGENTS; agent++)
+        {
+            final int col = planner.getColumn(agent);
+            final int row = planner.getRow(agent);
+            final int x = col - (previous[agent] % DIMENSIONS);
+            final int y = row - (previous[agent] / DIMENSIONS);
+            final Room room = maze.getRoom(previous[agent] % DIMENSIONS, previous[agent] / DIMENSIONS);
+            
+            assertTrue(Math.abs(x) + Math.abs(y) <= 1);
+            assertFalse(x > 0 && room.hasWall(Wall.East));
+            assertFalse(x < 0 && room.hasWall(Wall.West));
+            assertFalse(y < 0 && room.hasWall(Wall.North));
+            assertFalse(y > 0 && room.hasWall(Wall.South));
+            
+            //no other agent is here
+            assertTrue(agents[col + row * DIMENSIONS] == 0);
+            agents[col + row * DIMENSIONS] = agent + 1;
+            
+            //the agent is where it reserved
+            assertTrue(planner.getReservation(col, row, planner.getTime()) == agent);
+        }
+        
+        for (int agent = 0; agent < AGENTS; agent++)
+        {
+            //the agent that is now where we were, was not where we are now
+            final int other = agents[previous[agent]] - 1;
+            
+            if (other >= 0 && other != agent)
+                assertFalse(previous[other] == planner.getColumn(agent) + planner.getRow(agent) * DIMENSIONS);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,278 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.MazeHelper;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.maze.algorithm.RecursiveBacktracking;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * D* Lite unit test
+ * @author GOD
+ */
+public class DStarLiteTest
+{
+    //object used to make random decisions
+    private static final Random RANDOM = new Random();
+    
+    //the size of the maze
+    private static final int DIMENSIONS = 30;
+    
+    //our maze object containing the rooms
+    private Maze maze;
+    
+    //our planner
+    private DStarLite planner;
+    
+    //our search context to compare against
+    private SearchContext context;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        DStarLite planner = new DStarLite(maze, false);
+        assertFalse(planner.hasPath());
+        assertTrue(planner.getPathCost() == -1);
+        assertFalse(planner.isDirty());
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        DStarLite planner = new DStarLite(maze.getRooms(), true);
+        planner.dispose();
+        planner = null;
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        //create maze of specified dimensions
+        maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        
+        while (!maze.isGenerated())
+        {
+            maze.update(RANDOM);
+        }
+        
+        //remove some walls so there is more than 1 path
+        for (int index = 0; index < DIMENSIONS * DIMENSIONS / 4; index++)
+        {
+            removeWall(RANDOM.nextInt(DIMENSIONS), RANDOM.nextInt(DIMENSIONS));
+        }
+        
+        planner = new DStarLite(maze, false);
+        context = new SearchContext();
+    }
+    
+    @After
+    public void tearDown()
+    {
+        planner.dispose();
+        planner = null;
+        context.dispose();
+        context = null;
+        maze.dispose();
+        maze = null;
+    }
+    
+    @Test
+    public void searchTest()
+    {
+        for (int index = 0; index < 20; index++)
+        {
+            final int startCol = RANDOM.nextInt(DIMENSIONS);
+            final int startRow = RANDOM.nextInt(DIMENSIONS);
+            final int goalCol = RANDOM.nextInt(DIMENSIONS);
+            final int goalRow = RANDOM.nextInt(DIMENSIONS);
+            
+            assertTrue(planner.search(startCol, startRow, goalCol, goalRow));
+            assertTrue(context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, false));
+            assertTrue(planner.getPathCost() == context.getPathCost());
+        }
+        
+        //a location outside of the rooms can't be reached
+        assertFalse(planner.search(0, 0, DIMENSIONS, 0));
+        assertFalse(planner.hasPath());
+        assertTrue(planner.getPathCost() == -1);
+    }
+    
+    @Test
+    public void getPathTest()
+    {
+        final List<Cell> path = new ArrayList<>();
+        
+        planner.search(0, 0, DIMENSIONS - 1, DIMENSIONS - 1);
+        planner.getPath(path);
+        
+        //the first cell is the goal and the last cell is the start
+        assertTrue(path.get(0).equals(DIMENSIONS - 1, DIMENSIONS - 1));
+        assertTrue(path.get(path.size() - 1).equals(0, 0));
+        assertTrue(path.size() == planner.getPathCost() / AStar.MOVE_VERTICAL_HORIZONTAL + 1);
+    }
+    
+    @Test
+    public void onWallChangeTest() throws Exception
+    {
+        final List<Cell> path = new ArrayList<>();
+        
+        for (int index = 0; index < 2; index++)
+        {
+            final boolean diagonal = (index == 1);
+            
+            planner.dispose();
+            planner = new DStarLite(maze, diagonal);
+            
+            int startCol = 0;
+            int startRow = 0;
+            final int goalCol = DIMENSIONS - 1;
+            final int goalRow = DIMENSIONS - 1;
+            
+            planner.search(startCol, startRow, goalCol, goalRow);
+            
+            final int initial = planner.getExpanded();
+            
+            //the total locations expanded while repairing, and the number of repairs
+            int repaired = 0, count = 0;
+            assertFalse(planner.isDirty());
+            
+            //the maze will notify us of each change
+            assertTrue(maze.getRoom(1, 1).addWall(Wall.East) || maze.getRoom(1, 1).removeWall(Wall.East));
+            assertTrue(planner.isDirty());
+            
+            //toggle walls while the agent moves towards the goal
+            for (int move = 0; move < 50; move++)
+            {
+                final int col = RANDOM.nextInt(DIMENSIONS);
+                final int row = RANDOM.nextInt(DIMENSIONS);
+                
+                if (RANDOM.nextBoolean())
+                {
+                    removeWall(col, row);
+                }
+                else
+                {
+                    addWall(col, row);
+                }
+                
+                final boolean found = planner.search(startCol, startRow, goalCol, goalRow);
+                assertFalse(planner.isDirty());
+                
+                //the result is the same as searching again from the start
+                assertTrue(found == context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, diagonal, AStar.Mode.Bidirectional));
+                assertTrue(planner.getPathCost() == context.getPathCost());
+                
+                if (!found)
+                    continue;
+                
+                //keep track of the locations expanded to repair the path
+                repaired += planner.getExpanded();
+                count++;
+                
+                planner.getPath(path);
+                assertPath(path, planner.getPathCost(), diagonal);
+                
+                //move 1 step towards the goal
+                if (path.size() > 1)
+                {
+                    startCol = (int)path.get(path.size() - 2).getCol();
+                    startRow = (int)path.get(path.size() - 2).getRow();
+                }
+            }
+            
+            //on average, repairing the path expands fewer locations than the first search
+            assertTrue(count == 0 || repaired / count < initial);
+        }
+    }
+    
+    @Test
+    public void disposeTest() throws Exception
+    {
+        planner.dispose();
+        
+        //once disposed, we will no longer be notified
+        assertTrue(maze.getRoom(0, 0).addWall(Wall.East) || maze.getRoom(0, 0).removeWall(Wall.East));
+        assertNotNull(maze.getRoom(0, 0).getWalls());
+    }
+    
+    /**
+     * Make sure each step of the path can be moved, and the cost matches
+     * @param path The path, from the goal to the start
+     * @param cost The expected cost of the path
+     * @param diagonal Do we allow diagonal movement
+     */
+    private void assertPath(final List<Cell> path, final int cost, final boolean diagonal)
+    {
+        int total = 0;
+        
+        for (int index = path.size() - 1; index > 0; index--)
+        {
+            final Cell from = path.get(index);
+            final Cell to = path.get(index - 1);
+            final int x = (int)(to.getCol() - from.getCol());
+            final int y = (int)(to.getRow() - from.getRow());
+            final Room room = maze.getRoom((int)from.getCol(), (int)from.getRow());
+            
+            assertTrue(Math.abs(x) <= 1 && Math.abs(y) <= 1);
+            assertTrue(diagonal || x == 0 || y == 0);
+            assertFalse(x > 0 && room.hasWall(Wall.East));
+            assertFalse(x < 0 && room.hasWall(Wall.West));
+            assertFalse(y < 0 && room.hasWall(Wall.North));
+            assertFalse(y > 0 && room.hasWall(Wall.South));
+            
+            total += (x != 0 && y != 0) ? AStar.MOVE_DIAGONAL : AStar.MOVE_VERTICAL_HORIZONTAL;
+        }
+        
+        assertTrue(total == cost);
+    }
+    
+    /**
+     * Open the wall between the room and a random neighbor
+     * @param col Column
+     * @param row Row
+     */
+    private void removeWall(final int col, final int row) throws Exception
+    {
+        final Room neighbor = (col + 1 < DIMENSIONS) ? maze.getRoom(col + 1, row) : maze.getRoom(col - 1, row);
+        
+        MazeHelper.joinRooms(maze.getRoom(col, row), neighbor);
+    }
+    
+    /**
+     * Close the east or south wall of the room and the matching wall of the neighbor, like a door
+     * @param col Column
+     * @param row Row
+     */
+    private void addWall(final int col, final int row)
+    {
+        if (col + 1 < DIMENSIONS && RANDOM.nextBoolean())
+        {
+            maze.getRoom(col, row).addWall(Wall.East);
+            maze.getRoom(col + 1, row).addWall(Wall.West);
+        }
+        else if (row + 1 < DIMENSIONS)
+        {
+            maze.getRoom(col, row).addWall(Wall.South);
+            maze.getRoom(col, row + 1).addWall(Wall.North);
+        }
+        else
+        {
+            maze.getRoom(col, row).addWall(Wall.North);
+            maze.getRoom(col, row - 1).addWall(Wall.South);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,263 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.maze.algorithm.RecursiveBacktracking;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Flow Field unit test
+ * @author GOD
+ */
+public class FlowFieldTest
+{
+    //object used to make random decisions
+    private static final Random RANDOM = new Random();
+    
+    //the size of the maze
+    private static final int DIMENSIONS = 15;
+    
+    //our maze object containing the rooms
+    private Maze maze;
+    
+    //our search context to compare against
+    private SearchContext context;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        FlowField field = new FlowField(maze.getRooms(), false);
+        assertTrue(field.getColumns() == DIMENSIONS);
+        assertTrue(field.getRows() == DIMENSIONS);
+        assertFalse(field.hasDiagonal());
+        
+        //no goals yet, so nothing can be reached
+        assertTrue(field.getDistance(0, 0) == FlowField.UNREACHABLE);
+        assertTrue(field.getDirection(0, 0) == FlowField.NONE);
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        FlowField field = new FlowField(maze.getRooms(), true);
+        field.dispose();
+        field = null;
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        //create maze of specified dimensions
+        maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        
+        while (!maze.isGenerated())
+        {
+            maze.update(RANDOM);
+        }
+        
+        //remove some walls so there is more than 1 path
+        for (int index = 0; index < DIMENSIONS * 4; index++)
+        {
+            maze.getRoom(RANDOM.nextInt(DIMENSIONS), RANDOM.nextInt(DIMENSIONS)).removeWall(Wall.values()[RANDOM.nextInt(4)]);
+        }
+        
+        context = new SearchContext();
+    }
+    
+    @After
+    public void tearDown()
+    {
+        context.dispose();
+        context = null;
+        maze.dispose();
+        maze = null;
+    }
+    
+    @Test
+    public void generateTest()
+    {
+        for (int index = 0; index < 2; index++)
+        {
+            final boolean diagonal = (index == 1);
+            final FlowField field = new FlowField(maze.getRooms(), diagonal);
+            final int goalCol = RANDOM.nextInt(DIMENSIONS);
+            final int goalRow = RANDOM.nextInt(DIMENSIONS);
+            
+            field.generate(goalCol, goalRow);
+            assertTrue(field.isGoal(goalCol, goalRow));
+            assertTrue(field.getExpanded() > 0);
+            
+            //the distance is the cost of the shortest path to the goal
+            assertField(field, diagonal);
+            
+            field.dispose();
+        }
+    }
+    
+    @Test
+    public void generateGoalsTest()
+    {
+        final List<Cell> goals = new ArrayList<>();
+        goals.add(new Cell(0, 0));
+        goals.add(new Cell(DIMENSIONS - 1, DIMENSIONS - 1));
+        
+        final FlowField field = new FlowField(maze.getRooms(), false);
+        field.generate(goals);
+        
+        //every location leads to the closest goal
+        assertField(field, false);
+        
+        //after a wall change the field is calculated again for the same goals
+        maze.getRoom(0, 0).addAllWalls();
+        field.generate();
+        assertTrue(field.isGoal(0, 0));
+        assertTrue(field.isGoal(DIMENSIONS - 1, DIMENSIONS - 1));
+        assertField(field, false);
+        
+        //remove all goals
+        field.clear();
+        assertFalse(field.isGoal(0, 0));
+        assertTrue(field.getDistance(1, 1) == FlowField.UNREACHABLE);
+    }
+    
+    @Test
+    public void moveGoalTest()
+    {
+        for (int index = 0; index < 2; index++)
+        {
+            final boolean diagonal = (index == 1);
+            final FlowField field = new FlowField(maze.getRooms(), diagonal);
+            final FlowField expected = new FlowField(maze.getRooms(), diagonal);
+            
+            int goalCol = RANDOM.nextInt(DIMENSIONS);
+            int goalRow = RANDOM.nextInt(DIMENSIONS);
+            
+            field.generate(goalCol, goalRow);
+            
+            //move the goal 1 location at a time
+            for (int move = 0; move < 100; move++)
+            {
+                final int col = Math.max(0, Math.min(DIMENSIONS - 1, goalCol + RANDOM.nextInt(3) - 1));
+                final int row = Math.max(0, Math.min(DIMENSIONS - 1, goalRow + RANDOM.nextInt(3) - 1));
+                
+                assertTrue(field.moveGoal(goalCol, goalRow, col, row));
+                
+                goalCol = col;
+                goalRow = row;
+                
+                //the distances are the same as calculating the field again
+                expected.generate(goalCol, goalRow);
+                
+                for (int y = 0; y < DIMENSIONS; y++)
+                {
+                    for (int x = 0; x < DIMENSIONS; x++)
+                    {
+                        assertTrue(field.getDistance(x, y) == expected.getDistance(x, y));
+                    }
+                }
+                
+                assertFollow(field);
+            }
+            
+            //only a goal can be moved
+            assertFalse(field.moveGoal(goalCol, goalRow, DIMENSIONS, 0));
+            assertFalse(field.moveGoal((goalCol + 1) % DIMENSIONS, goalRow, goalCol, goalRow));
+            
+            field.dispose();
+            expected.dispose();
+        }
+    }
+    
+    @Test
+    public void removeGoalTest()
+    {
+        final FlowField field = new FlowField(maze.getRooms(), true);
+        
+        assertTrue(field.addGoal(0, 0));
+        assertFalse(field.addGoal(0, 0));
+        assertTrue(field.addGoal(DIMENSIONS - 1, DIMENSIONS - 1));
+        
+        //only the locations closest to the removed goal are updated
+        assertTrue(field.removeGoal(DIMENSIONS - 1, DIMENSIONS - 1));
+        assertFalse(field.removeGoal(DIMENSIONS - 1, DIMENSIONS - 1));
+        assertFalse(field.isGoal(DIMENSIONS - 1, DIMENSIONS - 1));
+        assertField(field, true);
+        
+        //with no goals left, nothing can be reached
+        assertTrue(field.removeGoal(0, 0));
+        assertTrue(field.getDistance(DIMENSIONS - 1, DIMENSIONS - 1) == FlowField.UNREACHABLE);
+        assertTrue(field.getNext(0) == -1);
+    }
+    
+    /**
+     * Make sure the distance of every location is the cost of the shortest path to the closest goal
+     * @param field The field to check
+     * @param diagonal Do we allow diagonal movement
+     */
+    private void assertField(final FlowField field, final boolean diagonal)
+    {
+        for (int row = 0; row < DIMENSIONS; row++)
+        {
+            for (int col = 0; col < DIMENSIONS; col++)
+            {
+                int cost = FlowField.UNREACHABLE;
+                
+                //the bidirectional search counts diagonal moves in the heuristic, so the cost is the shortest path
+                
+                for (int goalRow = 0; goalRow < DIMENSIONS; goalRow++)
+                {
+                    for (int goalCol = 0; goalCol < DIMENSIONS; goalCol++)
+                    {
+                        if (field.isGoal(goalCol, goalRow) && context.search(maze.getRooms(), col, row, goalCol, goalRow, diagonal, AStar.Mode.Bidirectional))
+                            cost = Math.min(cost, context.getPathCost());
+                    }
+                }
+                
+                assertTrue(field.getDistance(col, row) == cost);
+            }
+        }
+        
+        assertFollow(field);
+    }
+    
+    /**
+     * Make sure following the next step from every location reaches a goal
+     * @param field The field to check
+     */
+    private static void assertFollow(final FlowField field)
+    {
+        final int[] distances = field.getDistances();
+        final byte[] directions = field.getDirections();
+        
+        for (int cell = 0; cell < distances.length; cell++)
+        {
+            //a goal or a location that can't reach a goal has no next step
+            if (distances[cell] == 0 || distances[cell] == FlowField.UNREACHABLE)
+            {
+                assertTrue(directions[cell] == FlowField.NONE);
+                continue;
+            }
+            
+            //each step gets closer to the goal
+            final int next = field.getNext(cell);
+            assertTrue(distances[next] < distances[cell]);
+            
+            final int col = cell % field.getColumns();
+            final int row = cell / field.getColumns();
+            assertTrue(field.getNextColumn(col, row) + field.getNextRow(col, row) * field.getColumns() == next);
+        }
+    }
+}
\ No newline at end of file
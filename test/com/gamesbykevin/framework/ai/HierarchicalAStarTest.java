@@ -0,0 +1,303 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.maze.algorithm.RecursiveBacktracking;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Hierarchical A* unit test
+ * @author GOD
+ */
+public class HierarchicalAStarTest
+{
+    //object used to make random decisions
+    private static final Random RANDOM = new Random();
+    
+    //the size of the maze
+    private static final int DIMENSIONS = 23;
+    
+    //the size of each cluster
+    private static final int CLUSTER_SIZE = 6;
+    
+    //the number of queries to test
+    private static final int QUERIES = 100;
+    
+    //our maze object containing the rooms
+    private Maze maze;
+    
+    //our hierarchy
+    private HierarchicalAStar hierarchy;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        HierarchicalAStar hierarchy = new HierarchicalAStar(maze, HierarchicalAStar.DEFAULT_CLUSTER_SIZE, false);
+        assertTrue(hierarchy.getClusterSize() == HierarchicalAStar.DEFAULT_CLUSTER_SIZE);
+        
+        try
+        {
+            //the cluster size must be at least 2
+            hierarchy = new HierarchicalAStar(maze, 1, false);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e);
+        }
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        HierarchicalAStar hierarchy = new HierarchicalAStar(maze, CLUSTER_SIZE, false);
+        hierarchy.dispose();
+        hierarchy = null;
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        //create maze of specified dimensions
+        maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        
+        while (!maze.isGenerated())
+        {
+            maze.update(RANDOM);
+        }
+        
+        hierarchy = new HierarchicalAStar(maze, CLUSTER_SIZE, false);
+        assertFalse(hierarchy.isDirty());
+    }
+    
+    @After
+    public void tearDown()
+    {
+        hierarchy.dispose();
+        hierarchy = null;
+        maze.dispose();
+        maze = null;
+    }
+    
+    @Test
+    public void searchTest()
+    {
+        final SearchContext context = new SearchContext();
+        
+        for (int index = 0; index < QUERIES; index++)
+        {
+            final int startCol = RANDOM.nextInt(DIMENSIONS);
+            final int startRow = RANDOM.nextInt(DIMENSIONS);
+            final int goalCol = RANDOM.nextInt(DIMENSIONS);
+            final int goalRow = RANDOM.nextInt(DIMENSIONS);
+            
+            //a perfect maze only has 1 path, so the hierarchy will find the same path
+            assertTrue(hierarchy.search(startCol, startRow, goalCol, goalRow));
+            assertTrue(hierarchy.hasPath());
+            assertTrue(context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, false));
+            assertTrue(hierarchy.getPathCost() == context.getPathCost());
+        }
+        
+        //a location outside of the rooms can't be reached
+        assertFalse(hierarchy.search(0, 0, DIMENSIONS, 0));
+        assertFalse(hierarchy.hasPath());
+        assertTrue(hierarchy.getPathCost() == -1);
+    }
+    
+    @Test
+    public void getPathTest()
+    {
+        final List<Cell> expected = new ArrayList<>();
+        final List<Cell> path = new ArrayList<>();
+        final SearchContext context = new SearchContext();
+        
+        for (int index = 0; index < QUERIES; index++)
+        {
+            final int startCol = RANDOM.nextInt(DIMENSIONS);
+            final int startRow = RANDOM.nextInt(DIMENSIONS);
+            final int goalCol = RANDOM.nextInt(DIMENSIONS);
+            final int goalRow = RANDOM.nextInt(DIMENSIONS);
+            
+            hierarchy.search(startCol, startRow, goalCol, goalRow);
+            hierarchy.getPath(path);
+            
+            context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, false);
+            context.getPath(expected);
+            
+            //every room in the path is included, from the goal to the start
+            assertTrue(path.size() == expected.size());
+            
+            for (int cell = 0; cell < path.size(); cell++)
+            {
+                assertTrue(path.get(cell).equals(expected.get(cell)));
+            }
+        }
+    }
+    
+    @Test
+    public void diagonalTest() throws Exception
+    {
+        final SearchContext context = new SearchContext();
+        final List<Cell> path = new ArrayList<>();
+        
+        //every room has all 4 walls
+        maze.dispose();
+        maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        
+        //open the corner of the first cluster to the east and south, the cluster to the south east can only be reached diagonal
+        final Room corner = maze.getRoom(CLUSTER_SIZE - 1, CLUSTER_SIZE - 1);
+        corner.removeWall(Wall.East);
+        corner.removeWall(Wall.South);
+        maze.getRoom(CLUSTER_SIZE, CLUSTER_SIZE - 1).removeWall(Wall.West);
+        maze.getRoom(CLUSTER_SIZE - 1, CLUSTER_SIZE).removeWall(Wall.North);
+        
+        hierarchy.dispose();
+        hierarchy = new HierarchicalAStar(maze, CLUSTER_SIZE, true);
+        
+        assertTrue(context.search(maze.getRooms(), CLUSTER_SIZE - 1, CLUSTER_SIZE - 1, CLUSTER_SIZE, CLUSTER_SIZE, true, AStar.Mode.Bidirectional));
+        assertTrue(hierarchy.search(CLUSTER_SIZE - 1, CLUSTER_SIZE - 1, CLUSTER_SIZE, CLUSTER_SIZE));
+        assertTrue(hierarchy.getPathCost() == AStar.MOVE_DIAGONAL);
+        
+        //there is no way back
+        assertFalse(hierarchy.search(CLUSTER_SIZE, CLUSTER_SIZE, CLUSTER_SIZE - 1, CLUSTER_SIZE - 1));
+        
+        for (int attempt = 0; attempt < 5; attempt++)
+        {
+            maze.dispose();
+            maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+            
+            while (!maze.isGenerated())
+            {
+                maze.update(RANDOM);
+            }
+            
+            //remove some walls from both sides, so there are more places we can move diagonal
+            for (int count = 0; count < DIMENSIONS * DIMENSIONS / 2; count++)
+            {
+                final Room room = maze.getRoom(RANDOM.nextInt(DIMENSIONS - 1), RANDOM.nextInt(DIMENSIONS - 1));
+                
+                if (RANDOM.nextBoolean())
+                {
+                    room.removeWall(Wall.East);
+                    maze.getRoom(room.getCol() + 1, room.getRow()).removeWall(Wall.West);
+                }
+                else
+                {
+                    room.removeWall(Wall.South);
+                    maze.getRoom(room.getCol(), room.getRow() + 1).removeWall(Wall.North);
+                }
+            }
+            
+            hierarchy.dispose();
+            hierarchy = new HierarchicalAStar(maze, CLUSTER_SIZE, true);
+            
+            for (int index = 0; index < QUERIES; index++)
+            {
+                final int startCol = RANDOM.nextInt(DIMENSIONS);
+                final int startRow = RANDOM.nextInt(DIMENSIONS);
+                final int goalCol = RANDOM.nextInt(DIMENSIONS);
+                final int goalRow = RANDOM.nextInt(DIMENSIONS);
+                
+                //the hierarchy reaches the same locations as the search over every room
+                final boolean found = context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, true, AStar.Mode.Bidirectional);
+                assertTrue(hierarchy.search(startCol, startRow, goalCol, goalRow) == found);
+                
+                if (!found)
+                    continue;
+                
+                //the path is never shorter than the shortest path
+                assertTrue(hierarchy.getPathCost() >= context.getPathCost());
+                
+                hierarchy.getPath(path);
+                
+                assertTrue(path.get(0).equals(goalCol, goalRow));
+                assertTrue(path.get(path.size() - 1).equals(startCol, startRow));
+                
+                //each step is to a neighbor
+                for (int cell = 1; cell < path.size(); cell++)
+                {
+                    assertTrue(Math.abs(path.get(cell).getCol() - path.get(cell - 1).getCol()) <= 1);
+                    assertTrue(Math.abs(path.get(cell).getRow() - path.get(cell - 1).getRow()) <= 1);
+                }
+            }
+        }
+        
+        context.dispose();
+    }
+    
+    @Test
+    public void onWallChangeTest() throws Exception
+    {
+        //remove every wall, the maze will notify the hierarchy
+        for (int row = 0; row < DIMENSIONS; row++)
+        {
+            for (int col = 0; col < DIMENSIONS; col++)
+            {
+                maze.getRoom(col, row).removeAllWalls();
+            }
+        }
+        
+        assertTrue(hierarchy.isDirty());
+        
+        //the clusters are rebuilt on the next search, and the path is now a straight line along the entrances
+        assertTrue(hierarchy.search(0, 0, DIMENSIONS - 1, 0));
+        assertFalse(hierarchy.isDirty());
+        assertTrue(hierarchy.getPathCost() == (DIMENSIONS - 1) * AStar.MOVE_VERTICAL_HORIZONTAL);
+        
+        final int rebuilds = hierarchy.getRebuilds();
+        
+        //block the path in the middle, only the cluster and its neighbors are rebuilt
+        maze.getRoom(DIMENSIONS / 2, 0).addWall(Wall.East);
+        
+        assertTrue(hierarchy.search(0, 0, DIMENSIONS - 1, 0));
+        assertTrue(hierarchy.getRebuilds() - rebuilds <= 5);
+        
+        //we have to go around the wall
+        assertTrue(hierarchy.getPathCost() > (DIMENSIONS - 1) * AStar.MOVE_VERTICAL_HORIZONTAL);
+        
+        //the result will be the same as building every cluster again
+        final HierarchicalAStar other = new HierarchicalAStar(maze.getRooms(), CLUSTER_SIZE, false);
+        assertTrue(other.search(0, 0, DIMENSIONS - 1, 0));
+        assertTrue(other.getPathCost() == hierarchy.getPathCost());
+        other.dispose();
+        
+        //once disposed, we will no longer be notified
+        hierarchy.dispose();
+        maze.getRoom(0, 0).addWall(Wall.East);
+        
+        hierarchy = new HierarchicalAStar(maze.getRooms(), CLUSTER_SIZE, true);
+        
+        //without the maze, we need to be told about each change
+        maze.getRoom(0, 0).removeWall(Wall.East);
+        assertFalse(hierarchy.isDirty());
+        hierarchy.onWallChange(maze.getRoom(0, 0));
+        assertTrue(hierarchy.isDirty());
+        
+        //diagonal movement within the clusters
+        assertTrue(hierarchy.search(0, 0, CLUSTER_SIZE - 1, CLUSTER_SIZE - 1));
+        assertTrue(hierarchy.getPathCost() == (CLUSTER_SIZE - 1) * AStar.MOVE_DIAGONAL);
+    }
+    
+    @Test
+    public void disposeTest()
+    {
+        hierarchy.dispose();
+        
+        //the rooms are shared, so they are not disposed
+        assertNotNull(maze.getRoom(0, 0).getWalls());
+    }
+}
\ No newline at end of file
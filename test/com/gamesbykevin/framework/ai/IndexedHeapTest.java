@@ -0,0 +1,151 @@
+package com.gamesbykevin.framework.ai;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+/**
+ * Indexed Heap unit test
+ * @author GOD
+ */
+public class IndexedHeapTest
+{
+    //the number of cells the heap can hold
+    private static final int CAPACITY = 100;
+    
+    private IndexedHeap heap;
+    
+    @BeforeClass
+    public static void setUpClass()
+    {
+        IndexedHeap heap = new IndexedHeap(CAPACITY);
+        assertTrue(heap.isEmpty());
+    }
+    
+    @AfterClass
+    public static void tearDownClass()
+    {
+        IndexedHeap heap = new IndexedHeap(CAPACITY);
+        heap = null;
+    }
+    
+    @Before
+    public void setUp()
+    {
+        heap = new IndexedHeap(CAPACITY);
+        assertNotNull(heap);
+    }
+    
+    @After
+    public void tearDown()
+    {
+        heap = null;
+        assertNull(heap);
+    }
+    
+    @Test
+    public void pushTest()
+    {
+        heap.push(5, 50);
+        heap.push(3, 30);
+        heap.push(9, 90);
+        
+        assertTrue(heap.size() == 3);
+        assertTrue(heap.contains(3));
+        assertTrue(heap.contains(5));
+        assertTrue(heap.contains(9));
+        assertFalse(heap.contains(4));
+        
+        //pushing an existing cell only changes the priority
+        heap.push(9, 10);
+        assertTrue(heap.size() == 3);
+        assertTrue(heap.peek() == 9);
+        assertTrue(heap.peekKey() == 10);
+    }
+    
+    @Test
+    public void popTest()
+    {
+        final Random random = new Random();
+        
+        //add every cell with a random priority
+        for (int cell = 0; cell < CAPACITY; cell++)
+        {
+            heap.push(cell, random.nextInt(1000));
+        }
+        
+        long previous = Long.MIN_VALUE;
+        
+        //cells are removed from lowest to highest priority
+        while (!heap.isEmpty())
+        {
+            final long key = heap.peekKey();
+            final int cell = heap.pop();
+            
+            assertTrue(key >= previous);
+            assertFalse(heap.contains(cell));
+            previous = key;
+        }
+        
+        //nothing left to remove
+        assertTrue(heap.pop() == -1);
+    }
+    
+    @Test
+    public void updateTest()
+    {
+        heap.push(1, 10);
+        heap.push(2, 20);
+        heap.push(3, 30);
+        
+        //decrease the key so it is now the lowest
+        heap.update(3, 5);
+        assertTrue(heap.peek() == 3);
+        assertTrue(heap.getKey(3) == 5);
+        
+        //increase the key so it is now the highest
+        heap.update(3, 50);
+        assertTrue(heap.peek() == 1);
+        
+        assertTrue(heap.pop() == 1);
+        assertTrue(heap.pop() == 2);
+        assertTrue(heap.pop() == 3);
+    }
+    
+    @Test
+    public void removeTest()
+    {
+        heap.push(1, 10);
+        heap.push(2, 20);
+        heap.push(3, 30);
+        
+        assertTrue(heap.remove(1));
+        assertFalse(heap.remove(1));
+        assertFalse(heap.contains(1));
+        assertTrue(heap.size() == 2);
+        assertTrue(heap.pop() == 2);
+    }
+    
+    @Test
+    public void clearTest()
+    {
+        for (int cell = 0; cell < CAPACITY; cell++)
+        {
+            heap.push(cell, cell);
+        }
+        
+        heap.clear();
+        
+        assertTrue(heap.isEmpty());
+        
+        for (int cell = 0; cell < CAPACITY; cell++)
+        {
+            assertFalse(heap.contains(cell));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,248 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.maze.algorithm.RecursiveBacktracking;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+/**
+ * Landmarks unit test
+ * @author GOD
+ */
+public class LandmarksTest
+{
+    //object used to make random decisions
+    private static final Random RANDOM = new Random();
+    
+    //the size of the maze
+    private static final int DIMENSIONS = 40;
+    
+    //the number of landmarks to choose
+    private static final int COUNT = 6;
+    
+    //our maze object containing the rooms
+    private Maze maze;
+    
+    //our landmark costs
+    private Landmarks landmarks;
+    
+    //our search context to compare against
+    private SearchContext context;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        //every room has all walls, so nothing can be estimated
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        Landmarks landmarks = new Landmarks(maze, COUNT, false);
+        assertTrue(landmarks.getCount() == COUNT);
+        assertTrue(landmarks.getColumns() == DIMENSIONS);
+        assertTrue(landmarks.getRows() == DIMENSIONS);
+        assertFalse(landmarks.hasDiagonal());
+        assertTrue(landmarks.getEstimate(0, 0, DIMENSIONS - 1, DIMENSIONS - 1) == 0);
+        
+        //we can't choose more landmarks than rooms
+        landmarks = new Landmarks(new RecursiveBacktracking(2, 2).getRooms(), COUNT, true);
+        assertTrue(landmarks.getCount() == 4);
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        Landmarks landmarks = new Landmarks(maze.getRooms(), COUNT, true);
+        landmarks.dispose();
+        landmarks = null;
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        //create maze of specified dimensions
+        maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        
+        while (!maze.isGenerated())
+        {
+            maze.update(RANDOM);
+        }
+        
+        landmarks = new Landmarks(maze, COUNT, false);
+        context = new SearchContext();
+    }
+    
+    @After
+    public void tearDown()
+    {
+        landmarks.dispose();
+        landmarks = null;
+        context.dispose();
+        context = null;
+        maze.dispose();
+        maze = null;
+    }
+    
+    @Test
+    public void getEstimateTest()
+    {
+        for (int index = 0; index < 2; index++)
+        {
+            final boolean diagonal = (index == 1);
+            
+            //remove some walls, sometimes only on 1 side
+            for (int count = 0; count < DIMENSIONS; count++)
+            {
+                maze.getRoom(RANDOM.nextInt(DIMENSIONS), RANDOM.nextInt(DIMENSIONS)).removeWall(Wall.values()[RANDOM.nextInt(4)]);
+            }
+            
+            landmarks.dispose();
+            landmarks = new Landmarks(maze, COUNT, diagonal);
+            assertTrue(landmarks.getCount() == COUNT);
+            
+            for (int query = 0; query < 200; query++)
+            {
+                final int startCol = RANDOM.nextInt(DIMENSIONS);
+                final int startRow = RANDOM.nextInt(DIMENSIONS);
+                final int goalCol = RANDOM.nextInt(DIMENSIONS);
+                final int goalRow = RANDOM.nextInt(DIMENSIONS);
+                
+                //the estimate is never more than the cost of the shortest path
+                if (context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, diagonal, AStar.Mode.Bidirectional))
+                    assertTrue(landmarks.getEstimate(startCol, startRow, goalCol, goalRow) <= context.getPathCost());
+            }
+            
+            //the estimate from a landmark is the cost of the shortest path
+            final int col = landmarks.getColumn(0);
+            final int row = landmarks.getRow(0);
+            
+            for (int query = 0; query < 20; query++)
+            {
+                final int goalCol = RANDOM.nextInt(DIMENSIONS);
+                final int goalRow = RANDOM.nextInt(DIMENSIONS);
+                
+                if (context.search(maze.getRooms(), col, row, goalCol, goalRow, diagonal, AStar.Mode.Bidirectional))
+                    assertTrue(landmarks.getEstimate(col, row, goalCol, goalRow) == context.getPathCost());
+            }
+            
+            //a location outside of the rooms can't be estimated
+            assertTrue(landmarks.getEstimate(0, 0, DIMENSIONS, 0) == 0);
+        }
+    }
+    
+    @Test
+    public void searchTest()
+    {
+        //the total nodes expanded with and without the landmarks
+        int expanded = 0, expandedLandmarks = 0;
+        
+        for (int query = 0; query < 50; query++)
+        {
+            final int startCol = RANDOM.nextInt(DIMENSIONS);
+            final int startRow = RANDOM.nextInt(DIMENSIONS);
+            final int goalCol = RANDOM.nextInt(DIMENSIONS);
+            final int goalRow = RANDOM.nextInt(DIMENSIONS);
+            
+            assertTrue(context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, false));
+            final int cost = context.getPathCost();
+            expanded += context.getExpanded();
+            
+            //the shortest path is still found
+            assertTrue(context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, false, AStar.Mode.Standard, landmarks));
+            assertTrue(context.getPathCost() == cost);
+            expandedLandmarks += context.getExpanded();
+        }
+        
+        //the landmarks lead the search through the maze, so fewer nodes are expanded
+        assertTrue(expandedLandmarks < expanded);
+    }
+    
+    @Test
+    public void directedSearchTest()
+    {
+        for (int index = 0; index < 2; index++)
+        {
+            final boolean diagonal = (index == 1);
+            
+            //remove walls only on 1 side, so a move may only be allowed in 1 direction
+            for (int count = 0; count < DIMENSIONS * 4; count++)
+            {
+                maze.getRoom(RANDOM.nextInt(DIMENSIONS), RANDOM.nextInt(DIMENSIONS)).removeWall(Wall.values()[RANDOM.nextInt(4)]);
+            }
+            
+            landmarks.dispose();
+            landmarks = new Landmarks(maze, COUNT, diagonal);
+            
+            //the flow field has the cost of the shortest path to the goal from every location
+            final FlowField field = new FlowField(maze.getRooms(), diagonal);
+            
+            for (int query = 0; query < 200; query++)
+            {
+                final int startCol = RANDOM.nextInt(DIMENSIONS);
+                final int startRow = RANDOM.nextInt(DIMENSIONS);
+                final int goalCol = RANDOM.nextInt(DIMENSIONS);
+                final int goalRow = RANDOM.nextInt(DIMENSIONS);
+                
+                field.generate(goalCol, goalRow);
+                
+                final int cost = field.getDistance(startCol, startRow);
+                
+                //without diagonal movement the standard search finds the shortest path
+                if (!diagonal)
+                {
+                    assertTrue(context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, diagonal, AStar.Mode.Standard) == (cost != FlowField.UNREACHABLE));
+                    
+                    if (cost != FlowField.UNREACHABLE)
+                        assertTrue(context.getPathCost() == cost);
+                }
+                
+                //the landmarks can't make the bidirectional search miss the shortest path
+                assertTrue(context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, diagonal, AStar.Mode.Bidirectional, landmarks) == (cost != FlowField.UNREACHABLE));
+                
+                if (cost != FlowField.UNREACHABLE)
+                    assertTrue(context.getPathCost() == cost);
+            }
+        }
+    }
+    
+    @Test
+    public void onWallChangeTest() throws Exception
+    {
+        assertFalse(landmarks.isDirty());
+        
+        //find a wall between 2 rooms
+        int col = 0;
+        
+        while (!maze.getRoom(col, 0).hasWall(Wall.East))
+        {
+            col++;
+        }
+        
+        //open a shortcut, the costs are no longer correct
+        maze.getRoom(col, 0).removeWall(Wall.East);
+        maze.getRoom(col + 1, 0).removeWall(Wall.West);
+        assertTrue(landmarks.isDirty());
+        
+        //the landmarks are ignored so the shortcut is still found
+        final AStar astar = new AStar(col, 0, col + 1, 0, maze.getRooms());
+        astar.setLandmarks(landmarks);
+        assertTrue(astar.getLandmarks() == landmarks);
+        astar.generate();
+        assertTrue(astar.getShortestPath().size() == 2);
+        
+        //calculate the costs again
+        final long expanded = landmarks.getExpanded();
+        landmarks.generate();
+        assertFalse(landmarks.isDirty());
+        assertTrue(landmarks.getExpanded() - expanded >= DIMENSIONS * DIMENSIONS * COUNT);
+        assertTrue(landmarks.getEstimate(col, 0, col + 1, 0) <= AStar.MOVE_VERTICAL_HORIZONTAL);
+        
+        astar.dispose();
+    }
+}
\ No newline at end of file
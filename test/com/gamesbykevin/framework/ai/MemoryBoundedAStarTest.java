@@ -0,0 +1,247 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.maze.algorithm.RecursiveBacktracking;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Memory bounded A* unit test
+ * @author GOD
+ */
+public class MemoryBoundedAStarTest
+{
+    //object used to make random decisions
+    private static final Random RANDOM = new Random();
+    
+    //the size of the maze
+    private static final int DIMENSIONS = 30;
+    
+    //our maze object containing the rooms
+    private Maze maze;
+    
+    //our search context to compare against
+    private SearchContext context;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        MemoryBoundedAStar search = new MemoryBoundedAStar(DIMENSIONS);
+        assertTrue(search.getCapacity() == DIMENSIONS);
+        assertTrue(search.getLimit() == MemoryBoundedAStar.DEFAULT_LIMIT);
+        assertFalse(search.hasPath());
+        assertFalse(search.isOptimal());
+        assertTrue(search.getPathCost() == -1);
+        
+        //we need room for at least the start and goal
+        try
+        {
+            search = new MemoryBoundedAStar(1);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+        
+        //we need to expand at least 1 node
+        try
+        {
+            search.setLimit(0);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+        MemoryBoundedAStar search = new MemoryBoundedAStar(DIMENSIONS);
+        search.dispose();
+        search = null;
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        //create maze of specified dimensions
+        maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        
+        while (!maze.isGenerated())
+        {
+            maze.update(RANDOM);
+        }
+        
+        //remove some walls so there is more than 1 path
+        for (int index = 0; index < DIMENSIONS * DIMENSIONS / 4; index++)
+        {
+            maze.getRoom(RANDOM.nextInt(DIMENSIONS), RANDOM.nextInt(DIMENSIONS)).removeWall(Wall.values()[RANDOM.nextInt(4)]);
+        }
+        
+        context = new SearchContext();
+    }
+    
+    @After
+    public void tearDown()
+    {
+        context.dispose();
+        context = null;
+        maze.dispose();
+        maze = null;
+    }
+    
+    @Test
+    public void searchTest() throws Exception
+    {
+        //every room fits so the search is the same as A*
+        final MemoryBoundedAStar search = new MemoryBoundedAStar(DIMENSIONS * DIMENSIONS);
+        final List<Cell> path = new ArrayList<>();
+        
+        for (int query = 0; query < 20; query++)
+        {
+            final boolean diagonal = (query % 2 == 1);
+            final int startCol = RANDOM.nextInt(DIMENSIONS);
+            final int startRow = RANDOM.nextInt(DIMENSIONS);
+            final int goalCol = RANDOM.nextInt(DIMENSIONS);
+            final int goalRow = RANDOM.nextInt(DIMENSIONS);
+            
+            assertTrue(context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, diagonal, AStar.Mode.Bidirectional));
+            assertTrue(search.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, diagonal));
+            assertTrue(search.isOptimal());
+            assertTrue(search.getPathCost() == context.getPathCost());
+            assertTrue(search.getPeak() <= search.getCapacity());
+            
+            //the path can be followed from the start to the goal
+            search.getPath(path);
+            assertTrue(path.get(0).equals(goalCol, goalRow));
+            assertTrue(path.get(path.size() - 1).equals(startCol, startRow));
+            assertPath(path, search.getPathCost(), diagonal);
+            
+            //the packed path has the same locations
+            final int[] buffer = new int[path.size()];
+            assertTrue(search.getPath(buffer) == path.size());
+            
+            for (int step = 0; step < buffer.length; step++)
+            {
+                assertTrue(path.get(step).equals(buffer[step] % DIMENSIONS, buffer[step] / DIMENSIONS));
+            }
+        }
+        
+        search.dispose();
+    }
+    
+    @Test
+    public void searchBoundedTest() throws Exception
+    {
+        //only a quarter of the rooms fit
+        final MemoryBoundedAStar search = new MemoryBoundedAStar(DIMENSIONS * DIMENSIONS / 4);
+        final List<Cell> path = new ArrayList<>();
+        
+        for (int query = 0; query < 20; query++)
+        {
+            final boolean diagonal = (query % 2 == 1);
+            final int startCol = RANDOM.nextInt(DIMENSIONS);
+            final int startRow = RANDOM.nextInt(DIMENSIONS);
+            final int goalCol = RANDOM.nextInt(DIMENSIONS);
+            final int goalRow = RANDOM.nextInt(DIMENSIONS);
+            
+            assertTrue(context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, diagonal, AStar.Mode.Bidirectional));
+            
+            final boolean found = search.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, diagonal);
+            
+            //we never store more than the capacity
+            assertTrue(search.getPeak() <= search.getCapacity());
+            
+            if (!found)
+                continue;
+            
+            //the path is never shorter than the shortest, and is the shortest if nothing was forgotten
+            assertTrue(search.getPathCost() >= context.getPathCost());
+            assertTrue(!search.isOptimal() || search.getPathCost() == context.getPathCost());
+            
+            search.getPath(path);
+            assertTrue(path.get(0).equals(goalCol, goalRow));
+            assertTrue(path.get(path.size() - 1).equals(startCol, startRow));
+            assertPath(path, search.getPathCost(), diagonal);
+        }
+        
+        search.dispose();
+    }
+    
+    @Test
+    public void searchUnreachableTest() throws Exception
+    {
+        final MemoryBoundedAStar search = new MemoryBoundedAStar(DIMENSIONS * DIMENSIONS);
+        
+        //wall off the corner
+        maze.getRoom(0, 0).addAllWalls();
+        maze.getRoom(1, 0).addWall(Wall.West);
+        maze.getRoom(0, 1).addWall(Wall.North);
+        
+        //every reachable room is expanded without reaching the goal
+        assertFalse(search.search(maze.getRooms(), DIMENSIONS - 1, DIMENSIONS - 1, 0, 0, false));
+        assertFalse(search.hasPath());
+        assertTrue(search.getPathCost() == -1);
+        assertTrue(search.getPath(new int[1]) == 0);
+        
+        //a location outside of the rooms can't be reached
+        assertFalse(search.search(maze.getRooms(), 0, 0, DIMENSIONS, 0, false));
+        
+        //the start is the goal
+        assertTrue(search.search(maze.getRooms(), 1, 1, 1, 1, true));
+        assertTrue(search.getPathCost() == 0);
+        
+        //the search stops once the limit is reached
+        search.setLimit(1);
+        assertFalse(search.search(maze.getRooms(), 0, 1, DIMENSIONS - 1, DIMENSIONS - 1, false));
+        assertTrue(search.getExpanded() == 1);
+        
+        search.dispose();
+    }
+    
+    /**
+     * Make sure each step of the path can be moved, and the cost matches
+     * @param path The path, from the goal to the start
+     * @param cost The expected cost of the path
+     * @param diagonal Do we allow diagonal movement
+     */
+    private void assertPath(final List<Cell> path, final int cost, final boolean diagonal)
+    {
+        int total = 0;
+        
+        for (int index = path.size() - 1; index > 0; index--)
+        {
+            final Cell from = path.get(index);
+            final Cell to = path.get(index - 1);
+            final int x = (int)(to.getCol() - from.getCol());
+            final int y = (int)(to.getRow() - from.getRow());
+            final Room room = maze.getRoom((int)from.getCol(), (int)from.getRow());
+            
+            assertTrue(Math.abs(x) <= 1 && Math.abs(y) <= 1);
+            assertTrue(diagonal || x == 0 || y == 0);
+            assertFalse(x > 0 && room.hasWall(Wall.East));
+            assertFalse(x < 0 && room.hasWall(Wall.West));
+            assertFalse(y < 0 && room.hasWall(Wall.North));
+            assertFalse(y > 0 && room.hasWall(Wall.South));
+            
+            total += (x != 0 && y != 0) ? AStar.MOVE_DIAGONAL : AStar.MOVE_VERTICAL_HORIZONTAL;
+        }
+        
+        assertTrue(total == cost);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Occupancy grid unit test
+ * @author GOD
+ */
+public class OccupancyGridTest
+{
+    //object used to make random decisions
+    private static final Random RANDOM = new Random();
+    
+    //the size of the grid
+    private static final int COLUMNS = 60, ROWS = 40;
+    
+    //the blocked locations
+    private boolean[] blocked;
+    private BitSet bits;
+    
+    //our search context
+    private SearchContext context;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        OccupancyGrid grid = new OccupancyGrid(new boolean[COLUMNS * ROWS], COLUMNS, ROWS);
+        assertTrue(grid.getColumns() == COLUMNS);
+        assertTrue(grid.getRows() == ROWS);
+        
+        //the number of locations must match the dimensions
+        try
+        {
+            grid = new OccupancyGrid(new boolean[COLUMNS], COLUMNS, ROWS);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+        
+        try
+        {
+            grid = new OccupancyGrid(new BitSet(), 0, ROWS);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        //block a quarter of the locations at random
+        blocked = new boolean[COLUMNS * ROWS];
+        bits = new BitSet(COLUMNS * ROWS);
+        
+        for (int cell = 0; cell < blocked.length; cell++)
+        {
+            if (RANDOM.nextInt(4) == 0)
+            {
+                blocked[cell] = true;
+                bits.set(cell);
+            }
+        }
+        
+        context = new SearchContext();
+    }
+    
+    @After
+    public void tearDown()
+    {
+        context.dispose();
+        context = null;
+        blocked = null;
+        bits = null;
+    }
+    
+    @Test
+    public void canMoveTest() throws Exception
+    {
+        final OccupancyGrid grid = new OccupancyGrid(new boolean[9], 3, 3);
+        assertTrue(grid.canMove(0, 0, 1, 1));
+        assertTrue(grid.isOpen(1, 1));
+        
+        //the edges are blocked
+        assertFalse(grid.canMove(0, 0, -1, 0));
+        assertFalse(grid.isOpen(0, 0));
+        assertTrue(grid.isBlocked(3, 0));
+        
+        //we can't move into a blocked location, or cut the corner of one
+        final boolean[] blocked = new boolean[9];
+        blocked[1] = true;
+        final OccupancyGrid corner = new OccupancyGrid(blocked, 3, 3);
+        assertTrue(corner.isBlocked(1, 0));
+        assertFalse(corner.canMove(0, 0, 1, 0));
+        assertFalse(corner.canMove(0, 0, 1, 1));
+        assertFalse(corner.canMove(1, 0, 0, 1));
+        assertTrue(corner.canMove(0, 0, 0, 1));
+        assertFalse(corner.isOpen(1, 1));
+    }
+    
+    @Test
+    public void searchTest() throws Exception
+    {
+        final OccupancyGrid array = new OccupancyGrid(blocked, COLUMNS, ROWS);
+        final OccupancyGrid set = new OccupancyGrid(bits, COLUMNS, ROWS);
+        final List<Cell> path = new ArrayList<>();
+        
+        for (int query = 0; query < 20; query++)
+        {
+            final boolean diagonal = (query % 2 == 1);
+            final int start = RANDOM.nextInt(blocked.length);
+            final int goal = RANDOM.nextInt(blocked.length);
+            
+            //both storage types find the same path, and each mode finds the same cost
+            final boolean found = context.search(array, start % COLUMNS, start / COLUMNS, goal % COLUMNS, goal / COLUMNS, diagonal, AStar.Mode.Bidirectional);
+            final int cost = context.getPathCost();
+            //we can't move into or out of a blocked location
+            if (blocked[goal] || blocked[start] && start != goal)
+                assertFalse(found);
+            
+            assertTrue(context.search(set, start % COLUMNS, start / COLUMNS, goal % COLUMNS, goal / COLUMNS, diagonal, AStar.Mode.Bidirectional) == found);
+            assertTrue(context.getPathCost() == cost);
+            assertTrue(context.search(set, start % COLUMNS, start / COLUMNS, goal % COLUMNS, goal / COLUMNS, diagonal, AStar.Mode.JumpPoint) == found);
+            assertTrue(context.getPathCost() == cost);
+            
+            if (!found)
+                continue;
+            
+            //the path never passes through a blocked location
+            context.getPath(path);
+            
+            for (Cell cell : path)
+            {
+                assertFalse(array.isBlocked((int)cell.getCol(), (int)cell.getRow()));
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,196 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.maze.algorithm.RecursiveBacktracking;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Parallel A* unit test
+ * @author GOD
+ */
+public class ParallelAStarTest
+{
+    //object used to make random decisions
+    private static final Random RANDOM = new Random();
+    
+    //the size of the maze
+    private static final int DIMENSIONS = 40;
+    
+    //our maze object containing the rooms
+    private Maze maze;
+    
+    //our search context to compare against
+    private SearchContext context;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        ParallelAStar search = new ParallelAStar(maze.getRooms(), 2);
+        assertTrue(search.getThreads() == 2);
+        assertFalse(search.hasPath());
+        assertTrue(search.getPathCost() == -1);
+        
+        //the number of threads is limited
+        search = new ParallelAStar(maze.getRooms(), 0);
+        assertTrue(search.getThreads() == 1);
+        search = new ParallelAStar(maze.getRooms(), ParallelAStar.MAX_THREADS + 1);
+        assertTrue(search.getThreads() == ParallelAStar.MAX_THREADS);
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        ParallelAStar search = new ParallelAStar(maze.getRooms());
+        search.dispose();
+        search = null;
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        //create maze of specified dimensions
+        maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        
+        while (!maze.isGenerated())
+        {
+            maze.update(RANDOM);
+        }
+        
+        //remove some walls so there is more than 1 path
+        for (int index = 0; index < DIMENSIONS * DIMENSIONS / 4; index++)
+        {
+            maze.getRoom(RANDOM.nextInt(DIMENSIONS), RANDOM.nextInt(DIMENSIONS)).removeWall(Wall.values()[RANDOM.nextInt(4)]);
+        }
+        
+        context = new SearchContext();
+    }
+    
+    @After
+    public void tearDown()
+    {
+        context.dispose();
+        context = null;
+        maze.dispose();
+        maze = null;
+    }
+    
+    @Test
+    public void searchTest() throws Exception
+    {
+        final List<Cell> path = new ArrayList<>();
+        
+        for (int threads = 1; threads <= 4; threads++)
+        {
+            final ParallelAStar search = new ParallelAStar(maze.getRooms(), threads);
+            
+            for (int index = 0; index < 2; index++)
+            {
+                final boolean diagonal = (index == 1);
+                search.setDiagonal(diagonal);
+                
+                for (int query = 0; query < 10; query++)
+                {
+                    final int startCol = RANDOM.nextInt(DIMENSIONS);
+                    final int startRow = RANDOM.nextInt(DIMENSIONS);
+                    final int goalCol = RANDOM.nextInt(DIMENSIONS);
+                    final int goalRow = RANDOM.nextInt(DIMENSIONS);
+                    
+                    //the cost is the same as the shortest path of a single thread
+                    final boolean found = context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, diagonal, AStar.Mode.Bidirectional);
+                    assertTrue(search.search(startCol, startRow, goalCol, goalRow) == found);
+                    assertTrue(search.getPathCost() == context.getPathCost());
+                    assertTrue(search.getExpanded() > 0 || startCol == goalCol && startRow == goalRow);
+                    
+                    //the path can be followed from the start to the goal
+                    search.getPath(path);
+                    assertTrue(path.get(0).equals(goalCol, goalRow));
+                    assertTrue(path.get(path.size() - 1).equals(startCol, startRow));
+                    assertPath(path, search.getPathCost(), diagonal);
+                    
+                    //the packed path has the same locations
+                    final int[] buffer = new int[path.size()];
+                    assertTrue(search.getPath(buffer) == path.size());
+                    
+                    for (int step = 0; step < buffer.length; step++)
+                    {
+                        assertTrue(path.get(step).equals(buffer[step] % DIMENSIONS, buffer[step] / DIMENSIONS));
+                    }
+                }
+            }
+            
+            search.dispose();
+        }
+    }
+    
+    @Test
+    public void searchUnreachableTest() throws Exception
+    {
+        final ParallelAStar search = new ParallelAStar(maze.getRooms(), 3);
+        
+        //wall off the corner
+        maze.getRoom(0, 0).addAllWalls();
+        maze.getRoom(1, 0).addWall(Wall.West);
+        maze.getRoom(0, 1).addWall(Wall.North);
+        
+        //every worker runs out of nodes without reaching the goal
+        assertFalse(search.search(DIMENSIONS - 1, DIMENSIONS - 1, 0, 0));
+        assertFalse(search.hasPath());
+        assertTrue(search.getPathCost() == -1);
+        assertTrue(search.getPath(new int[1]) == 0);
+        
+        //a location outside of the rooms can't be reached
+        assertFalse(search.search(0, 0, DIMENSIONS, 0));
+        
+        //the start is the goal
+        assertTrue(search.search(1, 1, 1, 1));
+        assertTrue(search.getPathCost() == 0);
+        
+        search.dispose();
+    }
+    
+    /**
+     * Make sure each step of the path can be moved, and the cost matches
+     * @param path The path, from the goal to the start
+     * @param cost The expected cost of the path
+     * @param diagonal Do we allow diagonal movement
+     */
+    private void assertPath(final List<Cell> path, final int cost, final boolean diagonal)
+    {
+        int total = 0;
+        
+        for (int index = path.size() - 1; index > 0; index--)
+        {
+            final Cell from = path.get(index);
+            final Cell to = path.get(index - 1);
+            final int x = (int)(to.getCol() - from.getCol());
+            final int y = (int)(to.getRow() - from.getRow());
+            final Room room = maze.getRoom((int)from.getCol(), (int)from.getRow());
+            
+            assertTrue(Math.abs(x) <= 1 && Math.abs(y) <= 1);
+            assertTrue(diagonal || x == 0 || y == 0);
+            assertFalse(x > 0 && room.hasWall(Wall.East));
+            assertFalse(x < 0 && room.hasWall(Wall.West));
+            assertFalse(y < 0 && room.hasWall(Wall.North));
+            assertFalse(y > 0 && room.hasWall(Wall.South));
+            
+            total += (x != 0 && y != 0) ? AStar.MOVE_DIAGONAL : AStar.MOVE_VERTICAL_HORIZONTAL;
+        }
+        
+        assertTrue(total == cost);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,204 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.algorithm.RecursiveBacktracking;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Path Batch unit test
+ * @author GOD
+ */
+public class PathBatchTest
+{
+    //object used to make random decisions
+    private static final Random RANDOM = new Random();
+    
+    //the size of the maze
+    private static final int DIMENSIONS = 20;
+    
+    //the number of queries to test
+    private static final int QUERIES = 100;
+    
+    //our maze object containing the rooms
+    private Maze maze;
+    
+    //our batch object
+    private PathBatch batch;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        PathBatch batch = new PathBatch(maze.getRooms());
+        batch.dispose();
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        PathBatch batch = new PathBatch(maze.getRooms());
+        batch.dispose();
+        batch = null;
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        //create maze of specified dimensions
+        maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        
+        while (!maze.isGenerated())
+        {
+            maze.update(RANDOM);
+        }
+        
+        batch = new PathBatch(maze.getRooms());
+        assertNotNull(batch);
+    }
+    
+    @After
+    public void tearDown()
+    {
+        batch.dispose();
+        batch = null;
+        assertNull(batch);
+    }
+    
+    @Test
+    public void submitTest() throws Exception
+    {
+        List<Future<List<Cell>>> futures = new ArrayList<>();
+        List<AStar> expected = new ArrayList<>();
+        
+        for (int index = 0; index < QUERIES; index++)
+        {
+            final Cell start = new Cell(RANDOM.nextInt(DIMENSIONS), RANDOM.nextInt(DIMENSIONS));
+            final Cell goal = new Cell(RANDOM.nextInt(DIMENSIONS), RANDOM.nextInt(DIMENSIONS));
+            
+            futures.add(batch.submit(start, goal));
+            expected.add(new AStar(start, goal, maze.getRooms()));
+        }
+        
+        for (int index = 0; index < QUERIES; index++)
+        {
+            expected.get(index).generate();
+            
+            //each path will match a single threaded search
+            assertPath(expected.get(index).getShortestPath(), futures.get(index).get());
+        }
+    }
+    
+    @Test
+    public void solveTest() throws Exception
+    {
+        List<Cell> starts = new ArrayList<>();
+        List<Cell> goals = new ArrayList<>();
+        
+        for (int index = 0; index < QUERIES; index++)
+        {
+            starts.add(new Cell(RANDOM.nextInt(DIMENSIONS), RANDOM.nextInt(DIMENSIONS)));
+            goals.add(new Cell(RANDOM.nextInt(DIMENSIONS), RANDOM.nextInt(DIMENSIONS)));
+        }
+        
+        batch.setDiagonal(true);
+        
+        final List<List<Cell>> paths = batch.solve(starts, goals);
+        
+        assertTrue(paths.size() == QUERIES);
+        
+        for (int index = 0; index < QUERIES; index++)
+        {
+            AStar astar = new AStar(starts.get(index), goals.get(index), maze.getRooms());
+            astar.setDiagonal(true);
+            astar.generate();
+            
+            assertPath(astar.getShortestPath(), paths.get(index));
+        }
+        
+        //the number of starts and goals must match
+        goals.remove(0);
+        
+        try
+        {
+            batch.solve(starts, goals);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e);
+        }
+    }
+    
+    @Test
+    public void executorTest() throws Exception
+    {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        
+        batch.dispose();
+        batch = new PathBatch(maze.getRooms(), executor);
+        
+        assertFalse(batch.submit(0, 0, DIMENSIONS - 1, DIMENSIONS - 1).get().isEmpty());
+        
+        //the executor was assigned to us, so it is not shut down
+        batch.dispose();
+        assertFalse(executor.isShutdown());
+        executor.shutdown();
+        
+        batch = new PathBatch(maze.getRooms());
+    }
+    
+    @Test
+    public void disposeTest() throws Exception
+    {
+        List<Future<List<Cell>>> futures = new ArrayList<>();
+        
+        for (int index = 0; index < QUERIES; index++)
+        {
+            futures.add(batch.submit(0, 0, DIMENSIONS - 1, DIMENSIONS - 1));
+        }
+        
+        //dispose while the queries are still queued or running
+        batch.dispose();
+        
+        AStar astar = new AStar(0, 0, DIMENSIONS - 1, DIMENSIONS - 1, maze.getRooms());
+        astar.generate();
+        
+        //every query still completes with the rooms it was submitted with
+        for (int index = 0; index < QUERIES; index++)
+        {
+            assertPath(astar.getShortestPath(), futures.get(index).get());
+        }
+        
+        batch = new PathBatch(maze.getRooms());
+    }
+    
+    /**
+     * Make sure both paths have the same locations
+     * @param expected The path we expect
+     * @param actual The path we want to check
+     */
+    private static void assertPath(final List<Cell> expected, final List<Cell> actual)
+    {
+        assertTrue(expected.size() == actual.size());
+        
+        for (int index = 0; index < expected.size(); index++)
+        {
+            assertTrue(expected.get(index).equals(actual.get(index)));
+        }
+    }
+}
\ No newline at end of file
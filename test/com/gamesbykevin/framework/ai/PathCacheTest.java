@@ -0,0 +1,198 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.maze.algorithm.RecursiveBacktracking;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Path Cache unit test
+ * @author GOD
+ */
+public class PathCacheTest
+{
+    //object used to make random decisions
+    private static final Random RANDOM = new Random();
+    
+    //the size of the maze
+    private static final int DIMENSIONS = 10;
+    
+    //the number of paths to store
+    private static final int CAPACITY = 4;
+    
+    //our maze object containing the rooms
+    private Maze maze;
+    
+    //our cache
+    private PathCache cache;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        PathCache cache = new PathCache(maze);
+        assertTrue(cache.getCapacity() == PathCache.DEFAULT_CAPACITY);
+        
+        try
+        {
+            //the cache must store at least 1 path
+            cache = new PathCache(maze, 0);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e);
+        }
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        PathCache cache = new PathCache(maze, CAPACITY);
+        cache.dispose();
+        cache = null;
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        //create maze of specified dimensions
+        maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        
+        while (!maze.isGenerated())
+        {
+            maze.update(RANDOM);
+        }
+        
+        cache = new PathCache(maze, CAPACITY);
+        assertTrue(cache.size() == 0);
+    }
+    
+    @After
+    public void tearDown()
+    {
+        cache.dispose();
+        cache = null;
+        maze.dispose();
+        maze = null;
+    }
+    
+    @Test
+    public void getPathTest()
+    {
+        final List<Cell> path = cache.getPath(0, 0, DIMENSIONS - 1, DIMENSIONS - 1, false);
+        assertTrue(cache.getMisses() == 1);
+        assertTrue(cache.getHits() == 0);
+        
+        //the same path is returned from the cache
+        assertPath(path, cache.getPath(new Cell(0, 0), new Cell(DIMENSIONS - 1, DIMENSIONS - 1), false));
+        assertTrue(cache.getMisses() == 1);
+        assertTrue(cache.getHits() == 1);
+        
+        //the path will match a new search
+        AStar astar = new AStar(0, 0, DIMENSIONS - 1, DIMENSIONS - 1, maze.getRooms());
+        astar.generate();
+        assertTrue(astar.getShortestPath().size() == path.size());
+        
+        //the movement options are part of the key
+        cache.getPath(0, 0, DIMENSIONS - 1, DIMENSIONS - 1, true);
+        cache.getPath(0, 0, DIMENSIONS - 1, DIMENSIONS - 1, false, AStar.Mode.JumpPoint);
+        assertTrue(cache.getMisses() == 3);
+        assertTrue(cache.size() == 3);
+        
+        //changing the list or the cells we were given doesn't change the stored path
+        final List<Cell> copy = cache.getPath(0, 0, DIMENSIONS - 1, DIMENSIONS - 1, false);
+        copy.get(0).setCol(0);
+        copy.get(0).setRow(0);
+        copy.remove(copy.size() - 1);
+        assertPath(path, cache.getPath(0, 0, DIMENSIONS - 1, DIMENSIONS - 1, false));
+    }
+    
+    @Test
+    public void invalidationTest()
+    {
+        //remove every wall
+        for (int row = 0; row < DIMENSIONS; row++)
+        {
+            for (int col = 0; col < DIMENSIONS; col++)
+            {
+                maze.getRoom(col, row).removeAllWalls();
+            }
+        }
+        
+        final List<Cell> path = cache.getPath(0, 0, DIMENSIONS - 1, 0, false);
+        assertTrue(path.size() == DIMENSIONS);
+        
+        //block the path, the stored path is now out of date
+        maze.getRoom(0, 0).addWall(Wall.East);
+        
+        final List<Cell> other = cache.getPath(0, 0, DIMENSIONS - 1, 0, false);
+        assertTrue(other.size() == DIMENSIONS + 2);
+        assertTrue(cache.getInvalidations() == 1);
+        assertTrue(cache.getMisses() == 2);
+        assertTrue(cache.getHits() == 0);
+        
+        //the new path is stored
+        assertPath(other, cache.getPath(0, 0, DIMENSIONS - 1, 0, false));
+        assertTrue(cache.getHits() == 1);
+        assertTrue(cache.size() == 1);
+    }
+    
+    @Test
+    public void evictionTest()
+    {
+        //fill the cache
+        for (int col = 0; col < CAPACITY; col++)
+        {
+            cache.getPath(0, 0, col, 0, false);
+        }
+        
+        assertTrue(cache.size() == CAPACITY);
+        assertTrue(cache.getEvictions() == 0);
+        
+        //use the first path, so the second is now the least recently used
+        cache.getPath(0, 0, 0, 0, false);
+        
+        //adding another path removes the least recently used
+        cache.getPath(0, 0, CAPACITY, 0, false);
+        assertTrue(cache.size() == CAPACITY);
+        assertTrue(cache.getEvictions() == 1);
+        
+        cache.resetStatistics();
+        
+        //the first path is still stored, the second is not
+        cache.getPath(0, 0, 0, 0, false);
+        assertTrue(cache.getHits() == 1);
+        cache.getPath(0, 0, 1, 0, false);
+        assertTrue(cache.getMisses() == 1);
+        
+        cache.clear();
+        assertTrue(cache.size() == 0);
+    }
+    
+    /**
+     * Make sure both paths have the same locations
+     * @param expected The path we expect
+     * @param actual The path we want to check
+     */
+    private static void assertPath(final List<Cell> expected, final List<Cell> actual)
+    {
+        assertTrue(expected.size() == actual.size());
+        
+        for (int index = 0; index < expected.size(); index++)
+        {
+            assertTrue(expected.get(index).equals(actual.get(index)));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,189 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.maze.algorithm.RecursiveBacktracking;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+/**
+ * Reachability unit test
+ * @author GOD
+ */
+public class ReachabilityTest
+{
+    //object used to make random decisions
+    private static final Random RANDOM = new Random();
+    
+    //the size of the maze
+    private static final int DIMENSIONS = 15;
+    
+    //our maze object containing the rooms
+    private Maze maze;
+    
+    //our connected rooms
+    private Reachability reachability;
+    
+    //our search context to compare against
+    private SearchContext context;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        //every room has all walls, so every room is its own component
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        Reachability reachability = new Reachability(maze, false);
+        assertTrue(reachability.getComponentCount() == DIMENSIONS * DIMENSIONS);
+        assertTrue(reachability.getComponentSize(0, 0) == 1);
+        assertFalse(reachability.isReachable(0, 0, 1, 0));
+        assertTrue(reachability.isReachable(0, 0, 0, 0));
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        Reachability reachability = new Reachability(maze.getRooms(), true);
+        reachability.dispose();
+        reachability = null;
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        //create maze of specified dimensions
+        maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        
+        while (!maze.isGenerated())
+        {
+            maze.update(RANDOM);
+        }
+        
+        reachability = new Reachability(maze, false);
+        context = new SearchContext();
+    }
+    
+    @After
+    public void tearDown()
+    {
+        reachability.dispose();
+        reachability = null;
+        context.dispose();
+        context = null;
+        maze.dispose();
+        maze = null;
+    }
+    
+    @Test
+    public void isReachableTest()
+    {
+        //every room in a perfect maze can be reached
+        assertTrue(reachability.getComponentCount() == 1);
+        assertTrue(reachability.getComponentSize(0, 0) == DIMENSIONS * DIMENSIONS);
+        assertTrue(reachability.isReachable(0, 0, DIMENSIONS - 1, DIMENSIONS - 1));
+        
+        //a location outside of the rooms can't be reached
+        assertFalse(reachability.isReachable(0, 0, DIMENSIONS, 0));
+        assertTrue(reachability.getComponent(-1, 0) == -1);
+        assertTrue(reachability.getComponentSize(-1, 0) == 0);
+        
+        //wall off the corner
+        maze.getRoom(0, 0).addAllWalls();
+        maze.getRoom(1, 0).addWall(Wall.West);
+        maze.getRoom(0, 1).addWall(Wall.North);
+        assertTrue(reachability.isDirty());
+        
+        assertFalse(reachability.isReachable(0, 0, DIMENSIONS - 1, DIMENSIONS - 1));
+        assertFalse(reachability.isDirty());
+        assertTrue(reachability.getComponentCount() == 2);
+        assertTrue(reachability.getComponentSize(0, 0) == 1);
+        assertTrue(reachability.getComponentSize(1, 1) == DIMENSIONS * DIMENSIONS - 1);
+    }
+    
+    @Test
+    public void onWallChangeTest()
+    {
+        for (int index = 0; index < 2; index++)
+        {
+            final boolean diagonal = (index == 1);
+            
+            reachability.dispose();
+            reachability = new Reachability(maze, diagonal);
+            
+            for (int change = 0; change < 200; change++)
+            {
+                //toggle a few walls, sometimes only on 1 side
+                for (int count = RANDOM.nextInt(3) + 1; count > 0; count--)
+                {
+                    final Room room = maze.getRoom(RANDOM.nextInt(DIMENSIONS), RANDOM.nextInt(DIMENSIONS));
+                    final Wall wall = Wall.values()[RANDOM.nextInt(4)];
+                    
+                    if (!room.removeWall(wall))
+                        room.addWall(wall);
+                }
+                
+                //the labels match a new labeling of the rooms
+                final Reachability expected = new Reachability(maze.getRooms(), diagonal);
+                assertTrue(reachability.getComponentCount() == expected.getComponentCount());
+                
+                for (int cell = 0; cell < DIMENSIONS * DIMENSIONS; cell++)
+                {
+                    final int col = cell % DIMENSIONS;
+                    final int row = cell / DIMENSIONS;
+                    
+                    assertTrue(reachability.getComponentSize(col, row) == expected.getComponentSize(col, row));
+                    
+                    for (int other = cell + 1; other < DIMENSIONS * DIMENSIONS; other++)
+                    {
+                        final boolean same = (expected.getComponent(col, row) == expected.getComponent(other % DIMENSIONS, other / DIMENSIONS));
+                        assertTrue(same == reachability.isReachable(col, row, other % DIMENSIONS, other / DIMENSIONS));
+                    }
+                }
+                
+                expected.dispose();
+            }
+            
+            //if the goal can't be reached, there is never a path
+            for (int query = 0; query < 100; query++)
+            {
+                final int startCol = RANDOM.nextInt(DIMENSIONS);
+                final int startRow = RANDOM.nextInt(DIMENSIONS);
+                final int goalCol = RANDOM.nextInt(DIMENSIONS);
+                final int goalRow = RANDOM.nextInt(DIMENSIONS);
+                
+                if (!reachability.isReachable(startCol, startRow, goalCol, goalRow))
+                    assertFalse(context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, diagonal));
+            }
+        }
+    }
+    
+    @Test
+    public void generateTest()
+    {
+        final long visited = reachability.getVisited();
+        
+        //every room is checked again
+        reachability.generate();
+        assertTrue(reachability.getVisited() - visited == DIMENSIONS * DIMENSIONS);
+        
+        //joining 2 components only checks the smaller component
+        maze.getRoom(0, 0).addAllWalls();
+        maze.getRoom(1, 0).addWall(Wall.West);
+        maze.getRoom(0, 1).addWall(Wall.North);
+        reachability.generate();
+        
+        final long before = reachability.getVisited();
+        maze.getRoom(0, 0).removeWall(Wall.East);
+        maze.getRoom(1, 0).removeWall(Wall.West);
+        assertTrue(reachability.isReachable(0, 0, DIMENSIONS - 1, DIMENSIONS - 1));
+        assertTrue(reachability.getVisited() - before == 1);
+    }
+}
\ No newline at end of file
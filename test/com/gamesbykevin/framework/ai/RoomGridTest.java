@@ -0,0 +1,99 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.maze.algorithm.RecursiveBacktracking;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+/**
+ * Room grid unit test
+ * @author GOD
+ */
+public class RoomGridTest
+{
+    //object used to make random decisions
+    private static final Random RANDOM = new Random();
+    
+    //the size of the maze
+    private static final int COLUMNS = 12, ROWS = 8;
+    
+    //our maze object containing the rooms
+    private Maze maze;
+    
+    //our grid of the rooms
+    private RoomGrid grid;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        Maze maze = new RecursiveBacktracking(COLUMNS, ROWS);
+        RoomGrid grid = new RoomGrid(maze.getRooms());
+        assertTrue(grid.getRooms() == maze.getRooms());
+        assertTrue(grid.getColumns() == COLUMNS);
+        assertTrue(grid.getRows() == ROWS);
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        //create maze of specified dimensions
+        maze = new RecursiveBacktracking(COLUMNS, ROWS);
+        
+        while (!maze.isGenerated())
+        {
+            maze.update(RANDOM);
+        }
+        
+        grid = new RoomGrid(maze.getRooms());
+    }
+    
+    @After
+    public void tearDown()
+    {
+        grid = null;
+        maze.dispose();
+        maze = null;
+    }
+    
+    @Test
+    public void canMoveTest()
+    {
+        for (int row = 0; row < ROWS; row++)
+        {
+            for (int col = 0; col < COLUMNS; col++)
+            {
+                //we can move through every side without a wall that stays in bounds
+                assertTrue(grid.canMove(col, row, 1, 0) == (col < COLUMNS - 1 && !maze.getRoom(col, row).hasWall(Wall.East)));
+                assertTrue(grid.canMove(col, row, -1, 0) == (col > 0 && !maze.getRoom(col, row).hasWall(Wall.West)));
+                assertTrue(grid.canMove(col, row, 0, -1) == (row > 0 && !maze.getRoom(col, row).hasWall(Wall.North)));
+                assertTrue(grid.canMove(col, row, 0, 1) == (row < ROWS - 1 && !maze.getRoom(col, row).hasWall(Wall.South)));
+                
+                //a diagonal move needs both sides open
+                assertTrue(grid.canMove(col, row, 1, 1) == (grid.canMove(col, row, 1, 0) && grid.canMove(col, row, 0, 1)));
+                
+                //a room is open only when it has no walls
+                assertTrue(grid.isOpen(col, row) == (maze.getRoom(col, row).getWallMask() == Room.WALLS_NONE));
+            }
+        }
+        
+        //a room without walls is open
+        maze.getRoom(1, 1).removeAllWalls();
+        assertTrue(grid.isOpen(1, 1));
+        assertFalse(grid.isOpen(-1, 0));
+        assertFalse(grid.canMove(COLUMNS, 0, -1, 0));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,490 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.base.Cell;
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.MazeHelper;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.algorithm.RecursiveBacktracking;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Search Context unit test
+ * @author GOD
+ */
+public class SearchContextTest
+{
+    //object used to make random decisions
+    private static final Random RANDOM = new Random();
+    
+    //the size of the maze
+    private static final int DIMENSIONS = 10;
+    
+    //our maze object containing the rooms
+    private Maze maze;
+    
+    //our search context
+    private SearchContext context;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        SearchContext context = new SearchContext();
+        assertTrue(context.getCapacity() == 0);
+        
+        context = new SearchContext(DIMENSIONS * DIMENSIONS);
+        assertTrue(context.getCapacity() == DIMENSIONS * DIMENSIONS);
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+        SearchContext context = new SearchContext(DIMENSIONS * DIMENSIONS);
+        context.dispose();
+        context = null;
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        //create maze of specified dimensions
+        maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        
+        while (!maze.isGenerated())
+        {
+            maze.update(RANDOM);
+        }
+        
+        //calculate cost and find finish
+        MazeHelper.locateFinish(maze);
+        
+        context = new SearchContext(DIMENSIONS * DIMENSIONS);
+    }
+    
+    @After
+    public void tearDown()
+    {
+        context.dispose();
+        context = null;
+        maze.dispose();
+        maze = null;
+    }
+    
+    @Test
+    public void searchTest()
+    {
+        assertTrue(context.search(maze.getRooms(), maze.getStartCol(), maze.getStartRow(), maze.getFinishCol(), maze.getFinishRow(), false));
+        assertTrue(context.hasPath());
+        
+        //a location outside of the rooms can't be reached
+        assertFalse(context.search(maze.getRooms(), maze.getStartCol(), maze.getStartRow(), DIMENSIONS, 0, false));
+        assertFalse(context.hasPath());
+        assertTrue(context.getPathCost() == -1);
+    }
+    
+    @Test
+    public void getPathTest()
+    {
+        final List<Cell> path = new ArrayList<>();
+        
+        context.search(maze.getRooms(), maze.getStartCol(), maze.getStartRow(), maze.getFinishCol(), maze.getFinishRow(), false);
+        context.getPath(path);
+        
+        //the first cell is the goal and the last cell is the start
+        assertTrue(path.get(0).equals(maze.getFinishCol(), maze.getFinishRow()));
+        assertTrue(path.get(path.size() - 1).equals(maze.getStartCol(), maze.getStartRow()));
+        
+        //the cost in a perfect maze is the distance calculated from the start
+        final int cost = maze.getRoom(maze.getFinishCol(), maze.getFinishRow()).getCost();
+        assertTrue(path.size() == cost + 1);
+        assertTrue(context.getPathCost() == cost * AStar.MOVE_VERTICAL_HORIZONTAL);
+    }
+    
+    @Test
+    public void stepTest()
+    {
+        final List<Cell> expected = new ArrayList<>();
+        final List<Cell> path = new ArrayList<>();
+        final SearchContext other = new SearchContext();
+        
+        for (AStar.Mode mode : AStar.Mode.values())
+        {
+            for (int index = 0; index < 50; index++)
+            {
+                final int startCol = RANDOM.nextInt(DIMENSIONS);
+                final int startRow = RANDOM.nextInt(DIMENSIONS);
+                final int goalCol = RANDOM.nextInt(DIMENSIONS);
+                final int goalRow = RANDOM.nextInt(DIMENSIONS);
+                final boolean diagonal = RANDOM.nextBoolean();
+                
+                other.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, diagonal, mode);
+                other.getPath(expected);
+                
+                context.begin(maze.getRooms(), startCol, startRow, goalCol, goalRow, diagonal, mode);
+                
+                //no nodes are expanded until we step
+                assertTrue(context.getExpanded() == 0);
+                
+                //a small budget each step
+                while (!context.step(2))
+                {
+                    assertFalse(context.isComplete());
+                    assertTrue(context.getExpanded() > 0);
+                    
+                    //the partial path always leads back to the start
+                    context.getPartialPath(path);
+                    assertFalse(path.isEmpty());
+                    assertTrue(path.get(path.size() - 1).equals(startCol, startRow));
+                }
+                
+                //the result is the same as searching all at once
+                assertTrue(context.isComplete());
+                assertTrue(context.hasPath());
+                assertTrue(context.getPathCost() == other.getPathCost());
+                assertTrue(context.getExpanded() == other.getExpanded());
+                
+                //once complete the partial path is the shortest path
+                context.getPartialPath(path);
+                assertTrue(path.size() == expected.size());
+                assertTrue(path.get(0).equals(goalCol, goalRow));
+            }
+        }
+        
+        //a location outside of the rooms is complete right away
+        context.begin(maze.getRooms(), 0, 0, DIMENSIONS, 0, false, AStar.Mode.Standard);
+        assertTrue(context.isComplete());
+        assertTrue(context.step(1));
+        assertFalse(context.hasPath());
+        context.getPartialPath(path);
+        assertTrue(path.isEmpty());
+    }
+    
+    @Test
+    public void cancelTest()
+    {
+        final List<Cell> path = new ArrayList<>();
+        
+        context.begin(maze.getRooms(), maze.getStartCol(), maze.getStartRow(), maze.getFinishCol(), maze.getFinishRow(), false, AStar.Mode.Standard);
+        assertFalse(context.isComplete());
+        
+        //the search is complete without a path
+        context.cancel();
+        assertTrue(context.isComplete());
+        assertTrue(context.step(1));
+        assertFalse(context.hasPath());
+        assertTrue(context.getExpanded() == 0);
+        
+        //the partial path is only the start
+        context.getPartialPath(path);
+        assertTrue(path.size() == 1);
+        assertTrue(path.get(0).equals(maze.getStartCol(), maze.getStartRow()));
+    }
+    
+    @Test
+    public void getPathBufferTest()
+    {
+        final List<Cell> path = new ArrayList<>();
+        final int[] buffer = new int[DIMENSIONS * DIMENSIONS];
+        final int[] waypoints = new int[DIMENSIONS * DIMENSIONS];
+        
+        //remove some walls so there are diagonal moves and straight runs
+        for (int index = 0; index < DIMENSIONS * 4; index++)
+        {
+            maze.getRoom(RANDOM.nextInt(DIMENSIONS), RANDOM.nextInt(DIMENSIONS)).removeWall(Room.Wall.values()[RANDOM.nextInt(4)]);
+        }
+        
+        for (AStar.Mode mode : AStar.Mode.values())
+        {
+            for (int index = 0; index < 2; index++)
+            {
+                final boolean diagonal = (index == 1);
+                
+                context.search(maze.getRooms(), 0, 0, DIMENSIONS - 1, DIMENSIONS - 1, diagonal, mode);
+                context.getPath(path);
+                
+                //the packed path has the same locations as the list
+                final int length = context.getPath(buffer);
+                assertTrue(length == path.size());
+                
+                for (int step = 0; step < length; step++)
+                {
+                    assertTrue(path.get(step).equals(buffer[step] % DIMENSIONS, buffer[step] / DIMENSIONS));
+                }
+                
+                //the waypoints start at the goal and end at the start
+                final int count = context.getWaypoints(waypoints);
+                assertTrue(count >= 2 && count <= length);
+                assertTrue(waypoints[0] == buffer[0]);
+                assertTrue(waypoints[count - 1] == buffer[length - 1]);
+                
+                //moving straight between each waypoint follows the path
+                int step = 0;
+                
+                for (int waypoint = 1; waypoint < count; waypoint++)
+                {
+                    final int x = Integer.signum((waypoints[waypoint] % DIMENSIONS) - (waypoints[waypoint - 1] % DIMENSIONS));
+                    final int y = Integer.signum((waypoints[waypoint] / DIMENSIONS) - (waypoints[waypoint - 1] / DIMENSIONS));
+                    
+                    while (buffer[step] != waypoints[waypoint])
+                    {
+                        assertTrue(buffer[step + 1] == buffer[step] + x + (y * DIMENSIONS));
+                        step++;
+                    }
+                }
+                
+                assertTrue(step == length - 1);
+            }
+        }
+        
+        //a buffer that is too small only stores the locations that fit
+        final int[] small = new int[2];
+        assertTrue(context.getPath(small) == path.size());
+        assertTrue(small[1] == buffer[1]);
+        
+        //there is no path to a location outside of the rooms
+        context.search(maze.getRooms(), 0, 0, DIMENSIONS, 0, false);
+        assertTrue(context.getPath(buffer) == 0);
+        assertTrue(context.getWaypoints(waypoints) == 0);
+    }
+    
+    @Test
+    public void getPathUnreachableTest() throws Exception
+    {
+        //every room has all 4 walls, so the goal can't be reached
+        final Maze closed = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        final int[] buffer = new int[DIMENSIONS * DIMENSIONS];
+        
+        for (AStar.Mode mode : AStar.Mode.values())
+        {
+            //a new context has never followed a path
+            final SearchContext other = new SearchContext();
+            
+            assertFalse(other.search(closed.getRooms(), 0, 0, DIMENSIONS - 1, DIMENSIONS - 1, false, mode));
+            assertTrue(other.getPath(buffer) == 0);
+            assertTrue(other.getWaypoints(buffer) == 0);
+            
+            other.dispose();
+        }
+        
+        closed.dispose();
+    }
+    
+    @Test
+    public void sharedTest()
+    {
+        final List<Cell> path = new ArrayList<>();
+        
+        //many searches with the same context will give the same result as a new context each time
+        for (int index = 0; index < 100; index++)
+        {
+            final int startCol = RANDOM.nextInt(DIMENSIONS);
+            final int startRow = RANDOM.nextInt(DIMENSIONS);
+            final int goalCol = RANDOM.nextInt(DIMENSIONS);
+            final int goalRow = RANDOM.nextInt(DIMENSIONS);
+            
+            final SearchContext tmp = new SearchContext();
+            
+            assertTrue(tmp.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, false));
+            assertTrue(context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, false));
+            assertTrue(tmp.getPathCost() == context.getPathCost());
+            
+            context.getPath(path);
+            assertTrue(path.get(0).equals(goalCol, goalRow));
+        }
+    }
+    
+    @Test
+    public void jumpPointTest()
+    {
+        //open rooms with a few random walls, so there are many paths of the same length
+        for (int row = 0; row < DIMENSIONS; row++)
+        {
+            for (int col = 0; col < DIMENSIONS; col++)
+            {
+                maze.getRoom(col, row).removeAllWalls();
+                
+                if (RANDOM.nextInt(10) == 0)
+                    maze.getRoom(col, row).addWall(Room.Wall.values()[RANDOM.nextInt(Room.Wall.values().length)]);
+            }
+        }
+        
+        final List<Cell> path = new ArrayList<>();
+        
+        for (int index = 0; index < 100; index++)
+        {
+            final int startCol = RANDOM.nextInt(DIMENSIONS);
+            final int startRow = RANDOM.nextInt(DIMENSIONS);
+            final int goalCol = RANDOM.nextInt(DIMENSIONS);
+            final int goalRow = RANDOM.nextInt(DIMENSIONS);
+            
+            //without diagonal movement the standard search finds the shortest path, jump point search must find the same cost
+            context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, false, AStar.Mode.Standard);
+            final int cost = context.getPathCost();
+            final int expanded = context.getExpanded();
+            
+            context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, false, AStar.Mode.JumpPoint);
+            assertTrue(context.getPathCost() == cost);
+            assertTrue(context.getExpanded() <= expanded);
+            
+            //every step in the path is to a neighbor
+            context.getPath(path);
+            
+            if (cost >= 0)
+            {
+                assertTrue(path.size() == (cost / AStar.MOVE_VERTICAL_HORIZONTAL) + 1);
+                assertTrue(path.get(0).equals(goalCol, goalRow));
+                assertTrue(path.get(path.size() - 1).equals(startCol, startRow));
+            }
+        }
+    }
+    
+    @Test
+    public void bidirectionalTest()
+    {
+        final List<Cell> expected = new ArrayList<>();
+        final List<Cell> path = new ArrayList<>();
+        
+        for (int index = 0; index < 100; index++)
+        {
+            final int startCol = RANDOM.nextInt(DIMENSIONS);
+            final int startRow = RANDOM.nextInt(DIMENSIONS);
+            final int goalCol = RANDOM.nextInt(DIMENSIONS);
+            final int goalRow = RANDOM.nextInt(DIMENSIONS);
+            
+            context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, false, AStar.Mode.Standard);
+            context.getPath(expected);
+            
+            //a perfect maze only has 1 path, so the bidirectional search will find the same path
+            assertTrue(context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, false, AStar.Mode.Bidirectional));
+            context.getPath(path);
+            
+            assertTrue(path.size() == expected.size());
+            
+            for (int cell = 0; cell < path.size(); cell++)
+            {
+                assertTrue(path.get(cell).equals(expected.get(cell)));
+            }
+        }
+        
+        //open rooms with a few random walls, so there are many paths of the same length
+        for (int row = 0; row < DIMENSIONS; row++)
+        {
+            for (int col = 0; col < DIMENSIONS; col++)
+            {
+                maze.getRoom(col, row).removeAllWalls();
+                
+                if (RANDOM.nextInt(5) == 0)
+                    maze.getRoom(col, row).addWall(Room.Wall.values()[RANDOM.nextInt(Room.Wall.values().length)]);
+            }
+        }
+        
+        for (int index = 0; index < 100; index++)
+        {
+            final int startCol = RANDOM.nextInt(DIMENSIONS);
+            final int startRow = RANDOM.nextInt(DIMENSIONS);
+            final int goalCol = RANDOM.nextInt(DIMENSIONS);
+            final int goalRow = RANDOM.nextInt(DIMENSIONS);
+            
+            //without diagonal movement the standard search finds the shortest path, the bidirectional search must find the same cost
+            context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, false, AStar.Mode.Standard);
+            final int cost = context.getPathCost();
+            
+            context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, false, AStar.Mode.Bidirectional);
+            assertTrue(context.getPathCost() == cost);
+            
+            context.getPath(path);
+            
+            if (cost >= 0)
+            {
+                //the path is stitched together from the goal to the start
+                assertTrue(path.size() == (cost / AStar.MOVE_VERTICAL_HORIZONTAL) + 1);
+                assertTrue(path.get(0).equals(goalCol, goalRow));
+                assertTrue(path.get(path.size() - 1).equals(startCol, startRow));
+                
+                //every step in the path is to a neighbor
+                for (int cell = 1; cell < path.size(); cell++)
+                {
+                    final double columns = Math.abs(path.get(cell).getCol() - path.get(cell - 1).getCol());
+                    final double rows = Math.abs(path.get(cell).getRow() - path.get(cell - 1).getRow());
+                    
+                    assertTrue(columns + rows == 1);
+                }
+            }
+            else
+            {
+                assertTrue(path.isEmpty());
+            }
+        }
+    }
+    
+    @Test
+    public void searchNearestTest()
+    {
+        final int[] goals = new int[5];
+        final List<Cell> path = new ArrayList<>();
+        
+        for (int query = 0; query < 20; query++)
+        {
+            final boolean diagonal = (query % 2 == 1);
+            final int startCol = RANDOM.nextInt(DIMENSIONS);
+            final int startRow = RANDOM.nextInt(DIMENSIONS);
+            
+            //the cheapest of a search to each goal
+            int cheapest = Integer.MAX_VALUE;
+            
+            for (int index = 0; index < goals.length; index++)
+            {
+                goals[index] = RANDOM.nextInt(DIMENSIONS * DIMENSIONS);
+                assertTrue(context.search(maze.getRooms(), startCol, startRow, goals[index] % DIMENSIONS, goals[index] / DIMENSIONS, diagonal, AStar.Mode.Bidirectional));
+                cheapest = Math.min(cheapest, context.getPathCost());
+            }
+            
+            //a single search reaches the nearest goal
+            final int nearest = context.searchNearest(maze.getRooms(), startCol, startRow, goals, goals.length, diagonal);
+            assertTrue(nearest >= 0);
+            assertTrue(context.hasPath());
+            assertTrue(context.getPathCost() == cheapest);
+            
+            //the path leads from the start to the goal reached
+            context.getPath(path);
+            assertTrue(path.get(0).equals(goals[nearest] % DIMENSIONS, goals[nearest] / DIMENSIONS));
+            assertTrue(path.get(path.size() - 1).equals(startCol, startRow));
+        }
+        
+        //only the goals counted are used, and a goal out of bounds is never reached
+        goals[0] = -1;
+        goals[1] = DIMENSIONS * DIMENSIONS;
+        assertTrue(context.searchNearest(maze.getRooms(), 0, 0, goals, 2, false) == -1);
+        assertFalse(context.hasPath());
+        assertTrue(context.searchNearest(maze.getRooms(), 0, 0, goals, 0, false) == -1);
+        
+        //the start can be a goal
+        goals[2] = 0;
+        assertTrue(context.searchNearest(maze.getRooms(), 0, 0, goals, 3, true) == 2);
+        assertTrue(context.getPathCost() == 0);
+        
+        //a single goal search afterwards only uses its own goal
+        assertTrue(context.search(maze.getRooms(), 0, 0, DIMENSIONS - 1, DIMENSIONS - 1, false));
+        context.getPath(path);
+        assertTrue(path.get(0).equals(DIMENSIONS - 1, DIMENSIONS - 1));
+    }
+    
+    @Test
+    public void disposeTest()
+    {
+        context.search(maze.getRooms(), maze.getStartCol(), maze.getStartRow(), maze.getFinishCol(), maze.getFinishRow(), false);
+        context.dispose();
+        
+        //the rooms are shared, so they are not disposed
+        assertNotNull(maze.getRoom(0, 0).getWalls());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.gamesbykevin.framework.ai;
+
+import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.maze.algorithm.RecursiveBacktracking;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+/**
+ * Wall mask grid unit test
+ * @author GOD
+ */
+public class WallMaskGridTest
+{
+    //object used to make random decisions
+    private static final Random RANDOM = new Random();
+    
+    //the size of the maze
+    private static final int DIMENSIONS = 30;
+    
+    //our maze object containing the rooms
+    private Maze maze;
+    
+    //our search context
+    private SearchContext context;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        WallMaskGrid grid = new WallMaskGrid(new byte[DIMENSIONS * 2], DIMENSIONS, 2);
+        assertTrue(grid.getColumns() == DIMENSIONS);
+        assertTrue(grid.getRows() == 2);
+        assertTrue(grid.getMasks().length == DIMENSIONS * 2);
+        
+        //each wall has a different bit
+        assertTrue(WallMaskGrid.getBit(Wall.North) == WallMaskGrid.NORTH);
+        assertTrue(WallMaskGrid.getBit(Wall.South) == WallMaskGrid.SOUTH);
+        assertTrue(WallMaskGrid.getBit(Wall.West) == WallMaskGrid.WEST);
+        assertTrue(WallMaskGrid.getBit(Wall.East) == WallMaskGrid.EAST);
+        assertTrue((WallMaskGrid.NORTH | WallMaskGrid.SOUTH | WallMaskGrid.WEST | WallMaskGrid.EAST) == 15);
+        
+        //the number of locations must match the dimensions
+        try
+        {
+            grid = new WallMaskGrid(new byte[DIMENSIONS], DIMENSIONS, 2);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        //create maze of specified dimensions
+        maze = new RecursiveBacktracking(DIMENSIONS, DIMENSIONS);
+        
+        while (!maze.isGenerated())
+        {
+            maze.update(RANDOM);
+        }
+        
+        //remove some walls so there is more than 1 path
+        for (int index = 0; index < DIMENSIONS * DIMENSIONS / 4; index++)
+        {
+            maze.getRoom(RANDOM.nextInt(DIMENSIONS), RANDOM.nextInt(DIMENSIONS)).removeWall(Wall.values()[RANDOM.nextInt(4)]);
+        }
+        
+        context = new SearchContext();
+    }
+    
+    @After
+    public void tearDown()
+    {
+        context.dispose();
+        context = null;
+        maze.dispose();
+        maze = null;
+    }
+    
+    @Test
+    public void canMoveTest() throws Exception
+    {
+        final WallMaskGrid grid = new WallMaskGrid(maze.getRooms());
+        final RoomGrid rooms = new RoomGrid(maze.getRooms());
+        
+        //every move is the same as the rooms
+        for (int row = 0; row < DIMENSIONS; row++)
+        {
+            for (int col = 0; col < DIMENSIONS; col++)
+            {
+                for (int y = -1; y <= 1; y++)
+                {
+                    for (int x = -1; x <= 1; x++)
+                    {
+                        assertTrue(grid.canMove(col, row, x, y) == rooms.canMove(col, row, x, y));
+                    }
+                }
+                
+                assertTrue(grid.isOpen(col, row) == rooms.isOpen(col, row));
+            }
+        }
+        
+        //the grid is a copy, so a change to the masks is seen but a change to the rooms is not
+        grid.getMasks()[0] = 0;
+        assertTrue(grid.isOpen(0, 0));
+        maze.getRoom(1, 0).removeAllWalls();
+        assertFalse(grid.isOpen(1, 0));
+    }
+    
+    @Test
+    public void searchTest() throws Exception
+    {
+        final WallMaskGrid grid = new WallMaskGrid(maze.getRooms());
+        
+        for (int query = 0; query < 20; query++)
+        {
+            final boolean diagonal = (query % 2 == 1);
+            final int startCol = RANDOM.nextInt(DIMENSIONS);
+            final int startRow = RANDOM.nextInt(DIMENSIONS);
+            final int goalCol = RANDOM.nextInt(DIMENSIONS);
+            final int goalRow = RANDOM.nextInt(DIMENSIONS);
+            
+            //the path costs the same as searching the rooms
+            assertTrue(context.search(maze.getRooms(), startCol, startRow, goalCol, goalRow, diagonal, AStar.Mode.Bidirectional));
+            final int cost = context.getPathCost();
+            assertTrue(context.search(grid, startCol, startRow, goalCol, goalRow, diagonal, AStar.Mode.Bidirectional));
+            assertTrue(context.getPathCost() == cost);
+            
+            //the same as an A* of the grid
+            final AStar astar = new AStar(startCol, startRow, goalCol, goalRow, grid);
+            astar.setDiagonal(diagonal);
+            astar.setMode(AStar.Mode.Bidirectional);
+            astar.generate();
+            assertTrue(astar.getGrid() == grid);
+            assertTrue(astar.getShortestPath().size() == context.getPath(new int[0]));
+            astar.dispose();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,237 @@
+package com.gamesbykevin.framework.maze;
+
+import com.gamesbykevin.framework.maze.Room.Wall;
+import com.gamesbykevin.framework.maze.algorithm.RecursiveBacktracking;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Bit flood unit test
+ * @author GOD
+ */
+public class BitFloodTest
+{
+    //object used to make random decisions
+    private static final Random RANDOM = new Random();
+    
+    //the size of the grid, wider than 1 word
+    private static final int COLUMNS = 150;
+    private static final int ROWS = 40;
+    
+    //our maze object containing the rooms
+    private Maze maze;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        BitFlood flood = new BitFlood(COLUMNS, ROWS);
+        assertTrue(flood.getColumns() == COLUMNS);
+        assertTrue(flood.getRows() == ROWS);
+        assertTrue(flood.getFarthest() == -1);
+        
+        //the grid must have at least 1 location
+        try
+        {
+            flood = new BitFlood(0, ROWS);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+        BitFlood flood = new BitFlood(COLUMNS, ROWS);
+        flood.dispose();
+        flood = null;
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        //create maze of specified dimensions
+        maze = new RecursiveBacktracking(COLUMNS, ROWS);
+        
+        while (!maze.isGenerated())
+        {
+            maze.update(RANDOM);
+        }
+        
+        //remove some walls so there is more than 1 path
+        for (int index = 0; index < COLUMNS * ROWS / 4; index++)
+        {
+            final int col = RANDOM.nextInt(COLUMNS - 1);
+            final int row = RANDOM.nextInt(ROWS - 1);
+            
+            MazeHelper.joinRooms(maze.getRoom(col, row), RANDOM.nextBoolean() ? maze.getRoom(col + 1, row) : maze.getRoom(col, row + 1));
+        }
+    }
+    
+    @After
+    public void tearDown()
+    {
+        maze.dispose();
+        maze = null;
+    }
+    
+    @Test
+    public void fillTest() throws Exception
+    {
+        final BitFlood flood = new BitFlood(COLUMNS, ROWS);
+        final boolean[] blocked = new boolean[COLUMNS * ROWS];
+        final int[] distances = new int[COLUMNS * ROWS];
+        
+        //block random locations
+        for (int index = 0; index < blocked.length / 3; index++)
+        {
+            final int cell = RANDOM.nextInt(blocked.length);
+            blocked[cell] = true;
+            flood.setBlocked(cell % COLUMNS, cell / COLUMNS, true);
+        }
+        
+        for (int query = 0; query < 20; query++)
+        {
+            final int col = RANDOM.nextInt(COLUMNS);
+            final int row = RANDOM.nextInt(ROWS);
+            
+            //the distances are the same as a breadth first search
+            final int[] expected = getDistances(blocked, col, row);
+            final int reached = flood.fill(col, row, distances);
+            int count = 0, farthest = -1;
+            
+            for (int cell = 0; cell < distances.length; cell++)
+            {
+                assertTrue(distances[cell] == expected[cell]);
+                assertTrue(flood.isReachable(cell % COLUMNS, cell / COLUMNS) == (expected[cell] >= 0));
+                
+                if (expected[cell] >= 0)
+                    count++;
+                
+                farthest = Math.max(farthest, expected[cell]);
+            }
+            
+            assertTrue(reached == count);
+            assertTrue(flood.getFarthest() == farthest);
+        }
+        
+        //a blocked start can't reach anything
+        flood.setBlocked(0, 0, true);
+        assertTrue(flood.isBlocked(0, 0));
+        assertTrue(flood.fill(0, 0) == 0);
+        assertFalse(flood.isReachable(0, 0));
+        
+        //a location outside of the grid is blocked
+        assertTrue(flood.isBlocked(COLUMNS, 0));
+        assertTrue(flood.fill(-1, 0) == 0);
+        
+        //the distances must have room for every location
+        try
+        {
+            flood.fill(1, 1, new int[1]);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+        
+        flood.dispose();
+    }
+    
+    @Test
+    public void setWallsTest() throws Exception
+    {
+        final BitFlood flood = new BitFlood(maze.getRooms());
+        final int[] distances = new int[COLUMNS * ROWS];
+        
+        for (int query = 0; query < 10; query++)
+        {
+            maze.setStartLocation(RANDOM.nextInt(COLUMNS), RANDOM.nextInt(ROWS));
+            
+            //the distances are the same as the cost of each room
+            MazeHelper.calculateCost(maze);
+            assertTrue(flood.fill(maze.getStartCol(), maze.getStartRow(), distances) == COLUMNS * ROWS);
+            
+            for (int row = 0; row < ROWS; row++)
+            {
+                for (int col = 0; col < COLUMNS; col++)
+                {
+                    assertTrue(distances[row * COLUMNS + col] == maze.getRoom(col, row).getCost());
+                }
+            }
+        }
+        
+        //wall off the corner
+        maze.getRoom(0, 0).addAllWalls();
+        maze.getRoom(1, 0).addWall(Wall.West);
+        maze.getRoom(0, 1).addWall(Wall.North);
+        flood.setWalls(maze.getRooms());
+        
+        assertTrue(flood.fill(0, 0) == 1);
+        assertTrue(flood.fill(COLUMNS - 1, ROWS - 1) == COLUMNS * ROWS - 1);
+        assertFalse(flood.isReachable(0, 0));
+        
+        //the rooms must be the same size
+        try
+        {
+            flood.setWalls(new RecursiveBacktracking(COLUMNS, 1).getRooms());
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+        
+        flood.dispose();
+    }
+    
+    /**
+     * Get the number of steps to each location with a breadth first search
+     * @param blocked The locations that can't be entered
+     * @param col Starting column
+     * @param row Starting row
+     * @return The number of steps to each location, -1 if not reached
+     */
+    private int[] getDistances(final boolean[] blocked, final int col, final int row)
+    {
+        final int[] distances = new int[blocked.length];
+        Arrays.fill(distances, -1);
+        
+        if (blocked[row * COLUMNS + col])
+            return distances;
+        
+        final ArrayDeque<Integer> options = new ArrayDeque<>();
+        distances[row * COLUMNS + col] = 0;
+        options.add(row * COLUMNS + col);
+        
+        while (!options.isEmpty())
+        {
+            final int cell = options.poll();
+            final int x = cell % COLUMNS, y = cell / COLUMNS;
+            final int[] neighbors = {x > 0 ? cell - 1 : -1, x + 1 < COLUMNS ? cell + 1 : -1, y > 0 ? cell - COLUMNS : -1, y + 1 < ROWS ? cell + COLUMNS : -1};
+            
+            for (int neighbor : neighbors)
+            {
+                if (neighbor < 0 || blocked[neighbor] || distances[neighbor] >= 0)
+                    continue;
+                
+                distances[neighbor] = distances[cell] + 1;
+                options.add(neighbor);
+            }
+        }
+        
+        return distances;
+    }
+}
\ No newline at end of file
@@ -46,18 +46,18 @@ public class MazeHelperTest extends MazeTest
         
         Room room1 = getMaze().getRoom(0, 0);
         Room room2 = getMaze().getRoom(1, 0);
-
+        
         assertTrue(room1.getWalls().size() == Wall.values().length);
         assertTrue(room2.getWalls().size() == Wall.values().length);
-
+        
         MazeHelper.joinRooms(room1, room2);
-
+        
         assertFalse(room1.getWalls().size() == Wall.values().length);
         assertFalse(room2.getWalls().size() == Wall.values().length);
-
+        
         assertTrue(room1.getWalls().size() == Wall.values().length - 1);
         assertTrue(room2.getWalls().size() == Wall.values().length - 1);
-
+        
         assertFalse(room1.hasWall(Wall.East));
         assertFalse(room2.hasWall(Wall.West));
         
@@ -159,6 +159,54 @@ public class MazeHelperTest extends MazeTest
         }
     }
     
+    @Test
+    public void calculateCostFloodTest() throws Exception
+    {
+        while (!getMaze().isGenerated())
+        {
+            getMaze().update(getRandom());
+        }
+        
+        getMaze().setStartLocation(getRandom().nextInt(getMaze().getCols()), getRandom().nextInt(getMaze().getRows()));
+        
+        //calculate the cost
+        MazeHelper.calculateCost(getMaze());
+        
+        final int[] costs = new int[getMaze().getCols() * getMaze().getRows()];
+        
+        for (int row = 0; row < getMaze().getRows(); row++)
+        {
+            for (int col = 0; col < getMaze().getCols(); col++)
+            {
+                costs[row * getMaze().getCols() + col] = getMaze().getRoom(col, row).getCost();
+                getMaze().getRoom(col, row).setCost(-1);
+            }
+        }
+        
+        //the flood assigns the same cost to every room
+        MazeHelper.calculateCost(getMaze(), new BitFlood(getMaze().getRooms()));
+        
+        for (int row = 0; row < getMaze().getRows(); row++)
+        {
+            for (int col = 0; col < getMaze().getCols(); col++)
+            {
+                assertTrue(getMaze().getRoom(col, row).getCost() == costs[row * getMaze().getCols() + col]);
+                assertTrue(getMaze().getRoom(col, row).hasVisited());
+            }
+        }
+        
+        //the flood must be the same size as the maze
+        try
+        {
+            MazeHelper.calculateCost(getMaze(), new BitFlood(getMaze().getCols() + 1, getMaze().getRows()));
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+    }
+    
     @Test
     public void locateFinishTest() throws Exception
     {
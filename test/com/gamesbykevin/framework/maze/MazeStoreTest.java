@@ -0,0 +1,214 @@
+package com.gamesbykevin.framework.maze;
+
+import com.gamesbykevin.framework.maze.Room.Wall;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Maze store unit test
+ * @author GOD
+ */
+public class MazeStoreTest
+{
+    //the size of the store
+    private static final int COLUMNS = 7;
+    private static final int ROWS = 5;
+    
+    //our store
+    private MazeStore store;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        MazeStore store = new MazeStore(COLUMNS, ROWS);
+        assertTrue(store.getColumns() == COLUMNS);
+        assertTrue(store.getRows() == ROWS);
+        assertTrue(store.getSize() == COLUMNS * ROWS);
+        
+        //the store must have at least 1 room
+        try
+        {
+            store = new MazeStore(COLUMNS, 0);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+        MazeStore store = new MazeStore(COLUMNS, ROWS);
+        store.dispose();
+        store = null;
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        store = new MazeStore(COLUMNS, ROWS);
+    }
+    
+    @After
+    public void tearDown()
+    {
+        store.dispose();
+        store = null;
+    }
+    
+    @Test
+    public void getIndexTest()
+    {
+        for (int row = 0; row < ROWS; row++)
+        {
+            for (int col = 0; col < COLUMNS; col++)
+            {
+                final int index = store.getIndex(col, row);
+                assertTrue(index == row * COLUMNS + col);
+                assertTrue(store.getColumn(index) == col);
+                assertTrue(store.getRow(index) == row);
+                assertTrue(store.hasBounds(col, row));
+            }
+        }
+        
+        assertFalse(store.hasBounds(-1, 0));
+        assertFalse(store.hasBounds(0, ROWS));
+    }
+    
+    @Test
+    public void getNeighborTest()
+    {
+        final int index = store.getIndex(3, 2);
+        assertTrue(store.getNeighbor(index, Wall.East) == store.getIndex(4, 2));
+        assertTrue(store.getNeighbor(index, Wall.West) == store.getIndex(2, 2));
+        assertTrue(store.getNeighbor(index, Wall.North) == store.getIndex(3, 1));
+        assertTrue(store.getNeighbor(index, Wall.South) == store.getIndex(3, 3));
+        
+        //there are no neighbors outside of the store
+        assertTrue(store.getNeighbor(store.getIndex(0, 0), Wall.West) == -1);
+        assertTrue(store.getNeighbor(store.getIndex(0, 0), Wall.North) == -1);
+        assertTrue(store.getNeighbor(store.getIndex(COLUMNS - 1, 0), Wall.East) == -1);
+        assertTrue(store.getNeighbor(store.getIndex(0, ROWS - 1), Wall.South) == -1);
+        
+        for (Wall wall : Wall.values())
+        {
+            assertTrue(MazeStore.getOpposite(MazeStore.getOpposite(wall)) == wall);
+            assertTrue(store.getNeighbor(store.getNeighbor(index, wall), MazeStore.getOpposite(wall)) == index);
+        }
+    }
+    
+    @Test
+    public void setWallsTest()
+    {
+        assertTrue(store.getModifications() == 0);
+        
+        //only a change is counted
+        assertTrue(store.addWall(0, Wall.North));
+        assertFalse(store.addWall(0, Wall.North));
+        assertTrue(store.hasWall(0, Wall.North));
+        assertTrue(store.getModifications() == 1);
+        
+        assertTrue(store.removeWall(0, Wall.North));
+        assertFalse(store.removeWall(0, Wall.North));
+        assertTrue(store.getModifications() == 2);
+        
+        store.setWallsAll(Room.WALLS_ALL);
+        
+        for (int index = 0; index < store.getSize(); index++)
+        {
+            assertTrue(store.getWalls(index) == Room.WALLS_ALL);
+            assertTrue(store.getWallMasks()[index] == Room.WALLS_ALL);
+        }
+        
+        //bits that aren't walls are ignored
+        assertTrue(store.setWalls(1, -1 & ~Wall.East.getBit()));
+        assertTrue(store.getWalls(1) == (Room.WALLS_ALL & ~Wall.East.getBit()));
+    }
+    
+    @Test
+    public void joinRoomsTest() throws Exception
+    {
+        store.setWallsAll(Room.WALLS_ALL);
+        
+        //the wall is removed from both rooms
+        final int neighbor = store.joinRooms(store.getIndex(2, 2), Wall.South);
+        assertTrue(neighbor == store.getIndex(2, 3));
+        assertFalse(store.hasWall(store.getIndex(2, 2), Wall.South));
+        assertFalse(store.hasWall(neighbor, Wall.North));
+        
+        store.joinRooms(store.getIndex(4, 1), store.getIndex(3, 1));
+        assertFalse(store.hasWall(store.getIndex(4, 1), Wall.West));
+        assertFalse(store.hasWall(store.getIndex(3, 1), Wall.East));
+        
+        //a neighbor outside of the store can't be joined
+        try
+        {
+            store.joinRooms(0, Wall.North);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+        
+        //the rooms must be neighbors
+        try
+        {
+            store.joinRooms(0, store.getIndex(1, 1));
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+    }
+    
+    @Test
+    public void setVisitedTest()
+    {
+        assertTrue(store.getVisitedCount() == 0);
+        
+        //the count only changes when the flag changes
+        store.setVisited(5, true);
+        store.setVisited(5, true);
+        assertTrue(store.hasVisited(5));
+        assertFalse(store.hasVisited(6));
+        assertTrue(store.getVisitedCount() == 1);
+        
+        store.setVisited(5, false);
+        assertTrue(store.getVisitedCount() == 0);
+        
+        store.setVisitedAll(true);
+        assertTrue(store.getVisitedCount() == store.getSize());
+        
+        for (int index = 0; index < store.getSize(); index++)
+        {
+            assertTrue(store.hasVisited(index));
+        }
+        
+        store.setVisitedAll(false);
+        assertTrue(store.getVisitedCount() == 0);
+    }
+    
+    @Test
+    public void setValueTest()
+    {
+        store.setValue(3, 42);
+        assertTrue(store.getValue(3) == 42);
+        assertTrue(store.getValue(4) == 0);
+        
+        store.setValuesAll(7);
+        
+        for (int index = 0; index < store.getSize(); index++)
+        {
+            assertTrue(store.getValue(index) == 7);
+        }
+    }
+}
\ No newline at end of file
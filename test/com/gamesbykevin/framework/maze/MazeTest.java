@@ -11,6 +11,7 @@ import static org.junit.Assert.*;
 
 import java.awt.Graphics;
 import java.awt.image.BufferedImage;
+import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -63,7 +64,7 @@ public class MazeTest
     {
         return this.random;
     }
-
+    
     public Maze getMaze()
     {
         return this.maze;
@@ -97,7 +98,7 @@ public class MazeTest
             for (int row1 = 0; row1 < maze.getRows(); row1++)
             {
                 final Room other = maze.getRoom(col1, row1);
-
+                
                 for (int col = 0; col < maze.getCols(); col++)
                 {
                     for (int row = 0; row < maze.getRows(); row++)
@@ -105,9 +106,9 @@ public class MazeTest
                         //don't check the same location
                         if (col == col1 && row == row1)
                             continue;
-
+                        
                         final Room room = maze.getRoom(col, row);
-
+                        
                         //assume each room has their own id
                         assertFalse(room.hasId(other));
                     }
@@ -232,7 +233,7 @@ public class MazeTest
         assertTrue(maze.getStartCol() == 6);
         assertTrue(maze.getStartRow() == 3);
     }
-
+    
     @Test
     public void getFinishRowTest() throws Exception
     {
@@ -288,7 +289,7 @@ public class MazeTest
     {
         //create new instance, use this for testing
         maze = new Kruskals(COLS, ROWS);
-    
+        
         maze.populateRooms();
         
         for (int col = 0; col < maze.getCols(); col++)
@@ -300,6 +301,102 @@ public class MazeTest
         }
     }
     
+    @Test
+    public void addListenerTest() throws Exception
+    {
+        //count the number of times the walls change
+        final int[] changes = new int[1];
+        
+        final IRoomListener listener = new IRoomListener()
+        {
+            @Override
+            public void onWallChange(final Room room)
+            {
+                changes[0]++;
+            }
+        };
+        
+        maze.addListener(listener);
+        
+        //adding the same listener twice will only notify once
+        maze.addListener(listener);
+        
+        maze.getRoom(0, 0).removeAllWalls();
+        maze.getRoom(0, 0).addWall(Room.Wall.East);
+        assertTrue(changes[0] == 2);
+        
+        //once removed we are no longer notified
+        maze.removeListener(listener);
+        maze.getRoom(0, 0).removeWall(Room.Wall.East);
+        assertTrue(changes[0] == 2);
+    }
+    
+    @Test
+    public void addWallListenerTest() throws Exception
+    {
+        //create new instance, use this for testing
+        maze = new Kruskals(COLS, ROWS);
+        
+        final MazeStore store = maze.getStore();
+        
+        //make sure the wall we test doesn't exist yet
+        store.removeWall(store.getIndex(2, 3), Room.Wall.North);
+        
+        //count the number of times the walls change
+        final int[] changes = new int[1];
+        
+        final IWallListener listener = new IWallListener()
+        {
+            @Override
+            public void onWallChange(final int col, final int row)
+            {
+                assertTrue(col == 2 && row == 3);
+                changes[0]++;
+            }
+        };
+        
+        maze.addWallListener(listener);
+        
+        //adding the same listener twice will only notify once
+        maze.addWallListener(listener);
+        
+        //a change made to the store passes the location
+        final long modifications = maze.getModifications();
+        store.addWall(store.getIndex(2, 3), Room.Wall.North);
+        store.removeWall(store.getIndex(2, 3), Room.Wall.North);
+        assertTrue(changes[0] == 2);
+        assertTrue(maze.getModifications() == modifications + 2);
+        
+        //a change made to a room is also passed
+        maze.getRoom(2, 3).addWall(Room.Wall.North);
+        assertTrue(changes[0] == 3);
+        
+        //once removed we are no longer notified
+        maze.removeWallListener(listener);
+        store.removeWall(store.getIndex(2, 3), Room.Wall.North);
+        assertTrue(changes[0] == 3);
+        
+        maze.dispose();
+    }
+    
+    @Test
+    public void getModificationsTest() throws Exception
+    {
+        final long modifications = maze.getModifications();
+        
+        //a change in any room is counted
+        maze.getRoom(0, 0).removeAllWalls();
+        maze.getRoom(0, 0).addWall(Room.Wall.East);
+        maze.getRoom(1, 1).addWall(Room.Wall.East);
+        assertTrue(maze.getModifications() > modifications);
+        
+        final long current = maze.getModifications();
+        
+        //nothing changed, so the count is the same
+        maze.getRoom(0, 0).addWall(Room.Wall.East);
+        assertTrue(maze.getModifications() == current);
+    }
+    
     @Test
     public void hasBoundsTest() throws Exception
     {
@@ -366,6 +463,94 @@ public class MazeTest
         assertTrue(maze.getRooms()[0].length == COLS);
     }
     
+    @Test
+    public void getStoreTest() throws Exception
+    {
+        //create new instance, use this for testing
+        maze = new Kruskals(COLS, ROWS);
+        
+        final MazeStore store = maze.getStore();
+        assertNotNull(store);
+        assertTrue(store.getColumns() == COLS);
+        assertTrue(store.getRows() == ROWS);
+        
+        //the rooms are views of the store
+        final Room room = maze.getRoom(2, 3);
+        final int index = store.getIndex(2, 3);
+        
+        store.removeWall(index, Room.Wall.East);
+        assertFalse(room.hasWall(Room.Wall.East));
+        
+        room.addWall(Room.Wall.East);
+        assertTrue(store.hasWall(index, Room.Wall.East));
+        
+        room.setCost(12);
+        assertTrue(store.getValue(index) == 12);
+        
+        store.setVisited(index, true);
+        assertTrue(room.hasVisited());
+        
+        //a change made to the store notifies the listeners
+        final int[] changes = new int[1];
+        
+        maze.addListener(new IRoomListener()
+        {
+            @Override
+            public void onWallChange(final Room room)
+            {
+                assertTrue(room.getCol() == 2 && room.getRow() == 3);
+                changes[0]++;
+            }
+        });
+        
+        final long modifications = maze.getModifications();
+        store.removeWall(index, Room.Wall.North);
+        assertTrue(changes[0] == 1);
+        assertTrue(maze.getModifications() == modifications + 1);
+        
+        maze.dispose();
+        assertNull(maze.getStore());
+    }
+    
+    @Test
+    public void getWallMasksTest() throws Exception
+    {
+        //create new instance, use this for testing
+        maze = new Kruskals(COLS, ROWS);
+        
+        while (!maze.isGenerated())
+        {
+            maze.update(random);
+        }
+        
+        final byte[] masks = maze.getWallMasks(null);
+        assertTrue(masks.length == COLS * ROWS);
+        
+        for (int row = 0; row < ROWS; row++)
+        {
+            for (int col = 0; col < COLS; col++)
+            {
+                assertTrue(masks[row * COLS + col] == maze.getRoom(col, row).getWallMask());
+            }
+        }
+        
+        //the walls can be restored from the masks
+        maze.populateRooms();
+        maze.setWallMasks(masks);
+        assertTrue(Arrays.equals(maze.getWallMasks(new byte[COLS * ROWS]), masks));
+        
+        //the array must have room for every room
+        try
+        {
+            maze.getWallMasks(new byte[1]);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+    }
+    
     @Test
     public void getColsTest() throws Exception
     {
@@ -388,7 +573,7 @@ public class MazeTest
     {
         //create new instance, use this for testing
         maze = new Kruskals(COLS, ROWS);
-    
+        
         final int count = maze.getProgress().getCount();
         
         maze.updateProgress();
@@ -460,7 +645,7 @@ public class MazeTest
             for (int row1 = 0; row1 < maze.getRows(); row1++)
             {
                 final Room other = maze.getRoom(col1, row1);
-
+                
                 for (int col = 0; col < maze.getCols(); col++)
                 {
                     for (int row = 0; row < maze.getRows(); row++)
@@ -468,9 +653,9 @@ public class MazeTest
                         //don't check the same location
                         if (col == col1 && row == row1)
                             continue;
-
+                        
                         final Room room = maze.getRoom(col, row);
-
+                        
                         //assume each room has their own id
                         assertFalse(room.hasId(other));
                     }
@@ -494,13 +679,13 @@ public class MazeTest
             for (int row = 0; row < maze.getRows(); row++)
             {
                 final Room room = maze.getRoom(col, row);
-
+                
                 assertNotNull(room);
                 assertNotNull(room.getWalls());
-
+                
                 if (room.getWalls().size() == 4)
                     System.out.println("Room has 4 walls (" + col + "," + row + ")");
-
+                
                 assertTrue(room.getWalls().size() < 4);
             }
         }
@@ -515,7 +700,7 @@ public class MazeTest
         assertNotNull(maze);
         
         System.out.println("Creating Maze " + maze.toString() + " count = " + index);
-
+        
         while (!maze.isGenerated())
         {
             maze.update(getRandom());
@@ -173,6 +173,65 @@ public class RoomTest
         }
     }
     
+    @Test
+    public void setListenerTest()
+    {
+        room = new Room(0,0);
+        
+        assertNull(room.getListener());
+        
+        //count the number of times the walls change
+        final int[] changes = new int[1];
+        
+        room.setListener(new IRoomListener()
+        {
+            @Override
+            public void onWallChange(final Room room)
+            {
+                changes[0]++;
+            }
+        });
+        
+        assertNotNull(room.getListener());
+        
+        //only walls actually added or removed will notify
+        room.addWall(Wall.North);
+        room.addWall(Wall.North);
+        assertTrue(changes[0] == 1);
+        
+        room.removeWall(Wall.North);
+        room.removeWall(Wall.North);
+        assertTrue(changes[0] == 2);
+        
+        room.addAllWalls();
+        assertTrue(changes[0] == 2 + Wall.values().length);
+        
+        room.removeAllWalls();
+        room.removeAllWalls();
+        assertTrue(changes[0] == 3 + Wall.values().length);
+        
+        room.setListener(null);
+        room.addWall(Wall.South);
+        assertTrue(changes[0] == 3 + Wall.values().length);
+    }
+    
+    @Test
+    public void getModificationsTest()
+    {
+        room = new Room(0,0);
+        
+        assertTrue(room.getModifications() == 0);
+        
+        //only walls actually added or removed count
+        room.addWall(Wall.North);
+        room.addWall(Wall.North);
+        assertTrue(room.getModifications() == 1);
+        
+        room.removeWall(Wall.North);
+        room.removeWall(Wall.North);
+        assertTrue(room.getModifications() == 2);
+    }
+    
     @Test
     public void hasWallTest()
     {
@@ -254,6 +313,77 @@ public class RoomTest
         assertTrue(room.getWalls().size() == 2);
     }
     
+    @Test
+    public void getWallMaskTest()
+    {
+        room = new Room(0,0);
+        
+        assertTrue(room.getWallMask() == Room.WALLS_NONE);
+        
+        //each wall has its own bit
+        for (Wall wall : Wall.values())
+        {
+            room.addWall(wall);
+            assertTrue((room.getWallMask() & wall.getBit()) != 0);
+        }
+        
+        assertTrue(room.getWallMask() == Room.WALLS_ALL);
+        
+        room.removeWall(Wall.North);
+        assertTrue(room.getWallMask() == (Room.WALLS_ALL & ~Wall.North.getBit()));
+    }
+    
+    @Test
+    public void setWallMaskTest()
+    {
+        room = new Room(0,0);
+        
+        room.setWallMask(Wall.South.getBit() | Wall.East.getBit());
+        assertTrue(room.hasWall(Wall.South));
+        assertTrue(room.hasWall(Wall.East));
+        assertFalse(room.hasWall(Wall.North));
+        assertFalse(room.hasWall(Wall.West));
+        assertTrue(room.getModifications() == 1);
+        
+        //the same walls don't count as a modification
+        room.setWallMask(Wall.South.getBit() | Wall.East.getBit());
+        assertTrue(room.getModifications() == 1);
+        
+        //bits that aren't walls are ignored
+        room.setWallMask(-1);
+        assertTrue(room.getWallMask() == Room.WALLS_ALL);
+        assertTrue(room.getModifications() == 2);
+    }
+    
+    @Test
+    public void getWallCountTest()
+    {
+        room = new Room(0,0);
+        
+        assertTrue(room.getWallCount() == 0);
+        
+        room.addWall(Wall.West);
+        room.addWall(Wall.North);
+        assertTrue(room.getWallCount() == 2);
+        assertTrue(room.getWalls().size() == 2);
+        
+        //the list contains the walls we added
+        assertTrue(room.getWalls().contains(Wall.West));
+        assertTrue(room.getWalls().contains(Wall.North));
+        assertFalse(room.getWalls().contains(Wall.East));
+        
+        //the list can't be changed
+        try
+        {
+            room.getWalls().add(Wall.East);
+            fail();
+        }
+        catch (UnsupportedOperationException e)
+        {
+            assertFalse(room.hasWall(Wall.East));
+        }
+    }
+    
     @Test
     public void setCostTest()
     {
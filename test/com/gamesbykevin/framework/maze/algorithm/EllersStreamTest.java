@@ -0,0 +1,231 @@
+package com.gamesbykevin.framework.maze.algorithm;
+
+import com.gamesbykevin.framework.maze.BitFlood;
+import com.gamesbykevin.framework.maze.MazeStore;
+import com.gamesbykevin.framework.maze.Room;
+import com.gamesbykevin.framework.maze.Room.Wall;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Ellers stream unit test
+ * @author GOD
+ */
+public class EllersStreamTest
+{
+    //the number of columns in each row
+    private static final int COLUMNS = 75;
+    
+    //the number of rows to create
+    private static final int ROWS = 120;
+    
+    //our stream
+    private EllersStream stream;
+    
+    @BeforeClass
+    public static void setUpClass() throws Exception
+    {
+        EllersStream stream = new EllersStream(COLUMNS);
+        assertTrue(stream.getColumns() == COLUMNS);
+        assertTrue(stream.getRows() == 0);
+        assertFalse(stream.isFinished());
+        
+        //the maze must have at least 1 column
+        try
+        {
+            stream = new EllersStream(0);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+    }
+    
+    @AfterClass
+    public static void tearDownClass() throws Exception
+    {
+        EllersStream stream = new EllersStream(COLUMNS);
+        stream.dispose();
+        stream = null;
+    }
+    
+    @Before
+    public void setUp() throws Exception
+    {
+        stream = new EllersStream(COLUMNS);
+    }
+    
+    @After
+    public void tearDown()
+    {
+        stream.dispose();
+        stream = null;
+    }
+    
+    /**
+     * Create every row of the maze and copy it into a store
+     * @param stream The stream creating the rows
+     * @param rows The number of rows
+     * @param random Object used to make random decisions
+     * @return The store containing the walls of every row
+     * @throws Exception
+     */
+    private static MazeStore createStore(final EllersStream stream, final int rows, final Random random) throws Exception
+    {
+        final MazeStore store = new MazeStore(stream.getColumns(), rows);
+        
+        for (int row = 0; row < rows; row++)
+        {
+            final byte[] walls = stream.next(random, row == rows - 1);
+            
+            assertTrue(walls.length == stream.getColumns());
+            assertTrue(stream.getRows() == row + 1);
+            
+            for (int col = 0; col < walls.length; col++)
+            {
+                store.setWalls(store.getIndex(col, row), walls[col]);
+            }
+        }
+        
+        return store;
+    }
+    
+    @Test
+    public void nextTest() throws Exception
+    {
+        final MazeStore store = createStore(stream, ROWS, new Random(1));
+        
+        assertTrue(stream.isFinished());
+        
+        //no more rows once the last row is created
+        try
+        {
+            stream.next(new Random(), false);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+        
+        int walls = 0;
+        
+        for (int index = 0; index < store.getSize(); index++)
+        {
+            walls += Integer.bitCount(store.getWalls(index));
+            
+            for (Wall wall : Wall.values())
+            {
+                final int neighbor = store.getNeighbor(index, wall);
+                
+                //the outside of the maze is always a wall
+                if (neighbor < 0)
+                {
+                    assertTrue(store.hasWall(index, wall));
+                }
+                else
+                {
+                    //both sides of a passage agree
+                    assertTrue(store.hasWall(index, wall) == store.hasWall(neighbor, MazeStore.getOpposite(wall)));
+                }
+            }
+            
+            //no room is closed off
+            assertTrue(store.getWalls(index) != Room.WALLS_ALL);
+        }
+        
+        //a perfect maze has 1 passage less than the number of rooms
+        assertTrue((4 * store.getSize() - walls) / 2 == store.getSize() - 1);
+        
+        //every room can be reached from the start
+        assertTrue(new BitFlood(store).fill(0, 0) == store.getSize());
+    }
+    
+    @Test
+    public void singleColumnTest() throws Exception
+    {
+        stream = new EllersStream(1);
+        
+        final MazeStore store = createStore(stream, ROWS, new Random(2));
+        
+        //every room is joined to the room below
+        for (int row = 0; row < ROWS - 1; row++)
+        {
+            assertFalse(store.hasWall(row, Wall.South));
+        }
+        
+        assertTrue(new BitFlood(store).fill(0, 0) == ROWS);
+    }
+    
+    @Test
+    public void writeTest() throws Exception
+    {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        
+        for (int row = 0; row < ROWS; row++)
+        {
+            stream.write(output, new Random(row), row == ROWS - 1);
+        }
+        
+        assertTrue(output.size() == ROWS * EllersStream.getPackedLength(COLUMNS));
+        
+        //the same random decisions create the same rows
+        final EllersStream expected = new EllersStream(COLUMNS);
+        final ByteArrayInputStream input = new ByteArrayInputStream(output.toByteArray());
+        final byte[] walls = new byte[COLUMNS];
+        
+        for (int row = 0; row < ROWS; row++)
+        {
+            assertTrue(EllersStream.read(input, walls));
+            assertArrayEquals(expected.next(new Random(row), row == ROWS - 1), walls);
+        }
+        
+        //there are no more rows
+        assertFalse(EllersStream.read(input, walls));
+        
+        //a partial row can't be read
+        try
+        {
+            EllersStream.read(new ByteArrayInputStream(new byte[1]), walls);
+            fail();
+        }
+        catch (Exception e)
+        {
+            assertNotNull(e.getMessage());
+        }
+        
+        expected.dispose();
+    }
+    
+    @Test
+    public void packTest()
+    {
+        final byte[] walls = new byte[COLUMNS];
+        final byte[] packed = new byte[EllersStream.getPackedLength(COLUMNS)];
+        final byte[] unpacked = new byte[COLUMNS];
+        
+        for (int col = 0; col < COLUMNS; col++)
+        {
+            walls[col] = (byte)(col % (Room.WALLS_ALL + 1));
+        }
+        
+        EllersStream.pack(walls, packed);
+        EllersStream.unpack(packed, unpacked);
+        
+        assertArrayEquals(walls, unpacked);
+        
+        //the even column is in the low bits
+        assertTrue((packed[0] & Room.WALLS_ALL) == walls[0]);
+        assertTrue(((packed[0] >> 4) & Room.WALLS_ALL) == walls[1]);
+    }
+}
\ No newline at end of file
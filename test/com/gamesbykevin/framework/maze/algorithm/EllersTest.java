@@ -1,6 +1,7 @@
 package com.gamesbykevin.framework.maze.algorithm;
 
 import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.MazeHelper;
 import com.gamesbykevin.framework.maze.MazeTest;
 import com.gamesbykevin.framework.maze.Room;
 import org.junit.After;
@@ -77,6 +78,31 @@ public class EllersTest extends MazeTest
         }
     }
     
+    @Test
+    public void wideMazeTest() throws Exception
+    {
+        final int cols = 10000, rows = 30;
+        
+        maze = new Ellers(cols, rows);
+        
+        //generate the maze
+        super.generateMazeTest(maze, 0);
+        
+        //a perfect maze has 1 passage less than the number of rooms
+        int walls = 0;
+        
+        for (int index = 0; index < cols * rows; index++)
+        {
+            walls += Integer.bitCount(maze.getStore().getWalls(index));
+        }
+        
+        assertTrue((4 * cols * rows - walls) / 2 == cols * rows - 1);
+        
+        //every room can be reached from the start
+        MazeHelper.calculateCost(maze);
+        assertTrue(maze.getStore().getVisitedCount() == cols * rows);
+    }
+    
     @Test
     @Override
     public void disposeTest() throws Exception
@@ -1,6 +1,7 @@
 package com.gamesbykevin.framework.maze.algorithm;
 
 import com.gamesbykevin.framework.maze.Maze;
+import com.gamesbykevin.framework.maze.MazeHelper;
 import com.gamesbykevin.framework.maze.MazeTest;
 import com.gamesbykevin.framework.maze.Room;
 import org.junit.After;
@@ -77,6 +78,41 @@ public class KruskalsTest extends MazeTest
         }
     }
     
+    @Test
+    public void perfectMazeTest() throws Exception
+    {
+        final int cols = 200, rows = 150;
+        
+        maze = new Kruskals(cols, rows);
+        
+        //each update joins 1 pair of rooms
+        for (int update = 1; update < cols * rows; update++)
+        {
+            assertFalse(maze.isGenerated());
+            maze.update(getRandom());
+            assertTrue(maze.getProgress().getCount() == update + 1);
+        }
+        
+        assertTrue(maze.isGenerated());
+        
+        //a perfect maze has 1 passage less than the number of rooms
+        int walls = 0;
+        
+        for (int index = 0; index < cols * rows; index++)
+        {
+            walls += Integer.bitCount(maze.getStore().getWalls(index));
+            
+            //the set plane has been reset
+            assertTrue(maze.getStore().getValue(index) == Room.COST_MINIMUM);
+        }
+        
+        assertTrue((4 * cols * rows - walls) / 2 == cols * rows - 1);
+        
+        //every room can be reached from the start
+        MazeHelper.calculateCost(maze);
+        assertTrue(maze.getStore().getVisitedCount() == cols * rows);
+    }
+    
     @Test
     @Override
     public void disposeTest() throws Exception